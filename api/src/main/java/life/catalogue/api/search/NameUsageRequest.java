@@ -34,6 +34,12 @@ public abstract class NameUsageRequest {
    */
   public static final String IS_NULL = "_NULL";
 
+  /**
+   * Query parameter for cursor based paging. Use {@link #CURSOR_START} to open a new cursor.
+   */
+  public static final String CURSOR_PARAM = "cursor";
+  public static final String CURSOR_START = "*";
+
   /**
    * http query parameters that are true request parameters, but should not considered to be filters.
    */
@@ -44,6 +50,7 @@ public abstract class NameUsageRequest {
     // for paging
     non.add("limit");
     non.add("offset");
+    non.add(CURSOR_PARAM);
     // search request classes
     for (Class requestClass : List.of(NameUsageRequest.class, NameUsageSearchRequest.class, NameUsageSuggestRequest.class)) {
       for (Field f : FieldUtils.getFieldsWithAnnotation(requestClass, QueryParam.class)) {
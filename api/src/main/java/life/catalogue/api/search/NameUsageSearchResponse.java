@@ -9,6 +9,8 @@ import java.util.function.Supplier;
 public class NameUsageSearchResponse extends ResultPage<NameUsageWrapper> {
 
   private final Map<NameUsageSearchParameter, Set<FacetValue<?>>> facets;
+  // cursor to request the next page with, only used for cursor based paging
+  private String next;
 
   public NameUsageSearchResponse() {
     super();
@@ -35,6 +37,17 @@ public class NameUsageSearchResponse extends ResultPage<NameUsageWrapper> {
     return facets;
   }
 
+  /**
+   * @return the opaque cursor to fetch the next page with or null if this is the last page or the response was not cursor based.
+   */
+  public String getNext() {
+    return next;
+  }
+
+  public void setNext(String next) {
+    this.next = next;
+  }
+
   @Override
   public boolean equals(Object o) {
     if (this == o)
@@ -44,11 +57,11 @@ public class NameUsageSearchResponse extends ResultPage<NameUsageWrapper> {
     if (!super.equals(o))
       return false;
     NameUsageSearchResponse that = (NameUsageSearchResponse) o;
-    return Objects.equals(facets, that.facets);
+    return Objects.equals(facets, that.facets) && Objects.equals(next, that.next);
   }
 
   @Override
   public int hashCode() {
-    return Objects.hash(super.hashCode(), facets);
+    return Objects.hash(super.hashCode(), facets, next);
   }
 }
@@ -14,6 +14,19 @@ public class NameUsageSuggestRequest extends NameUsageRequest {
   @QueryParam("limit")
   private Integer limit; // Desired number of suggestions
 
+  public NameUsageSuggestRequest() {
+  }
+
+  /**
+   * Creates a copy of the provided NameUsageSuggestRequest.
+   * The filter values are copied by reference, see {@link NameUsageSearchRequest#NameUsageSearchRequest(NameUsageSearchRequest)}.
+   */
+  public NameUsageSuggestRequest(NameUsageSuggestRequest other) {
+    super(other);
+    this.accepted = other.accepted;
+    this.limit = other.limit;
+  }
+
   @Override
   @JsonProperty(access = JsonProperty.Access.READ_ONLY)
   public SearchType getSearchType() {
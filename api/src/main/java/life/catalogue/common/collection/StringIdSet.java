@@ -0,0 +1,195 @@
+package life.catalogue.common.collection;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import it.unimi.dsi.fastutil.HashCommon;
+
+/**
+ * A memory efficient set of string identifiers which can only grow.
+ * Ids are stored as length prefixed UTF-8 bytes in large byte pages and are looked up
+ * via an open addressing hash table of their positions.
+ * Compared to a HashSet of strings there are no objects per id,
+ * so millions of ids need just a fraction of the heap.
+ *
+ * Nulls are ignored. Ids can be added concurrently by several threads,
+ * but the set must not be modified while being iterated.
+ */
+public class StringIdSet implements Iterable<String> {
+  private static final int PAGE_SIZE = 64 * 1024;
+  // marks the end of a page that has no room for the next id
+  private static final int END_OF_PAGE = 0xFFFF;
+  private static final int MAX_LENGTH = END_OF_PAGE - 1;
+  private static final float LOAD_FACTOR = 0.75f;
+  private final List<byte[]> pages = new ArrayList<>();
+  private byte[] page;
+  private int pagePos;
+  // positions of all ids, shifted by one so zero marks a free slot
+  private long[] table = new long[16];
+  private int mask = table.length - 1;
+  private int size;
+
+  public synchronized int size() {
+    return size;
+  }
+
+  public synchronized boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * @return true if the id was not yet contained in the set
+   */
+  public synchronized boolean add(String id) {
+    if (id == null) {
+      return false;
+    }
+    byte[] bytes = id.getBytes(StandardCharsets.UTF_8);
+    if (bytes.length > MAX_LENGTH) {
+      throw new IllegalArgumentException("Identifier exceeds " + MAX_LENGTH + " bytes: " + id.substring(0, 100) + "...");
+    }
+    int slot = find(bytes);
+    if (table[slot] != 0) {
+      return false;
+    }
+    table[slot] = store(bytes) + 1;
+    if (++size > table.length * LOAD_FACTOR) {
+      rehash(table.length * 2);
+    }
+    return true;
+  }
+
+  public synchronized boolean contains(String id) {
+    if (id == null || size == 0) {
+      return false;
+    }
+    return table[find(id.getBytes(StandardCharsets.UTF_8))] != 0;
+  }
+
+  /**
+   * @return the approximate number of heap bytes used by the set
+   */
+  public synchronized long memory() {
+    return (long) pages.size() * PAGE_SIZE + (long) table.length * Long.BYTES;
+  }
+
+  /**
+   * @return the slot holding the given id or the free slot it would be stored in
+   */
+  private int find(byte[] bytes) {
+    int slot = hash(bytes, 0, bytes.length) & mask;
+    while (table[slot] != 0 && !equals(table[slot] - 1, bytes)) {
+      slot = (slot + 1) & mask;
+    }
+    return slot;
+  }
+
+  private long store(byte[] bytes) {
+    if (page == null || pagePos + 2 + bytes.length > PAGE_SIZE) {
+      if (page != null && pagePos + 2 <= PAGE_SIZE) {
+        writeLength(page, pagePos, END_OF_PAGE);
+      }
+      page = new byte[PAGE_SIZE];
+      pages.add(page);
+      pagePos = 0;
+    }
+    long pos = (long) (pages.size() - 1) * PAGE_SIZE + pagePos;
+    writeLength(page, pagePos, bytes.length);
+    System.arraycopy(bytes, 0, page, pagePos + 2, bytes.length);
+    pagePos += 2 + bytes.length;
+    return pos;
+  }
+
+  private boolean equals(long pos, byte[] bytes) {
+    byte[] p = pages.get((int) (pos / PAGE_SIZE));
+    int off = (int) (pos % PAGE_SIZE);
+    if (readLength(p, off) != bytes.length) {
+      return false;
+    }
+    off += 2;
+    for (int i = 0; i < bytes.length; i++) {
+      if (p[off + i] != bytes[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private void rehash(int capacity) {
+    long[] old = table;
+    table = new long[capacity];
+    mask = capacity - 1;
+    for (long x : old) {
+      if (x != 0) {
+        byte[] p = pages.get((int) ((x - 1) / PAGE_SIZE));
+        int off = (int) ((x - 1) % PAGE_SIZE);
+        int slot = hash(p, off + 2, readLength(p, off)) & mask;
+        while (table[slot] != 0) {
+          slot = (slot + 1) & mask;
+        }
+        table[slot] = x;
+      }
+    }
+  }
+
+  private static int hash(byte[] bytes, int off, int len) {
+    int h = 1;
+    for (int i = off; i < off + len; i++) {
+      h = 31 * h + bytes[i];
+    }
+    return HashCommon.mix(h);
+  }
+
+  private static void writeLength(byte[] p, int off, int len) {
+    p[off] = (byte) (len >>> 8);
+    p[off + 1] = (byte) len;
+  }
+
+  private static int readLength(byte[] p, int off) {
+    return ((p[off] & 0xFF) << 8) | (p[off + 1] & 0xFF);
+  }
+
+  /**
+   * Iterates over all ids in the order they were added.
+   */
+  @Override
+  public synchronized Iterator<String> iterator() {
+    final int pageCount = pages.size();
+    final int lastPageEnd = pagePos;
+    return new Iterator<>() {
+      int pageIdx = 0;
+      int off = 0;
+
+      private int end() {
+        return pageIdx == pageCount - 1 ? lastPageEnd : PAGE_SIZE;
+      }
+
+      @Override
+      public boolean hasNext() {
+        while (pageIdx < pageCount) {
+          if (off + 2 <= end() && readLength(pages.get(pageIdx), off) != END_OF_PAGE) {
+            return true;
+          }
+          pageIdx++;
+          off = 0;
+        }
+        return false;
+      }
+
+      @Override
+      public String next() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+        byte[] p = pages.get(pageIdx);
+        int len = readLength(p, off);
+        String id = new String(p, off + 2, len, StandardCharsets.UTF_8);
+        off += 2 + len;
+        return id;
+      }
+    };
+  }
+}
@@ -6,6 +6,8 @@ import java.util.zip.*;
 
 import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
 import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.io.filefilter.HiddenFileFilter;
@@ -163,6 +165,39 @@ public class CompressionUtil {
     zipFiles(files, dir, zipFile);
   }
   
+  /**
+   * Zip a directory with all files, including subdirectories, together with already compressed entries.
+   * The compressed entries are copied into the archive as they are, without being inflated or deflated again.
+   * Temporary files backing the compressed entries must not reside in the zipped directory.
+   *
+   * @param dir     the directory to zip
+   * @param entries closed, already deflated entries to include
+   * @param zipFile the zipped file
+   */
+  public static void zipDir(File dir, Collection<DeflatedZipEntry> entries, File zipFile) throws IOException {
+    Collection<File> files = org.apache.commons.io.FileUtils.listFiles(dir, null, true);
+    try (ZipArchiveOutputStream out = new ZipArchiveOutputStream(new BufferedOutputStream(new FileOutputStream(zipFile)))) {
+      for (DeflatedZipEntry e : entries) {
+        LOG.debug("Adding deflated entry {} to archive", e.getName());
+        e.copyTo(out);
+      }
+      for (File f : files) {
+        LOG.debug("Adding file {} to archive", f);
+        String zipPath = StringUtils.removeStart(f.getAbsolutePath(), dir.getAbsolutePath() + File.separator);
+        ZipArchiveEntry entry = new ZipArchiveEntry(f, zipPath);
+        out.putArchiveEntry(entry);
+        try (InputStream in = new BufferedInputStream(new FileInputStream(f), BUFFER)) {
+          IOUtils.copy(in, out);
+        }
+        out.closeArchiveEntry();
+      }
+      out.finish();
+    } catch (IOException e) {
+      LOG.error("IOException while zipping directory {}", dir);
+      throw e;
+    }
+  }
+
   public static void zipFile(File file, File zipFile) throws IOException {
     zipFiles(Set.of(file), file.getParentFile(), zipFile);
   }
@@ -0,0 +1,110 @@
+package life.catalogue.common.io;
+
+import java.io.*;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.ZipEntry;
+
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+
+/**
+ * An output stream for a single zip entry which deflates all written data right away into a temporary file.
+ * The compressed data is later copied as a raw entry into the final zip archive without being inflated or deflated again.
+ *
+ * This allows many entries of the same archive to be written and compressed concurrently by different threads,
+ * using only fixed size buffers and never keeping an uncompressed copy on disk.
+ */
+public class DeflatedZipEntry extends OutputStream {
+  private static final int BUFFER = 64 * 1024;
+  private final String name;
+  private final File file;
+  private final CRC32 crc = new CRC32();
+  private final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+  private final DeflaterOutputStream out;
+  private long size;
+  private boolean closed;
+
+  /**
+   * @param name path of the entry within the final zip archive
+   * @param file temporary file to keep the compressed data in
+   */
+  public DeflatedZipEntry(String name, File file) throws IOException {
+    this.name = name;
+    this.file = file;
+    file.getParentFile().mkdirs();
+    out = new DeflaterOutputStream(new BufferedOutputStream(new FileOutputStream(file), BUFFER), deflater, BUFFER);
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * @return number of uncompressed bytes written so far
+   */
+  public long getSize() {
+    return size;
+  }
+
+  @Override
+  public void write(int b) throws IOException {
+    crc.update(b);
+    size++;
+    out.write(b);
+  }
+
+  @Override
+  public void write(byte[] b, int off, int len) throws IOException {
+    crc.update(b, off, len);
+    size += len;
+    out.write(b, off, len);
+  }
+
+  @Override
+  public void flush() throws IOException {
+    out.flush();
+  }
+
+  /**
+   * Finishes the compression. Closing the entry more than once has no effect.
+   */
+  @Override
+  public void close() throws IOException {
+    if (!closed) {
+      closed = true;
+      try {
+        out.finish();
+        out.close();
+      } finally {
+        deflater.end();
+      }
+    }
+  }
+
+  /**
+   * Copies the already compressed entry into a zip archive.
+   * The entry must have been closed before.
+   */
+  public void copyTo(ZipArchiveOutputStream zip) throws IOException {
+    if (!closed) {
+      throw new IllegalStateException("Zip entry " + name + " is still being written");
+    }
+    ZipArchiveEntry entry = new ZipArchiveEntry(name);
+    entry.setMethod(ZipEntry.DEFLATED);
+    entry.setCrc(crc.getValue());
+    entry.setSize(size);
+    entry.setCompressedSize(file.length());
+    try (InputStream in = new BufferedInputStream(new FileInputStream(file), BUFFER)) {
+      zip.addRawArchiveEntry(entry, in);
+    }
+  }
+
+  /**
+   * Removes the temporary file with the compressed data.
+   */
+  public void delete() {
+    file.delete();
+  }
+}
@@ -0,0 +1,168 @@
+package life.catalogue.common.io;
+
+import life.catalogue.api.vocab.TabularFormat;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * A fast TSV or CSV row writer for streaming large responses.
+ * Values are escaped char by char straight into a single reused char buffer,
+ * which is only passed on to the underlying writer when it is full or flushed.
+ * No objects are created per row, but the buffer must be flushed before the underlying writer is used otherwise.
+ *
+ * TSV values are escaped with a backslash and trimmed like the TabWriter does, which also skips rows without any value.
+ * CSV values are written like the univocity based CsvWriter does with its default settings:
+ * leading and trailing whitespace is removed, values are quoted as in RFC 4180 if they contain a comma, quote or line break
+ * and rows without any value are kept as empty columns.
+ */
+public class DelimitedRowWriter implements RowWriter, Flushable {
+  private static final int BUFFER_SIZE = 32 * 1024;
+  private final Writer writer;
+  private final boolean csv;
+  private final char[] buffer = new char[BUFFER_SIZE];
+  private int pos = 0;
+  private long rows = 0;
+
+  public DelimitedRowWriter(Writer writer, TabularFormat format) {
+    this.writer = writer;
+    this.csv = format == TabularFormat.CSV;
+  }
+
+  @Override
+  public void write(String[] row) throws IOException {
+    if (row == null || row.length == 0 || (!csv && isEmpty(row))) {
+      return;
+    }
+    for (int i = 0; i < row.length; i++) {
+      if (i > 0) {
+        put(csv ? ',' : '\t');
+      }
+      if (row[i] != null) {
+        if (csv) {
+          writeCsv(row[i]);
+        } else {
+          writeTsv(row[i]);
+        }
+      }
+    }
+    put('\n');
+    rows++;
+  }
+
+  private static boolean isEmpty(String[] row) {
+    for (String x : row) {
+      if (x != null) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Escapes backslashes and control characters and removes leading and trailing spaces.
+   */
+  private void writeTsv(String x) throws IOException {
+    int spaces = 0;
+    boolean started = false;
+    for (int i = 0; i < x.length(); i++) {
+      char c = x.charAt(i);
+      if (c == ' ') {
+        spaces++;
+        continue;
+      }
+      if (started) {
+        while (spaces > 0) {
+          put(' ');
+          spaces--;
+        }
+      }
+      spaces = 0;
+      started = true;
+      switch (c) {
+        case '\\': put('\\', '\\'); break;
+        case '\b': put('\\', 'b'); break;
+        case '\f': put('\\', 'f'); break;
+        case '\n': put('\\', 'n'); break;
+        case '\r': put('\\', 'r'); break;
+        case '\t': put('\\', 't'); break;
+        case '\u000b': put('\\', 'v'); break;
+        default: put(c);
+      }
+    }
+  }
+
+  /**
+   * Removes leading and trailing whitespace, i.e. all chars up to a space, and quotes the value if needed.
+   */
+  private void writeCsv(String x) throws IOException {
+    int start = 0;
+    int end = x.length();
+    while (start < end && x.charAt(start) <= ' ') {
+      start++;
+    }
+    while (end > start && x.charAt(end - 1) <= ' ') {
+      end--;
+    }
+    boolean quote = false;
+    for (int i = start; i < end && !quote; i++) {
+      char c = x.charAt(i);
+      quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+    }
+    if (quote) {
+      put('"');
+      for (int i = start; i < end; i++) {
+        char c = x.charAt(i);
+        if (c == '"') {
+          put('"');
+        }
+        put(c);
+      }
+      put('"');
+    } else {
+      for (int i = start; i < end; i++) {
+        put(x.charAt(i));
+      }
+    }
+  }
+
+  private void put(char c1, char c2) throws IOException {
+    put(c1);
+    put(c2);
+  }
+
+  private void put(char c) throws IOException {
+    if (pos == buffer.length) {
+      flushBuffer();
+    }
+    buffer[pos++] = c;
+  }
+
+  private void flushBuffer() throws IOException {
+    writer.write(buffer, 0, pos);
+    pos = 0;
+  }
+
+  /**
+   * @return number of rows written so far
+   */
+  public long getRows() {
+    return rows;
+  }
+
+  /**
+   * Writes all buffered rows to the underlying writer and flushes it.
+   */
+  @Override
+  public void flush() throws IOException {
+    flushBuffer();
+    writer.flush();
+  }
+
+  @Override
+  public void close() throws IOException {
+    flushBuffer();
+    writer.close();
+  }
+}
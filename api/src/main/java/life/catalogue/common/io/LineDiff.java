@@ -0,0 +1,298 @@
+package life.catalogue.common.io;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Diffs of two sorted sequences of lines, streamed with a single merge pass over both inputs.
+ * All lines must be sorted by their unicode code points, i.e. the binary order of their UTF-8 bytes
+ * which is also the C collation of postgres and unix sort.
+ *
+ * For sorted input a longest common subsequence is just the intersection of both inputs,
+ * so the unified diff produced is the same as the one of the unix diff tool.
+ * Only for repeated lines the tool might pick a different, but equally valid, occurrence as changed.
+ */
+public class LineDiff {
+
+  /**
+   * Orders strings by their unicode code points.
+   */
+  public static final Comparator<String> ORDER = LineDiff::compare;
+
+  private LineDiff() {
+  }
+
+  public static int compare(String s1, String s2) {
+    int i1 = 0;
+    int i2 = 0;
+    while (i1 < s1.length() && i2 < s2.length()) {
+      int c1 = s1.codePointAt(i1);
+      int c2 = s2.codePointAt(i2);
+      if (c1 != c2) {
+        return Integer.compare(c1, c2);
+      }
+      i1 += Character.charCount(c1);
+      i2 += Character.charCount(c2);
+    }
+    return Integer.compare(s1.length() - i1, s2.length() - i2);
+  }
+
+  /**
+   * @return true if all lines are in code point order
+   */
+  public static boolean isSorted(Iterator<String> lines) {
+    String prev = null;
+    while (lines.hasNext()) {
+      String line = lines.next();
+      if (prev != null && compare(prev, line) > 0) {
+        return false;
+      }
+      prev = line;
+    }
+    return true;
+  }
+
+  /**
+   * Passes all distinct lines only found in the first sequence to the deleted consumer
+   * and all distinct lines only found in the second one to the inserted consumer.
+   */
+  public static void setDiff(Iterator<String> lines1, Iterator<String> lines2, Consumer<String> deleted, Consumer<String> inserted) {
+    Lines l1 = new Lines(lines1, true);
+    Lines l2 = new Lines(lines2, true);
+    while (l1.line != null || l2.line != null) {
+      int cmp = l1.line == null ? 1 : l2.line == null ? -1 : compare(l1.line, l2.line);
+      if (cmp == 0) {
+        l1.next();
+        l2.next();
+      } else if (cmp < 0) {
+        deleted.accept(l1.line);
+        l1.next();
+      } else {
+        inserted.accept(l2.line);
+        l2.next();
+      }
+    }
+  }
+
+  /**
+   * Writes a unified diff of two sorted sequences of lines ignoring blank lines,
+   * just like <pre>diff -B -U context</pre> would.
+   * Nothing is written if both sequences are the same.
+   *
+   * Only a single hunk is kept in memory at any time.
+   *
+   * @param context number of unchanged lines to show around changes
+   */
+  public static void unifiedDiff(Iterator<String> lines1, String label1, Iterator<String> lines2, String label2, int context, Writer out) throws IOException {
+    UnifiedDiff udiff = new UnifiedDiff(label1, label2, context, out);
+    Lines l1 = new Lines(lines1, false);
+    Lines l2 = new Lines(lines2, false);
+    try {
+      while (l1.line != null || l2.line != null) {
+        int cmp = l1.line == null ? 1 : l2.line == null ? -1 : compare(l1.line, l2.line);
+        if (cmp == 0) {
+          udiff.same(l1.line);
+          l1.next();
+          l2.next();
+        } else if (cmp < 0) {
+          udiff.deleted(l1.line);
+          l1.next();
+        } else {
+          udiff.inserted(l2.line);
+          l2.next();
+        }
+      }
+      udiff.finish();
+
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+  }
+
+  /**
+   * Iterates over non blank lines, verifying they are sorted.
+   */
+  private static class Lines {
+    private final Iterator<String> iter;
+    private final boolean distinct;
+    String line;
+
+    Lines(Iterator<String> iter, boolean distinct) {
+      this.iter = iter;
+      this.distinct = distinct;
+      next();
+    }
+
+    void next() {
+      String prev = line;
+      line = null;
+      while (iter.hasNext()) {
+        String x = iter.next();
+        if (x.isEmpty()) continue;
+        if (prev != null) {
+          int cmp = compare(prev, x);
+          if (cmp > 0) {
+            throw new IllegalStateException("Lines are not sorted: " + x + " follows " + prev);
+          } else if (cmp == 0 && distinct) {
+            continue;
+          }
+        }
+        line = x;
+        break;
+      }
+    }
+  }
+
+  private static class UnifiedDiff {
+    private final String label1;
+    private final String label2;
+    private final int context;
+    private final Writer out;
+    private boolean header;
+    // line numbers of the last consumed line of both inputs
+    private int n1;
+    private int n2;
+    // unchanged lines since the last hunk, at most context many
+    private final Deque<String> before = new ArrayDeque<>();
+    // current hunk, null if none is open
+    private List<String> hunk;
+    private int start1;
+    private int start2;
+    private int count1;
+    private int count2;
+    // unchanged lines since the last change of the current hunk
+    private final List<String> pending = new ArrayList<>();
+    // the current block of changes
+    private final List<String> dels = new ArrayList<>();
+    private final List<String> ins = new ArrayList<>();
+
+    UnifiedDiff(String label1, String label2, int context, Writer out) {
+      this.label1 = label1;
+      this.label2 = label2;
+      this.context = context;
+      this.out = out;
+    }
+
+    void same(String line) {
+      n1++;
+      n2++;
+      if (hunk == null) {
+        if (context > 0) {
+          if (before.size() == context) {
+            before.removeFirst();
+          }
+          before.addLast(line);
+        }
+      } else {
+        flushChanges();
+        pending.add(line);
+        if (pending.size() > 2 * context) {
+          closeHunk();
+        }
+      }
+    }
+
+    void deleted(String line) {
+      change();
+      n1++;
+      dels.add(line);
+      count1++;
+    }
+
+    void inserted(String line) {
+      change();
+      n2++;
+      ins.add(line);
+      count2++;
+    }
+
+    private void change() {
+      if (hunk == null) {
+        hunk = new ArrayList<>();
+        start1 = n1 - before.size();
+        start2 = n2 - before.size();
+        count1 = 0;
+        count2 = 0;
+        for (String b : before) {
+          context(b);
+        }
+        before.clear();
+      } else if (!pending.isEmpty()) {
+        for (String p : pending) {
+          context(p);
+        }
+        pending.clear();
+      }
+    }
+
+    private void context(String line) {
+      hunk.add(" " + line);
+      count1++;
+      count2++;
+    }
+
+    private void flushChanges() {
+      for (String d : dels) {
+        hunk.add("-" + d);
+      }
+      for (String i : ins) {
+        hunk.add("+" + i);
+      }
+      dels.clear();
+      ins.clear();
+    }
+
+    private void closeHunk() {
+      flushChanges();
+      int trailing = Math.min(context, pending.size());
+      for (String p : pending.subList(0, trailing)) {
+        context(p);
+      }
+      for (String p : pending.subList(Math.max(trailing, pending.size() - context), pending.size())) {
+        before.addLast(p);
+      }
+      pending.clear();
+      write();
+      hunk = null;
+    }
+
+    void finish() throws IOException {
+      if (hunk != null) {
+        closeHunk();
+      }
+      out.flush();
+    }
+
+    private void write() {
+      try {
+        if (!header) {
+          header = true;
+          out.write("--- " + label1 + "\n");
+          out.write("+++ " + label2 + "\n");
+        }
+        out.write("@@ -" + range(start1, count1) + " +" + range(start2, count2) + " @@\n");
+        for (String line : hunk) {
+          out.write(line);
+          out.write('\n');
+        }
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+
+    /**
+     * @param start number of lines before the hunk
+     */
+    private static String range(int start, int count) {
+      if (count == 0) {
+        return start + ",0";
+      } else if (count == 1) {
+        return String.valueOf(start + 1);
+      }
+      return (start + 1) + "," + count;
+    }
+  }
+}
@@ -0,0 +1,113 @@
+package life.catalogue.common.io;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import org.apache.commons.io.FileUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Sorts lines of text in code point order, see {@link LineDiff#ORDER}.
+ * Large inputs are sorted in chunks which are written to temporary files and merged afterwards,
+ * so memory usage is limited by the chunk size.
+ */
+public class LineSorter {
+  private static final Logger LOG = LoggerFactory.getLogger(LineSorter.class);
+  private static final int CHUNK_SIZE = 500_000;
+
+  private LineSorter() {
+  }
+
+  public static void sort(BufferedReader in, File out) throws IOException {
+    sort(in, out, CHUNK_SIZE);
+  }
+
+  /**
+   * @param chunkSize maximum number of lines to sort in memory
+   */
+  static void sort(BufferedReader in, File out, int chunkSize) throws IOException {
+    File tmpDir = new File(out.getParentFile(), out.getName() + "-chunks");
+    try {
+      List<File> chunks = new ArrayList<>();
+      List<String> lines = new ArrayList<>();
+      String line;
+      while ((line = in.readLine()) != null) {
+        lines.add(line);
+        if (lines.size() >= chunkSize) {
+          chunks.add(writeChunk(lines, new File(tmpDir, chunks.size() + ".txt")));
+        }
+      }
+      if (chunks.isEmpty()) {
+        writeChunk(lines, out);
+        return;
+      }
+      if (!lines.isEmpty()) {
+        chunks.add(writeChunk(lines, new File(tmpDir, chunks.size() + ".txt")));
+      }
+      LOG.debug("Merge {} sorted chunks into {}", chunks.size(), out);
+      merge(chunks, out);
+
+    } finally {
+      FileUtils.deleteQuietly(tmpDir);
+    }
+  }
+
+  private static File writeChunk(List<String> lines, File f) throws IOException {
+    lines.sort(LineDiff.ORDER);
+    f.getParentFile().mkdirs();
+    try (BufferedWriter w = UTF8IoUtils.writerFromFile(f)) {
+      for (String l : lines) {
+        w.write(l);
+        w.write('\n');
+      }
+    }
+    lines.clear();
+    return f;
+  }
+
+  private static class Chunk {
+    final BufferedReader reader;
+    String line;
+
+    Chunk(File f) throws IOException {
+      reader = UTF8IoUtils.readerFromFile(f);
+      line = reader.readLine();
+    }
+  }
+
+  private static void merge(List<File> chunks, File out) throws IOException {
+    PriorityQueue<Chunk> queue = new PriorityQueue<>(chunks.size(), Comparator.comparing(c -> c.line, LineDiff.ORDER));
+    try (BufferedWriter w = UTF8IoUtils.writerFromFile(out)) {
+      for (File f : chunks) {
+        Chunk c = new Chunk(f);
+        if (c.line == null) {
+          c.reader.close();
+        } else {
+          queue.add(c);
+        }
+      }
+      while (!queue.isEmpty()) {
+        Chunk c = queue.poll();
+        w.write(c.line);
+        w.write('\n');
+        c.line = c.reader.readLine();
+        if (c.line == null) {
+          c.reader.close();
+        } else {
+          queue.add(c);
+        }
+      }
+    } finally {
+      for (Chunk c : queue) {
+        c.reader.close();
+      }
+    }
+  }
+}
@@ -12,6 +12,7 @@ import org.gbif.dwc.terms.Term;
 import java.io.File;
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -21,6 +22,8 @@ import org.slf4j.LoggerFactory;
 
 public class TermWriter implements AutoCloseable {
   private static Logger LOG = LoggerFactory.getLogger(TermWriter.class);
+  // enum values as written, formatting them is rather expensive
+  private static final Map<Enum<?>, String> ENUM_NAMES = new ConcurrentHashMap<>();
   protected final Term rowType;
   protected final Map<Term, Integer> cols;
   protected String[] row;
@@ -64,9 +67,13 @@ public class TermWriter implements AutoCloseable {
     counter=0;
   }
 
+  /**
+   * Writes the current row and starts a new, empty one.
+   * The row array is reused, so row writers must not keep it.
+   */
   public void next() throws IOException {
     writer.write(row);
-    row = new String[cols.size()];
+    Arrays.fill(row, null);
     if (++counter % 100000 == 0) {
       LOG.debug("Written {} {}s", counter, rowType.simpleName());
     }
@@ -174,7 +181,7 @@ public class TermWriter implements AutoCloseable {
 
   public void set(Term term, Enum<?> value) {
     if (value != null) {
-      set(term, PermissiveEnumSerde.enumValueName(value));
+      set(term, ENUM_NAMES.computeIfAbsent(value, PermissiveEnumSerde::enumValueName));
     }
   }
 
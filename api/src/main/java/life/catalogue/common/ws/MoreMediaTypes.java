@@ -33,6 +33,9 @@ public class MoreMediaTypes {
   public final static String APP_BIBTEX = "application/x-bibtex";
   public final static MediaType APP_BIBTEX_TYPE = new MediaType("application", "x-bibtex");
 
+  public final static String APP_NDJSON = "application/x-ndjson";
+  public final static MediaType APP_NDJSON_TYPE = new MediaType("application", "x-ndjson");
+
   public final static String APP_XLS   = "application/vnd.ms-excel";
   public final static String APP_XLSX  = "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet";
 
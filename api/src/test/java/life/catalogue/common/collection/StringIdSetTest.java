@@ -0,0 +1,55 @@
+package life.catalogue.common.collection;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class StringIdSetTest {
+
+  @Test
+  public void addContains() {
+    var ids = new StringIdSet();
+    assertTrue(ids.isEmpty());
+    assertFalse(ids.contains(null));
+    assertFalse(ids.add(null));
+    assertTrue(ids.add("abc"));
+    assertTrue(ids.add("Zoë"));
+    assertTrue(ids.add(""));
+    assertFalse(ids.add("abc"));
+    assertEquals(3, ids.size());
+    assertTrue(ids.contains("abc"));
+    assertTrue(ids.contains("Zoë"));
+    assertTrue(ids.contains(""));
+    assertFalse(ids.contains("abcd"));
+    assertFalse(ids.contains(null));
+  }
+
+  /**
+   * Compare with a regular set across many pages and rehashes.
+   */
+  @Test
+  public void compareWithHashSet() {
+    var ids = new StringIdSet();
+    Set<String> expected = new LinkedHashSet<>();
+    Random rnd = new Random(17);
+    for (int i = 0; i < 200000; i++) {
+      String id = i % 1000 == 0 ? "x".repeat(rnd.nextInt(5000)) : Integer.toString(rnd.nextInt(100000), 36);
+      assertEquals(expected.add(id), ids.add(id));
+    }
+    assertEquals(expected.size(), ids.size());
+    for (String id : expected) {
+      assertTrue(ids.contains(id));
+    }
+    // iteration follows the insertion order
+    List<String> iterated = new ArrayList<>();
+    ids.forEach(iterated::add);
+    assertEquals(new ArrayList<>(expected), iterated);
+    assertTrue(ids.memory() > 0);
+  }
+}
@@ -0,0 +1,59 @@
+package life.catalogue.common.io;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.ZipFile;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+public class DeflatedZipEntryTest {
+
+  @Test
+  public void zip() throws Exception {
+    try (TmpIO.Dir dir = new TmpIO.Dir();
+         TmpIO.Dir tmp = new TmpIO.Dir()
+    ) {
+      StringBuilder sb = new StringBuilder();
+      for (int i = 0; i < 100000; i++) {
+        sb.append(i).append("\tAbies alba Mill.\n");
+      }
+      final String data = sb.toString();
+
+      var e1 = new DeflatedZipEntry("NameUsage.tsv", new File(tmp.file, "NameUsage.tsv.deflated"));
+      try (TabWriter w = TabWriter.fromStream(e1)) {
+        w.write(new String[]{"ID", "scientificName"});
+      }
+      var e2 = new DeflatedZipEntry("Reference.tsv", new File(tmp.file, "Reference.tsv.deflated"));
+      e2.write(data.getBytes(StandardCharsets.UTF_8));
+      e2.close();
+      e2.close();
+      FileUtils.write(new File(dir.file, "metadata.yaml"), "title: Abies", StandardCharsets.UTF_8);
+      FileUtils.write(new File(dir.file, "source/12.yaml"), "title: Pinus", StandardCharsets.UTF_8);
+
+      File zip = new File(tmp.file, "archive.zip");
+      CompressionUtil.zipDir(dir.file, List.of(e1, e2), zip);
+
+      try (ZipFile zf = new ZipFile(zip)) {
+        assertEquals(4, zf.size());
+        assertEquals("ID\tscientificName\n", read(zf, "NameUsage.tsv"));
+        assertEquals(data, read(zf, "Reference.tsv"));
+        assertEquals("title: Abies", read(zf, "metadata.yaml"));
+        assertEquals("title: Pinus", read(zf, "source/12.yaml"));
+      }
+    }
+  }
+
+  private static String read(ZipFile zf, String name) throws Exception {
+    var entry = zf.getEntry(name);
+    assertNotNull(entry);
+    try (var in = zf.getInputStream(entry)) {
+      return IOUtils.toString(in, StandardCharsets.UTF_8);
+    }
+  }
+}
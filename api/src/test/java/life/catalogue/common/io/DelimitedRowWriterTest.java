@@ -0,0 +1,71 @@
+package life.catalogue.common.io;
+
+import life.catalogue.api.vocab.TabularFormat;
+
+import java.io.StringWriter;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class DelimitedRowWriterTest {
+
+  private static final String[][] ROWS = new String[][]{
+    {"1", null, "Abies alba", "Mill."},
+    {null, null, null, null},
+    {"2", "1", "  Abies  \\ \"alba\"\t\nvar. x ", "L., 1753"},
+    {"3", "", "   ", null}
+  };
+
+  @Test
+  public void tsv() throws Exception {
+    assertEquals("1\t\tAbies alba\tMill.\n" +
+      "2\t1\tAbies  \\\\ \"alba\"\\t\\nvar. x\tL., 1753\n" +
+      "3\t\t\t\n", write(TabularFormat.TSV));
+  }
+
+  @Test
+  public void csv() throws Exception {
+    // like the univocity based CsvWriter values are trimmed and empty rows kept
+    assertEquals("1,,Abies alba,Mill.\n" +
+      ",,,\n" +
+      "2,1,\"Abies  \\ \"\"alba\"\"\t\nvar. x\",\"L., 1753\"\n" +
+      "3,,,\n", write(TabularFormat.CSV));
+  }
+
+  @Test
+  public void csvWriter() throws Exception {
+    StringWriter sw = new StringWriter();
+    try (CsvWriter w = new CsvWriter(sw)) {
+      for (String[] row : ROWS) {
+        w.write(row);
+      }
+    }
+    assertEquals(sw.toString(), write(TabularFormat.CSV));
+  }
+
+  @Test
+  public void largeRows() throws Exception {
+    StringWriter sw = new StringWriter();
+    String value = "x".repeat(1000);
+    DelimitedRowWriter w = new DelimitedRowWriter(sw, TabularFormat.TSV);
+    for (int i = 0; i < 1000; i++) {
+      w.write(new String[]{String.valueOf(i), value});
+    }
+    w.flush();
+    assertEquals(1000, w.getRows());
+    String[] lines = sw.toString().split("\n");
+    assertEquals(1000, lines.length);
+    assertEquals("999\t" + value, lines[999]);
+  }
+
+  private static String write(TabularFormat format) throws Exception {
+    StringWriter sw = new StringWriter();
+    try (DelimitedRowWriter w = new DelimitedRowWriter(sw, format)) {
+      for (String[] row : ROWS) {
+        w.write(row);
+      }
+    }
+    return sw.toString();
+  }
+}
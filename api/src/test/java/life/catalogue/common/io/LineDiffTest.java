@@ -0,0 +1,88 @@
+package life.catalogue.common.io;
+
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class LineDiffTest {
+
+  @Test
+  public void order() {
+    assertTrue(LineDiff.compare("Abies", "abies") < 0);
+    assertTrue(LineDiff.compare("Abies", "Abies alba") < 0);
+    assertTrue(LineDiff.compare("Abies alba", "Abies-x") < 0);
+    assertEquals(0, LineDiff.compare("Öl", "Öl"));
+    // supplementary characters sort after all BMP characters like in UTF-8
+    assertTrue(LineDiff.compare("\uFFFD", "\uD83D\uDE00") < 0);
+    assertTrue("\uFFFD".compareTo("\uD83D\uDE00") > 0);
+
+    assertTrue(LineDiff.isSorted(List.of("A", "B", "B", "a").iterator()));
+    assertFalse(LineDiff.isSorted(List.of("A", "a", "B").iterator()));
+  }
+
+  @Test
+  public void setDiff() {
+    List<String> deleted = new ArrayList<>();
+    List<String> inserted = new ArrayList<>();
+    LineDiff.setDiff(
+      List.of("a", "b", "b", "c", "e").iterator(),
+      List.of("", "b", "d", "d", "e", "f").iterator(),
+      deleted::add, inserted::add
+    );
+    assertEquals(List.of("a", "c"), deleted);
+    assertEquals(List.of("d", "f"), inserted);
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void unsorted() {
+    LineDiff.setDiff(List.of("b", "a").iterator(), List.of("a").iterator(), x -> {}, x -> {});
+  }
+
+  @Test
+  public void unifiedDiff() throws Exception {
+    List<String> l1 = List.of("a", "b", "c", "d", "e", "f", "g", "h", "i");
+    List<String> l2 = List.of("a", "a1", "b", "c", "d", "e", "f", "h", "i", "j");
+
+    StringWriter out = new StringWriter();
+    LineDiff.unifiedDiff(l1.iterator(), "one", l2.iterator(), "two", 0, out);
+    assertEquals("--- one\n" +
+      "+++ two\n" +
+      "@@ -1,0 +2 @@\n" +
+      "+a1\n" +
+      "@@ -7 +7,0 @@\n" +
+      "-g\n" +
+      "@@ -9,0 +10 @@\n" +
+      "+j\n", out.toString());
+
+    out = new StringWriter();
+    LineDiff.unifiedDiff(l1.iterator(), "one", l2.iterator(), "two", 2, out);
+    assertEquals("--- one\n" +
+      "+++ two\n" +
+      "@@ -1,3 +1,4 @@\n" +
+      " a\n" +
+      "+a1\n" +
+      " b\n" +
+      " c\n" +
+      "@@ -5,5 +6,5 @@\n" +
+      " e\n" +
+      " f\n" +
+      "-g\n" +
+      " h\n" +
+      " i\n" +
+      "+j\n", out.toString());
+
+    // changes closer than twice the context are joined into a single hunk
+    out = new StringWriter();
+    LineDiff.unifiedDiff(l1.iterator(), "one", l2.iterator(), "two", 3, out);
+    assertTrue(out.toString().startsWith("--- one\n+++ two\n@@ -1,9 +1,10 @@\n"));
+
+    // identical
+    out = new StringWriter();
+    LineDiff.unifiedDiff(l1.iterator(), "one", l1.iterator(), "two", 2, out);
+    assertEquals("", out.toString());
+  }
+}
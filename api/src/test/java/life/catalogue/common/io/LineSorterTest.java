@@ -0,0 +1,49 @@
+package life.catalogue.common.io;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class LineSorterTest {
+  File dir;
+
+  @Before
+  public void init() throws Exception {
+    dir = Files.createTempDirectory("line-sorter").toFile();
+  }
+
+  @After
+  public void destroy() {
+    FileUtils.deleteQuietly(dir);
+  }
+
+  @Test
+  public void sort() throws Exception {
+    Random rnd = new Random(7);
+    List<String> lines = new ArrayList<>();
+    for (int i = 0; i < 1000; i++) {
+      lines.add("Abies " + rnd.nextInt(500) + (i % 7 == 0 ? " Döring" : "") + (i % 13 == 0 ? " 😀" : ""));
+    }
+    File in = new File(dir, "in.txt");
+    Files.write(in.toPath(), lines);
+
+    // in memory and with merged chunks
+    for (int chunk : new int[]{10000, 100, 7}) {
+      File out = new File(dir, "out-" + chunk + ".txt");
+      LineSorter.sort(UTF8IoUtils.readerFromFile(in), out, chunk);
+      List<String> sorted = Files.readAllLines(out.toPath());
+      assertEquals(lines.size(), sorted.size());
+      assertTrue(LineDiff.isSorted(sorted.iterator()));
+      assertFalse(new File(dir, out.getName() + "-chunks").exists());
+    }
+  }
+}
@@ -8,6 +8,7 @@ import life.catalogue.config.MailConfig;
 
 import java.time.LocalDateTime;
 import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
 
 import javax.annotation.Nullable;
@@ -112,6 +113,15 @@ public abstract class BackgroundJob implements Runnable {
     return this.key.equals(other.key);
   }
 
+  /**
+   * Keys of other jobs which are executed as part of this job and are not submitted on their own.
+   * The job executor resolves them to this job, so they can still be looked up and cancelled by their own key.
+   */
+  @JsonIgnore
+  public Set<UUID> getMemberKeys() {
+    return Set.of();
+  }
+
   /**
    * Indicate the class to group running jobs by when checking for max user limits.
    */
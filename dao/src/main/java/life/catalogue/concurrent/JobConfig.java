@@ -2,6 +2,8 @@ package life.catalogue.concurrent;
 
 import life.catalogue.api.model.JobResult;
 
+import org.gbif.nameparser.api.Rank;
+
 import java.io.File;
 import java.net.URI;
 import java.util.HashMap;
@@ -52,6 +54,47 @@ public class JobConfig {
   @Min(1)
   public int threads = 1;
 
+  /**
+   * Number of data files written concurrently by a single archive export.
+   * Each file is read with its own cursor and compressed right away.
+   */
+  @Min(1)
+  public int exportThreads = 4;
+
+  /**
+   * Number of families consolidated concurrently by a single homotypic consolidation job.
+   */
+  @Min(1)
+  public int homotypicThreads = 4;
+
+  /**
+   * Rank of the subtrees that tree printers print concurrently using exportThreads, e.g. family.
+   * Only applies to text tree and simple tabular export jobs, trees streamed directly to clients are always printed sequentially.
+   * Null to print trees sequentially.
+   */
+  public Rank printerSplitRank = Rank.FAMILY;
+
+  /**
+   * If true, full archive exports of managed projects keep each data file split into fragments per sector,
+   * so later exports only read the records of sectors that were synced or edited since.
+   * Fragments need additional disk space in the download directory, so this is off by default.
+   */
+  public boolean exportFragments = false;
+
+  /**
+   * Maximum disk space in megabytes used by the exports prepared in the background for public releases.
+   * Least recently downloaded exports are removed first when a new release exceeds it.
+   * Zero for no limit.
+   */
+  @Min(0)
+  public long exportCacheMB = 0;
+
+  /**
+   * If true existing export archives are streamed directly by the API, supporting HTTP byte ranges,
+   * instead of redirecting to the downloadURI.
+   */
+  public boolean serveDownloads = false;
+
   /**
    * Maximum amount of jobs that can be queued before they are rejected.
    */
@@ -72,6 +115,21 @@ public class JobConfig {
     return new File(downloadDir, JobResult.downloadFilePath(key));
   }
 
+  /**
+   * @param name name of the export layout, e.g. the data format
+   * @return the directory keeping the export fragments of a managed dataset
+   */
+  public File exportFragmentsDir(int datasetKey, String name) {
+    return new File(exportFragmentsDir(datasetKey), name);
+  }
+
+  /**
+   * @return the directory keeping the export fragments of all layouts of a managed dataset
+   */
+  public File exportFragmentsDir(int datasetKey) {
+    return new File(downloadDir, "fragments/" + datasetKey);
+  }
+
   /**
    * @return the final URI that holds the download archive file.
    */
@@ -34,6 +34,8 @@ public class JobExecutor implements Managed, Idle {
   private final JobConfig cfg;
   private final PriorityBlockingQueue<Runnable> queue;
   private final ConcurrentMap<UUID, ComparableFutureTask> futures = new ConcurrentHashMap<>();
+  // member job keys pointing to the key of the job executing them
+  private final ConcurrentMap<UUID, UUID> members = new ConcurrentHashMap<>();
   private final UserDao udao;
   private final @Nullable EmailNotification emailer;
   private ColExecutor exec;
@@ -114,6 +116,7 @@ public class JobExecutor implements Managed, Idle {
 
       try {
         var f = futures.remove(job.getKey());
+        removeMembers(job);
         if (f != null) {
           f.get(); //TODO: what for???
         } else {
@@ -160,10 +163,14 @@ public class JobExecutor implements Managed, Idle {
     return !hasStarted() || hasEmptyQueue() && exec.getActiveCount() == 0;
   }
 
+  /**
+   * Cancels a job. Cancelling a member job cancels the entire job it is executed by.
+   */
   public BackgroundJob cancel (UUID key, int user) {
-    ComparableFutureTask f = futures.remove(key);
+    ComparableFutureTask f = futures.remove(resolve(key));
     if (f != null) {
       BackgroundJob job = f.task;
+      removeMembers(job);
       LOG.info("Canceled job {} by user {}", job.getKey(), user);
       f.cancel(true);
       exec.purge();
@@ -172,9 +179,12 @@ public class JobExecutor implements Managed, Idle {
     return null;
   }
 
+  /**
+   * @return the job with the given key or the job executing a member job with that key
+   */
   public BackgroundJob getJob(UUID key) {
     if (key!=null) {
-      ComparableFutureTask f = futures.get(key);
+      ComparableFutureTask f = futures.get(resolve(key));
       if (f != null) {
         return f.task;
       }
@@ -182,6 +192,16 @@ public class JobExecutor implements Managed, Idle {
     return null;
   }
 
+  private UUID resolve(UUID key) {
+    return members.getOrDefault(key, key);
+  }
+
+  private void removeMembers(BackgroundJob job) {
+    for (UUID mk : job.getMemberKeys()) {
+      members.remove(mk, job.getKey());
+    }
+  }
+
   public boolean isQueued(UUID key) {
     BackgroundJob job = getJob(key);
     return job != null;
@@ -253,6 +273,9 @@ public class JobExecutor implements Managed, Idle {
     job.setTimer(timer);
     job.setCfg(cfg);
     var ftask = new ComparableFutureTask(job);
+    for (UUID mk : job.getMemberKeys()) {
+      members.put(mk, job.getKey());
+    }
     futures.put(job.getKey(), ftask);
     exec.execute(ftask);
   }
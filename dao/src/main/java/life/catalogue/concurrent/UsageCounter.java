@@ -35,6 +35,16 @@ public class UsageCounter {
     other.rankCounter.forEach(rankCounter::put);
   }
 
+  /**
+   * Adds all counts of another counter to this one.
+   */
+  public synchronized void add(UsageCounter other) {
+    taxCounter.addAndGet(other.taxCounter.get());
+    synCounter.addAndGet(other.synCounter.get());
+    bareCounter.addAndGet(other.bareCounter.get());
+    other.rankCounter.forEach((r, cnt) -> rankCounter.computeIfAbsent(r, k -> new AtomicInteger()).addAndGet(cnt.get()));
+  }
+
   public void inc(TaxonomicStatus status, Rank rank) {
     if (status == null || status.isBareName()) {
       bareCounter.incrementAndGet();
@@ -4,6 +4,7 @@ import java.io.File;
 import java.util.List;
 import java.util.Map;
 
+import javax.validation.constraints.Min;
 import javax.validation.constraints.NotNull;
 
 import org.slf4j.Logger;
@@ -21,6 +22,10 @@ public class ReleaseConfig {
 
   public boolean deleteOnError = true;
 
+  // number of tables copied concurrently into a new release
+  @Min(1)
+  public int copyThreads = 4;
+
   // project -> list of dataset keys of releases to ignore (e.g. they contain bad ids)
   public Map<Integer, List<Integer>> ignoredReleases;
 
@@ -31,6 +36,12 @@ public class ReleaseConfig {
   @NotNull
   public File reportDir = new File("/tmp/col/release");
 
+  // optional directory keeping a persisted index of the released ids of the last public release per project to avoid loading them from the database. Disabled if null
+  public File idIndexDir;
+
+  // optional directory keeping the progress of running release jobs so failed releases can be resumed explicitly. Disabled if null
+  public File checkpointDir;
+
   // the COL download directory with monthly and annual subfolder
   public File colDownloadDir = new File("/tmp/col");
 
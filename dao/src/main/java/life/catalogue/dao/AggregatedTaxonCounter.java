@@ -0,0 +1,123 @@
+package life.catalogue.dao;
+
+import life.catalogue.api.model.DSID;
+import life.catalogue.api.model.SimpleName;
+import life.catalogue.api.model.TreeTraversalParameter;
+import life.catalogue.db.PgUtils;
+import life.catalogue.db.mapper.NameUsageMapper;
+
+import org.gbif.nameparser.api.Rank;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+import javax.annotation.Nullable;
+
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+
+/**
+ * A TaxonCounter for a single dataset and rank that aggregates the counts of all taxa in memory
+ * with one depth first traversal of the accepted tree, instead of running a query for each taxon.
+ * Requests for other datasets or ranks are passed on to an optional delegate counter.
+ */
+public class AggregatedTaxonCounter implements TaxonCounter {
+  private static final Logger LOG = LoggerFactory.getLogger(AggregatedTaxonCounter.class);
+  private final int datasetKey;
+  private final Rank rank;
+  private final Object2IntMap<String> counts;
+  private final TaxonCounter delegate;
+
+  private AggregatedTaxonCounter(int datasetKey, Rank rank, Object2IntMap<String> counts, @Nullable TaxonCounter delegate) {
+    this.datasetKey = datasetKey;
+    this.rank = rank;
+    this.counts = counts;
+    this.delegate = delegate;
+  }
+
+  private static class Node {
+    final String id;
+    // counts indexed by rank ordinal
+    final int[] counts = new int[Rank.values().length];
+
+    Node(SimpleName u) {
+      this.id = u.getId();
+      if (u.getRank() != null) {
+        counts[u.getRank().ordinal()] = 1;
+      }
+    }
+  }
+
+  /**
+   * Counts all accepted taxa of the given rank below every taxon of a tree.
+   * @param datasetKey the dataset to count in
+   * @param taxonID optional root taxon of the tree to count, null for the entire dataset
+   * @param delegate optional counter used for all other datasets and ranks
+   */
+  public static AggregatedTaxonCounter build(SqlSessionFactory factory, int datasetKey, @Nullable String taxonID, Rank rank, @Nullable TaxonCounter delegate) {
+    final Object2IntMap<String> counts = new Object2IntOpenHashMap<>();
+    final int idx = rank.ordinal();
+    aggregate(factory, datasetKey, taxonID, (id, cnts) -> {
+      if (cnts[idx] > 0) {
+        counts.put(id, cnts[idx]);
+      }
+    });
+    LOG.info("Aggregated {} counts for {} taxa in dataset {}", rank, counts.size(), datasetKey);
+    return new AggregatedTaxonCounter(datasetKey, rank, counts, delegate);
+  }
+
+  /**
+   * Counts the accepted taxa of every rank below all taxa of a tree, including the taxon itself,
+   * in a single depth first traversal and passes them on bottom up, i.e. all children come before their parent.
+   * @param taxonID optional root taxon of the tree to count, null for the entire dataset
+   * @param handler receiving the taxonID and its counts indexed by the rank ordinal
+   * @return number of counted taxa
+   */
+  public static int aggregate(SqlSessionFactory factory, int datasetKey, @Nullable String taxonID, BiConsumer<String, int[]> handler) {
+    final Deque<Node> parents = new ArrayDeque<>();
+    final var params = TreeTraversalParameter.dataset(datasetKey, taxonID);
+    params.setSynonyms(false);
+    final AtomicInteger counter = new AtomicInteger();
+    try (SqlSession session = factory.openSession(true)) {
+      PgUtils.consume(() -> session.getMapper(NameUsageMapper.class).processTreeSimple(params, true, false), u -> {
+        while (!parents.isEmpty() && !parents.peekLast().id.equals(u.getParent())) {
+          pop(parents, handler);
+        }
+        parents.add(new Node(u));
+        counter.incrementAndGet();
+      });
+    }
+    while (!parents.isEmpty()) {
+      pop(parents, handler);
+    }
+    return counter.get();
+  }
+
+  private static void pop(Deque<Node> parents, BiConsumer<String, int[]> handler) {
+    Node n = parents.removeLast();
+    handler.accept(n.id, n.counts);
+    if (!parents.isEmpty()) {
+      int[] pc = parents.peekLast().counts;
+      for (int i = 0; i < pc.length; i++) {
+        pc[i] += n.counts[i];
+      }
+    }
+  }
+
+  @Override
+  public int count(DSID<String> taxonID, Rank countRank) {
+    if (taxonID.getDatasetKey() == datasetKey && countRank == rank) {
+      return counts.getInt(taxonID.getId());
+    } else if (delegate != null) {
+      return delegate.count(taxonID, countRank);
+    }
+    throw new IllegalArgumentException("Only " + rank + " counts for dataset " + datasetKey + " available");
+  }
+}
@@ -162,7 +162,12 @@ public class DatasetImportDao {
       fileMetricsDao.updateTree(key, di.getDatasetKey(), di.getAttempt());
       Exceptions.runtimeInterruptIfCancelled();
       fileMetricsDao.updateNames(key, di.getDatasetKey(), di.getAttempt());
-      
+      // projects change all the time, only immutable datasets keep materialized counts
+      if (DatasetInfoCache.CACHE.info(key).origin != DatasetOrigin.PROJECT) {
+        Exceptions.runtimeInterruptIfCancelled();
+        fileMetricsDao.updateTaxonCounts(key);
+      }
+
     } catch (IOException e) {
       LOG.error("Failed to update metrics for dataset {} from dataset {}", di.getDatasetKey(), key, e);
     }
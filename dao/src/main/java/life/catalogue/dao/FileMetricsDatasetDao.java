@@ -5,11 +5,17 @@ import life.catalogue.common.io.UTF8IoUtils;
 import life.catalogue.printer.PrinterFactory;
 import life.catalogue.printer.TextTreePrinter;
 
+import org.gbif.nameparser.api.Rank;
+
 import java.io.File;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.stream.Stream;
 
+import org.apache.commons.io.FileUtils;
 import org.apache.ibatis.session.SqlSessionFactory;
 
 import com.google.common.annotations.VisibleForTesting;
@@ -51,6 +57,52 @@ public class FileMetricsDatasetDao extends FileMetricsDao<Integer> {
     }
   }
 
+  /**
+   * Materializes the number of accepted descendants by rank for every accepted taxon of a dataset,
+   * aggregated bottom up with a single traversal of the tree.
+   * Each line holds a taxonID followed by a tab and comma separated rank:count pairs, incl the taxon itself.
+   * The file is replaced atomically so readers never see a partial file.
+   *
+   * @return number of taxa with counts
+   */
+  public int updateTaxonCounts(int datasetKey) throws IOException {
+    final File f = taxonCountsFile(datasetKey);
+    final File tmp = new File(f.getParentFile(), f.getName() + ".tmp");
+    f.getParentFile().mkdirs();
+    final Rank[] ranks = Rank.values();
+    int count;
+    try (Writer writer = UTF8IoUtils.writerFromGzipFile(tmp)) {
+      count = AggregatedTaxonCounter.aggregate(factory, datasetKey, null, (id, counts) -> {
+        try {
+          writer.write(id);
+          char delim = '\t';
+          for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) {
+              writer.write(delim);
+              writer.write(ranks[i].name());
+              writer.write(':');
+              writer.write(String.valueOf(counts[i]));
+              delim = ',';
+            }
+          }
+          writer.write('\n');
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      });
+    } catch (UncheckedIOException e) {
+      FileUtils.deleteQuietly(tmp);
+      throw e.getCause();
+    }
+    Files.move(tmp.toPath(), f.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    LOG.info("Written taxon counts for {} taxa of {} {}", count, type, datasetKey);
+    return count;
+  }
+
+  public File taxonCountsFile(int datasetKey) {
+    return new File(subdir(datasetKey), "taxon-counts.txt.gz");
+  }
+
   public Stream<String> getTree(Integer datasetKey, int attempt) {
     return streamFile(treeFile(datasetKey, attempt), datasetKey, attempt);
   }
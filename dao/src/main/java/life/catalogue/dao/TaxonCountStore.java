@@ -0,0 +1,186 @@
+package life.catalogue.dao;
+
+import life.catalogue.api.event.DatasetChanged;
+import life.catalogue.api.event.DatasetDataChanged;
+import life.catalogue.api.model.DSID;
+import life.catalogue.common.io.UTF8IoUtils;
+
+import org.gbif.nameparser.api.Rank;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+import javax.annotation.Nullable;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.eventbus.Subscribe;
+
+import it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap;
+
+/**
+ * A TaxonCounter answering from the descendant counts materialized for every import and release,
+ * see FileMetricsDatasetDao.updateTaxonCounts.
+ * The counts of a dataset are loaded into memory when first requested and then answered with a single lookup,
+ * keeping only as many datasets as fit into the configured memory budget.
+ * Datasets without materialized counts, e.g. projects which change all the time, are passed on to the delegate counter.
+ * Their absence is cached as an empty marker until the data or the dataset changes.
+ */
+public class TaxonCountStore implements TaxonCounter {
+  private static final Logger LOG = LoggerFactory.getLogger(TaxonCountStore.class);
+  private static final Rank[] RANKS = Rank.values();
+  // marker for datasets without materialized counts, as caffeine does not cache null values
+  private static final Counts NONE = new Counts();
+  private final FileMetricsDatasetDao dao;
+  private final TaxonCounter delegate;
+  private final LoadingCache<Integer, Counts> datasets;
+
+  /**
+   * Counts of all taxa of a single dataset,
+   * kept as pairs of rank ordinals and counts in a single int array per taxon.
+   */
+  @VisibleForTesting
+  static class Counts {
+    private final Object2ObjectOpenHashMap<String, int[]> taxa = new Object2ObjectOpenHashMap<>();
+    // rough estimate of the heap used by all taxa
+    private long bytes;
+
+    void add(String line) {
+      String[] parts = StringUtils.split(line, '\t');
+      if (parts.length < 2) return;
+      String[] rcs = StringUtils.split(parts[1], ',');
+      int[] counts = new int[rcs.length * 2];
+      int idx = 0;
+      for (String rc : rcs) {
+        int colon = rc.indexOf(':');
+        counts[idx++] = Rank.valueOf(rc.substring(0, colon)).ordinal();
+        counts[idx++] = Integer.parseInt(rc.substring(colon + 1));
+      }
+      taxa.put(parts[0], counts);
+      // string with its char array, int array and the hash table slots
+      bytes += 56 + 2L * parts[0].length() + 16 + 4L * counts.length + 16;
+    }
+
+    int get(String taxonID, Rank rank) {
+      int[] counts = taxa.get(taxonID);
+      if (counts != null) {
+        final int ord = rank.ordinal();
+        for (int i = 0; i < counts.length; i += 2) {
+          if (counts[i] == ord) {
+            return counts[i + 1];
+          }
+        }
+      }
+      return 0;
+    }
+
+    int sum(String taxonID, @Nullable Rank lowestRank) {
+      int[] counts = taxa.get(taxonID);
+      int sum = 0;
+      if (counts != null) {
+        for (int i = 0; i < counts.length; i += 2) {
+          if (lowestRank == null || counts[i] <= lowestRank.ordinal()) {
+            sum += counts[i + 1];
+          }
+        }
+      }
+      return sum;
+    }
+
+    int size() {
+      return taxa.size();
+    }
+
+    /**
+     * @return estimated size in kilobytes, at least 1
+     */
+    int weight() {
+      return (int) Math.min(Integer.MAX_VALUE, Math.max(1, bytes / 1024));
+    }
+  }
+
+  /**
+   * @param maxMB maximum estimated memory in megabytes to keep counts of datasets in
+   * @param delegate counter for datasets without materialized counts
+   */
+  public TaxonCountStore(FileMetricsDatasetDao dao, int maxMB, TaxonCounter delegate) {
+    this.dao = dao;
+    this.delegate = delegate;
+    this.datasets = Caffeine.newBuilder()
+      .maximumWeight(maxMB * 1024L)
+      .weigher((Integer key, Counts counts) -> counts.weight())
+      .build(this::load);
+  }
+
+  /**
+   * @return counts of the dataset or the NONE marker if they were never materialized
+   */
+  private Counts load(int datasetKey) {
+    File f = dao.taxonCountsFile(datasetKey);
+    if (!f.exists()) {
+      return NONE;
+    }
+    Counts counts = new Counts();
+    try (BufferedReader br = UTF8IoUtils.readerFromGzipFile(f)) {
+      br.lines().forEach(counts::add);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to read taxon counts from " + f, e);
+    }
+    counts.taxa.trim();
+    LOG.info("Loaded taxon counts for {} taxa of dataset {} using ~{}KB", counts.size(), datasetKey, counts.weight());
+    return counts;
+  }
+
+  /**
+   * @return true if the dataset has materialized counts
+   */
+  public boolean exists(int datasetKey) {
+    Counts counts = datasets.getIfPresent(datasetKey);
+    return counts == null ? dao.taxonCountsFile(datasetKey).exists() : counts != NONE;
+  }
+
+  @Override
+  public int count(DSID<String> taxonID, Rank countRank) {
+    Counts counts = datasets.get(taxonID.getDatasetKey());
+    if (counts != NONE) {
+      return counts.get(taxonID.getId(), countRank);
+    }
+    return delegate.count(taxonID, countRank);
+  }
+
+  /**
+   * @param lowestRank optional lowest rank to include in the count
+   * @return number of all accepted taxa in the tree of the given taxon including itself
+   *   or -1 if the dataset has no materialized counts
+   */
+  public int countAll(DSID<String> taxonID, @Nullable Rank lowestRank) {
+    Counts counts = datasets.get(taxonID.getDatasetKey());
+    return counts == NONE ? -1 : counts.sum(taxonID.getId(), lowestRank);
+  }
+
+  public void invalidate(int datasetKey) {
+    datasets.invalidate(datasetKey);
+  }
+
+  @Subscribe
+  public void dataChanged(DatasetDataChanged event){
+    invalidate(event.datasetKey);
+  }
+
+  @Subscribe
+  public void datasetChanged(DatasetChanged event){
+    // releases get their counts materialized without any data change event
+    invalidate(event.key);
+    if (event.isDeletion()) {
+      FileUtils.deleteQuietly(dao.taxonCountsFile(event.key));
+    }
+  }
+}
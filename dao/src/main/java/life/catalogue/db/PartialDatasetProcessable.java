@@ -0,0 +1,25 @@
+package life.catalogue.db;
+
+import java.util.Collection;
+
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.cursor.Cursor;
+
+/**
+ * Minimal mapper to stream read entities of a managed dataset, leaving out the entities of some of its sectors.
+ * @param <V> entity type
+ */
+public interface PartialDatasetProcessable<V> {
+
+  /**
+   * Iterates over all entities of a given dataset except the ones of the given sectors
+   * in a memory friendly way, bypassing the 1st level mybatis cache.
+   * Entities without a sector are always included.
+   * Entities are ordered by their sector key, so all entities of a sector follow each other.
+   *
+   * @param excludedSectorKeys keys of the sectors to leave out, can be empty
+   */
+  Cursor<V> processDatasetWithoutSectors(@Param("datasetKey") int datasetKey,
+                                         @Param("sectorKeys") Collection<Integer> excludedSectorKeys);
+
+}
@@ -12,17 +12,13 @@ import com.google.common.collect.Lists;
  * Mapper with default methods to manage the lifetime of dataset based partitions
  * and all their need sequences & indices.
  *
- * We deal with dataset partitioning depending on the immutable origin property of the dataset:
+ * All partitioned tables use HASH partitioning on the datasetKey with a fixed number of partitions,
+ * regardless of the dataset origin. Projects and releases therefore share their partition tables with other datasets.
  *
- * EXTERNAL: HASH based partitioning on the datasetKey
- * PROJECT: a dedicated partition which provides fast read/write speeds
- * RELEASE: a dedicated partition which provides fast read/write speeds and allows for quick deletions of entire releases when they get old
- *
- * This assumes that the total number of managed and released datasets is well below 1000.
- * If we ever exceed these numbers we should relocate partitions.
- *
- * For COL itself it is important to have speedy releases and quick responses when managing the project,
- * so these should always live on their own partition.
+ * Because of this, new datasets cannot be created by attaching a prebuilt table as their own partition.
+ * Releases and project duplicates copy their data with CopyDataset instead, i.e. INSERT ... SELECT statements into the shared partitions.
+ * Making releases metadata operations would require LIST partitioning on the datasetKey,
+ * with dedicated partitions for projects and releases and a hash partitioned default partition for all other datasets.
  */
 public interface DatasetPartitionMapper {
   Logger LOG = LoggerFactory.getLogger(DatasetPartitionMapper.class);
@@ -127,6 +123,12 @@ public interface DatasetPartitionMapper {
 
   void dropTable(@Param("table") String table, @Param("key") int key);
 
+  /**
+   * @return the number of records of a table for the given datasetKey together with a checksum of their row versions,
+   *   which changes with every insert, update or deletion.
+   */
+  String tableFingerprint(@Param("table") String table, @Param("key") int key);
+
   void deleteUsageCounter(@Param("key") int key);
 
   /**
@@ -59,7 +59,8 @@ public interface NameMapper extends CRUD<DSID<String>, Name>, DatasetProcessable
   Cursor<Name> processDatasetWithoutMatches(@Nullable @Param("datasetKey") Integer datasetKey);
 
   /**
-   * Iterates over all names returning the concatenation of scientific name and authorship from the names table.
+   * Iterates over all names returning the concatenation of scientific name and authorship from the names table,
+   * sorted by their binary C collation.
    */
   Cursor<String> processNameStrings(@Param("datasetKey") int datasetKey,
                                  @Nullable @Param("sectorKey") Integer sectorKey);
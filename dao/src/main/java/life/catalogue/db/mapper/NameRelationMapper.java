@@ -15,7 +15,7 @@ import javax.annotation.Nullable;
 import org.apache.ibatis.annotations.Param;
 
 public interface NameRelationMapper extends Create<NameRelation>,
-  DatasetProcessable<NameRelation>, SectorProcessable<NameRelation>, NameProcessable<NameRelation>, CopyDataset {
+  DatasetProcessable<NameRelation>, PartialDatasetProcessable<NameRelation>, SectorProcessable<NameRelation>, NameProcessable<NameRelation>, CopyDataset {
   
   /**
    * Returns the list of name relations for a single name on the other side of the relation (relatedNameId).
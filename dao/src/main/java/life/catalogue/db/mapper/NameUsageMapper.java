@@ -5,11 +5,13 @@ import life.catalogue.api.model.*;
 import life.catalogue.api.vocab.TaxonomicStatus;
 import life.catalogue.db.CopyDataset;
 import life.catalogue.db.DatasetProcessable;
+import life.catalogue.db.PartialDatasetProcessable;
 import life.catalogue.db.SectorProcessable;
 import life.catalogue.db.TempNameUsageRelated;
 
 import org.gbif.nameparser.api.Rank;
 
+import java.time.LocalDateTime;
 import java.util.Collection;
 import java.util.LinkedList;
 import java.util.List;
@@ -25,7 +27,7 @@ import org.apache.ibatis.cursor.Cursor;
  * <p>
  * Mapper sql should be reusing sql fragments from the 3 concrete implementations as much as possible avoiding duplication.
  */
-public interface NameUsageMapper extends SectorProcessable<NameUsageBase>, CopyDataset, DatasetProcessable<NameUsageBase>, TempNameUsageRelated {
+public interface NameUsageMapper extends SectorProcessable<NameUsageBase>, CopyDataset, DatasetProcessable<NameUsageBase>, PartialDatasetProcessable<NameUsageBase>, TempNameUsageRelated {
 
   NameUsageBase get(@Param("key") DSID<String> key);
 
@@ -61,6 +63,12 @@ public interface NameUsageMapper extends SectorProcessable<NameUsageBase>, CopyD
    */
   SimpleNameCached getSimplePub(@Param("key") DSID<String> key);
 
+  /**
+   * Set based version of getSimplePub for many usages of the same dataset.
+   * Missing ids are silently skipped.
+   */
+  List<SimpleNameCached> listSimplePub(@Param("datasetKey") int datasetKey, @Param("ids") Collection<String> ids);
+
   /**
    * Retrieve the parent of the given key as a SimpleName with
    * SimpleName.parent=parent.id
@@ -123,6 +131,11 @@ public interface NameUsageMapper extends SectorProcessable<NameUsageBase>, CopyD
 
   int count(@Param("datasetKey") int datasetKey);
 
+  /**
+   * @return the latest modification of any name or name usage in the dataset or null if there is no data
+   */
+  LocalDateTime lastModified(@Param("datasetKey") int datasetKey);
+
   List<SimpleNameWithDecision> listByRegex(@Param("datasetKey") int datasetKey,
                                            @Param("projectKey") Integer projectKey,
                                            @Param("regex") String regex,
@@ -178,6 +191,12 @@ public interface NameUsageMapper extends SectorProcessable<NameUsageBase>, CopyD
    */
   List<SimpleNameCached> listByCanonNIDX(@Param("datasetKey") int datasetKey, @Param("nidx") int canonicalNidx);
 
+  /**
+   * List all usages linked to an index name with any of the given canonical nidx.
+   * The parent property is filled with the parent ID, not the name!
+   */
+  List<SimpleNameCached> listByCanonNIDXs(@Param("datasetKey") int datasetKey, @Param("nidxs") Collection<Integer> canonicalNidx);
+
   /**
    * Warning, this does not count bare names, only true usages!
    */
@@ -353,14 +372,36 @@ public interface NameUsageMapper extends SectorProcessable<NameUsageBase>, CopyD
    * @param depthFirst if true uses a depth first traversal which is more expensive than breadth first!
    * @param orderByName if true the children of a depth first traversal are ordered by name with all synonyms coming first. Only applies to depthFirst traversals!
    */
+  default Cursor<SimpleName> processTreeSimple(@Param("param") TreeTraversalParameter params,
+                                               @Param("depthFirst") boolean depthFirst,
+                                               @Param("orderByName") boolean orderByName) {
+    return processTreeSimple(params, depthFirst, orderByName, null);
+  }
+
+  /**
+   * Same as processTreeSimple above, but optionally stops the traversal at accepted taxa of a given split rank.
+   * The split taxa themselves are still returned, but none of their synonyms or descendants.
+   *
+   * @param splitRank optional rank of accepted taxa to not descend into
+   */
   Cursor<SimpleName> processTreeSimple(@Param("param") TreeTraversalParameter params,
                                        @Param("depthFirst") boolean depthFirst,
-                                       @Param("orderByName") boolean orderByName);
+                                       @Param("orderByName") boolean orderByName,
+                                       @Param("splitRank") Rank splitRank);
 
   default Cursor<SimpleName> processTreeSimple(@Param("param") TreeTraversalParameter params) {
     return processTreeSimple(params, false, false);
   }
 
+  /**
+   * Iterates over the distinct, lower cased genus names of all usages in a (sub)tree.
+   * Uninomials are returned as they are, names without a genus or uninomial with their full scientific name.
+   * If the start taxon is null all names of the dataset are included, also bare names without a usage.
+   *
+   * @param params various tree traversal request parameters
+   */
+  Cursor<String> processTreeGenera(@Param("param") TreeTraversalParameter params);
+
   /**
    * Depth first process tree implementation similar to processTreeSimple, but returning a full name instance.
    * Children of the same taxon will be sorted by their usage id.
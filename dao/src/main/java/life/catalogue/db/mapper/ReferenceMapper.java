@@ -17,7 +17,7 @@ import org.apache.ibatis.annotations.Param;
 /**
  *
  */
-public interface ReferenceMapper extends CRUD<DSID<String>, Reference>, DatasetProcessable<Reference>, DatasetPageable<Reference>, SectorProcessable<Reference>, CopyDataset {
+public interface ReferenceMapper extends CRUD<DSID<String>, Reference>, DatasetProcessable<Reference>, PartialDatasetProcessable<Reference>, DatasetPageable<Reference>, SectorProcessable<Reference>, CopyDataset {
 	
 	/**
    * Selects a number of distinct references from a single dataset by their keys
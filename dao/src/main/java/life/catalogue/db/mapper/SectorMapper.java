@@ -64,6 +64,14 @@ public interface SectorMapper extends BaseDecisionMapper<Sector, SectorSearchReq
    */
   List<Integer> listSectorKeys(@Param("datasetKey") int projectKey);
 
+  /**
+   * Lists a fingerprint of the records of every sector in a project with data.
+   * The fingerprint changes whenever records of the sector are created, modified or deleted, e.g. by editors after a sync.
+   * @param projectKey dataset key of the project
+   * @return fingerprints formatted as sectorKey:records:lastModified
+   */
+  List<String> listDataFingerprints(@Param("datasetKey") int projectKey);
+
   /**
    * Returns a list of unique dataset keys from all catalogues that have at least one sector.
    */
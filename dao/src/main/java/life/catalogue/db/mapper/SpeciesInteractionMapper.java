@@ -11,6 +11,7 @@ import org.apache.ibatis.annotations.Param;
 
 public interface SpeciesInteractionMapper extends Create<SpeciesInteraction>,
                                                     DatasetProcessable<SpeciesInteraction>,
+                                                    PartialDatasetProcessable<SpeciesInteraction>,
                                                     SectorProcessable<SpeciesInteraction>,
                                                     TaxonProcessable<SpeciesInteraction>,
                                                     CopyDataset {
@@ -11,6 +11,7 @@ import org.apache.ibatis.annotations.Param;
 
 public interface TaxonConceptRelationMapper extends Create<TaxonConceptRelation>,
                                                     DatasetProcessable<TaxonConceptRelation>,
+                                                    PartialDatasetProcessable<TaxonConceptRelation>,
                                                     SectorProcessable<TaxonConceptRelation>,
                                                     TaxonProcessable<TaxonConceptRelation>,
                                                     CopyDataset {
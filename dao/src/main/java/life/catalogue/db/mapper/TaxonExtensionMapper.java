@@ -7,13 +7,14 @@ import life.catalogue.api.model.TaxonExtension;
 import life.catalogue.api.search.VernacularSearchRequest;
 import life.catalogue.db.CopyDataset;
 import life.catalogue.db.DatasetProcessable;
+import life.catalogue.db.PartialDatasetProcessable;
 import life.catalogue.db.SectorProcessable;
 import life.catalogue.db.TaxonProcessable;
 
 import org.apache.ibatis.annotations.Param;
 
 public interface TaxonExtensionMapper<T extends ExtensionEntity>
-  extends DatasetProcessable<TaxonExtension<T>>, SectorProcessable<T>, TaxonProcessable<T>, CopyDataset {
+  extends DatasetProcessable<TaxonExtension<T>>, PartialDatasetProcessable<TaxonExtension<T>>, SectorProcessable<T>, TaxonProcessable<T>, CopyDataset {
 
 	T get(@Param("key") DSID<Integer> key);
 
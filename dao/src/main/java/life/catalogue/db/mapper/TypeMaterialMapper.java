@@ -14,7 +14,7 @@ import org.apache.ibatis.annotations.Param;
  *
  */
 public interface TypeMaterialMapper extends CRUD<DSID<String>, TypeMaterial>,
-  DatasetProcessable<TypeMaterial>, SectorProcessable<TypeMaterial>, NameProcessable<TypeMaterial>, CopyDataset {
+  DatasetProcessable<TypeMaterial>, PartialDatasetProcessable<TypeMaterial>, SectorProcessable<TypeMaterial>, NameProcessable<TypeMaterial>, CopyDataset {
 
   /**
    * Deletes all type materials that have no linked name.
@@ -1,6 +1,7 @@
 package life.catalogue.es;
 
 import javax.annotation.Nullable;
+import javax.validation.Valid;
 import javax.validation.constraints.Min;
 import javax.validation.constraints.NotNull;
 
@@ -49,6 +50,20 @@ public class EsConfig {
   @Min(1)
   public int indexingThreads = 4;
 
+  /**
+   * Result cache for search and suggest requests
+   */
+  @Valid
+  @NotNull
+  public SearchCacheConfig cache = new SearchCacheConfig();
+
+  /**
+   * In memory autocomplete indices for hot datasets
+   */
+  @Valid
+  @NotNull
+  public SuggestIndexConfig suggest = new SuggestIndexConfig();
+
   @JsonIgnore
   public boolean isEmpty() {
     return hosts == null || nameUsage == null;
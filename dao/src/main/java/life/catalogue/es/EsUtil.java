@@ -218,9 +218,7 @@ public class EsUtil {
    * @return
    * @throws IOException
    */
-  @SuppressWarnings("unchecked")
   public static int deleteByQuery(RestClient client, String index, Query query) {
-    int attempts = 20;
     Request request = new Request("POST", index + "/_delete_by_query/?wait_for_completion=false&conflicts=proceed");
     EsSearchRequest esRequest = EsSearchRequest.emptyRequest()
         .select()
@@ -228,6 +226,33 @@ public class EsUtil {
         .sortBy(SortField.DOC);
     esRequest.setQuery(query);
     request.setJsonEntity(esRequest.toString());
+    return executeTask(client, request, "_delete_by_query", "deleted", query);
+  }
+
+  /**
+   * Updates all documents satisfying the provided query constraint(s) in place by running the given script on their source.
+   * Documents are not reloaded from Postgres. You must still refresh the index for the changes to become visible.
+   *
+   * @return number of updated documents
+   */
+  public static int updateByQuery(RestClient client, String index, Query query, Script script) {
+    Request request = new Request("POST", index + "/_update_by_query/?wait_for_completion=false&conflicts=proceed");
+    EsSearchRequest esRequest = EsSearchRequest.emptyRequest()
+        .where(query)
+        .script(script);
+    request.setJsonEntity(esRequest.toString());
+    return executeTask(client, request, "_update_by_query", "updated", query);
+  }
+
+  /**
+   * Executes a request that runs asynchronously as an ES task and polls the task until it has completed.
+   *
+   * @param action name of the ES action for logging
+   * @param resultProperty property of the task response holding the number of affected documents
+   */
+  @SuppressWarnings("unchecked")
+  private static int executeTask(RestClient client, Request request, String action, String resultProperty, Query query) {
+    int attempts = 20;
     Response response;
     while (true) {
       try {
@@ -237,7 +262,7 @@ public class EsUtil {
         break;
       } catch (TooManyRequestsException e) {
         int i = TooManyRequestsException.WAIT_INTERVAL_MILLIS;
-        LOG.warn("_delete_by_query request rejected by Elasticsearch. Waiting {} milliseconds before trying again", i);
+        LOG.warn("{} request rejected by Elasticsearch. Waiting {} milliseconds before trying again", action, i);
         sleep(i);
       }
     }
@@ -253,14 +278,15 @@ public class EsUtil {
         content = (Map<String, Object>) content.get("response");
         List<?> failures = (List<?>) content.get("failures");
         if (failures == null || failures.isEmpty()) {
-          return (Integer) content.get("deleted");
+          return (Integer) content.get(resultProperty);
         }
-        throw new EsRequestException("Error executing _delete_by_query request. Failures: %s. Query: %s",
+        throw new EsRequestException("Error executing %s request. Failures: %s. Query: %s",
+            action,
             EsModule.writeDebug(failures),
             EsModule.writeDebug(query));
       }
     }
-    throw new EsRequestException("_delete_by_query request failed to complete");
+    throw new EsRequestException("%s request failed to complete", action);
   }
 
   public static boolean bulkResponseHasErrors(Response resp) {
@@ -298,6 +324,34 @@ public class EsUtil {
     return readFromResponse(response, "count");
   }
 
+  /**
+   * Opens a point in time (PIT) for the provided index which keeps a consistent view of the index
+   * for subsequent search_after requests.
+   *
+   * @param client
+   * @param index
+   * @param keepAlive ES time value, e.g. 1m
+   * @return the PIT id
+   */
+  public static String openPointInTime(RestClient client, String index, String keepAlive) {
+    Request request = new Request("POST", index + "/_pit?keep_alive=" + keepAlive);
+    Response response = executeRequest(client, request);
+    return readFromResponse(response, "id");
+  }
+
+  /**
+   * Closes a point in time (PIT) so ES can release its search contexts right away.
+   * Closing is best effort, PITs expire anyway after their keep alive.
+   *
+   * @param client
+   * @param pitId
+   */
+  public static void closePointInTime(RestClient client, String pitId) {
+    Request request = new Request("DELETE", "_pit");
+    request.setJsonEntity("{\"id\":" + EsModule.escape(pitId) + "}");
+    executeAndForget(client, request);
+  }
+
   /**
    * Inserts the provided object into the provided index and returns the generated document ID.
    * 
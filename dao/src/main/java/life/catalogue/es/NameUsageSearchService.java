@@ -5,12 +5,14 @@ import life.catalogue.api.model.Page;
 import life.catalogue.api.search.NameUsageSearchParameter;
 import life.catalogue.api.search.NameUsageSearchRequest;
 import life.catalogue.api.search.NameUsageSearchResponse;
+import life.catalogue.api.search.NameUsageWrapper;
 import life.catalogue.api.vocab.TaxonomicStatus;
 import life.catalogue.dao.TaxonCounter;
 
 import org.gbif.nameparser.api.Rank;
 
 import java.util.Collections;
+import java.util.stream.Stream;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -28,6 +30,23 @@ public interface NameUsageSearchService extends TaxonCounter {
    */
   NameUsageSearchResponse search(NameUsageSearchRequest nameSearchRequest, Page page);
 
+  /**
+   * Cursor based paging using search_after on a point in time.
+   * Unlike offset based paging this is not limited in depth and results are consistent across pages.
+   * Facets are only computed for the first page.
+   *
+   * @param limit maximum number of usages to return
+   * @param cursor opaque cursor from the previous response or {@link life.catalogue.api.search.NameUsageRequest#CURSOR_START} to open a new cursor
+   * @return a response with the next cursor set unless it is the last page
+   */
+  NameUsageSearchResponse searchAfter(NameUsageSearchRequest nameSearchRequest, int limit, String cursor);
+
+  /**
+   * Streams all usages matching the request, ignoring any facets.
+   * The stream must be closed to release the underlying search resources.
+   */
+  Stream<NameUsageWrapper> stream(NameUsageSearchRequest nameSearchRequest);
+
 
   @Override
   default int count(DSID<String> taxonID, Rank countRank) {
@@ -60,6 +79,18 @@ public interface NameUsageSearchService extends TaxonCounter {
         LOG.info("No Elastic Search configured. Passing through search request {}", request);
         return new NameUsageSearchResponse(page, 0, Collections.EMPTY_LIST);
       }
+
+      @Override
+      public NameUsageSearchResponse searchAfter(NameUsageSearchRequest request, int limit, String cursor) {
+        LOG.info("No Elastic Search configured. Passing through search request {}", request);
+        return new NameUsageSearchResponse(new Page(0, limit), 0, Collections.EMPTY_LIST);
+      }
+
+      @Override
+      public Stream<NameUsageWrapper> stream(NameUsageSearchRequest request) {
+        LOG.info("No Elastic Search configured. Passing through search request {}", request);
+        return Stream.empty();
+      }
     };
   }
 
@@ -0,0 +1,38 @@
+package life.catalogue.es;
+
+import javax.validation.constraints.Min;
+
+/**
+ * Configuration of the in memory result cache for name usage searches and suggestions.
+ */
+public class SearchCacheConfig {
+
+  /**
+   * Maximum number of cached responses. Zero disables the cache.
+   */
+  @Min(0)
+  public int maxSize = 10000;
+
+  /**
+   * Time to live in minutes for responses that only touch immutable releases.
+   */
+  @Min(0)
+  public int releaseTtl = 24 * 60;
+
+  /**
+   * Time to live in minutes for all other cacheable responses.
+   * Responses of mutable projects are never cached.
+   */
+  @Min(0)
+  public int defaultTtl = 10;
+
+  /**
+   * Maximum number of datasets to keep facet summaries for. Zero disables facet summaries.
+   */
+  @Min(0)
+  public int facetDatasets = 1000;
+
+  public boolean isEnabled() {
+    return maxSize > 0;
+  }
+}
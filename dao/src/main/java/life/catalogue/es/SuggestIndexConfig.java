@@ -0,0 +1,28 @@
+package life.catalogue.es;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import javax.validation.constraints.NotNull;
+
+/**
+ * Configuration of the in memory autocomplete indices kept for a few heavily used datasets.
+ */
+public class SuggestIndexConfig {
+
+  /**
+   * Project keys for which the latest public release is kept in memory, e.g. 3 for the COL checklist.
+   */
+  @NotNull
+  public Set<Integer> projects = new HashSet<>();
+
+  /**
+   * Additional, non project dataset keys to keep in memory.
+   */
+  @NotNull
+  public Set<Integer> datasets = new HashSet<>();
+
+  public boolean isEnabled() {
+    return !projects.isEmpty() || !datasets.isEmpty();
+  }
+}
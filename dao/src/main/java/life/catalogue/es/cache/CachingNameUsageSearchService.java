@@ -0,0 +1,89 @@
+package life.catalogue.es.cache;
+
+import life.catalogue.api.model.Page;
+import life.catalogue.api.search.FacetValue;
+import life.catalogue.api.search.NameUsageSearchParameter;
+import life.catalogue.api.search.NameUsageSearchRequest;
+import life.catalogue.api.search.NameUsageSearchResponse;
+import life.catalogue.api.search.NameUsageWrapper;
+import life.catalogue.es.NameUsageSearchService;
+import life.catalogue.es.nu.NameUsageWrapperConverter;
+
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static life.catalogue.api.search.NameUsageSearchRequest.SortBy.TAXONOMIC;
+
+/**
+ * Search service that caches responses of a wrapped search service.
+ * Cursor based paging and streams are never cached.
+ */
+public class CachingNameUsageSearchService implements NameUsageSearchService {
+  private final NameUsageSearchService search;
+  private final SearchResultCache<NameUsageSearchResponse> cache;
+
+  public CachingNameUsageSearchService(NameUsageSearchService search, SearchResultCache<NameUsageSearchResponse> cache) {
+    this.search = search;
+    this.cache = cache;
+  }
+
+  @Override
+  public NameUsageSearchResponse search(NameUsageSearchRequest request, Page page) {
+    final Page p = page == null ? new Page() : page;
+    var key = cache.key(normalize(request), p.getOffset(), p.getLimit());
+    return cache.get(key, () -> search.search(request, p));
+  }
+
+  /**
+   * @return a copy of the request with defaults applied that can serve as a cache key.
+   *   Filter values are copied too, as the search modifies them in place, e.g. the status filter.
+   */
+  static NameUsageSearchRequest normalize(NameUsageSearchRequest request) {
+    var req = new NameUsageSearchRequest(request);
+    req.getFilters().replaceAll((param, values) -> values == null ? null : new LinkedHashSet<>(values));
+    if (req.getSortBy() == null) {
+      req.setSortBy(TAXONOMIC);
+    }
+    if (req.getQ() != null) {
+      req.setQ(req.getQ().trim());
+    }
+    return req;
+  }
+
+  /**
+   * @return a deep copy of the response, facet values are immutable and shared
+   */
+  static NameUsageSearchResponse copy(NameUsageSearchResponse resp) {
+    List<NameUsageWrapper> result = null;
+    if (resp.getResult() != null) {
+      result = resp.getResult().stream()
+        .map(NameUsageWrapperConverter::copy)
+        .collect(Collectors.toList());
+    }
+    Map<NameUsageSearchParameter, Set<FacetValue<?>>> facets = null;
+    if (resp.getFacets() != null) {
+      facets = new EnumMap<>(NameUsageSearchParameter.class);
+      for (var e : resp.getFacets().entrySet()) {
+        facets.put(e.getKey(), new LinkedHashSet<>(e.getValue()));
+      }
+    }
+    var copy = new NameUsageSearchResponse(resp, resp.getTotal(), result, facets);
+    copy.setNext(resp.getNext());
+    return copy;
+  }
+
+  @Override
+  public NameUsageSearchResponse searchAfter(NameUsageSearchRequest request, int limit, String cursor) {
+    return search.searchAfter(request, limit, cursor);
+  }
+
+  @Override
+  public Stream<NameUsageWrapper> stream(NameUsageSearchRequest request) {
+    return search.stream(request);
+  }
+
+  public SearchResultCache<NameUsageSearchResponse> getCache() {
+    return cache;
+  }
+}
@@ -0,0 +1,69 @@
+package life.catalogue.es.cache;
+
+import life.catalogue.api.search.NameUsageSuggestRequest;
+import life.catalogue.api.search.NameUsageSuggestResponse;
+import life.catalogue.api.search.NameUsageSuggestion;
+import life.catalogue.es.NameUsageSuggestionService;
+
+import java.util.stream.Collectors;
+
+/**
+ * Suggestion service that caches responses of a wrapped suggestion service.
+ */
+public class CachingNameUsageSuggestionService implements NameUsageSuggestionService {
+  private final NameUsageSuggestionService suggest;
+  private final SearchResultCache<NameUsageSuggestResponse> cache;
+
+  public CachingNameUsageSuggestionService(NameUsageSuggestionService suggest, SearchResultCache<NameUsageSuggestResponse> cache) {
+    this.suggest = suggest;
+    this.cache = cache;
+  }
+
+  @Override
+  public NameUsageSuggestResponse suggest(NameUsageSuggestRequest request) {
+    var key = cache.key(normalize(request), 0, request.getLimit() == null ? -1 : request.getLimit());
+    return cache.get(key, () -> suggest.suggest(request));
+  }
+
+  /**
+   * @return a copy of the request with defaults applied that can serve as a cache key
+   */
+  static NameUsageSuggestRequest normalize(NameUsageSuggestRequest request) {
+    var req = new NameUsageSuggestRequest(request);
+    if (req.getQ() != null) {
+      req.setQ(req.getQ().trim());
+    }
+    return req;
+  }
+
+  /**
+   * @return a deep copy of the response
+   */
+  static NameUsageSuggestResponse copy(NameUsageSuggestResponse resp) {
+    var copy = new NameUsageSuggestResponse();
+    if (resp.getSuggestions() != null) {
+      copy.setSuggestions(resp.getSuggestions().stream()
+        .map(CachingNameUsageSuggestionService::copy)
+        .collect(Collectors.toList())
+      );
+    }
+    return copy;
+  }
+
+  private static NameUsageSuggestion copy(NameUsageSuggestion sugg) {
+    var copy = new NameUsageSuggestion();
+    copy.setMatch(sugg.getMatch());
+    copy.setContext(sugg.getContext());
+    copy.setUsageId(sugg.getUsageId());
+    copy.setAcceptedUsageId(sugg.getAcceptedUsageId());
+    copy.setRank(sugg.getRank());
+    copy.setStatus(sugg.getStatus());
+    copy.setNomCode(sugg.getNomCode());
+    copy.setScore(sugg.getScore());
+    return copy;
+  }
+
+  public SearchResultCache<NameUsageSuggestResponse> getCache() {
+    return cache;
+  }
+}
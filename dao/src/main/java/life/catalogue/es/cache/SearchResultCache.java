@@ -0,0 +1,249 @@
+package life.catalogue.es.cache;
+
+import life.catalogue.api.event.DatasetChanged;
+import life.catalogue.api.event.DatasetDataChanged;
+import life.catalogue.api.exception.NotFoundException;
+import life.catalogue.api.search.NameUsageRequest;
+import life.catalogue.api.search.NameUsageSearchParameter;
+import life.catalogue.api.vocab.DatasetOrigin;
+import life.catalogue.dao.DatasetInfoCache;
+import life.catalogue.es.SearchCacheConfig;
+
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.eventbus.Subscribe;
+
+/**
+ * Size bounded response cache for search requests.
+ * Entries that only touch immutable releases live long, mutable projects are never cached
+ * and all other entries expire after a short default time to live.
+ * Entries are evicted when the data of one of their datasets changes,
+ * which is announced via the event bus.
+ * Responses are mutable and might be post processed by callers, so every caller gets its own copy
+ * and the cached instance is never handed out.
+ *
+ * @param <V> response type
+ */
+public class SearchResultCache<V> {
+  private final String name;
+  private final long releaseTtl;
+  private final long defaultTtl;
+  private final Cache<Key, V> cache;
+  // deep copy of a response
+  private final UnaryOperator<V> copy;
+  // function to lookup the origin of a dataset, null if it does not exist
+  private final Function<Integer, DatasetOrigin> originLookup;
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder missNanos = new LongAdder();
+  private final LongAdder savedNanos = new LongAdder();
+
+  /**
+   * @param copy function creating a deep copy of a response
+   */
+  public SearchResultCache(String name, SearchCacheConfig cfg, UnaryOperator<V> copy) {
+    this(name, cfg, copy, SearchResultCache::lookupOrigin);
+  }
+
+  @VisibleForTesting
+  SearchResultCache(String name, SearchCacheConfig cfg, UnaryOperator<V> copy, Function<Integer, DatasetOrigin> originLookup) {
+    this.name = name;
+    this.copy = copy;
+    this.releaseTtl = TimeUnit.MINUTES.toNanos(cfg.releaseTtl);
+    this.defaultTtl = TimeUnit.MINUTES.toNanos(cfg.defaultTtl);
+    this.originLookup = originLookup;
+    this.cache = Caffeine.newBuilder()
+      .maximumSize(cfg.maxSize)
+      .expireAfter(new Expiry<Key, V>() {
+        @Override
+        public long expireAfterCreate(Key key, V value, long currentTime) {
+          return key.ttl;
+        }
+
+        @Override
+        public long expireAfterUpdate(Key key, V value, long currentTime, long currentDuration) {
+          return currentDuration;
+        }
+
+        @Override
+        public long expireAfterRead(Key key, V value, long currentTime, long currentDuration) {
+          return currentDuration;
+        }
+      })
+      .build();
+  }
+
+  private static DatasetOrigin lookupOrigin(int datasetKey) {
+    try {
+      var info = DatasetInfoCache.CACHE.info(datasetKey);
+      return info.origin;
+    } catch (NotFoundException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Cache key made of a normalized copy of the request and the requested page.
+   */
+  static class Key {
+    final Object request;
+    final int offset;
+    final int limit;
+    final Set<Integer> datasetKeys;
+    final long ttl;
+
+    Key(Object request, int offset, int limit, Set<Integer> datasetKeys, long ttl) {
+      this.request = request;
+      this.offset = offset;
+      this.limit = limit;
+      this.datasetKeys = datasetKeys;
+      this.ttl = ttl;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (!(o instanceof Key)) return false;
+      Key key = (Key) o;
+      return offset == key.offset && limit == key.limit && request.equals(key.request);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(request, offset, limit);
+    }
+  }
+
+  /**
+   * Builds a cache key for a request which must be a normalized copy that is not being modified afterwards.
+   * @return the key or null if the request should not be cached
+   */
+  Key key(NameUsageRequest request, int offset, int limit) {
+    // decisions belong to mutable projects
+    if (request.hasFilter(NameUsageSearchParameter.CATALOGUE_KEY) || request.hasFilter(NameUsageSearchParameter.DECISION_MODE)) {
+      return null;
+    }
+    Set<Integer> datasetKeys = new HashSet<>();
+    long ttl = defaultTtl;
+    if (request.hasFilter(NameUsageSearchParameter.DATASET_KEY)) {
+      boolean releasesOnly = true;
+      for (Object val : request.getFilterValues(NameUsageSearchParameter.DATASET_KEY)) {
+        if (!(val instanceof Integer)) {
+          return null;
+        }
+        DatasetOrigin origin = originLookup.apply((Integer) val);
+        if (origin == null || origin == DatasetOrigin.PROJECT) {
+          return null;
+        }
+        releasesOnly = releasesOnly && origin.isRelease();
+        datasetKeys.add((Integer) val);
+      }
+      if (releasesOnly) {
+        ttl = releaseTtl;
+      }
+    }
+    return ttl > 0 ? new Key(request, offset, limit, datasetKeys, ttl) : null;
+  }
+
+  /**
+   * Returns a copy of the cached response for the key or loads and caches it.
+   * @param key cache key, if null the response is loaded without caching
+   */
+  V get(Key key, Supplier<V> loader) {
+    if (key == null) {
+      return loader.get();
+    }
+    V val = cache.getIfPresent(key);
+    if (val != null) {
+      hits.increment();
+      long m = misses.sum();
+      if (m > 0) {
+        savedNanos.add(missNanos.sum() / m);
+      }
+      return copy.apply(val);
+    }
+    final long start = System.nanoTime();
+    val = loader.get();
+    missNanos.add(System.nanoTime() - start);
+    misses.increment();
+    if (val != null) {
+      cache.put(key, val);
+      return copy.apply(val);
+    }
+    return val;
+  }
+
+  /**
+   * Evicts all entries touching the given dataset and all entries that are not scoped to any dataset.
+   */
+  public void invalidate(int datasetKey) {
+    cache.asMap().keySet().removeIf(k -> k.datasetKeys.isEmpty() || k.datasetKeys.contains(datasetKey));
+  }
+
+  public void invalidateAll() {
+    cache.invalidateAll();
+  }
+
+  @Subscribe
+  public void dataChanged(DatasetDataChanged event){
+    invalidate(event.datasetKey);
+  }
+
+  @Subscribe
+  public void datasetChanged(DatasetChanged event){
+    if (event.isDeletion()) {
+      invalidate(event.key);
+    }
+  }
+
+  public long size() {
+    return cache.estimatedSize();
+  }
+
+  public long getHits() {
+    return hits.sum();
+  }
+
+  public long getMisses() {
+    return misses.sum();
+  }
+
+  public double getHitRatio() {
+    long h = hits.sum();
+    long total = h + misses.sum();
+    return total == 0 ? 0 : (double) h / total;
+  }
+
+  /**
+   * @return estimated total time in milliseconds saved by cache hits, based on the average time of a miss
+   */
+  public long getSavedMillis() {
+    return TimeUnit.NANOSECONDS.toMillis(savedNanos.sum());
+  }
+
+  public void register(MetricRegistry registry) {
+    registry.register(MetricRegistry.name(SearchResultCache.class, name, "size"), (Gauge<Long>) this::size);
+    registry.register(MetricRegistry.name(SearchResultCache.class, name, "hits"), (Gauge<Long>) this::getHits);
+    registry.register(MetricRegistry.name(SearchResultCache.class, name, "misses"), (Gauge<Long>) this::getMisses);
+    registry.register(MetricRegistry.name(SearchResultCache.class, name, "hitRatio"), (Gauge<Double>) this::getHitRatio);
+    registry.register(MetricRegistry.name(SearchResultCache.class, name, "savedMillis"), (Gauge<Long>) this::getSavedMillis);
+  }
+
+  @Override
+  public String toString() {
+    return name + " cache: size=" + size() + ", hits=" + getHits() + ", misses=" + getMisses() + ", savedMillis=" + getSavedMillis();
+  }
+}
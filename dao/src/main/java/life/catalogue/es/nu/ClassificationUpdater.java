@@ -1,10 +1,12 @@
 package life.catalogue.es.nu;
 
+import life.catalogue.api.model.SimpleName;
 import life.catalogue.api.model.SimpleNameClassification;
 import life.catalogue.es.EsNameUsage;
 import life.catalogue.es.query.*;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -19,6 +21,23 @@ import static java.util.stream.Collectors.toMap;
 public class ClassificationUpdater implements Consumer<List<SimpleNameClassification>> {
 
   private static final Logger LOG = LoggerFactory.getLogger(ClassificationUpdater.class);
+  /*
+   * Replaces everything above the root taxon in both the classification and the classificationIds of a document.
+   * Both lists are aligned and start with the highest root, so the position of the root id is all we need.
+   */
+  private static final String PREFIX_SCRIPT =
+      "def ids = ctx._source.classificationIds;"
+    + "int idx = ids == null ? -1 : ids.indexOf(params.root);"
+    + "if (idx < 0) { ctx.op = 'noop'; return; }"
+    + "List newIds = new ArrayList(params.ids);"
+    + "newIds.addAll(ids.subList(idx, ids.size()));"
+    + "def cl = ctx._source.classification;"
+    + "if (cl != null && cl.size() == ids.size()) {"
+    + "  List newCl = new ArrayList(params.classification);"
+    + "  newCl.addAll(cl.subList(idx, cl.size()));"
+    + "  ctx._source.classification = newCl;"
+    + "}"
+    + "ctx._source.classificationIds = newIds;";
 
   private final NameUsageIndexer indexer;
   private final int datasetKey;
@@ -43,6 +62,33 @@ public class ClassificationUpdater implements Consumer<List<SimpleNameClassifica
     LOG.debug("Updated {} documents", documents.size());
   }
 
+  /**
+   * Creates a script that replaces the classification above the given root taxon of a document with the new one,
+   * leaving the root and all its descendants untouched.
+   *
+   * @param rootTaxonId the taxon id that was moved
+   * @param ancestors the new parents of the root taxon starting with the highest root
+   */
+  public static Script prefixScript(String rootTaxonId, List<SimpleName> ancestors) {
+    List<String> ids = new ArrayList<>(ancestors.size());
+    List<Map<String, Object>> monomials = new ArrayList<>(ancestors.size());
+    for (SimpleName sn : ancestors) {
+      ids.add(sn.getId());
+      // documents store enums as integers, but queries are written with enums as strings
+      Map<String, Object> mono = new HashMap<>();
+      if (sn.getRank() != null) {
+        mono.put("rank", sn.getRank().ordinal());
+      }
+      mono.put("name", sn.getName());
+      monomials.add(mono);
+    }
+    Map<String, Object> params = new HashMap<>();
+    params.put("root", rootTaxonId);
+    params.put("ids", ids);
+    params.put("classification", monomials);
+    return new Script(PREFIX_SCRIPT, params);
+  }
+
   private List<EsNameUsage> loadNameUsages(Set<String> ids) {
     List<EsNameUsage> usages = new ArrayList<>(ids.size());
     List<String> terms = new ArrayList<>(1024);
@@ -2,11 +2,15 @@ package life.catalogue.es.nu;
 
 import com.github.benmanes.caffeine.cache.Caffeine;
 import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.google.common.eventbus.EventBus;
 
+import life.catalogue.api.event.DatasetDataChanged;
 import life.catalogue.api.exception.NotFoundException;
 import life.catalogue.api.model.DSID;
 import life.catalogue.api.model.Sector;
+import life.catalogue.api.model.SimpleName;
 import life.catalogue.api.model.SimpleNameClassification;
+import life.catalogue.api.search.NameUsageSearchParameter;
 import life.catalogue.api.search.NameUsageWrapper;
 import life.catalogue.api.search.SimpleDecision;
 import life.catalogue.common.func.BatchConsumer;
@@ -19,7 +23,10 @@ import life.catalogue.db.mapper.DatasetMapper;
 import life.catalogue.db.mapper.DecisionMapper;
 import life.catalogue.db.mapper.NameUsageWrapperMapper;
 import life.catalogue.db.mapper.SectorMapper;
+import life.catalogue.db.mapper.TaxonMapper;
 import life.catalogue.es.*;
+import life.catalogue.es.query.BoolQuery;
+import life.catalogue.es.query.TermQuery;
 
 import java.io.File;
 import java.io.IOException;
@@ -31,6 +38,8 @@ import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
+import javax.annotation.Nullable;
+
 import life.catalogue.matching.TaxGroupAnalyzer;
 
 import org.apache.ibatis.cursor.Cursor;
@@ -52,12 +61,28 @@ public class NameUsageIndexServiceEs implements NameUsageIndexService {
   private final SqlSessionFactory factory;
   private final NameUsageProcessor processor;
   private final TaxGroupAnalyzer groupAnalyzer = new TaxGroupAnalyzer();
+  private final EventBus bus;
 
   public NameUsageIndexServiceEs(RestClient client, EsConfig esConfig, File tmpDir, SqlSessionFactory factory) {
+    this(client, esConfig, tmpDir, factory, null);
+  }
+
+  /**
+   * @param bus optional bus to announce completely indexed datasets with a DatasetDataChanged event,
+   *            so search caches populated while indexing get flushed
+   */
+  public NameUsageIndexServiceEs(RestClient client, EsConfig esConfig, File tmpDir, SqlSessionFactory factory, @Nullable EventBus bus) {
     this.client = client;
     this.esConfig = esConfig;
     this.factory = factory;
     this.processor = new NameUsageProcessor(factory, tmpDir);
+    this.bus = bus;
+  }
+
+  private void dataChanged(int datasetKey) {
+    if (bus != null) {
+      bus.post(new DatasetDataChanged(datasetKey));
+    }
   }
 
   @Override
@@ -78,6 +103,7 @@ public class NameUsageIndexServiceEs implements NameUsageIndexService {
         public void close() {
           super.close();
           EsUtil.refreshIndex(client, esConfig.nameUsage.name);
+          dataChanged(datasetKey);
         }
       };
 
@@ -131,6 +157,7 @@ public class NameUsageIndexServiceEs implements NameUsageIndexService {
 
       LOG.info("Successfully indexed dataset {} into index {}. Usages: {}. Bare names: {}. Total: {}.",
         datasetKey, esConfig.nameUsage.name, stats.usages, stats.names, stats.total());
+      dataChanged(datasetKey);
       return stats;
 
     } catch (IOException e) {
@@ -177,6 +204,7 @@ public class NameUsageIndexServiceEs implements NameUsageIndexService {
 
     LOG.info("Successfully indexed sector {}. Index: {}. Usages: {}. Bare names: {}. Total: {}.",
       sectorKey, esConfig.nameUsage.name, stats.usages, stats.names, stats.total());
+    dataChanged(sectorKey.getDatasetKey());
     return stats;
   }
 
@@ -242,6 +270,39 @@ public class NameUsageIndexServiceEs implements NameUsageIndexService {
 
   @Override
   public void updateClassification(int datasetKey, String rootTaxonId) {
+    try {
+      int updated = updateClassificationPrefix(datasetKey, rootTaxonId);
+      EsUtil.refreshIndex(client, esConfig.nameUsage.name);
+      LOG.info("Successfully updated the classification of {} name usages below {} in dataset {}", updated, rootTaxonId, datasetKey);
+    } catch (RuntimeException e) {
+      LOG.warn("Failed to update classification prefix below {} in dataset {}. Reprocess entire subtree", rootTaxonId, datasetKey, e);
+      reprocessClassification(datasetKey, rootTaxonId);
+    }
+  }
+
+  /**
+   * Rewrites only the part of the classification above the root taxon directly in ES for all documents
+   * that contain the root in their classificationIds, without loading the subtree from Postgres.
+   * @return number of updated documents
+   */
+  private int updateClassificationPrefix(int datasetKey, String rootTaxonId) {
+    List<SimpleName> ancestors;
+    try (SqlSession session = factory.openSession()) {
+      ancestors = new ArrayList<>(session.getMapper(TaxonMapper.class).classificationSimple(DSID.of(datasetKey, rootTaxonId)));
+    }
+    // mapper lists the direct parent first, ES starts with the highest root
+    Collections.reverse(ancestors);
+    BoolQuery query = BoolQuery.withFilters(
+      new TermQuery("datasetKey", datasetKey),
+      new TermQuery(NameUsageFieldLookup.INSTANCE.lookupSingle(NameUsageSearchParameter.TAXON_ID), rootTaxonId)
+    );
+    return EsUtil.updateByQuery(client, esConfig.nameUsage.name, query, ClassificationUpdater.prefixScript(rootTaxonId, ancestors));
+  }
+
+  /**
+   * Reloads the entire subtree from Postgres and updates the classification of every document individually.
+   */
+  private void reprocessClassification(int datasetKey, String rootTaxonId) {
     NameUsageIndexer indexer = new NameUsageIndexer(client, esConfig.nameUsage.name);
     try (SqlSession session = factory.openSession()) {
       final ClassificationUpdater updater = new ClassificationUpdater(indexer, datasetKey);
@@ -85,7 +85,8 @@ public class NameUsageQueryService {
     if (LOG.isTraceEnabled()) {
       LOG.trace("Executing query: {}", EsModule.writeDebug(esSearchRequest));
     }
-    String endpoint = String.format("/%s/_search", index);
+    // point in time searches must not target an index
+    String endpoint = esSearchRequest.getPit() == null ? String.format("/%s/_search", index) : "/_search";
     Request httpRequest = new Request("GET", endpoint);
     httpRequest.setJsonEntity(EsModule.write(esSearchRequest));
     Response httpResponse = EsUtil.executeRequest(client, httpRequest);
@@ -66,6 +66,20 @@ public class NameUsageWrapperConverter implements DownwardConverter<NameUsageWra
     }
   }
 
+  /**
+   * Creates a deep copy of a NameUsageWrapper by serializing it with Kryo.
+   */
+  public static NameUsageWrapper copy(NameUsageWrapper nuw) {
+    Kryo kryo = pool.obtain();
+    try {
+      Output output = new Output(bufferSize, -1);
+      kryo.writeObject(output, nuw);
+      return kryo.readObject(new Input(output.getBuffer(), 0, output.position()), NameUsageWrapper.class);
+    } finally {
+      pool.free(kryo);
+    }
+  }
+
   /**
    * Provides a weakly normalized version of the provided string. Used to index generic epithets. See {@link NameStrings}.
    */
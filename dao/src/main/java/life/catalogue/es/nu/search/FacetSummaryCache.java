@@ -0,0 +1,154 @@
+package life.catalogue.es.nu.search;
+
+import life.catalogue.api.event.DatasetChanged;
+import life.catalogue.api.event.DatasetDataChanged;
+import life.catalogue.api.exception.NotFoundException;
+import life.catalogue.api.search.FacetValue;
+import life.catalogue.api.search.NameUsageSearchParameter;
+import life.catalogue.api.search.NameUsageSearchRequest;
+import life.catalogue.api.vocab.DatasetOrigin;
+import life.catalogue.dao.DatasetInfoCache;
+import life.catalogue.es.query.FacetAggregation;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import javax.annotation.Nullable;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.eventbus.Subscribe;
+
+/**
+ * Keeps per dataset facet summaries, i.e. the facet values of all usages of a dataset, to answer facet requests
+ * that are not filtered by anything but a single dataset key without running ES aggregations.
+ * The values of a facet are aggregated once with a large limit when first requested and kept until the data of the dataset changes.
+ * The index service announces completely indexed datasets with a DatasetDataChanged event,
+ * so summaries aggregated while a dataset was still being indexed are discarded.
+ * Mutable projects are never summarized.
+ */
+public class FacetSummaryCache {
+  private static final Logger LOG = LoggerFactory.getLogger(FacetSummaryCache.class);
+  // number of facet values kept per facet, larger facet limits are answered by ES
+  static final int SUMMARY_LIMIT = 1000;
+
+  private final Cache<Integer, Map<NameUsageSearchParameter, Set<FacetValue<?>>>> summaries;
+  // function to lookup the origin of a dataset, null if it does not exist
+  private final Function<Integer, DatasetOrigin> originLookup;
+
+  public FacetSummaryCache(int maxDatasets) {
+    this(maxDatasets, FacetSummaryCache::lookupOrigin);
+  }
+
+  @VisibleForTesting
+  FacetSummaryCache(int maxDatasets, Function<Integer, DatasetOrigin> originLookup) {
+    this.originLookup = originLookup;
+    this.summaries = Caffeine.newBuilder()
+      .maximumSize(maxDatasets)
+      .build();
+  }
+
+  private static DatasetOrigin lookupOrigin(int datasetKey) {
+    try {
+      return DatasetInfoCache.CACHE.info(datasetKey).origin;
+    } catch (NotFoundException e) {
+      return null;
+    }
+  }
+
+  /**
+   * @return the dataset key if the request only asks for facets of an entire immutable dataset, otherwise null
+   */
+  @Nullable
+  Integer summaryKey(NameUsageSearchRequest request) {
+    if (request.getFacets().isEmpty()
+        || request.hasQ()
+        || request.getMinRank() != null
+        || request.getMaxRank() != null
+        || request.getFilters().size() != 1
+        || !request.hasFilter(NameUsageSearchParameter.DATASET_KEY)
+        || request.getFilterValues(NameUsageSearchParameter.DATASET_KEY).size() != 1
+    ) {
+      return null;
+    }
+    Object key = request.getFilterValue(NameUsageSearchParameter.DATASET_KEY);
+    if (key instanceof Integer) {
+      DatasetOrigin origin = originLookup.apply((Integer) key);
+      if (origin != null && origin != DatasetOrigin.PROJECT) {
+        return (Integer) key;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Returns the requested facets of a dataset, aggregating facets that have not been summarized before with the given loader.
+   *
+   * @param loader function aggregating the given facets over all usages of the dataset using a facet limit of SUMMARY_LIMIT
+   * @return the facets truncated to the facet limit or null if the facet limit exceeds the summary limit
+   */
+  @Nullable
+  Map<NameUsageSearchParameter, Set<FacetValue<?>>> facets(int datasetKey, Set<NameUsageSearchParameter> facets, @Nullable Integer facetLimit,
+                                                          Function<Set<NameUsageSearchParameter>, Map<NameUsageSearchParameter, Set<FacetValue<?>>>> loader) {
+    final int limit = facetLimit == null ? FacetAggregation.DEFAULT_NUM_BUCKETS : facetLimit;
+    if (limit > SUMMARY_LIMIT) {
+      return null;
+    }
+    var summary = summaries.get(datasetKey, k -> new ConcurrentHashMap<>());
+    Set<NameUsageSearchParameter> missing = EnumSet.noneOf(NameUsageSearchParameter.class);
+    for (NameUsageSearchParameter p : facets) {
+      if (!summary.containsKey(p)) {
+        missing.add(p);
+      }
+    }
+    if (!missing.isEmpty()) {
+      LOG.debug("Summarize facets {} for dataset {}", missing, datasetKey);
+      var loaded = loader.apply(missing);
+      for (NameUsageSearchParameter p : missing) {
+        Set<FacetValue<?>> values = loaded == null ? null : loaded.get(p);
+        summary.put(p, values == null ? Collections.<FacetValue<?>>emptySortedSet() : values);
+      }
+    }
+    Map<NameUsageSearchParameter, Set<FacetValue<?>>> result = new EnumMap<>(NameUsageSearchParameter.class);
+    for (NameUsageSearchParameter p : facets) {
+      result.put(p, truncate(summary.get(p), limit));
+    }
+    return result;
+  }
+
+  /**
+   * Facet values are sorted by their count, so the first values are the ones ES would have returned.
+   */
+  private static Set<FacetValue<?>> truncate(Set<FacetValue<?>> values, int limit) {
+    if (values.size() <= limit) {
+      return values;
+    }
+    TreeSet<FacetValue<?>> truncated = new TreeSet<>();
+    for (FacetValue<?> v : values) {
+      if (truncated.size() >= limit) break;
+      truncated.add(v);
+    }
+    return truncated;
+  }
+
+  public void invalidate(int datasetKey) {
+    summaries.invalidate(datasetKey);
+  }
+
+  @Subscribe
+  public void dataChanged(DatasetDataChanged event) {
+    invalidate(event.datasetKey);
+  }
+
+  @Subscribe
+  public void datasetChanged(DatasetChanged event) {
+    if (event.isDeletion()) {
+      invalidate(event.key);
+    }
+  }
+}
@@ -1,16 +1,34 @@
 package life.catalogue.es.nu.search;
 
 import life.catalogue.api.model.Page;
+import life.catalogue.api.search.FacetValue;
+import life.catalogue.api.search.NameUsageRequest;
+import life.catalogue.api.search.NameUsageSearchParameter;
 import life.catalogue.api.search.NameUsageSearchRequest;
 import life.catalogue.api.search.NameUsageSearchResponse;
+import life.catalogue.api.search.NameUsageWrapper;
 import life.catalogue.es.EsException;
 import life.catalogue.es.EsNameUsage;
+import life.catalogue.es.EsUtil;
 import life.catalogue.es.NameUsageSearchService;
 import life.catalogue.es.nu.NameUsageQueryService;
 import life.catalogue.es.query.EsSearchRequest;
+import life.catalogue.es.query.PointInTime;
 import life.catalogue.es.response.EsResponse;
+import life.catalogue.es.response.SearchHit;
 
 import java.io.IOException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import javax.annotation.Nullable;
 
 import org.elasticsearch.client.RestClient;
 import org.slf4j.Logger;
@@ -27,9 +45,23 @@ public class NameUsageSearchServiceEs extends NameUsageQueryService implements N
 
   @SuppressWarnings("unused")
   private static final Logger LOG = LoggerFactory.getLogger(NameUsageSearchServiceEs.class);
+  // keep alive of a point in time between 2 subsequent page requests
+  static final String PIT_KEEP_ALIVE = "2m";
+  // page size used when streaming all results
+  static final int STREAM_BATCH_SIZE = 1000;
+
+  private final FacetSummaryCache facetSummaries;
 
   public NameUsageSearchServiceEs(String indexName, RestClient client) {
+    this(indexName, client, null);
+  }
+
+  /**
+   * @param facetSummaries optional per dataset facet summaries to answer unfiltered facet requests without aggregations
+   */
+  public NameUsageSearchServiceEs(String indexName, RestClient client, @Nullable FacetSummaryCache facetSummaries) {
     super(indexName, client);
+    this.facetSummaries = facetSummaries;
   }
 
   public NameUsageSearchResponse search(NameUsageSearchRequest request, Page page) {
@@ -40,15 +72,40 @@ public class NameUsageSearchServiceEs extends NameUsageQueryService implements N
     }
   }
 
+  @Override
+  public NameUsageSearchResponse searchAfter(NameUsageSearchRequest request, int limit, String cursor) {
+    SearchCursor sc = cursor == null || cursor.equals(NameUsageRequest.CURSOR_START) ?
+      new SearchCursor(EsUtil.openPointInTime(client, index, PIT_KEEP_ALIVE), null) :
+      SearchCursor.decode(cursor);
+    try {
+      return searchAfter(index, request, limit, sc);
+    } catch (IOException e) {
+      throw new EsException(e);
+    }
+  }
+
+  @Override
+  public Stream<NameUsageWrapper> stream(NameUsageSearchRequest request) {
+    NameUsageSearchRequest req = new NameUsageSearchRequest(request);
+    req.setFacets(null);
+    ScrollIterator iter = new ScrollIterator(req);
+    return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iter, Spliterator.ORDERED | Spliterator.NONNULL), false)
+      .onClose(iter::close);
+  }
+
   @VisibleForTesting
   public NameUsageSearchResponse search(String index, NameUsageSearchRequest request, Page page) throws IOException {
-    RequestValidator validator = new RequestValidator(request);
-    validator.validateRequest();
-    if (request.hasQ() && request.getContent().contains(SCIENTIFIC_NAME) && request.getSearchType() != EXACT) {
-      String q = request.getQ().toLowerCase();
-      request.setQ(q);
-      request.setSciNameSearchTerms(getSearchTerms(client, index, SCINAME_WHOLE_WORDS, q));
+    Integer summaryKey = facetSummaries == null ? null : facetSummaries.summaryKey(request);
+    if (summaryKey != null) {
+      var facets = facetSummaries.facets(summaryKey, request.getFacets(), request.getFacetLimit(), missing -> aggregate(index, summaryKey, missing));
+      if (facets != null) {
+        NameUsageSearchRequest noFacets = new NameUsageSearchRequest(request);
+        noFacets.setFacets(null);
+        NameUsageSearchResponse resp = search(index, noFacets, page);
+        return new NameUsageSearchResponse(page, resp.getTotal(), resp.getResult(), facets);
+      }
     }
+    prepareRequest(index, request);
     RequestTranslator translator = new RequestTranslator(request, page);
     EsSearchRequest esSearchRequest = translator.translateRequest();
     NameUsageSearchResponse response = search(index, esSearchRequest, page);
@@ -56,6 +113,41 @@ public class NameUsageSearchServiceEs extends NameUsageQueryService implements N
     return processor.processResponse();
   }
 
+  /**
+   * Executes a single search_after request for the given cursor and updates the cursor in place
+   * to point to the last hit of the returned page. If the returned page is the last one,
+   * the point in time is closed right away and the cursor in the response remains empty.
+   */
+  @VisibleForTesting
+  NameUsageSearchResponse searchAfter(String index, NameUsageSearchRequest request, int limit, SearchCursor cursor) throws IOException {
+    prepareRequest(index, request);
+    final Page page = new Page(0, limit);
+    RequestTranslator translator = new RequestTranslator(request, page);
+    EsSearchRequest esSearchRequest = translator.translateRequest();
+    // search_after replaces the offset and the index is given by the point in time
+    esSearchRequest.setFrom(null);
+    esSearchRequest.setPit(new PointInTime(cursor.getPit(), PIT_KEEP_ALIVE));
+    esSearchRequest.setSearchAfter(cursor.getAfter());
+    if (cursor.getAfter() != null) {
+      // facets do not change across pages
+      esSearchRequest.setAggregations(null);
+    }
+    EsResponse<EsNameUsage> esResponse = executeSearchRequest(index, esSearchRequest);
+    if (esResponse.getPitId() != null) {
+      cursor.setPit(esResponse.getPitId());
+    }
+    NameUsageSearchResponse response = new ResponseConverter(esResponse).convertEsResponse(page);
+    List<SearchHit<EsNameUsage>> hits = esResponse.getHits().getHits();
+    if (limit > 0 && hits.size() == limit) {
+      cursor.setAfter(hits.get(hits.size() - 1).getSort());
+      response.setNext(cursor.encode());
+    } else {
+      EsUtil.closePointInTime(client, cursor.getPit());
+    }
+    ResponsePostProcessor processor = new ResponsePostProcessor(request, response);
+    return processor.processResponse();
+  }
+
   @VisibleForTesting
   public NameUsageSearchResponse search(String index, EsSearchRequest esSearchRequest, Page page)
       throws IOException {
@@ -64,4 +156,79 @@ public class NameUsageSearchServiceEs extends NameUsageQueryService implements N
     return converter.convertEsResponse(page);
   }
 
+  /**
+   * Aggregates the given facets over all usages of a dataset without returning any usages.
+   */
+  private Map<NameUsageSearchParameter, Set<FacetValue<?>>> aggregate(String index, int datasetKey, Set<NameUsageSearchParameter> facets) {
+    NameUsageSearchRequest req = new NameUsageSearchRequest();
+    req.addFilter(NameUsageSearchParameter.DATASET_KEY, datasetKey);
+    req.setFacets(facets);
+    req.setFacetLimit(FacetSummaryCache.SUMMARY_LIMIT);
+    Page page = new Page(0, 0);
+    EsSearchRequest esSearchRequest = new RequestTranslator(req, page).translateRequest();
+    try {
+      return search(index, esSearchRequest, page).getFacets();
+    } catch (IOException e) {
+      throw new EsException(e);
+    }
+  }
+
+  private void prepareRequest(String index, NameUsageSearchRequest request) throws IOException {
+    RequestValidator validator = new RequestValidator(request);
+    validator.validateRequest();
+    if (request.hasQ() && request.getContent().contains(SCIENTIFIC_NAME) && request.getSearchType() != EXACT) {
+      String q = request.getQ().toLowerCase();
+      request.setQ(q);
+      request.setSciNameSearchTerms(getSearchTerms(client, index, SCINAME_WHOLE_WORDS, q));
+    }
+  }
+
+  /**
+   * Iterates over all results of a request by paging through a point in time with search_after.
+   */
+  private class ScrollIterator implements Iterator<NameUsageWrapper>, AutoCloseable {
+    private final NameUsageSearchRequest request;
+    private SearchCursor cursor;
+    private Iterator<NameUsageWrapper> page;
+    private boolean last = false;
+
+    ScrollIterator(NameUsageSearchRequest request) {
+      this.request = request;
+    }
+
+    @Override
+    public boolean hasNext() {
+      while ((page == null || !page.hasNext()) && !last) {
+        if (cursor == null) {
+          cursor = new SearchCursor(EsUtil.openPointInTime(client, index, PIT_KEEP_ALIVE), null);
+        }
+        try {
+          NameUsageSearchResponse resp = searchAfter(index, request, STREAM_BATCH_SIZE, cursor);
+          last = resp.getNext() == null;
+          page = resp.getResult().iterator();
+        } catch (IOException e) {
+          throw new EsException(e);
+        }
+      }
+      return page != null && page.hasNext();
+    }
+
+    @Override
+    public NameUsageWrapper next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      return page.next();
+    }
+
+    @Override
+    public void close() {
+      // the last page closes the PIT already
+      if (cursor != null && !last) {
+        EsUtil.closePointInTime(client, cursor.getPit());
+        last = true;
+      }
+    }
+  }
+
 }
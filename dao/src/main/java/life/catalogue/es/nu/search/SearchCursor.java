@@ -0,0 +1,86 @@
+package life.catalogue.es.nu.search;
+
+import life.catalogue.api.jackson.ApiModule;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.Objects;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+
+/**
+ * Opaque, url safe cursor for search_after based paging.
+ * It keeps the point in time (PIT) id and the sort values of the last hit of the previous page.
+ * A cursor is only valid for the very same search request it was issued for
+ * and expires together with its PIT if it has not been used for a while.
+ */
+public class SearchCursor {
+  private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+  private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+  private String pit;
+  private List<Object> after;
+
+  public SearchCursor() {
+  }
+
+  public SearchCursor(String pit, List<Object> after) {
+    this.pit = pit;
+    this.after = after;
+  }
+
+  public static SearchCursor decode(String cursor) throws IllegalArgumentException {
+    try {
+      byte[] json = DECODER.decode(cursor);
+      SearchCursor sc = ApiModule.MAPPER.readValue(json, SearchCursor.class);
+      if (sc.pit == null) {
+        throw new IllegalArgumentException("Invalid cursor " + cursor);
+      }
+      return sc;
+    } catch (IOException | IllegalArgumentException e) {
+      throw new IllegalArgumentException("Invalid cursor " + cursor, e);
+    }
+  }
+
+  public String encode() {
+    try {
+      return ENCODER.encodeToString(ApiModule.MAPPER.writeValueAsString(this).getBytes(StandardCharsets.UTF_8));
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  public String getPit() {
+    return pit;
+  }
+
+  public void setPit(String pit) {
+    this.pit = pit;
+  }
+
+  /**
+   * @return sort values of the last hit of the previous page or null for the first page
+   */
+  public List<Object> getAfter() {
+    return after;
+  }
+
+  public void setAfter(List<Object> after) {
+    this.after = after;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (!(o instanceof SearchCursor)) return false;
+    SearchCursor that = (SearchCursor) o;
+    return Objects.equals(pit, that.pit) && Objects.equals(after, that.after);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(pit, after);
+  }
+}
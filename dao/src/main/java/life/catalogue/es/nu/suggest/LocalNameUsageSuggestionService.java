@@ -0,0 +1,181 @@
+package life.catalogue.es.nu.suggest;
+
+import life.catalogue.api.event.DatasetChanged;
+import life.catalogue.api.event.DatasetDataChanged;
+import life.catalogue.api.search.NameUsageSearchParameter;
+import life.catalogue.api.search.NameUsageSearchRequest;
+import life.catalogue.api.search.NameUsageSuggestRequest;
+import life.catalogue.api.search.NameUsageSuggestResponse;
+import life.catalogue.api.search.NameUsageSuggestion;
+import life.catalogue.common.Managed;
+import life.catalogue.concurrent.ExecutorUtils;
+import life.catalogue.concurrent.NamedThreadFactory;
+import life.catalogue.dao.NameUsageProcessor;
+import life.catalogue.db.mapper.DatasetMapper;
+import life.catalogue.es.NameUsageSuggestionService;
+import life.catalogue.es.SuggestIndexConfig;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.eventbus.Subscribe;
+
+/**
+ * A suggestion service that answers plain prefix requests for a few configured hot datasets from in memory indices
+ * and delegates all other requests to another, usually the ES based, service.
+ * The latest public release of configured projects is tracked and indices are rebuilt in the background
+ * when a new release is published or a configured dataset changed its data.
+ */
+public class LocalNameUsageSuggestionService implements NameUsageSuggestionService, Managed {
+  private static final Logger LOG = LoggerFactory.getLogger(LocalNameUsageSuggestionService.class);
+  private static final String THREAD_NAME = "suggest-index";
+  private static final int DEFAULT_LIMIT = 10;
+
+  private final NameUsageSuggestionService delegate;
+  private final SuggestIndexConfig cfg;
+  private final SqlSessionFactory factory;
+  private final NameUsageProcessor processor;
+  private final Map<Integer, SuggestIndex> indices = new ConcurrentHashMap<>();
+  private ExecutorService exec;
+
+  public LocalNameUsageSuggestionService(NameUsageSuggestionService delegate, SuggestIndexConfig cfg,
+                                         SqlSessionFactory factory, NameUsageProcessor processor) {
+    this.delegate = delegate;
+    this.cfg = cfg;
+    this.factory = factory;
+    this.processor = processor;
+  }
+
+  @Override
+  public NameUsageSuggestResponse suggest(NameUsageSuggestRequest request) {
+    SuggestIndex idx = localIndex(request);
+    if (idx != null) {
+      List<NameUsageSuggestion> suggestions = idx.suggest(request.getQ(),
+        request.getLimit() == null ? DEFAULT_LIMIT : request.getLimit(),
+        request.isAccepted(), request.getMinRank(), request.getMaxRank()
+      );
+      if (suggestions != null) {
+        return new NameUsageSuggestResponse(suggestions);
+      }
+    }
+    return delegate.suggest(request);
+  }
+
+  /**
+   * @return the in memory index to use for the request or null if the request needs to go to the delegate
+   */
+  private SuggestIndex localIndex(NameUsageSuggestRequest req) {
+    if (indices.isEmpty() || StringUtils.isBlank(req.getQ()) || req.isFuzzy() || req.isReverse()
+        || (req.getSortBy() != null && req.getSortBy() != NameUsageSearchRequest.SortBy.TAXONOMIC)
+        || req.getFilters().size() != 1
+        || !req.hasFilter(NameUsageSearchParameter.DATASET_KEY)
+        || req.getFilterValues(NameUsageSearchParameter.DATASET_KEY).size() != 1
+    ) {
+      return null;
+    }
+    Object key = req.getFilterValue(NameUsageSearchParameter.DATASET_KEY);
+    return key instanceof Integer ? indices.get(key) : null;
+  }
+
+  /**
+   * @return the dataset keys currently served from memory
+   */
+  public Set<Integer> indexedDatasets() {
+    return Collections.unmodifiableSet(indices.keySet());
+  }
+
+  /**
+   * Resolves the configured datasets and builds missing indices, removing outdated ones.
+   */
+  private void sync() {
+    Set<Integer> keys = new HashSet<>(cfg.datasets);
+    try (SqlSession session = factory.openSession()) {
+      DatasetMapper dm = session.getMapper(DatasetMapper.class);
+      for (Integer projectKey : cfg.projects) {
+        Integer releaseKey = dm.latestRelease(projectKey, true, null);
+        if (releaseKey == null) {
+          LOG.info("No public release existing for project {}", projectKey);
+        } else {
+          keys.add(releaseKey);
+        }
+      }
+    }
+    for (Integer key : keys) {
+      if (!indices.containsKey(key)) {
+        build(key);
+      }
+    }
+    indices.keySet().retainAll(keys);
+  }
+
+  private void build(int datasetKey) {
+    try {
+      LOG.info("Building suggest index for dataset {}", datasetKey);
+      SuggestIndex.Builder builder = SuggestIndex.builder(datasetKey);
+      processor.processDataset(datasetKey, builder);
+      indices.put(datasetKey, builder.build());
+    } catch (Exception e) {
+      LOG.error("Failed to build suggest index for dataset {}", datasetKey, e);
+    }
+  }
+
+  private void submit(Runnable task) {
+    if (exec != null) {
+      exec.submit(task);
+    }
+  }
+
+  @Subscribe
+  public void datasetChanged(DatasetChanged event) {
+    if (event.isDeletion()) {
+      indices.remove(event.key);
+
+    } else if (event.isUpdated() // assures we got both obj and old
+      && event.obj.getOrigin().isRelease()
+      && cfg.projects.contains(event.obj.getSourceKey())
+      && event.old.isPrivat() // that was private before
+      && !event.obj.isPrivat() // but now is public
+    ) {
+      LOG.info("Release {} of project {} was published", event.obj.getKey(), event.obj.getSourceKey());
+      submit(this::sync);
+    }
+  }
+
+  @Subscribe
+  public void dataChanged(DatasetDataChanged event) {
+    if (indices.containsKey(event.datasetKey)) {
+      LOG.info("Data of dataset {} changed", event.datasetKey);
+      submit(() -> build(event.datasetKey));
+    }
+  }
+
+  @Override
+  public void start() throws Exception {
+    if (cfg.isEnabled()) {
+      exec = Executors.newSingleThreadExecutor(new NamedThreadFactory(THREAD_NAME, Thread.MIN_PRIORITY, true));
+      submit(this::sync);
+    }
+  }
+
+  @Override
+  public void stop() throws Exception {
+    if (exec != null) {
+      ExecutorUtils.shutdown(exec);
+      exec = null;
+    }
+    indices.clear();
+  }
+
+  @Override
+  public boolean hasStarted() {
+    return exec != null;
+  }
+}
@@ -0,0 +1,430 @@
+package life.catalogue.es.nu.suggest;
+
+import life.catalogue.api.model.NameUsage;
+import life.catalogue.api.model.SimpleName;
+import life.catalogue.api.model.Synonym;
+import life.catalogue.api.search.NameUsageSuggestion;
+import life.catalogue.api.search.NameUsageWrapper;
+import life.catalogue.api.vocab.TaxonomicStatus;
+
+import org.gbif.nameparser.api.NomCode;
+import org.gbif.nameparser.api.Rank;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+import javax.annotation.Nullable;
+
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import it.unimi.dsi.fastutil.bytes.ByteArrayList;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntArrays;
+import it.unimi.dsi.fastutil.ints.IntRBTreeSet;
+import it.unimi.dsi.fastutil.ints.IntSortedSet;
+
+/**
+ * A compact, immutable in memory autocomplete index for the usages of a single dataset.
+ * It mimics the ES based suggestion service for the common case of a plain prefix query
+ * that is sorted taxonomically, i.e. by rank first and then by the scientific name.
+ *
+ * Folded names are stored as one large UTF8 byte array with a sorted array of entries pointing to the start of every word,
+ * so any word of a name can be matched by its prefix using a binary search.
+ * Usages are kept in taxonomic order so the best suggestions are simply the ones with the lowest usage index.
+ * For short prefixes with very many matches the best usages are precomputed.
+ */
+public class SuggestIndex {
+  private static final Logger LOG = LoggerFactory.getLogger(SuggestIndex.class);
+  private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+  private static final Rank[] RANKS = Rank.values();
+  private static final TaxonomicStatus[] STATUS = TaxonomicStatus.values();
+  private static final NomCode[] CODES = NomCode.values();
+  // prefixes up to this length get precomputed top usages if they match more than SCAN_LIMIT entries
+  static final int MAX_PRECOMPUTED_PREFIX = 6;
+  static final int SCAN_LIMIT = 10_000;
+  static final int TOP_SIZE = 100;
+  // larger ranges that cannot be answered from precomputed usages are left to ES
+  static final int MAX_SCAN = 250_000;
+
+  private final int datasetKey;
+  private final byte[] chars;
+  private final int[] nameStart;
+  private final int[] entryPos;
+  private final int[] entryUsage;
+  private final String[] ids;
+  private final String[] names;
+  private final String[] contexts;
+  private final String[] acceptedIds;
+  private final short[] ranks;
+  private final short[] status;
+  private final short[] codes;
+  private final Map<String, int[]> top;
+
+  private SuggestIndex(int datasetKey, byte[] chars, int[] nameStart, int[] entryPos, int[] entryUsage,
+                       String[] ids, String[] names, String[] contexts, String[] acceptedIds,
+                       short[] ranks, short[] status, short[] codes, Map<String, int[]> top) {
+    this.datasetKey = datasetKey;
+    this.chars = chars;
+    this.nameStart = nameStart;
+    this.entryPos = entryPos;
+    this.entryUsage = entryUsage;
+    this.ids = ids;
+    this.names = names;
+    this.contexts = contexts;
+    this.acceptedIds = acceptedIds;
+    this.ranks = ranks;
+    this.status = status;
+    this.codes = codes;
+    this.top = top;
+  }
+
+  public static Builder builder(int datasetKey) {
+    return new Builder(datasetKey);
+  }
+
+  public int getDatasetKey() {
+    return datasetKey;
+  }
+
+  /**
+   * @return number of indexed usages
+   */
+  public int size() {
+    return ids.length;
+  }
+
+  /**
+   * Lowercases, strips accents and collapses whitespace.
+   */
+  static String fold(String x) {
+    if (x == null) return "";
+    String s = StringUtils.stripAccents(x.trim().toLowerCase());
+    return WHITESPACE.matcher(s).replaceAll(" ");
+  }
+
+  /**
+   * Finds the best usages having a word starting with the given query.
+   *
+   * @return the matching suggestions in taxonomic order or null if the query cannot be answered cheaply from memory
+   */
+  @Nullable
+  public List<NameUsageSuggestion> suggest(String q, int limit, boolean accepted, @Nullable Rank minRank, @Nullable Rank maxRank) {
+    byte[] qb = fold(q).getBytes(StandardCharsets.UTF_8);
+    if (qb.length == 0 || limit < 1) {
+      return Collections.emptyList();
+    }
+    final int lo = lowerBound(qb);
+    final int hi = upperBound(qb, lo);
+    if (lo >= hi) {
+      return Collections.emptyList();
+    }
+    int[] usages = null;
+    if (hi - lo > SCAN_LIMIT) {
+      int[] best = qb.length <= MAX_PRECOMPUTED_PREFIX ? top.get(key(qb, qb.length)) : null;
+      if (best != null) {
+        IntArrayList hits = new IntArrayList(limit);
+        for (int u : best) {
+          if (matches(u, accepted, minRank, maxRank)) {
+            hits.add(u);
+            if (hits.size() == limit) break;
+          }
+        }
+        // a truncated list without enough hits says nothing about the remaining usages
+        if (hits.size() == limit || best.length < TOP_SIZE) {
+          usages = hits.toIntArray();
+        }
+      }
+      if (usages == null && hi - lo > MAX_SCAN) {
+        return null;
+      }
+    }
+    if (usages == null) {
+      usages = scan(lo, hi, limit, u -> matches(u, accepted, minRank, maxRank));
+    }
+    List<NameUsageSuggestion> result = new ArrayList<>(usages.length);
+    for (int u : usages) {
+      result.add(suggestion(u));
+    }
+    return result;
+  }
+
+  private boolean matches(int u, boolean accepted, Rank minRank, Rank maxRank) {
+    if (accepted) {
+      if (status[u] != TaxonomicStatus.ACCEPTED.ordinal() && status[u] != TaxonomicStatus.PROVISIONALLY_ACCEPTED.ordinal()) {
+        return false;
+      }
+    }
+    if (minRank != null || maxRank != null) {
+      // the higher the rank, the lower the ordinal. Usages without a rank never match a range
+      if (ranks[u] < 0
+          || minRank != null && ranks[u] > minRank.ordinal()
+          || maxRank != null && ranks[u] < maxRank.ordinal()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private interface UsageFilter {
+    boolean test(int usage);
+  }
+
+  /**
+   * @return the lowest distinct usage indices of the given entry range that pass the filter, sorted ascending
+   */
+  private int[] scan(int lo, int hi, int limit, UsageFilter filter) {
+    IntSortedSet best = new IntRBTreeSet();
+    for (int e = lo; e < hi; e++) {
+      int u = entryUsage[e];
+      if (best.size() == limit && u >= best.lastInt()) continue;
+      if (filter.test(u) && best.add(u) && best.size() > limit) {
+        best.remove(best.lastInt());
+      }
+    }
+    return best.toIntArray();
+  }
+
+  private NameUsageSuggestion suggestion(int u) {
+    NameUsageSuggestion s = new NameUsageSuggestion();
+    s.setMatch(names[u]);
+    s.setContext(contexts[u]);
+    s.setUsageId(ids[u]);
+    s.setAcceptedUsageId(acceptedIds[u]);
+    s.setRank(ranks[u] < 0 ? null : RANKS[ranks[u]]);
+    s.setStatus(status[u] < 0 ? null : STATUS[status[u]]);
+    s.setNomCode(codes[u] < 0 ? null : CODES[codes[u]]);
+    return s;
+  }
+
+  /**
+   * Compares the entry with the query, treating entries that start with the query as equal.
+   */
+  private int comparePrefix(int entry, byte[] q) {
+    int pos = entryPos[entry];
+    int end = nameStart[entryUsage[entry] + 1];
+    for (int i = 0; i < q.length; i++, pos++) {
+      if (pos >= end) return -1;
+      int cmp = Integer.compare(chars[pos] & 0xff, q[i] & 0xff);
+      if (cmp != 0) return cmp;
+    }
+    return 0;
+  }
+
+  private int lowerBound(byte[] q) {
+    int lo = 0, hi = entryPos.length;
+    while (lo < hi) {
+      int mid = (lo + hi) >>> 1;
+      if (comparePrefix(mid, q) < 0) {
+        lo = mid + 1;
+      } else {
+        hi = mid;
+      }
+    }
+    return lo;
+  }
+
+  private int upperBound(byte[] q, int from) {
+    int lo = from, hi = entryPos.length;
+    while (lo < hi) {
+      int mid = (lo + hi) >>> 1;
+      if (comparePrefix(mid, q) <= 0) {
+        lo = mid + 1;
+      } else {
+        hi = mid;
+      }
+    }
+    return lo;
+  }
+
+  /**
+   * Latin1 keeps a lossless 1:1 mapping of bytes to chars, so truncated multibyte characters do no harm.
+   */
+  private static String key(byte[] bytes, int len) {
+    return new String(bytes, 0, len, StandardCharsets.ISO_8859_1);
+  }
+
+  /**
+   * Collects usages from the same stream of NameUsageWrapper objects that is used for indexing into ES.
+   * Bare names are skipped just as the ES suggestion service does.
+   */
+  public static class Builder implements Consumer<NameUsageWrapper> {
+    private final int datasetKey;
+    private final List<Usage> usages = new ArrayList<>();
+    private final Map<String, String> strings = new HashMap<>();
+
+    private Builder(int datasetKey) {
+      this.datasetKey = datasetKey;
+    }
+
+    private static class Usage {
+      String id;
+      String name;
+      String folded;
+      String context;
+      String acceptedId;
+      short rank;
+      short status;
+      short code;
+    }
+
+    @Override
+    public void accept(NameUsageWrapper nuw) {
+      NameUsage nu = nuw.getUsage();
+      if (nu == null || nu.getStatus() == null || nu.getName() == null || nu.getName().getScientificName() == null) {
+        return;
+      }
+      Usage u = new Usage();
+      u.id = nu.getId();
+      u.name = nu.getName().getScientificName();
+      u.folded = fold(u.name);
+      u.rank = (short) (nu.getName().getRank() == null ? -1 : nu.getName().getRank().ordinal());
+      u.status = (short) nu.getStatus().ordinal();
+      u.code = (short) (nu.getName().getCode() == null ? -1 : nu.getName().getCode().ordinal());
+      if (nu.getStatus().isSynonym()) {
+        if (nu instanceof Synonym && ((Synonym) nu).getAccepted() != null) {
+          Synonym syn = (Synonym) nu;
+          u.acceptedId = syn.getAccepted().getId();
+          u.context = syn.getAccepted().getName() == null ? null : intern(syn.getAccepted().getName().getScientificName());
+        } else if (nuw.getClassification() != null && nuw.getClassification().size() > 1) {
+          SimpleName acc = nuw.getClassification().get(nuw.getClassification().size() - 2);
+          u.acceptedId = acc.getId();
+          u.context = intern(acc.getName());
+        }
+      } else if (nuw.getClassification() != null && nuw.getClassification().size() > 1) {
+        u.context = intern(findFirstAboveGenus(nuw.getClassification()));
+      }
+      if (!u.folded.isEmpty()) {
+        usages.add(u);
+      }
+    }
+
+    private String intern(String x) {
+      return x == null ? null : strings.computeIfAbsent(x, k -> k);
+    }
+
+    private static String findFirstAboveGenus(List<SimpleName> classification) {
+      // Iterate in reverse order, start from second last
+      ListIterator<SimpleName> li = classification.listIterator(classification.size() - 1);
+      while (li.hasPrevious()) {
+        SimpleName sn = li.previous();
+        if (sn.getRank() == null || sn.getRank().higherThan(Rank.GENUS)) {
+          return sn.getName();
+        }
+      }
+      return null;
+    }
+
+    public SuggestIndex build() {
+      final long start = System.currentTimeMillis();
+      // taxonomic order: rank with missing ranks last, then scientific name, accepted before synonyms
+      usages.sort(Comparator.<Usage>comparingInt(u -> u.rank < 0 ? Integer.MAX_VALUE : u.rank)
+        .thenComparing(u -> u.name)
+        .thenComparingInt(u -> u.status)
+      );
+      final int size = usages.size();
+      String[] ids = new String[size];
+      String[] names = new String[size];
+      String[] contexts = new String[size];
+      String[] acceptedIds = new String[size];
+      short[] ranks = new short[size];
+      short[] status = new short[size];
+      short[] codes = new short[size];
+      int[] nameStart = new int[size + 1];
+      ByteArrayList chars = new ByteArrayList();
+      IntArrayList entryPos = new IntArrayList();
+      IntArrayList entryUsage = new IntArrayList();
+      for (int idx = 0; idx < size; idx++) {
+        Usage u = usages.get(idx);
+        ids[idx] = u.id;
+        names[idx] = u.name;
+        contexts[idx] = u.context;
+        acceptedIds[idx] = u.acceptedId;
+        ranks[idx] = u.rank;
+        status[idx] = u.status;
+        codes[idx] = u.code;
+        nameStart[idx] = chars.size();
+        byte[] bytes = u.folded.getBytes(StandardCharsets.UTF_8);
+        for (int i = 0; i < bytes.length; i++) {
+          if (i == 0 || bytes[i - 1] == ' ') {
+            entryPos.add(chars.size() + i);
+            entryUsage.add(idx);
+          }
+        }
+        chars.addElements(chars.size(), bytes);
+        // release memory early
+        usages.set(idx, null);
+      }
+      nameStart[size] = chars.size();
+      usages.clear();
+      strings.clear();
+
+      final byte[] charArr = chars.toByteArray();
+      final int[] posArr = entryPos.toIntArray();
+      final int[] usageArr = entryUsage.toIntArray();
+      int[] order = new int[posArr.length];
+      for (int i = 0; i < order.length; i++) {
+        order[i] = i;
+      }
+      IntArrays.parallelQuickSort(order, (a, b) -> {
+        int cmp = compareEntries(charArr, nameStart, posArr[a], usageArr[a], posArr[b], usageArr[b]);
+        return cmp != 0 ? cmp : Integer.compare(usageArr[a], usageArr[b]);
+      });
+      int[] sortedPos = new int[order.length];
+      int[] sortedUsage = new int[order.length];
+      for (int i = 0; i < order.length; i++) {
+        sortedPos[i] = posArr[order[i]];
+        sortedUsage[i] = usageArr[order[i]];
+      }
+
+      SuggestIndex idx = new SuggestIndex(datasetKey, charArr, nameStart, sortedPos, sortedUsage,
+        ids, names, contexts, acceptedIds, ranks, status, codes, new HashMap<>());
+      idx.precompute();
+      LOG.info("Built suggest index for dataset {} with {} usages, {} entries and {} precomputed prefixes in {}ms",
+        datasetKey, size, sortedPos.length, idx.top.size(), System.currentTimeMillis() - start);
+      return idx;
+    }
+
+    private static int compareEntries(byte[] chars, int[] nameStart, int posA, int usageA, int posB, int usageB) {
+      int endA = nameStart[usageA + 1];
+      int endB = nameStart[usageB + 1];
+      while (posA < endA && posB < endB) {
+        int cmp = Integer.compare(chars[posA++] & 0xff, chars[posB++] & 0xff);
+        if (cmp != 0) return cmp;
+      }
+      return Integer.compare(endA - posA, endB - posB);
+    }
+  }
+
+  /**
+   * Precomputes the best usages of all short prefixes that match too many entries to be scanned at query time.
+   * Entries sharing a prefix are contiguous, so each prefix length needs a single pass.
+   */
+  private void precompute() {
+    for (int len = 1; len <= MAX_PRECOMPUTED_PREFIX; len++) {
+      int groupStart = -1;
+      String groupKey = null;
+      for (int e = 0; e <= entryPos.length; e++) {
+        String k = e < entryPos.length ? prefix(e, len) : null;
+        if (!Objects.equals(k, groupKey)) {
+          if (groupKey != null && e - groupStart > SCAN_LIMIT) {
+            top.put(groupKey, scan(groupStart, e, TOP_SIZE, u -> true));
+          }
+          groupKey = k;
+          groupStart = e;
+        }
+      }
+    }
+  }
+
+  private String prefix(int entry, int len) {
+    int pos = entryPos[entry];
+    if (nameStart[entryUsage[entry] + 1] - pos < len) {
+      return null;
+    }
+    return new String(chars, pos, len, StandardCharsets.ISO_8859_1);
+  }
+}
@@ -32,12 +32,15 @@ public class EsSearchRequest {
   @JsonProperty("aggs")
   private Map<String, Aggregation> aggregations;
   @JsonProperty("search_after")
-  private List<String> searchAfter;
+  private List<Object> searchAfter;
+  private PointInTime pit;
   private List<SortField> sort;
   private Integer size;
   private Integer from; 
   @JsonProperty("track_total_hits")
   private Boolean trackTotalHits;
+  // only used by _update_by_query requests
+  private Script script;
 
   // Fluent interface
 
@@ -70,6 +73,11 @@ public class EsSearchRequest {
     return this;
   }
 
+  public EsSearchRequest script(Script script) {
+    this.script = script;
+    return this;
+  }
+
   // Regular getters/setters
 
   public Object getSelect() {
@@ -100,14 +108,22 @@ public class EsSearchRequest {
     this.aggregations = aggregations;
   }
 
-  public List<String> getSearchAfter() {
+  public List<Object> getSearchAfter() {
     return searchAfter;
   }
 
-  public void setSearchAfter(List<String> searchAfter) {
+  public void setSearchAfter(List<Object> searchAfter) {
     this.searchAfter = searchAfter;
   }
 
+  public PointInTime getPit() {
+    return pit;
+  }
+
+  public void setPit(PointInTime pit) {
+    this.pit = pit;
+  }
+
   public Integer getFrom() {
     return from;
   }
@@ -140,9 +156,17 @@ public class EsSearchRequest {
     this.trackTotalHits = trackTotalHits;
   }
 
+  public Script getScript() {
+    return script;
+  }
+
+  public void setScript(Script script) {
+    this.script = script;
+  }
+
   @Override
   public int hashCode() {
-    return Objects.hash(aggregations, from, query, select, size, sort);
+    return Objects.hash(aggregations, from, query, select, size, sort, searchAfter, pit, script);
   }
 
   @Override
@@ -159,7 +183,10 @@ public class EsSearchRequest {
         && Objects.equals(query, other.query)
         && Objects.equals(select, other.select)
         && Objects.equals(size, other.size)
-        && Objects.equals(sort, other.sort);
+        && Objects.equals(sort, other.sort)
+        && Objects.equals(searchAfter, other.searchAfter)
+        && Objects.equals(pit, other.pit)
+        && Objects.equals(script, other.script);
   }
 
   public String toString() {
@@ -7,7 +7,7 @@ import life.catalogue.es.nu.search.FacetsTranslator;
  * Elasticsearch aggregation type.
  */
 public class FacetAggregation extends FilterAggregation {
-  private static final int DEFAULT_NUM_BUCKETS = 50;
+  public static final int DEFAULT_NUM_BUCKETS = 50;
 
   public FacetAggregation(String field, Query filter, Integer facetLimit) {
     super(filter);
@@ -0,0 +1,42 @@
+package life.catalogue.es.query;
+
+import java.util.Objects;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * The point in time (PIT) part of a search request. If present the request must not be sent to an index specific
+ * endpoint, but to the generic /_search endpoint.
+ */
+public class PointInTime {
+
+  private final String id;
+  @JsonProperty("keep_alive")
+  private final String keepAlive;
+
+  public PointInTime(String id, String keepAlive) {
+    this.id = id;
+    this.keepAlive = keepAlive;
+  }
+
+  public String getId() {
+    return id;
+  }
+
+  public String getKeepAlive() {
+    return keepAlive;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (!(o instanceof PointInTime)) return false;
+    PointInTime that = (PointInTime) o;
+    return Objects.equals(id, that.id) && Objects.equals(keepAlive, that.keepAlive);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(id, keepAlive);
+  }
+}
@@ -0,0 +1,44 @@
+package life.catalogue.es.query;
+
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * A painless script as used by update by query requests.
+ */
+public class Script {
+
+  private final String source;
+  private final String lang = "painless";
+  private final Map<String, Object> params;
+
+  public Script(String source, Map<String, Object> params) {
+    this.source = source;
+    this.params = params;
+  }
+
+  public String getSource() {
+    return source;
+  }
+
+  public String getLang() {
+    return lang;
+  }
+
+  public Map<String, Object> getParams() {
+    return params;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (!(o instanceof Script)) return false;
+    Script script = (Script) o;
+    return Objects.equals(source, script.source) && Objects.equals(params, script.params);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(source, params);
+  }
+}
@@ -2,6 +2,8 @@ package life.catalogue.es.response;
 
 import java.util.Map;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
+
 /**
  * Models the response coming back from an Elasticsearch query.
  * 
@@ -12,6 +14,9 @@ public class EsResponse<T> {
 
   private SearchHits<T> hits;
   private Map<String, Object> aggregations;
+  // only present for point in time searches, might differ from the PIT id of the request
+  @JsonProperty("pit_id")
+  private String pitId;
 
   public SearchHits<T> getHits() {
     return hits;
@@ -21,4 +26,8 @@ public class EsResponse<T> {
     return aggregations;
   }
 
+  public String getPitId() {
+    return pitId;
+  }
+
 }
@@ -19,6 +19,8 @@ public class SearchHit<T> {
   private List<String> matchedQueries;
   @JsonProperty("_source")
   private T source;
+  // sort values of the hit, only present if the request was sorted. Used for search_after paging
+  private List<Object> sort;
 
   public boolean matchedQuery(String name) {
     return matchedQueries != null && matchedQueries.contains(name);
@@ -40,4 +42,8 @@ public class SearchHit<T> {
     return source;
   }
 
+  public List<Object> getSort() {
+    return sort;
+  }
+
 }
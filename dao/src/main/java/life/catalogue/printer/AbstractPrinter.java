@@ -21,6 +21,8 @@ import java.util.Set;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
+import javax.annotation.Nullable;
+
 /**
  * Print an entire dataset in a nested way using start/end calls similar to SAX
  */
@@ -31,6 +33,7 @@ public abstract class AbstractPrinter implements Consumer<SimpleName>, AutoClose
   protected final TreeTraversalParameter params;
   // filter
   protected final Set<Rank> ranks;
+  private final Set<Rank> requestedRanks;
   protected final Boolean extinct;
   // optional counts in results
   protected int taxonCount; // count
@@ -39,6 +42,11 @@ public abstract class AbstractPrinter implements Consumer<SimpleName>, AutoClose
   protected final SqlSessionFactory factory;
   protected SqlSession session;
   protected final boolean ordered;
+  // optional parallel printing of subtrees
+  private Rank splitRank;
+  private int threads = 1;
+  // set for printers which only print the tree above the split rank of a parallel print
+  SubtreePrinter splitter;
 
   /**
    * @param ordered if true does a more expensive depth first traversal with ordered children
@@ -51,6 +59,7 @@ public abstract class AbstractPrinter implements Consumer<SimpleName>, AutoClose
     this.writer = writer;
     this.factory = factory;
     this.params = params;
+    this.requestedRanks = ranks;
     if (ranks != null) {
       this.ranks = ranks;
       this.params.setLowestRank(RankUtils.lowestRank(ranks));
@@ -64,15 +73,53 @@ public abstract class AbstractPrinter implements Consumer<SimpleName>, AutoClose
     this.taxonCounter = taxonCounter;
   }
 
+  /**
+   * Prints independent subtrees rooted at accepted taxa of the given rank concurrently and concatenates them in tree order.
+   * Only applies to printers which support splitting, all others keep printing sequentially.
+   *
+   * @param splitRank rank of the subtree roots, null to disable parallel printing
+   * @param threads number of subtrees to print concurrently
+   */
+  public void setParallel(@Nullable Rank splitRank, int threads) {
+    this.splitRank = splitRank;
+    this.threads = threads;
+  }
+
+  /**
+   * @return true if the printer supports parallel printing of subtrees,
+   * i.e. the output of a subtree does not depend on anything printed before or after it
+   * and nothing is written after the iteration.
+   */
+  protected boolean isSplittable() {
+    return false;
+  }
+
+  /**
+   * Creates a new printer of the same class and with the same settings,
+   * but for a different traversal and writer. Used to print subtrees in parallel.
+   */
+  protected AbstractPrinter copy(TreeTraversalParameter params, Writer writer) {
+    return PrinterFactory.dataset(getClass(), params, requestedRanks, extinct, countRank, taxonCounter, factory, writer);
+  }
+
   /**
    * @return number of written lines, i.e. name usages
    * @throws IOException
    */
   public int print() throws IOException {
+    if (splitRank != null && threads > 1 && isSplittable()) {
+      try {
+        new SubtreePrinter(this, splitRank, threads).print();
+      } finally {
+        close();
+      }
+      return counter.size();
+    }
+
     counter.clear();
     try {
       session = factory.openSession(true);
-      PgUtils.consume(() -> session.getMapper(NameUsageMapper.class).processTreeSimple(params, ordered, ordered), this);
+      PgUtils.consume(() -> session.getMapper(NameUsageMapper.class).processTreeSimple(params, ordered, ordered, splitter == null ? null : splitter.rank), this);
       postIter();
     } finally {
       close();
@@ -81,9 +128,26 @@ public abstract class AbstractPrinter implements Consumer<SimpleName>, AutoClose
     return counter.size();
   }
 
+  /**
+   * Completes a print which was not started by print(), but fed with all usages by calling accept
+   * in the same order as print() would, e.g. from a traversal shared with other exports.
+   *
+   * @return number of written lines, i.e. name usages
+   */
+  public int finish() throws IOException {
+    try {
+      postIter();
+    } finally {
+      close();
+    }
+    return counter.size();
+  }
+
   @Override
   public void accept(SimpleName u) {
-    if (!filter(u)) {
+    if (splitter != null && splitter.isRoot(u)) {
+      splitter.split(u, 0);
+    } else if (!filter(u)) {
       counter.inc(u);
       if (countRank != null && taxonCounter != null) {
         taxonCount = taxonCounter.count(DSID.of(params.getDatasetKey(), u.getId()), countRank);
@@ -66,6 +66,10 @@ public abstract class AbstractTreePrinter extends AbstractPrinter {
           last = EVENT.END;
         }
       }
+      if (splitter != null && splitter.isRoot(u)) {
+        splitter.split(u, level);
+        return;
+      }
 
       final boolean filtered = filter(u);
       if (!filtered) {
@@ -1,27 +1,22 @@
 package life.catalogue.printer;
 
 import life.catalogue.api.exception.NotFoundException;
-import life.catalogue.api.exception.TimeoutException;
 import life.catalogue.api.model.ImportAttempt;
-import life.catalogue.common.io.InputStreamUtils;
+import life.catalogue.common.io.LineDiff;
+import life.catalogue.common.io.LineSorter;
+import life.catalogue.common.io.TempFile;
 import life.catalogue.common.io.UTF8IoUtils;
-import life.catalogue.common.lang.InterruptedRuntimeException;
 import life.catalogue.dao.FileMetricsDao;
 
-import java.io.BufferedReader;
-import java.io.File;
-import java.io.IOException;
-import java.io.Reader;
-import java.util.HashSet;
+import java.io.*;
 import java.util.List;
-import java.util.Set;
-import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import javax.annotation.Nullable;
+import javax.ws.rs.core.StreamingOutput;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.ibatis.session.SqlSessionFactory;
@@ -36,17 +31,23 @@ public abstract class BaseDiffService<K> {
   private final static Pattern ATTEMPTS = Pattern.compile("^(\\d+)\\.\\.(\\d+)$");
   protected final SqlSessionFactory factory;
   protected final FileMetricsDao<K> dao;
-  private final int timeoutInSeconds;
 
-  public BaseDiffService(FileMetricsDao<K> dao, SqlSessionFactory factory, int timeoutInSeconds) {
+  public BaseDiffService(FileMetricsDao<K> dao, SqlSessionFactory factory) {
     this.factory = factory;
     this.dao = dao;
-    this.timeoutInSeconds = timeoutInSeconds;
   }
 
-  public Reader diff(K key, String attempts) {
+  /**
+   * Verifies the requested attempts exist and returns their unified names diff to be streamed.
+   */
+  public StreamingOutput diff(K key, String attempts) {
     int[] atts = parseAttempts(key, attempts);
-    return udiff(key, atts, 0, a -> dao.namesFile(key, a));
+    File[] files = attemptToFiles(key, atts, a -> dao.namesFile(key, a));
+    return os -> {
+      Writer w = UTF8IoUtils.writerFromStream(os);
+      udiff(files[0], label(key, atts[0]), files[1], label(key, atts[1]), 0, true, w);
+      w.flush();
+    };
   }
 
   abstract int[] parseAttempts(K key, String attempts);
@@ -106,33 +107,21 @@ public abstract class BaseDiffService<K> {
   @VisibleForTesting
   protected NamesDiff diff(K key, int[] atts, Function<Integer, File> getFile) {
     File[] files = attemptToFiles(key, atts, getFile);
-    try {
-      final NamesDiff diff = new NamesDiff(key, atts[0], atts[1]);
-      Set<String> n1 = FileMetricsDao.readLines(files[0]);
-      Set<String> n2 = FileMetricsDao.readLines(files[1]);
-
-      diff.setDeleted(new HashSet<>(n1));
-      diff.getDeleted().removeAll(n2);
-
-      diff.setInserted(new HashSet<>(n2));
-      diff.getInserted().removeAll(n1);
+    final NamesDiff diff = new NamesDiff(key, atts[0], atts[1]);
+    final boolean unzip = files[0].getName().endsWith(".gz");
+    try (TempFile t1 = sortedCopy(files[0], unzip);
+         TempFile t2 = sortedCopy(files[1], unzip);
+         BufferedReader r1 = reader(files[0], t1, unzip);
+         BufferedReader r2 = reader(files[1], t2, unzip)
+    ) {
+      LineDiff.setDiff(r1.lines().iterator(), r2.lines().iterator(), diff.getDeleted()::add, diff.getInserted()::add);
       return diff;
 
-    } catch (IOException e) {
-      throw new RuntimeException(String.format("Failed to read files for %s %s attempts %s-%s", dao.getType(), key, atts[0], atts[1]));
+    } catch (IOException | UncheckedIOException e) {
+      throw new RuntimeException(String.format("Failed to read files for %s %s attempts %s-%s", dao.getType(), key, atts[0], atts[1]), e);
     }
   }
 
-  /**
-   * Retrieves the version of the unix diff util being used.
-   * OSX and CentOS use different implementations.
-   */
-  public String diffBinaryVersion() throws IOException {
-    Runtime rt = Runtime.getRuntime();
-    Process ps = rt.exec("diff --version");
-    return InputStreamUtils.readEntireStream(ps.getInputStream());
-  }
-
   protected String label(K key) {
     return label(key, null);
   }
@@ -142,74 +131,60 @@ public abstract class BaseDiffService<K> {
   }
 
   /**
-   * Generates a unified diff from two gzipped files using a native unix process.
-   * It allows a maximum of 10s before timing out.
+   * Generates a unified diff from two gzipped files.
    * @param atts
    * @param context number of lines of the context to include
    * @param getFile
    */
   @VisibleForTesting
-  protected BufferedReader udiff(K key, int[] atts, int context, Function<Integer, File> getFile) {
+  protected void udiff(K key, int[] atts, int context, Function<Integer, File> getFile, Writer out) throws IOException {
     File[] files = attemptToFiles(key, atts, getFile);
-    return udiff(files[0], label(key,atts[0]), files[1], label(key,atts[1]), context, true);
+    udiff(files[0], label(key,atts[0]), files[1], label(key,atts[1]), context, true, out);
   }
 
-  private String input(File f, boolean unzip) {
-    return unzip ? String.format("<(gunzip -c %s)", f.getAbsolutePath()) : f.getAbsolutePath();
+  /**
+   * Streams a unified diff of two files to the given writer.
+   * Both files are expected to be sorted in code point order.
+   * Files which are not, e.g. names files written by older versions, are diffed based on a sorted temporary copy.
+   */
+  protected void udiff(File f1, String label1, File f2, String label2, int context, boolean unzip, Writer out) throws IOException {
+    try (TempFile t1 = sortedCopy(f1, unzip);
+         TempFile t2 = sortedCopy(f2, unzip);
+         BufferedReader r1 = reader(f1, t1, unzip);
+         BufferedReader r2 = reader(f2, t2, unzip)
+    ) {
+      LineDiff.unifiedDiff(r1.lines().iterator(), label1, r2.lines().iterator(), label2, context, out);
+
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
   }
 
-  protected BufferedReader udiff(File f1, String label1, File f2, String label2, int context, boolean unzip) {
-    Process ps = null;
-    File tmp;
-    try {
-      String cmd = String.format("export LC_CTYPE=en_US.UTF-8; diff --label %s --label %s -B -d -U %s %s %s",
-        label1, label2, context, input(f1, unzip), input(f2, unzip));
-      // we write the diff to a temp file as we get into problems with the process not returning when streaming the results directly.
-      // Especially when http connections are aborted.
-      tmp = File.createTempFile("coldiff-", ".diff");
-      tmp.deleteOnExit();
-      LOG.debug("Execute: {}", cmd);
-      ProcessBuilder pb = new ProcessBuilder("bash", "-c", cmd + "; exit 0");
-      pb.redirectOutput(tmp);
-
-      ps = pb.start();
-      boolean timeout = false;
-      // limit max time, see https://stackoverflow.com/questions/37043114/how-to-stop-a-command-being-executed-after-4-5-seconds-through-process-builder/37065167#37065167
-      if (!ps.waitFor(timeoutInSeconds, TimeUnit.SECONDS)) {
-        LOG.error("Diff between {} and {} has timed out after {}s", f1.getName(), f2.getName(), timeoutInSeconds);
-        timeout=true;
-      }
-      int status = ps.waitFor();
-      if (status != 0) {
-        String error = InputStreamUtils.readEntireStream(ps.getErrorStream());
-        if (timeout) {
-          throw new TimeoutException("The requested diff timed out. Consider to narrow down your comparison to not overload the server");
-        }
-        LOG.warn("Unix diff failed with status {}: {}", status, error);
-        throw new RuntimeException("Unix diff failed with status " + status + ": " + error);
-      }
-      return UTF8IoUtils.readerFromFile(tmp);
-
-    } catch (IOException e) {
-      throw new RuntimeException("Unix diff failed", e);
-
-    } catch (InterruptedException e) {
-      throw new InterruptedRuntimeException("Unix diff was interrupted", e);
+  private static BufferedReader reader(File f, @Nullable TempFile sorted, boolean unzip) throws IOException {
+    if (sorted != null) {
+      return UTF8IoUtils.readerFromFile(sorted.file);
+    }
+    return unzip ? UTF8IoUtils.readerFromGzipFile(f) : UTF8IoUtils.readerFromFile(f);
+  }
 
-    } finally {
-      // make sure we leave no process behind
-      if (ps != null) {
-        ps.destroy();
-        try {
-          if (!ps.waitFor(5, TimeUnit.SECONDS)) {
-            ps.destroyForcibly();
-          }
-        } catch (InterruptedException e) {
-          Thread.currentThread().interrupt();
-          ps.destroyForcibly();
-        }
+  /**
+   * @return a sorted temporary copy of the file or null if the file is sorted already
+   */
+  private static TempFile sortedCopy(File f, boolean unzip) throws IOException {
+    try (BufferedReader br = reader(f, null, unzip)) {
+      if (LineDiff.isSorted(br.lines().iterator())) {
+        return null;
       }
     }
+    LOG.info("File {} is not sorted by code points. Sort a temporary copy", f);
+    TempFile tmp = new TempFile("coldiff-sorted-", ".txt");
+    try (BufferedReader br = reader(f, null, unzip)) {
+      LineSorter.sort(br, tmp.file);
+    } catch (IOException | RuntimeException e) {
+      tmp.close();
+      throw e;
+    }
+    return tmp;
   }
 
 }
@@ -6,8 +6,8 @@ import life.catalogue.api.model.Page;
 import life.catalogue.api.model.TreeTraversalParameter;
 import life.catalogue.api.search.JobSearchRequest;
 import life.catalogue.api.vocab.ImportState;
+import life.catalogue.common.io.LineSorter;
 import life.catalogue.common.io.UTF8IoUtils;
-import life.catalogue.common.io.UnixCmdUtils;
 import life.catalogue.dao.EntityDao;
 import life.catalogue.dao.FileMetricsDatasetDao;
 import life.catalogue.db.mapper.DatasetImportMapper;
@@ -15,15 +15,16 @@ import life.catalogue.db.mapper.DatasetMapper;
 
 import org.gbif.nameparser.api.Rank;
 
+import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
-import java.io.Reader;
 import java.io.Writer;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 import javax.annotation.Nullable;
+import javax.ws.rs.core.StreamingOutput;
 
 import org.apache.ibatis.session.SqlSession;
 import org.apache.ibatis.session.SqlSessionFactory;
@@ -37,8 +38,8 @@ public class DatasetDiffService extends BaseDiffService<Integer> {
   private final EntityDao<Integer, Dataset, DatasetMapper> ddao;
   private final Set<Integer> userDiffs = ConcurrentHashMap.newKeySet();
 
-  public DatasetDiffService(SqlSessionFactory factory, FileMetricsDatasetDao dao, int timeoutInSeconds) {
-    super(dao, factory, timeoutInSeconds);
+  public DatasetDiffService(SqlSessionFactory factory, FileMetricsDatasetDao dao) {
+    super(dao, factory);
     ddao = new EntityDao<>(false, factory, Dataset.class, DatasetMapper.class, null);
   }
 
@@ -59,12 +60,12 @@ public class DatasetDiffService extends BaseDiffService<Integer> {
   /**
    * Generates a names diff between the current version of any two datasets and optional roots to restrict to.
    */
-  public Reader datasetNamesDiff(int userKey, int key1, List<String> root1, int key2, List<String> root2,
+  public StreamingOutput datasetNamesDiff(int userKey, int key1, List<String> root1, int key2, List<String> root2,
                                  Rank lowestRank, boolean inclAuthorship, boolean inclSynonyms, boolean showParent, @Nullable Rank parentRank) throws IOException {
     return datasetDiff(userKey, key1, root1, key2, root2, lowestRank, inclAuthorship, inclSynonyms,showParent, parentRank);
   }
 
-  private Reader datasetDiff(int userKey,
+  private StreamingOutput datasetDiff(int userKey,
                              int key1, List<String> root1,
                              int key2, List<String> root2,
                              @Nullable Rank lowestRank, boolean inclAuthorship, boolean inclSynonyms, boolean showParent, @Nullable Rank parentRank
@@ -73,23 +74,38 @@ public class DatasetDiffService extends BaseDiffService<Integer> {
     if (key1 == key2) {
       throw new IllegalArgumentException("Diffs need to be between different datasets");
     }
-    if (userDiffs.contains(userKey)) {
-      throw new TooManyRequestsException("You can only run one diff at a time");
-    }
     // throw a 404 early in case any of the datasets does not exist
     ddao.getOr404(key1);
     ddao.getOr404(key2);
 
     // allow one concurrent diff per user
+    if (!userDiffs.add(userKey)) { // lock, we only allow a single diff per user
+      throw new TooManyRequestsException("You can only run one diff at a time");
+    }
+    File f1 = null;
+    File f2 = null;
     try {
-      userDiffs.add(userKey); // lock, we only allow a single diff per user
-      File f1 = printAndSort(key1, root1, lowestRank, inclAuthorship, inclSynonyms, showParent, parentRank);
-      File f2 = printAndSort(key2, root2, lowestRank, inclAuthorship, inclSynonyms, showParent, parentRank);
-      return udiff(f1, label(key1), f2, label(key2), 0, false);
-
-    } finally {
+      f1 = printAndSort(key1, root1, lowestRank, inclAuthorship, inclSynonyms, showParent, parentRank);
+      f2 = printAndSort(key2, root2, lowestRank, inclAuthorship, inclSynonyms, showParent, parentRank);
+    } catch (IOException | RuntimeException e) {
+      if (f1 != null) f1.delete();
       userDiffs.remove(userKey); // unlock
+      throw e;
     }
+    final File sorted1 = f1;
+    final File sorted2 = f2;
+    // keep the lock until the diff has been streamed
+    return os -> {
+      try {
+        Writer w = UTF8IoUtils.writerFromStream(os);
+        udiff(sorted1, label(key1), sorted2, label(key2), 0, false, w);
+        w.flush();
+      } finally {
+        sorted1.delete();
+        sorted2.delete();
+        userDiffs.remove(userKey); // unlock
+      }
+    };
   }
 
   private File printAndSort(int key, @Nullable List<String> roots, @Nullable Rank lowestRank, boolean inclAuthorship, boolean inclSynonyms, boolean showParent, @Nullable Rank parentRank) throws IOException {
@@ -106,8 +122,13 @@ public class DatasetDiffService extends BaseDiffService<Integer> {
     }
     w.close();
     // sort file
-    UnixCmdUtils.sortUTF8(f, 30);
-    return f;
+    File sorted = createTempFile(key);
+    try (BufferedReader br = UTF8IoUtils.readerFromFile(f)) {
+      LineSorter.sort(br, sorted);
+    } finally {
+      f.delete();
+    }
+    return sorted;
   }
 
   private void appendRoot(Writer w, int key, String root, Rank lowestRank, boolean inclAuthorship, boolean inclSynonyms, boolean showParent, Rank parentRank) throws IOException {
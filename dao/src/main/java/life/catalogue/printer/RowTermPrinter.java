@@ -3,8 +3,7 @@ package life.catalogue.printer;
 import life.catalogue.api.model.SimpleName;
 import life.catalogue.api.model.TreeTraversalParameter;
 import life.catalogue.api.vocab.TabularFormat;
-import life.catalogue.common.io.CsvWriter;
-import life.catalogue.common.io.TabWriter;
+import life.catalogue.common.io.DelimitedRowWriter;
 import life.catalogue.common.io.TermWriter;
 import life.catalogue.dao.TaxonCounter;
 
@@ -22,19 +21,38 @@ import javax.annotation.Nullable;
 
 /**
  * Prints simple names as TSV or CSV rows.
+ * Rows are buffered and escaped without any per row allocation, see DelimitedRowWriter.
  */
 public abstract class RowTermPrinter extends AbstractPrinter {
   protected final TermWriter tw;
+  private final DelimitedRowWriter rows;
 
   public RowTermPrinter(TreeTraversalParameter params, Set<Rank> ranks, @Nullable Boolean extinct, @Nullable Rank countRank, @Nullable TaxonCounter taxonCounter,
                         SqlSessionFactory factory, Writer writer, TabularFormat format, Term rowType, List<Term> columns
   ) throws IOException {
     super(false, params, ranks, extinct, countRank, taxonCounter, factory, writer);
-    if (format == TabularFormat.CSV) {
-      tw = new TermWriter(new CsvWriter(writer), rowType, columns);
-    } else {
-      tw = new TermWriter(new TabWriter(writer), rowType, columns);
+    rows = new DelimitedRowWriter(writer, format);
+    tw = new TermWriter(rows, rowType, columns);
+    // the header must reach the writer right away, parallel prints discard it for subtrees
+    rows.flush();
+  }
+
+  @Override
+  public void accept(SimpleName u) {
+    if (splitter != null && splitter.isRoot(u)) {
+      // the upper tree must be complete in the writer before a subtree is split off
+      try {
+        rows.flush();
+      } catch (IOException e) {
+        throw new PrinterException(e);
+      }
     }
+    super.accept(u);
+  }
+
+  @Override
+  protected boolean isSplittable() {
+    return true;
   }
 
   @Override
@@ -48,4 +66,10 @@ public abstract class RowTermPrinter extends AbstractPrinter {
   }
 
   abstract void write(SimpleName sn) throws IOException;
+
+  @Override
+  public void close() throws IOException {
+    rows.flush();
+    super.close();
+  }
 }
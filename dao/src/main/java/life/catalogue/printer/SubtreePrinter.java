@@ -0,0 +1,245 @@
+package life.catalogue.printer;
+
+import life.catalogue.api.model.SimpleName;
+import life.catalogue.api.model.TreeTraversalParameter;
+import life.catalogue.common.io.TempFile;
+import life.catalogue.common.io.UTF8IoUtils;
+import life.catalogue.concurrent.ExecutorUtils;
+import life.catalogue.concurrent.NamedThreadFactory;
+import life.catalogue.concurrent.UsageCounter;
+
+import org.gbif.nameparser.api.Rank;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.output.StringBuilderWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Prints a tree in parallel by splitting it into independent subtrees rooted at the accepted taxa of a given rank.
+ * The upper tree above the split rank is printed into memory first, remembering the position of every subtree root.
+ * The subtrees are then printed concurrently by copies of the printer, each into its own buffer which spills
+ * into a temporary file once it gets large.
+ * Buffers are appended to the final writer in tree order as soon as they are complete
+ * and only a limited number of subtrees is printed ahead of the writer.
+ */
+class SubtreePrinter {
+  private static final Logger LOG = LoggerFactory.getLogger(SubtreePrinter.class);
+  // maximum number of chars kept in memory for a single subtree
+  private static final int SPILL_SIZE = 1024 * 1024;
+  private final AbstractPrinter printer;
+  final Rank rank;
+  private final int threads;
+  private final StringBuilder upper = new StringBuilder();
+  // printed parts of the upper tree as strings and the subtrees in between, in tree order
+  private final List<Object> segments = new ArrayList<>();
+  private final List<Subtree> subtrees = new ArrayList<>();
+
+  private static class Subtree {
+    final String id;
+    final int level;
+    Buffer buffer;
+    Future<?> future;
+    UsageCounter counter;
+
+    Subtree(String id, int level) {
+      this.id = id;
+      this.level = level;
+    }
+  }
+
+  SubtreePrinter(AbstractPrinter printer, Rank rank, int threads) {
+    this.printer = printer;
+    this.rank = rank;
+    this.threads = threads;
+  }
+
+  boolean isRoot(SimpleName u) {
+    return u.getRank() == rank && !u.isSynonym();
+  }
+
+  /**
+   * Called by the upper tree printer instead of printing a subtree root.
+   * @param level the nesting level of the subtree root
+   */
+  void split(SimpleName root, int level) {
+    segments.add(upper.toString());
+    upper.setLength(0);
+    Subtree st = new Subtree(root.getId(), level);
+    segments.add(st);
+    subtrees.add(st);
+  }
+
+  void print() throws IOException {
+    printer.counter.clear();
+    AbstractPrinter main = printer.copy(new TreeTraversalParameter(printer.params), new StringBuilderWriter(upper));
+    // discard headers, the printer has written them already
+    upper.setLength(0);
+    main.splitter = this;
+    main.print();
+    segments.add(upper.toString());
+    upper.setLength(0);
+    printer.counter.add(main.counter);
+    LOG.info("Print {} subtrees of rank {} in dataset {} with {} threads", subtrees.size(), rank, printer.params.getDatasetKey(), threads);
+
+    ExecutorService exec = Executors.newFixedThreadPool(threads, new NamedThreadFactory("subtree-printer"));
+    try {
+      int submitted = 0;
+      while (submitted < subtrees.size() && submitted < threads * 2) {
+        submit(exec, subtrees.get(submitted++));
+      }
+      for (Object seg : segments) {
+        if (seg instanceof String) {
+          printer.writer.write((String) seg);
+        } else {
+          Subtree st = (Subtree) seg;
+          await(st);
+          st.buffer.copyTo(printer.writer);
+          st.buffer.close();
+          printer.counter.add(st.counter);
+          if (submitted < subtrees.size()) {
+            submit(exec, subtrees.get(submitted++));
+          }
+        }
+      }
+
+    } finally {
+      for (Subtree st : subtrees) {
+        if (st.future != null) {
+          st.future.cancel(true);
+        }
+      }
+      ExecutorUtils.shutdown(exec);
+      for (Subtree st : subtrees) {
+        if (st.buffer != null) {
+          st.buffer.close();
+        }
+      }
+    }
+  }
+
+  private void submit(ExecutorService exec, Subtree st) {
+    st.buffer = new Buffer();
+    st.future = exec.submit(() -> {
+      var params = new TreeTraversalParameter(printer.params);
+      params.setTaxonID(st.id);
+      AbstractPrinter p = printer.copy(params, st.buffer);
+      // discard headers written by the copy
+      st.buffer.clear();
+      if (p instanceof AbstractTreePrinter) {
+        ((AbstractTreePrinter) p).level = st.level;
+      }
+      p.print();
+      st.counter = p.counter;
+      return null;
+    });
+  }
+
+  private static void await(Subtree st) throws IOException {
+    try {
+      st.future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new PrinterException("Interrupted while printing subtree " + st.id, e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof IOException) {
+        throw (IOException) e.getCause();
+      } else if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw new PrinterException("Failed to print subtree " + st.id, e.getCause());
+    }
+  }
+
+  /**
+   * A writer keeping chars in memory until they exceed the spill size and then moves them into a temporary file.
+   * Closing the buffer removes the file.
+   */
+  static class Buffer extends Writer {
+    private final StringBuilder sb = new StringBuilder();
+    private TempFile tmp;
+    private Writer fw;
+
+    @Override
+    public void write(char[] cbuf, int off, int len) throws IOException {
+      if (fw == null) {
+        sb.append(cbuf, off, len);
+        spillIfLarge();
+      } else {
+        fw.write(cbuf, off, len);
+      }
+    }
+
+    @Override
+    public void write(String str, int off, int len) throws IOException {
+      if (fw == null) {
+        sb.append(str, off, off + len);
+        spillIfLarge();
+      } else {
+        fw.write(str, off, len);
+      }
+    }
+
+    private void spillIfLarge() throws IOException {
+      if (sb.length() > SPILL_SIZE) {
+        tmp = new TempFile("subtree-", ".txt");
+        fw = UTF8IoUtils.writerFromFile(tmp.file);
+        fw.append(sb);
+        sb.setLength(0);
+        sb.trimToSize();
+      }
+    }
+
+    /**
+     * Removes everything written so far. Only works as long as nothing was spilled yet.
+     */
+    void clear() {
+      sb.setLength(0);
+    }
+
+    boolean isSpilled() {
+      return tmp != null;
+    }
+
+    void copyTo(Writer out) throws IOException {
+      if (tmp == null) {
+        out.append(sb);
+      } else {
+        fw.flush();
+        try (Reader r = UTF8IoUtils.readerFromFile(tmp.file)) {
+          IOUtils.copy(r, out);
+        }
+      }
+    }
+
+    @Override
+    public void flush() throws IOException {
+      if (fw != null) {
+        fw.flush();
+      }
+    }
+
+    @Override
+    public void close() throws IOException {
+      sb.setLength(0);
+      if (fw != null) {
+        fw.close();
+        fw = null;
+      }
+      if (tmp != null) {
+        tmp.close();
+        tmp = null;
+      }
+    }
+  }
+}
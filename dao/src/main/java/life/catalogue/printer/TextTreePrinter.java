@@ -57,6 +57,18 @@ public class TextTreePrinter extends AbstractTreePrinter {
     this.showIDs = true;
   }
 
+  @Override
+  protected boolean isSplittable() {
+    return true;
+  }
+
+  @Override
+  protected TextTreePrinter copy(TreeTraversalParameter params, Writer writer) {
+    var p = (TextTreePrinter) super.copy(params, writer);
+    p.showIDs = showIDs;
+    return p;
+  }
+
 
   protected void start(SimpleName u) throws IOException {
     writer.write(StringUtils.repeat(' ', level * indentation));
@@ -7,6 +7,7 @@ import life.catalogue.dao.UserDao;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 
 import org.junit.After;
@@ -15,7 +16,7 @@ import org.junit.Test;
 
 import com.codahale.metrics.MetricRegistry;
 
-import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
@@ -161,4 +162,42 @@ public class JobExecutorTest {
     exec.stop();
     assertEquals(6, finished.size());
   }
-}
\ No newline at end of file
+
+  static class MemberJob extends BackgroundJob {
+    final Set<UUID> members = Set.of(UUID.randomUUID(), UUID.randomUUID());
+    final CountDownLatch started = new CountDownLatch(1);
+
+    MemberJob() {
+      super(1);
+    }
+
+    @Override
+    public Set<UUID> getMemberKeys() {
+      return members;
+    }
+
+    @Override
+    public void execute() throws Exception {
+      started.countDown();
+      TimeUnit.MINUTES.sleep(1);
+    }
+  }
+
+  @Test
+  public void memberKeys() throws Exception {
+    MemberJob job = new MemberJob();
+    exec.submit(job);
+    job.started.await();
+    for (UUID mk : job.members) {
+      assertSame(job, exec.getJob(mk));
+      assertTrue(exec.isQueued(mk));
+    }
+    // cancelling a member cancels the entire job
+    UUID mk = job.members.iterator().next();
+    assertSame(job, exec.cancel(mk, 1));
+    for (UUID k : job.members) {
+      assertNull(exec.getJob(k));
+    }
+    assertNull(exec.getJob(job.getKey()));
+  }
+}
@@ -1,7 +1,14 @@
 package life.catalogue.dao;
 
+import life.catalogue.api.event.DatasetChanged;
+import life.catalogue.api.event.DatasetDataChanged;
+import life.catalogue.api.model.DSID;
+import life.catalogue.api.model.Dataset;
+import life.catalogue.api.vocab.Users;
 import life.catalogue.common.io.UTF8IoUtils;
 
+import org.gbif.nameparser.api.Rank;
+
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
@@ -31,6 +38,49 @@ public class FileMetricsDatasetDaoTest extends FileMetricsDaoTestBase<Integer> {
     assertEquals(expected.lines(), lines);
   }
 
+  @Test
+  public void taxonCounts() throws Exception {
+    TaxonCountStore store = new TaxonCountStore(fdao, 2, (id, rank) -> -1);
+    // missing counts are cached until the data changes
+    Assert.assertEquals(-1, store.countAll(DSID.of(key, "x"), null));
+    int taxa = fdao.updateTaxonCounts(key);
+    Assert.assertTrue(taxa > 0);
+    Assert.assertFalse(store.exists(key));
+    Assert.assertEquals(-1, store.countAll(DSID.of(key, "x"), null));
+    store.dataChanged(new DatasetDataChanged(key));
+    Assert.assertTrue(store.exists(key));
+    Assert.assertEquals(0, store.countAll(DSID.of(key, "x"), null));
+
+    var species = AggregatedTaxonCounter.build(factory(), key, null, Rank.SPECIES, null);
+    var genera = AggregatedTaxonCounter.build(factory(), key, null, Rank.GENUS, null);
+    // unknown datasets are passed on
+    Assert.assertFalse(store.exists(key + 1));
+    Assert.assertEquals(-1, store.count(DSID.of(key + 1, "x"), Rank.SPECIES));
+    Assert.assertEquals(0, store.count(DSID.of(key, "not existing"), Rank.SPECIES));
+    Assert.assertEquals(-1, store.countAll(DSID.of(key + 1, "x"), null));
+
+    try (BufferedReader br = UTF8IoUtils.readerFromGzipFile(fdao.taxonCountsFile(key))) {
+      int lines = 0;
+      String line;
+      while ((line = br.readLine()) != null) {
+        var id = DSID.of(key, line.substring(0, line.indexOf('\t')));
+        Assert.assertEquals(species.count(id, Rank.SPECIES), store.count(id, Rank.SPECIES));
+        Assert.assertEquals(genera.count(id, Rank.GENUS), store.count(id, Rank.GENUS));
+        Assert.assertTrue(store.countAll(id, null) >= store.countAll(id, Rank.GENUS));
+        Assert.assertTrue(store.countAll(id, Rank.GENUS) >= store.count(id, Rank.GENUS));
+        lines++;
+      }
+      Assert.assertEquals(taxa, lines);
+    }
+
+    // deleting the dataset removes the materialized counts
+    Dataset d = new Dataset();
+    d.setKey(key);
+    store.datasetChanged(DatasetChanged.deleted(d, Users.TESTER));
+    Assert.assertFalse(fdao.taxonCountsFile(key).exists());
+    Assert.assertFalse(store.exists(key));
+  }
+
   @Test
   public void bucket() throws Exception {
     Assert.assertEquals("000", FileMetricsDatasetDao.bucket(0));
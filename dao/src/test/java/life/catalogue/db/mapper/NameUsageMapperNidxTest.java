@@ -4,6 +4,7 @@ import life.catalogue.api.model.DSID;
 import life.catalogue.api.model.Page;
 import life.catalogue.db.TestDataRule;
 
+import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -47,6 +48,17 @@ public class NameUsageMapperNidxTest extends MapperTestBase<NameUsageMapper> {
     assertCanonNIDX(0, 100, 4);
   }
 
+  @Test
+  public void listByCanonNIDXs() throws Exception {
+    var res = mapper().listByCanonNIDXs(102, List.of(3, 4));
+    assertEquals(2, res.size());
+    for (var sn : res) {
+      assertEquals((Integer)3, sn.getCanonicalId());
+    }
+    assertEquals(0, mapper().listByCanonNIDXs(100, List.of(4)).size());
+    assertEquals(0, mapper().listByCanonNIDXs(103, List.of(3)).size());
+  }
+
   void assertCanonNIDX(int expectedNum, int datasetKey, int canonNidx) {
     var res = mapper().listByCanonNIDX( datasetKey, canonNidx);
     assertEquals(expectedNum, res.size());
@@ -14,7 +14,9 @@ import life.catalogue.matching.NameIndexFactory;
 import org.gbif.nameparser.api.Rank;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -24,6 +26,8 @@ import org.junit.Test;
 
 import static life.catalogue.api.TestEntityGenerator.DATASET11;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 public class NameUsageMapperTest extends MapperTestBase<NameUsageMapper> {
@@ -71,6 +75,19 @@ public class NameUsageMapperTest extends MapperTestBase<NameUsageMapper> {
     assertSize(mapper().processDatasetBareNames(testDataRule.testData.key, Rank.VARIETY, Rank.SPECIES), 1);
   }
 
+  @Test
+  public void processTreeGenera() throws Exception {
+    assertEquals(Set.of("apia", "malus", "larus"), genera(TreeTraversalParameter.dataset(datasetKey)));
+    assertEquals(Set.of("larus"), genera(TreeTraversalParameter.dataset(datasetKey, "root-2")));
+    assertEquals(Set.of("malus"), genera(TreeTraversalParameter.dataset(datasetKey, "root-1")));
+  }
+
+  private Set<String> genera(TreeTraversalParameter params) {
+    Set<String> genera = new HashSet<>();
+    mapper().processTreeGenera(params).forEach(genera::add);
+    return genera;
+  }
+
   static void assertSize(Cursor<?> cursor, int size) {
     final AtomicInteger cnt = new AtomicInteger(0);
     cursor.forEach(u -> {
@@ -79,6 +96,12 @@ public class NameUsageMapperTest extends MapperTestBase<NameUsageMapper> {
     assertEquals(size, cnt.get());
   }
 
+  @Test
+  public void lastModified() throws Exception {
+    assertNotNull(mapper().lastModified(testDataRule.testData.key));
+    assertNull(mapper().lastModified(199));
+  }
+
   @Test
   public void sectorProcessable() throws Exception {
     SectorProcessableTestComponent.test(mapper(), DSID.of(testDataRule.testData.key, 1));
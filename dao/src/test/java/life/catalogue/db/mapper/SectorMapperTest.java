@@ -3,6 +3,7 @@ package life.catalogue.db.mapper;
 import life.catalogue.api.RandomUtils;
 import life.catalogue.api.TestEntityGenerator;
 import life.catalogue.api.model.DSID;
+import life.catalogue.api.model.Name;
 import life.catalogue.api.model.Page;
 import life.catalogue.api.model.Sector;
 import life.catalogue.api.model.SectorImport;
@@ -16,6 +17,7 @@ import org.gbif.nameparser.api.Rank;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
 import java.util.Set;
 import java.util.UUID;
 
@@ -105,6 +107,63 @@ public class SectorMapperTest extends BaseDecisionMapperTest<Sector, SectorSearc
     assertEquals(0, mapper().listByTarget(DSID.of(targetDatasetKey,"t32134")).size());
   }
 
+  @Test
+  public void listDataFingerprints() {
+    add2Sectors();
+    NameMapper nm = mapper(NameMapper.class);
+    assertNull(fingerprint(s1));
+
+    Name n1 = TestEntityGenerator.newMinimalName(targetDatasetKey, "fp1", "Abies alba", Rank.SPECIES);
+    n1.setSectorKey(s1.getId());
+    nm.create(n1);
+    commit();
+    final String fp1 = fingerprint(s1);
+    assertEquals(s1.getId() + ":1:" + pgTimestamp(nm.get(n1).getModified()), fp1);
+    assertNull(fingerprint(s2));
+
+    // update
+    n1.setRemarks("changed");
+    nm.update(n1);
+    commit();
+    final String fp2 = fingerprint(s1);
+    assertEquals(s1.getId() + ":1:" + pgTimestamp(nm.get(n1).getModified()), fp2);
+    assertNotEquals(fp1, fp2);
+
+    // insert
+    Name n2 = TestEntityGenerator.newMinimalName(targetDatasetKey, "fp2", "Abies nigra", Rank.SPECIES);
+    n2.setSectorKey(s1.getId());
+    nm.create(n2);
+    commit();
+    final String fp3 = fingerprint(s1);
+    assertEquals(s1.getId() + ":2:" + pgTimestamp(nm.get(n2).getModified()), fp3);
+    assertNotEquals(fp2, fp3);
+
+    // delete
+    nm.delete(n2);
+    commit();
+    final String fp4 = fingerprint(s1);
+    assertEquals(s1.getId() + ":1:" + pgTimestamp(nm.get(n1).getModified()), fp4);
+    assertNotEquals(fp3, fp4);
+  }
+
+  private String fingerprint(Sector s) {
+    return mapper().listDataFingerprints(targetDatasetKey).stream()
+      .filter(fp -> fp.startsWith(s.getId() + ":"))
+      .findFirst()
+      .orElse(null);
+  }
+
+  /**
+   * @return the timestamp as rendered by postgres text casts which drop trailing zeros of fractional seconds
+   */
+  private static String pgTimestamp(LocalDateTime dt) {
+    String ts = dt.format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
+    if (dt.getNano() > 0) {
+      ts += "." + String.format("%09d", dt.getNano()).replaceAll("0+$", "");
+    }
+    return ts;
+  }
+
   @Test
   public void list() {
     add2Sectors();
@@ -0,0 +1,134 @@
+package life.catalogue.es.cache;
+
+import life.catalogue.api.TestEntityGenerator;
+import life.catalogue.api.event.DatasetDataChanged;
+import life.catalogue.api.model.Page;
+import life.catalogue.api.search.FacetValue;
+import life.catalogue.api.search.NameUsageSearchResponse;
+import life.catalogue.api.search.NameUsageSearchParameter;
+import life.catalogue.api.search.NameUsageSearchRequest;
+import life.catalogue.api.vocab.DatasetOrigin;
+import life.catalogue.api.vocab.TaxonomicStatus;
+import life.catalogue.es.SearchCacheConfig;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class SearchResultCacheTest {
+  static final Map<Integer, DatasetOrigin> ORIGINS = Map.of(
+    1, DatasetOrigin.PROJECT,
+    2, DatasetOrigin.RELEASE,
+    3, DatasetOrigin.EXTERNAL
+  );
+
+  SearchResultCache<String> cache = new SearchResultCache<>("test", new SearchCacheConfig(), String::new, ORIGINS::get);
+
+  static NameUsageSearchRequest req(int datasetKey, String q) {
+    var req = new NameUsageSearchRequest();
+    req.addFilter(NameUsageSearchParameter.DATASET_KEY, datasetKey);
+    req.setQ(q);
+    return CachingNameUsageSearchService.normalize(req);
+  }
+
+  @Test
+  public void keys() {
+    // projects are mutable
+    assertNull(cache.key(req(1, "Abies"), 0, 10));
+    // unknown dataset
+    assertNull(cache.key(req(99, "Abies"), 0, 10));
+
+    var k1 = cache.key(req(2, "Abies"), 0, 10);
+    var k2 = cache.key(req(2, "Abies "), 0, 10);
+    var k3 = cache.key(req(3, "Abies"), 0, 10);
+    assertEquals(k1, k2);
+    assertNotEquals(k1, k3);
+    assertNotEquals(k1, cache.key(req(2, "Abies"), 10, 10));
+    assertTrue(k1.ttl > k3.ttl);
+
+    var req = req(3, "Abies");
+    req.addFilter(NameUsageSearchParameter.CATALOGUE_KEY, 1);
+    assertNull(cache.key(req, 0, 10));
+  }
+
+  /**
+   * The search modifies filters of the request in place, which must not change an existing key.
+   */
+  @Test
+  public void keyIndependentOfRequest() {
+    var req = new NameUsageSearchRequest();
+    req.addFilter(NameUsageSearchParameter.DATASET_KEY, 2);
+    req.addFilter(NameUsageSearchParameter.STATUS, TaxonomicStatus.ACCEPTED);
+    var k1 = cache.key(CachingNameUsageSearchService.normalize(req), 0, 10);
+    final int hash = k1.hashCode();
+
+    req.getFilters().get(NameUsageSearchParameter.STATUS).add(String.valueOf(TaxonomicStatus.SYNONYM.ordinal()));
+    req.getFilters().get(NameUsageSearchParameter.DATASET_KEY).clear();
+    req.setQ("Abies");
+    assertEquals(hash, k1.hashCode());
+
+    var unchanged = new NameUsageSearchRequest();
+    unchanged.addFilter(NameUsageSearchParameter.DATASET_KEY, 2);
+    unchanged.addFilter(NameUsageSearchParameter.STATUS, TaxonomicStatus.ACCEPTED);
+    assertEquals(k1, cache.key(CachingNameUsageSearchService.normalize(unchanged), 0, 10));
+    assertNotEquals(k1, cache.key(CachingNameUsageSearchService.normalize(req), 0, 10));
+  }
+
+  @Test
+  public void getAndInvalidate() {
+    AtomicInteger loads = new AtomicInteger();
+    var k2 = cache.key(req(2, "Abies"), 0, 10);
+    var k3 = cache.key(req(3, "Abies"), 0, 10);
+
+    assertEquals("A", cache.get(k2, () -> {loads.incrementAndGet(); return "A";}));
+    assertEquals("A", cache.get(k2, () -> {loads.incrementAndGet(); return "B";}));
+    assertEquals("C", cache.get(k3, () -> {loads.incrementAndGet(); return "C";}));
+    assertEquals(2, loads.get());
+    assertEquals(1, cache.getHits());
+    assertEquals(2, cache.getMisses());
+
+    cache.dataChanged(new DatasetDataChanged(3));
+    assertEquals("A", cache.get(k2, () -> {loads.incrementAndGet(); return "X";}));
+    assertEquals("D", cache.get(k3, () -> {loads.incrementAndGet(); return "D";}));
+    assertEquals(3, loads.get());
+
+    // uncached
+    assertEquals("E", cache.get(null, () -> "E"));
+    assertEquals("F", cache.get(null, () -> "F"));
+  }
+
+  @Test
+  public void copies() {
+    var k2 = cache.key(req(2, "Abies"), 0, 10);
+    final String loaded = new String("A");
+    String a1 = cache.get(k2, () -> loaded);
+    String a2 = cache.get(k2, () -> "B");
+    assertEquals("A", a2);
+    // the cached instance is never handed out
+    assertNotSame(loaded, a1);
+    assertNotSame(loaded, a2);
+    assertNotSame(a1, a2);
+  }
+
+  @Test
+  public void copyResponse() {
+    var nuw = TestEntityGenerator.newNameUsageTaxonWrapperComplete();
+    var resp = new NameUsageSearchResponse(new Page(0, 10), 1, List.of(nuw),
+      Map.of(NameUsageSearchParameter.DATASET_KEY, Set.of(FacetValue.forInteger(2, 1)))
+    );
+    var copy = CachingNameUsageSearchService.copy(resp);
+    assertEquals(resp, copy);
+    assertNotSame(resp.getResult().get(0), copy.getResult().get(0));
+    assertNotSame(resp.getResult().get(0).getUsage(), copy.getResult().get(0).getUsage());
+
+    copy.getResult().get(0).getUsage().setRemarks("changed");
+    copy.getFacets().clear();
+    assertNotEquals("changed", nuw.getUsage().getRemarks());
+    assertEquals(1, resp.getFacets().size());
+  }
+}
@@ -6,12 +6,15 @@ import life.catalogue.api.search.NameUsageSearchRequest.SortBy;
 import life.catalogue.api.search.NameUsageWrapper;
 import life.catalogue.es.EsReadTestBase;
 import life.catalogue.es.EsUtil;
+import life.catalogue.es.query.BoolQuery;
+import life.catalogue.es.query.TermQuery;
 
 import org.gbif.nameparser.api.Rank;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 import org.junit.Before;
@@ -56,6 +59,27 @@ public class ClassificationUpdaterTest extends EsReadTestBase {
     assertEquals(expected, actual);
   }
 
+  @Test
+  public void prefix() {
+    index(createTestObjects());
+
+    // move genus 19 directly below a new order
+    List<SimpleName> ancestors = createClassification("5", ORDER, "order_new");
+    BoolQuery query = BoolQuery.withFilters(
+      new TermQuery("datasetKey", DATASET_KEY),
+      new TermQuery("classificationIds", "19")
+    );
+    int updated = EsUtil.updateByQuery(getEsClient(), indexName(), query, ClassificationUpdater.prefixScript("19", ancestors));
+    EsUtil.refreshIndex(getEsClient(), indexName());
+    assertEquals(2, updated);
+
+    Map<String, List<SimpleName>> actual = search(new NameUsageSearchRequest()).getResult().stream()
+      .collect(Collectors.toMap(NameUsageWrapper::getId, NameUsageWrapper::getClassification));
+    assertEquals(3, actual.size());
+    assertEquals(createTestObjects().get(0).getClassification(), actual.get("10"));
+    assertEquals(createClassification("5", ORDER, "order_new", "19", GENUS, "genus_2", "20", SPECIES, "species_2"), actual.get("20"));
+    assertEquals(createClassification("5", ORDER, "order_new", "19", GENUS, "genus_2", "20", SPECIES, "species_2", "777", SPECIES, "synonym_2"), actual.get("777"));
+  }
 
   private static List<SimpleNameClassification> createTestObjectsAsSimple() {
     return createTestObjects().stream().map(nu -> (SimpleNameClassification)nu).collect(Collectors.toList());
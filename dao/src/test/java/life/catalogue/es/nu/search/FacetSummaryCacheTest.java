@@ -0,0 +1,119 @@
+package life.catalogue.es.nu.search;
+
+import life.catalogue.api.event.DatasetDataChanged;
+import life.catalogue.api.search.FacetValue;
+import life.catalogue.api.search.NameUsageSearchParameter;
+import life.catalogue.api.search.NameUsageSearchRequest;
+import life.catalogue.api.vocab.DatasetOrigin;
+import life.catalogue.api.vocab.TaxonomicStatus;
+
+import org.gbif.nameparser.api.Rank;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.junit.Test;
+
+import static life.catalogue.api.search.NameUsageSearchParameter.*;
+import static org.junit.Assert.*;
+
+public class FacetSummaryCacheTest {
+  static final Map<Integer, DatasetOrigin> ORIGINS = Map.of(
+    1, DatasetOrigin.PROJECT,
+    2, DatasetOrigin.RELEASE
+  );
+
+  FacetSummaryCache cache = new FacetSummaryCache(10, ORIGINS::get);
+
+  static NameUsageSearchRequest req(int datasetKey, NameUsageSearchParameter... facets) {
+    var req = new NameUsageSearchRequest();
+    req.addFilter(DATASET_KEY, datasetKey);
+    req.setFacets(Set.of(facets));
+    return req;
+  }
+
+  @Test
+  public void summaryKey() {
+    assertEquals(2, (int) cache.summaryKey(req(2, RANK)));
+    // no facets
+    assertNull(cache.summaryKey(req(2)));
+    // mutable project or unknown dataset
+    assertNull(cache.summaryKey(req(1, RANK)));
+    assertNull(cache.summaryKey(req(99, RANK)));
+
+    var req = req(2, RANK);
+    req.setQ("Abies");
+    assertNull(cache.summaryKey(req));
+
+    req = req(2, RANK);
+    req.setMinRank(Rank.GENUS);
+    assertNull(cache.summaryKey(req));
+
+    req = req(2, RANK);
+    req.addFilter(STATUS, TaxonomicStatus.ACCEPTED);
+    assertNull(cache.summaryKey(req));
+
+    req = req(2, RANK);
+    req.addFilter(DATASET_KEY, 3);
+    assertNull(cache.summaryKey(req));
+  }
+
+  @Test
+  public void facets() {
+    AtomicInteger calls = new AtomicInteger();
+    Function<Set<NameUsageSearchParameter>, Map<NameUsageSearchParameter, Set<FacetValue<?>>>> loader = missing -> {
+      calls.incrementAndGet();
+      Map<NameUsageSearchParameter, Set<FacetValue<?>>> facets = new EnumMap<>(NameUsageSearchParameter.class);
+      for (NameUsageSearchParameter p : missing) {
+        TreeSet<FacetValue<?>> values = new TreeSet<>();
+        for (int i = 1; i <= 60; i++) {
+          values.add(FacetValue.forString("v" + i, i));
+        }
+        facets.put(p, values);
+      }
+      return facets;
+    };
+
+    var facets = cache.facets(2, Set.of(RANK, STATUS), null, loader);
+    assertEquals(1, calls.get());
+    assertEquals(Set.of(RANK, STATUS), facets.keySet());
+    // default facet limit, highest counts first
+    assertEquals(50, facets.get(RANK).size());
+    assertEquals(60, facets.get(RANK).iterator().next().getCount());
+
+    // only the missing facet is aggregated
+    facets = cache.facets(2, Set.of(RANK, ISSUE), 5, loader);
+    assertEquals(2, calls.get());
+    assertEquals(5, facets.get(ISSUE).size());
+    assertEquals(5, facets.get(RANK).size());
+
+    facets = cache.facets(2, Set.of(RANK, STATUS, ISSUE), 100, loader);
+    assertEquals(2, calls.get());
+    assertEquals(60, facets.get(STATUS).size());
+
+    // too large for the summary
+    assertNull(cache.facets(2, Set.of(RANK), FacetSummaryCache.SUMMARY_LIMIT + 1, loader));
+
+    cache.dataChanged(new DatasetDataChanged(2));
+    cache.facets(2, Set.of(RANK), null, loader);
+    assertEquals(3, calls.get());
+  }
+
+  @Test
+  public void indexedWhileLoading() {
+    AtomicInteger calls = new AtomicInteger();
+    Function<Set<NameUsageSearchParameter>, Map<NameUsageSearchParameter, Set<FacetValue<?>>>> loader = missing -> {
+      if (calls.incrementAndGet() == 1) {
+        // the index service announces the completely indexed dataset
+        cache.dataChanged(new DatasetDataChanged(2));
+      }
+      return Map.of(RANK, new TreeSet<>(Set.of(FacetValue.forString("v" + calls.get(), 1))));
+    };
+    assertEquals("v1", cache.facets(2, Set.of(RANK), null, loader).get(RANK).iterator().next().getValue());
+    // the incomplete summary was never kept
+    assertEquals("v2", cache.facets(2, Set.of(RANK), null, loader).get(RANK).iterator().next().getValue());
+    assertEquals("v2", cache.facets(2, Set.of(RANK), null, loader).get(RANK).iterator().next().getValue());
+    assertEquals(2, calls.get());
+  }
+}
@@ -0,0 +1,34 @@
+package life.catalogue.es.nu.search;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class SearchCursorTest {
+
+  @Test
+  public void roundtrip() {
+    SearchCursor sc = new SearchCursor("46ToAwMDaWR5BXV1aWQyKwZub2RlXzMAAAAAAAAAACoBYwADaWR4BXV1aWQxAgZub2RlXzEAAAAAAAAAAAEBYQADaWR5", null);
+    String enc = sc.encode();
+    assertEquals(sc, SearchCursor.decode(enc));
+
+    sc.setAfter(List.of(12, "Abies alba", 4294967296L));
+    enc = sc.encode();
+    assertFalse(enc.contains("/"));
+    assertFalse(enc.contains("+"));
+    assertFalse(enc.contains("="));
+    assertEquals(sc, SearchCursor.decode(enc));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void invalid() {
+    SearchCursor.decode("not a cursor");
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void missingPit() {
+    SearchCursor.decode(new SearchCursor(null, List.of(1)).encode());
+  }
+}
@@ -0,0 +1,125 @@
+package life.catalogue.es.nu.suggest;
+
+import life.catalogue.api.model.NameUsageBase;
+import life.catalogue.api.model.SimpleName;
+import life.catalogue.api.model.Synonym;
+import life.catalogue.api.model.Taxon;
+import life.catalogue.api.search.NameUsageSuggestion;
+import life.catalogue.api.search.NameUsageWrapper;
+import life.catalogue.api.vocab.TaxonomicStatus;
+
+import org.gbif.nameparser.api.Rank;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class SuggestIndexTest {
+  static final SimpleName PLANTAE = sn("1", "Plantae", Rank.KINGDOM);
+  static final SimpleName PINACEAE = sn("2", "Pinaceae", Rank.FAMILY);
+  static final SimpleName ABIES = sn("3", "Abies", Rank.GENUS);
+  static final SimpleName ALBA = sn("4", "Abies alba", Rank.SPECIES);
+  static final SimpleName ALBA_VAR = sn("5", "Abies alba var. acutifolia", Rank.VARIETY);
+
+  static SimpleName sn(String id, String name, Rank rank) {
+    SimpleName sn = new SimpleName(id, name, rank);
+    sn.setStatus(TaxonomicStatus.ACCEPTED);
+    return sn;
+  }
+
+  static NameUsageWrapper taxon(SimpleName... classification) {
+    Taxon t = new Taxon(classification[classification.length - 1]);
+    return wrap(t, classification);
+  }
+
+  static NameUsageWrapper wrap(NameUsageBase u, SimpleName... classification) {
+    NameUsageWrapper nuw = new NameUsageWrapper(u);
+    nuw.setClassification(List.of(classification));
+    return nuw;
+  }
+
+  static SuggestIndex build() {
+    SuggestIndex.Builder b = SuggestIndex.builder(1);
+    b.accept(taxon(PLANTAE));
+    b.accept(taxon(PLANTAE, PINACEAE));
+    b.accept(taxon(PLANTAE, PINACEAE, ABIES));
+    b.accept(taxon(PLANTAE, PINACEAE, ABIES, ALBA));
+    b.accept(taxon(PLANTAE, PINACEAE, ABIES, ALBA, ALBA_VAR));
+
+    SimpleName syn = new SimpleName("6", "Pinus abies", Rank.SPECIES);
+    syn.setStatus(TaxonomicStatus.SYNONYM);
+    Synonym s = new Synonym(syn);
+    s.setAccepted(new Taxon(ALBA));
+    b.accept(wrap(s, PLANTAE, PINACEAE, ABIES, ALBA, syn));
+    return b.build();
+  }
+
+  static List<String> ids(List<NameUsageSuggestion> suggestions) {
+    return suggestions.stream().map(NameUsageSuggestion::getUsageId).collect(Collectors.toList());
+  }
+
+  @Test
+  public void suggest() {
+    SuggestIndex idx = build();
+    assertEquals(6, idx.size());
+
+    // taxonomic order, any word matches
+    assertEquals(List.of("3", "4", "6", "5"), ids(idx.suggest("abi", 10, false, null, null)));
+    assertEquals(List.of("3", "4"), ids(idx.suggest("abi", 2, false, null, null)));
+    assertEquals(List.of("3", "4", "6", "5"), ids(idx.suggest(" ÁBIES ", 10, false, null, null)));
+    assertEquals(List.of("4", "5"), ids(idx.suggest("alb", 10, false, null, null)));
+    assertEquals(List.of("4"), ids(idx.suggest("abies alba", 1, false, null, null)));
+    assertEquals(List.of("5"), ids(idx.suggest("acuti", 10, false, null, null)));
+    assertTrue(idx.suggest("xyz", 10, false, null, null).isEmpty());
+    assertTrue(idx.suggest("abies alba var. acutifoliax", 10, false, null, null).isEmpty());
+
+    // filters
+    assertEquals(List.of("3", "4", "5"), ids(idx.suggest("abi", 10, true, null, null)));
+    assertEquals(List.of("3", "4", "6"), ids(idx.suggest("abi", 10, false, Rank.SPECIES, null)));
+    assertEquals(List.of("4", "6", "5"), ids(idx.suggest("abi", 10, false, null, Rank.SPECIES)));
+    assertEquals(List.of("4", "6"), ids(idx.suggest("abi", 10, false, Rank.SPECIES, Rank.SPECIES)));
+  }
+
+  @Test
+  public void context() {
+    SuggestIndex idx = build();
+    var sugg = idx.suggest("pin", 10, false, null, null);
+    assertEquals(List.of("2", "6"), ids(sugg));
+    // family context is the kingdom
+    assertEquals("Plantae", sugg.get(0).getContext());
+    assertNull(sugg.get(0).getAcceptedUsageId());
+    // synonyms point to their accepted name
+    assertEquals("Abies alba", sugg.get(1).getContext());
+    assertEquals("4", sugg.get(1).getAcceptedUsageId());
+    assertEquals(TaxonomicStatus.SYNONYM, sugg.get(1).getStatus());
+    assertEquals(Rank.SPECIES, sugg.get(1).getRank());
+
+    sugg = idx.suggest("alba", 10, false, null, null);
+    assertEquals("Pinaceae", sugg.get(0).getContext());
+    assertEquals("Pinaceae", sugg.get(1).getContext());
+  }
+
+  @Test
+  public void precomputed() {
+    final int size = SuggestIndex.SCAN_LIMIT + 1000;
+    SuggestIndex.Builder b = SuggestIndex.builder(1);
+    List<String> expected = new ArrayList<>();
+    for (int i = size; i > 0; i--) {
+      b.accept(taxon(PLANTAE, sn("s" + i, String.format("Abies sp%06d", i), Rank.SPECIES)));
+    }
+    for (int i = 1; i <= 10; i++) {
+      expected.add("s" + i);
+    }
+    SuggestIndex idx = b.build();
+    assertEquals(size, idx.size());
+    assertEquals(expected, ids(idx.suggest("ab", 10, false, null, null)));
+    assertEquals(expected, ids(idx.suggest("abies sp", 10, false, null, null)));
+    assertEquals(List.of("s1234"), ids(idx.suggest("sp001234", 10, false, null, null)));
+    // no genera in the precomputed list, but few enough entries to be scanned
+    assertTrue(idx.suggest("ab", 10, false, Rank.GENUS, null).isEmpty());
+  }
+}
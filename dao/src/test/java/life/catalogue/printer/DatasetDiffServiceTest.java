@@ -6,12 +6,15 @@ import life.catalogue.db.TestDataRule;
 
 import org.gbif.nameparser.api.Rank;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
-import java.io.Reader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
-import org.apache.commons.io.IOUtils;
+import javax.ws.rs.core.StreamingOutput;
+
 import org.apache.commons.lang3.time.StopWatch;
 import org.junit.Assert;
 import org.junit.Test;
@@ -21,7 +24,7 @@ public class DatasetDiffServiceTest extends BaseDiffServiceTest<Integer> {
   final DatasetDiffService diffService;
 
   public DatasetDiffServiceTest() {
-    diffService = new DatasetDiffService(factory(), new FileMetricsDatasetDao(factory(), treeRepoRule.getRepo()), 10);
+    diffService = new DatasetDiffService(factory(), new FileMetricsDatasetDao(factory(), treeRepoRule.getRepo()));
     diff = diffService;
   }
 
@@ -36,14 +39,15 @@ public class DatasetDiffServiceTest extends BaseDiffServiceTest<Integer> {
     final File f2 = Resources.toFile("trees/itis/37-names.txt.gz");
 
     StopWatch watch = StopWatch.createStarted();
-    var br = diff.udiff(provideTestKey(), new int[]{1,2}, 0, i -> {
+    StringWriter out = new StringWriter();
+    diff.udiff(provideTestKey(), new int[]{1,2}, 0, i -> {
       switch (i) {
         case 1: return f1;
         case 2: return f2;
       }
       return null;
-    });
-    String udiff = IOUtils.toString(br);
+    }, out);
+    String udiff = out.toString();
     System.out.println(udiff);
 
     Assert.assertTrue(udiff.startsWith("--- dataset_"));
@@ -54,24 +58,26 @@ public class DatasetDiffServiceTest extends BaseDiffServiceTest<Integer> {
 
   @Test
   public void diffItisNamesWithOther() throws Exception {
-    var br = diffService.datasetNamesDiff(1, TestDataRule.TREE.key, null, 3, null, null, true, true, false, null);
-    assertDiffExists(br);
+    var stream = diffService.datasetNamesDiff(1, TestDataRule.TREE.key, null, 3, null, null, true, true, false, null);
+    assertDiffExists(stream);
 
     // with root
-    br = diffService.datasetNamesDiff(1, TestDataRule.TREE.key, List.of("t10", "t30"), 3, null, null, true, true, false, null);
-    assertDiffExists(br);
+    stream = diffService.datasetNamesDiff(1, TestDataRule.TREE.key, List.of("t10", "t30"), 3, null, null, true, true, false, null);
+    assertDiffExists(stream);
 
     // with parents & no rank
-    br = diffService.datasetNamesDiff(1, TestDataRule.TREE.key, List.of("t10", "t30"), 3, null, null, true, true, true, null);
-    assertDiffExists(br);
+    stream = diffService.datasetNamesDiff(1, TestDataRule.TREE.key, List.of("t10", "t30"), 3, null, null, true, true, true, null);
+    assertDiffExists(stream);
 
     // with parents & rank given
-    br = diffService.datasetNamesDiff(1, TestDataRule.TREE.key, null, 3, null,null, true, true, true, Rank.FAMILY);
-    assertDiffExists(br);
+    stream = diffService.datasetNamesDiff(1, TestDataRule.TREE.key, null, 3, null,null, true, true, true, Rank.FAMILY);
+    assertDiffExists(stream);
   }
 
-  private void assertDiffExists(Reader br) throws IOException {
-    var udiff = IOUtils.toString(br);
+  private void assertDiffExists(StreamingOutput stream) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    stream.write(out);
+    var udiff = out.toString(StandardCharsets.UTF_8);
     System.out.println(udiff);
     Assert.assertTrue(udiff.startsWith("--- dataset_"));
   }
@@ -4,6 +4,7 @@ import life.catalogue.api.model.DSID;
 import life.catalogue.api.model.TreeTraversalParameter;
 import life.catalogue.common.io.Resources;
 import life.catalogue.common.io.UTF8IoUtils;
+import life.catalogue.dao.AggregatedTaxonCounter;
 import life.catalogue.dao.TaxonCounter;
 import life.catalogue.db.PgSetupRule;
 import life.catalogue.db.SqlSessionFactoryRule;
@@ -41,6 +42,37 @@ public class TextTreePrinterTest {
     assertEquals(expected, writer.toString());
   }
 
+  @Test
+  public void printParallel() throws IOException {
+    String expected = UTF8IoUtils.readString(Resources.stream("trees/tree2.tree"));
+    for (Rank rank : List.of(Rank.KINGDOM, Rank.FAMILY, Rank.GENUS, Rank.SPECIES)) {
+      Writer writer = new StringWriter();
+      var p = PrinterFactory.dataset(TextTreePrinter.class, testDataRule.testData.key, SqlSessionFactoryRule.getSqlSessionFactory(), writer);
+      p.setParallel(rank, 3);
+      assertEquals(25, p.print());
+      assertEquals(25, p.getCounter().size());
+      assertEquals(expected, writer.toString());
+    }
+  }
+
+  @Test
+  public void printParallelWithAggregatedCounts() throws IOException {
+    final int key = testDataRule.testData.key;
+    var factory = SqlSessionFactoryRule.getSqlSessionFactory();
+    TaxonCounter counter = AggregatedTaxonCounter.build(factory, key, null, Rank.SPECIES, null);
+
+    Writer writer = new StringWriter();
+    var p = PrinterFactory.dataset(TextTreePrinter.class, TreeTraversalParameter.datasetNoSynonyms(key), null, null, Rank.SPECIES, counter, factory, writer);
+    p.print();
+    String expected = writer.toString();
+
+    writer = new StringWriter();
+    p = PrinterFactory.dataset(TextTreePrinter.class, TreeTraversalParameter.datasetNoSynonyms(key), null, null, Rank.SPECIES, counter, factory, writer);
+    p.setParallel(Rank.GENUS, 2);
+    p.print();
+    assertEquals(expected, writer.toString());
+  }
+
   @Test
   public void printWithCounts() throws IOException {
     Writer writer = new StringWriter();
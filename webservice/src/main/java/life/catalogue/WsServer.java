@@ -41,8 +41,14 @@ import life.catalogue.es.NameUsageIndexService;
 import life.catalogue.es.NameUsageSearchService;
 import life.catalogue.es.NameUsageSuggestionService;
 import life.catalogue.es.nu.NameUsageIndexServiceEs;
+import life.catalogue.es.cache.CachingNameUsageSearchService;
+import life.catalogue.es.cache.CachingNameUsageSuggestionService;
+import life.catalogue.es.cache.SearchResultCache;
+import life.catalogue.es.nu.search.FacetSummaryCache;
 import life.catalogue.es.nu.search.NameUsageSearchServiceEs;
+import life.catalogue.es.nu.suggest.LocalNameUsageSuggestionService;
 import life.catalogue.es.nu.suggest.NameUsageSuggestionServiceEs;
+import life.catalogue.exporter.ExportCache;
 import life.catalogue.exporter.ExportManager;
 import life.catalogue.gbifsync.GbifSyncManager;
 import life.catalogue.img.ImageService;
@@ -275,9 +281,32 @@ public class WsServer extends Application<WsServerConfig> {
       final RestClient esClient = new EsClientFactory(cfg.es).createClient();
       env.lifecycle().manage(ManagedUtils.from(esClient));
       env.healthChecks().register("elastic", new EsHealthCheck(esClient, cfg.es));
-      indexService = new NameUsageIndexServiceEs(esClient, cfg.es, cfg.normalizer.scratchDir("nuproc"), getSqlSessionFactory());
-      searchService = new NameUsageSearchServiceEs(cfg.es.nameUsage.name, esClient);
+      indexService = new NameUsageIndexServiceEs(esClient, cfg.es, cfg.normalizer.scratchDir("nuproc"), getSqlSessionFactory(), bus);
+      FacetSummaryCache facetSummaries = null;
+      if (cfg.es.cache.facetDatasets > 0) {
+        facetSummaries = new FacetSummaryCache(cfg.es.cache.facetDatasets);
+        bus.register(facetSummaries);
+      }
+      searchService = new NameUsageSearchServiceEs(cfg.es.nameUsage.name, esClient, facetSummaries);
       suggestService = new NameUsageSuggestionServiceEs(cfg.es.nameUsage.name, esClient);
+      if (cfg.es.suggest.isEnabled()) {
+        var localSuggest = new LocalNameUsageSuggestionService(suggestService, cfg.es.suggest, getSqlSessionFactory(),
+          new NameUsageProcessor(getSqlSessionFactory(), cfg.normalizer.scratchDir("suggest"))
+        );
+        managedService.manage(Component.SuggestIndex, localSuggest);
+        bus.register(localSuggest);
+        suggestService = localSuggest;
+      }
+      if (cfg.es.cache.isEnabled()) {
+        var searchCache = new SearchResultCache<>("search", cfg.es.cache, CachingNameUsageSearchService::copy);
+        var suggestCache = new SearchResultCache<>("suggest", cfg.es.cache, CachingNameUsageSuggestionService::copy);
+        searchCache.register(env.metrics());
+        suggestCache.register(env.metrics());
+        bus.register(searchCache);
+        bus.register(suggestCache);
+        searchService = new CachingNameUsageSearchService(searchService, searchCache);
+        suggestService = new CachingNameUsageSuggestionService(suggestService, suggestCache);
+      }
     }
 
     // images
@@ -299,10 +328,8 @@ public class WsServer extends Application<WsServerConfig> {
     final FileMetricsSectorDao fmsDao = new FileMetricsSectorDao(getSqlSessionFactory(), cfg.metricsRepo);
 
     // diff
-    DatasetDiffService dDiff = new DatasetDiffService(getSqlSessionFactory(), fmdDao, cfg.diffTimeout);
-    SectorDiffService sDiff = new SectorDiffService(getSqlSessionFactory(), fmsDao, cfg.diffTimeout);
-    env.healthChecks().register("dataset-diff", new DiffHealthCheck(dDiff));
-    env.healthChecks().register("sector-diff", new DiffHealthCheck(sDiff));
+    DatasetDiffService dDiff = new DatasetDiffService(getSqlSessionFactory(), fmdDao);
+    SectorDiffService sDiff = new SectorDiffService(getSqlSessionFactory(), fmsDao);
 
     // update db lookups
     try (Connection c = mybatis.getConnection()) {
@@ -327,7 +354,8 @@ public class WsServer extends Application<WsServerConfig> {
     SectorDao secdao = new SectorDao(getSqlSessionFactory(), indexService, tdao, validator);
     tdao.setSectorDao(secdao);
     SynonymDao sdao = new SynonymDao(getSqlSessionFactory(), ndao, indexService, validator);
-    TreeDao trDao = new TreeDao(getSqlSessionFactory(), searchService);
+    TaxonCountStore taxonCounts = new TaxonCountStore(fmdDao, cfg.taxonCountCacheMB, searchService);
+    TreeDao trDao = new TreeDao(getSqlSessionFactory(), taxonCounts);
     TxtTreeDao txtTreeDao = new TxtTreeDao(getSqlSessionFactory(), tdao, sdao, indexService);
 
     // usage cache
@@ -352,7 +380,9 @@ public class WsServer extends Application<WsServerConfig> {
     PortalPageRenderer renderer = new PortalPageRenderer(ddao, dsdao, tdao, coljersey.getCache(), cfg.portalTemplateDir.toPath());
 
     // exporter
-    ExportManager exportManager = new ExportManager(cfg, getSqlSessionFactory(), executor, imgService, exdao, diDao);
+    ExportManager exportManager = new ExportManager(cfg, getSqlSessionFactory(), executor, imgService, exdao, diDao, taxonCounts);
+    ExportCache exportCache = exportManager.getCache();
+    exportCache.register(env.metrics());
 
     // syncs and releases
     final var syncFactory = new SyncFactory(getSqlSessionFactory(), ni, matcher, secdao, siDao, edao, indexService, bus);
@@ -382,7 +412,7 @@ public class WsServer extends Application<WsServerConfig> {
     managedService.manage(Component.GBIFRegistrySync, gbifSync);
 
     // assembly
-    SyncManager syncManager = new SyncManager(getSqlSessionFactory(), ni, syncFactory, env.metrics());
+    SyncManager syncManager = new SyncManager(getSqlSessionFactory(), ni, syncFactory, env.metrics(), cfg.syncThreads);
     managedService.manage(Component.SectorSynchronizer, syncManager);
 
     // link assembly and import manager so they are aware of each other
@@ -402,11 +432,11 @@ public class WsServer extends Application<WsServerConfig> {
     j.register(new DatasetArchiveResource(cfg));
     j.register(new DatasetDiffResource(dDiff));
     j.register(new DatasetEditorResource(adao));
-    j.register(new DatasetExportResource(getSqlSessionFactory(), searchService, exportManager, cfg));
+    j.register(new DatasetExportResource(getSqlSessionFactory(), taxonCounts, exportManager, exportCache, cfg));
     j.register(new DatasetIssuesResource(getSqlSessionFactory()));
     j.register(new DatasetImportResource(diDao));
     j.register(new DatasetPatchResource());
-    j.register(new DatasetResource(getSqlSessionFactory(), ddao, dsdao, syncManager, copyFactory, executor));
+    j.register(new DatasetResource(getSqlSessionFactory(), ddao, dsdao, syncManager, copyFactory, executor, cfg.job));
     j.register(new DatasetReviewerResource(adao));
     j.register(new DecisionResource(decdao));
     j.register(new DocsResource(cfg, OpenApiFactory.build(cfg, env), LocalDateTime.now()));
@@ -462,6 +492,7 @@ public class WsServer extends Application<WsServerConfig> {
     bus.register(doiUpdater);
     bus.register(uCache);
     bus.register(exportManager);
+    bus.register(taxonCounts);
     bus.register(syncManager);
     bus.register(importManager);
   }
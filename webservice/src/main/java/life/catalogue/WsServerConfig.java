@@ -119,10 +119,11 @@ public class WsServerConfig extends Configuration implements CorsBundleConfigura
   public long parserTimeout = 5000;
 
   /**
-   * The maximum allowed time in seconds for a unix diff to take before throwing a time out.
+   * Maximum number of sector syncs to run concurrently across all projects.
+   * Within a project only sectors with disjoint target subtrees run in parallel.
    */
   @Min(1)
-  public int diffTimeout = 30;
+  public int syncThreads = 2;
 
   /**
    * Names index kvp file to persist map on disk.
@@ -149,6 +150,12 @@ public class WsServerConfig extends Configuration implements CorsBundleConfigura
   @NotNull
   public File metricsRepo = new File("/tmp/metrics");
 
+  /**
+   * Maximum memory in megabytes used to keep materialized taxon counts of datasets in memory.
+   */
+  @Min(1)
+  public int taxonCountCacheMB = 256;
+
   @NotNull
   public URI clbURI = URI.create("https://www.checklistbank.org");
 
@@ -59,6 +59,8 @@ abstract class SectorRunnable implements Runnable {
   Map<String, Name> foreignChildrenParents = new HashMap<>();
   private final UsageMatcherGlobal matcher;
   private final boolean clearMatcherCache;
+  // if false the project wide steps are left to the caller, see SyncManager
+  private boolean projectWideSteps = true;
   private final Consumer<SectorRunnable> successCallback;
   private final BiConsumer<SectorRunnable, Exception> errorCallback;
   private final LocalDateTime created = LocalDateTime.now();
@@ -128,13 +130,16 @@ abstract class SectorRunnable implements Runnable {
       LOG.info("Start {} for sector {}", this.getClass().getSimpleName(), sectorKey);
       init();
 
-      // clear matcher cache?
-      if (clearMatcherCache) {
-        matcher.clear(sectorKey.getDatasetKey());
-        bus.post(new DatasetDataChanged(sectorKey.getDatasetKey()));
+      if (projectWideSteps) {
+        prepareProject();
+      }
+      try {
+        doWork();
+      } finally {
+        if (projectWideSteps) {
+          finishProject();
+        }
       }
-
-      doWork();
 
       state.setState( ImportState.ANALYZING);
       LOG.info("Build metrics for sector {}", sectorKey);
@@ -283,6 +288,32 @@ abstract class SectorRunnable implements Runnable {
     LOG.info("Loaded {} sectors targeting taxa from sector {}", childSectors.size(), sectorKey);
   }
   
+  /**
+   * Project wide steps to run before the sector is processed.
+   * Flushes all cached matches and data of the project if requested.
+   */
+  void prepareProject() {
+    if (clearMatcherCache) {
+      matcher.clear(sectorKey.getDatasetKey());
+      bus.post(new DatasetDataChanged(sectorKey.getDatasetKey()));
+    }
+  }
+
+  /**
+   * Project wide steps to run after the sector was processed, even if that failed.
+   */
+  void finishProject() throws Exception {
+    // nothing by default
+  }
+
+  /**
+   * @param projectWideSteps if false prepareProject and finishProject are not called when the job runs
+   *                         and must be taken care of by the caller
+   */
+  void setProjectWideSteps(boolean projectWideSteps) {
+    this.projectWideSteps = projectWideSteps;
+  }
+
   abstract void doWork() throws Exception;
 
   abstract void doMetrics() throws Exception;
@@ -108,11 +108,17 @@ public class SectorSync extends SectorRunnable {
         state.setState( ImportState.MATCHING);
         rematchForeignChildren();
         relinkAttachedSectors();
-        rematchEstimates();
       }
     }
   }
 
+  @Override
+  void finishProject() throws Exception {
+    if (project) {
+      rematchEstimates();
+    }
+  }
+
   @Override
   void doMetrics() throws Exception {
     // build metrics
@@ -172,7 +178,7 @@ public class SectorSync extends SectorRunnable {
   }
 
   /**
-   * Rematch all broken estimates that fall into this sector
+   * Rematch all broken estimates of the project
    */
   private void rematchEstimates() {
     RematchRequest req = new RematchRequest(sectorKey.getDatasetKey(), true);
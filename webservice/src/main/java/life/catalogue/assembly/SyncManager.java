@@ -13,6 +13,7 @@ import life.catalogue.db.mapper.DatasetMapper;
 import life.catalogue.db.mapper.NameMapper;
 import life.catalogue.db.mapper.SectorImportMapper;
 import life.catalogue.db.mapper.SectorMapper;
+import life.catalogue.db.mapper.TaxonMapper;
 import life.catalogue.importer.ImportManager;
 import life.catalogue.matching.NameIndex;
 
@@ -21,6 +22,7 @@ import org.gbif.nameparser.utils.NamedThreadFactory;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
@@ -36,48 +38,112 @@ import org.slf4j.LoggerFactory;
 
 import com.codahale.metrics.MetricRegistry;
 import com.codahale.metrics.Timer;
+import com.google.common.base.Preconditions;
 import com.google.common.eventbus.Subscribe;
 
+/**
+ * Schedules sector syncs and deletions. Syncs of different projects run concurrently.
+ * Within a project syncs are started in the order they were queued, but sectors whose target subtrees are disjoint
+ * can run in parallel. Merge sectors and sectors without a target might touch the entire project tree and always run alone.
+ * Project wide steps of the jobs, e.g. flushing the matcher cache or rematching estimates, are not run per job.
+ * They are run when the first job of an idle project starts and by the last job once all queued jobs of the project are done.
+ * No other job of the project runs at the same time. The project wide steps run in the job thread, never while holding the lock of the manager.
+ */
 public class SyncManager implements Managed, Idle {
   static  final Comparator<Sector> SECTOR_ORDER = Comparator.comparing(Sector::getTarget, Comparator.nullsLast(SimpleName::compareTo));
   private static final Logger LOG = LoggerFactory.getLogger(SyncManager.class);
   private static final String THREAD_NAME = "assembly-sync";
-  
+  // max number of queued jobs per project to look at when searching for a job that can be started
+  private static final int MAX_LOOKAHEAD = 1000;
+
   private ExecutorService exec;
   private ImportManager importManager;
+  private final int threads;
   private final NameIndex nameIndex;
   private final SqlSessionFactory factory;
   private final SyncFactory syncFactory;
+  // all queued and running jobs
   private final Map<DSID<Integer>, SectorFuture> syncs = Collections.synchronizedMap(new LinkedHashMap<>());
+  // jobs waiting to be started by project key, guarded by this
+  private final Map<Integer, LinkedList<SectorFuture>> pending = new LinkedHashMap<>();
+  // jobs started by project key, guarded by this
+  private final Map<Integer, List<SectorFuture>> active = new HashMap<>();
+  private int activeCount; // guarded by this
+  // projects with jobs that ran since the project wide steps were last finished, guarded by this
+  private final Set<Integer> unfinished = new HashSet<>();
   private final Timer timer;
-  private final Map<Integer, AtomicInteger> counter = new HashMap<>(); // by dataset (project) key
-  private final Map<Integer, AtomicInteger> failed = new HashMap<>();  // by dataset (project) key
+  private final Timer queueTimer;
+  private final Map<Integer, AtomicInteger> counter = new ConcurrentHashMap<>(); // by dataset (project) key
+  private final Map<Integer, AtomicInteger> failed = new ConcurrentHashMap<>();  // by dataset (project) key
 
   static class SectorFuture {
     public final DSID<Integer> sectorKey;
-    public final Future<?> future;
     public final SectorImport state;
     public final boolean delete;
-    
-    private SectorFuture(SectorRunnable job, Future<?> future) {
+    private final SectorRunnable job;
+    // the target id and all its ancestors. Null if the job might touch the entire project
+    private final Set<String> scope;
+    private final String target;
+    private Future<?> future;
+    private boolean pickedUp;
+    private boolean released;
+    // true until the project wide preparation steps are done, blocking all other jobs of the project
+    private boolean preparing;
+    // true while the project wide steps are run, blocking all other jobs of the project
+    private boolean finishing;
+    // only runs the project wide steps for a job that was cancelled
+    private boolean finishOnly;
+
+    private SectorFuture(SectorRunnable job, Set<String> scope) {
       this.sectorKey = DSID.copy(job.sectorKey);
       this.state = job.getState();
-      this.future = future;
+      this.job = job;
+      this.scope = scope;
+      this.target = scope == null ? null : job.sector.getTarget().getId();
       this.delete = job instanceof SectorDelete || job instanceof SectorDeleteFull;
     }
+
+    /**
+     * Two jobs conflict unless their target subtrees are disjoint, i.e. neither target is part of the other targets classification.
+     */
+    boolean conflicts(SectorFuture other) {
+      return exclusive() || other.exclusive() || scope.contains(other.target) || other.scope.contains(target);
+    }
+
+    private boolean exclusive() {
+      return scope == null || preparing || finishing;
+    }
+
+    LocalDateTime getCreated() {
+      return job.getCreated();
+    }
+
+    LocalDateTime getStarted() {
+      return job.getStarted();
+    }
   }
-  
+
   public SyncManager(SqlSessionFactory factory, NameIndex nameIndex, SyncFactory syncFactory, MetricRegistry registry) {
+    this(factory, nameIndex, syncFactory, registry, 1);
+  }
+
+  /**
+   * @param threads maximum number of syncs to run concurrently across all projects
+   */
+  public SyncManager(SqlSessionFactory factory, NameIndex nameIndex, SyncFactory syncFactory, MetricRegistry registry, int threads) {
+    Preconditions.checkArgument(threads > 0, "At least one sync thread required");
     this.factory = factory;
     this.syncFactory = syncFactory;
     this.nameIndex = nameIndex;
+    this.threads = threads;
     timer = registry.timer("life.catalogue.assembly.timer");
+    queueTimer = registry.timer("life.catalogue.assembly.queue");
   }
   
   @Override
   public void start() throws Exception {
     LOG.info("Starting assembly coordinator");
-    exec = Executors.newSingleThreadExecutor(new NamedThreadFactory(THREAD_NAME, Thread.MAX_PRIORITY, true));
+    exec = Executors.newFixedThreadPool(threads, new NamedThreadFactory(THREAD_NAME, Thread.MAX_PRIORITY, true));
 
     // cancel all existing syncs/deletions
     try (SqlSession session = factory.openSession(true)) {
@@ -102,8 +168,13 @@ public class SyncManager implements Managed, Idle {
     if (exec != null) {
       LOG.info("Stop assembly coordinator");
       // orderly shutdown running syncs
-      for (SectorFuture df : syncs.values()) {
-        df.future.cancel(true);
+      synchronized (this) {
+        pending.clear();
+        for (SectorFuture df : syncs.values()) {
+          if (df.future != null) {
+            df.future.cancel(true);
+          }
+        }
       }
       // fully shutdown threadpool within given time
       ExecutorUtils.shutdown(exec, ExecutorUtils.MILLIS_TO_DIE, TimeUnit.MILLISECONDS);
@@ -262,40 +333,220 @@ public class SyncManager implements Managed, Idle {
 
     } else {
       assertStableData(job);
-      syncs.put(job.sectorKey, new SectorFuture(job, exec.submit(job)));
+      job.setProjectWideSteps(false);
+      SectorFuture sf = new SectorFuture(job, scope(job));
+      syncs.put(job.sectorKey, sf);
+      pending.computeIfAbsent(job.sectorKey.getDatasetKey(), k -> new LinkedList<>()).add(sf);
       LOG.info("Queued {} for {} targeting {}", job.getClass().getSimpleName(), job.sector, job.sector.getTarget());
+      dispatch();
+      return true;
+    }
+  }
+
+  /**
+   * @return the target id with all its ancestors or null if the job might modify the entire project tree
+   */
+  private Set<String> scope(SectorRunnable job) {
+    Sector s = job.sector;
+    if (s.getMode() == Sector.Mode.MERGE || s.getTarget() == null || s.getTarget().getId() == null) {
+      return null;
+    }
+    try (SqlSession session = factory.openSession(true)) {
+      var key = DSID.of(job.sectorKey.getDatasetKey(), s.getTarget().getId());
+      Set<String> ids = new HashSet<>(session.getMapper(TaxonMapper.class).classificationIds(key));
+      ids.add(key.getId());
+      return ids;
+    }
+  }
+
+  /**
+   * Starts as many pending jobs as there are free threads, taking turns between projects.
+   * A job is only started if it does not conflict with any running job of the same project
+   * or with any job of the same project that was queued before.
+   */
+  private synchronized void dispatch() {
+    boolean started = true;
+    while (exec != null && started && activeCount < threads) {
+      started = false;
+      for (Map.Entry<Integer, LinkedList<SectorFuture>> e : pending.entrySet()) {
+        if (activeCount >= threads) break;
+        SectorFuture sf = nextStartable(e.getKey(), e.getValue());
+        if (sf != null) {
+          e.getValue().remove(sf);
+          if (!active.containsKey(e.getKey())) {
+            // first job of an idle project, prepares the project when picked up outside of the lock
+            sf.preparing = true;
+          }
+          active.computeIfAbsent(e.getKey(), k -> new ArrayList<>()).add(sf);
+          activeCount++;
+          sf.future = exec.submit(() -> run(sf));
+          started = true;
+        }
+      }
+      pending.values().removeIf(List::isEmpty);
+    }
+  }
+
+  private SectorFuture nextStartable(int projectKey, List<SectorFuture> queue) {
+    final List<SectorFuture> running = active.getOrDefault(projectKey, Collections.emptyList());
+    final List<SectorFuture> before = new ArrayList<>();
+    for (SectorFuture sf : queue) {
+      if (before.size() >= MAX_LOOKAHEAD) break;
+      if (running.stream().noneMatch(sf::conflicts) && before.stream().noneMatch(sf::conflicts)) {
+        return sf;
+      }
+      if (sf.exclusive()) {
+        // nothing queued after an exclusive job can overtake it
+        break;
+      }
+      before.add(sf);
+    }
+    return null;
+  }
+
+  private void run(SectorFuture sf) {
+    if (!pickUp(sf)) {
+      // cancelled and released before it was picked up
+      return;
+    }
+    try {
+      if (sf.preparing) {
+        try {
+          sf.job.prepareProject();
+        } finally {
+          prepared(sf);
+        }
+      }
+      if (!sf.finishOnly) {
+        sf.job.run();
+      }
+    } finally {
+      if (sf.finishOnly || lastOfProject(sf)) {
+        finishProject(sf);
+      }
+      // only forget the job once the project wide steps are done so the project is not reported idle before
+      syncs.remove(sf.sectorKey, sf);
+      release(sf);
+      dispatch();
+    }
+  }
+
+  /**
+   * Allows other jobs of the project to start once the project wide preparation steps are done.
+   */
+  private void prepared(SectorFuture sf) {
+    synchronized (this) {
+      sf.preparing = false;
+    }
+    dispatch();
+  }
+
+  private synchronized boolean pickUp(SectorFuture sf) {
+    if (sf.released) {
+      return false;
+    }
+    sf.pickedUp = true;
+    return true;
+  }
+
+  /**
+   * @return true if the job is the only active one of its project and no other job of the project is waiting.
+   *   The job then blocks the entire project until it is released.
+   */
+  private synchronized boolean lastOfProject(SectorFuture sf) {
+    final int projectKey = sf.sectorKey.getDatasetKey();
+    unfinished.add(projectKey);
+    var running = active.get(projectKey);
+    if (running != null && running.size() == 1 && !pending.containsKey(projectKey)) {
+      sf.finishing = true;
+      unfinished.remove(projectKey);
       return true;
     }
+    return false;
+  }
+
+  private void finishProject(SectorFuture sf) {
+    LOG.info("All queued jobs of project {} done. Run project wide steps", sf.sectorKey.getDatasetKey());
+    try {
+      sf.job.finishProject();
+    } catch (Exception e) {
+      LOG.error("Failed to run project wide steps for project {}", sf.sectorKey.getDatasetKey(), e);
+    }
+  }
+
+  /**
+   * Runs the project wide steps if the project has no more active or queued jobs after a job was cancelled
+   * but jobs finished before without running them.
+   */
+  private synchronized void finishCancelledProject(SectorFuture sf) {
+    final int projectKey = sf.sectorKey.getDatasetKey();
+    if (exec != null && unfinished.contains(projectKey) && !active.containsKey(projectKey) && !pending.containsKey(projectKey)) {
+      unfinished.remove(projectKey);
+      var finisher = new SectorFuture(sf.job, sf.scope);
+      finisher.finishOnly = true;
+      finisher.finishing = true;
+      active.computeIfAbsent(projectKey, k -> new ArrayList<>()).add(finisher);
+      activeCount++;
+      finisher.future = exec.submit(() -> run(finisher));
+    }
+  }
+
+  /**
+   * Removes a started job from the active ones so conflicting jobs can be started. Can safely be called more than once.
+   */
+  private synchronized void release(SectorFuture sf) {
+    if (!sf.released) {
+      sf.released = true;
+      List<SectorFuture> running = active.get(sf.sectorKey.getDatasetKey());
+      if (running != null && running.remove(sf)) {
+        activeCount--;
+        if (running.isEmpty()) {
+          active.remove(sf.sectorKey.getDatasetKey());
+        }
+      }
+    }
   }
   
   /**
    * We use old school callbacks here as you cannot easily cancel CompletableFutures.
    */
   private void successCallBack(SectorRunnable sync) {
-    syncs.remove(sync.getSectorKey());
     Duration durQueued = Duration.between(sync.getCreated(), sync.getStarted());
     Duration durRun = Duration.between(sync.getStarted(), LocalDateTime.now());
     LOG.info("Sector Sync {} finished. {} min queued, {} min to execute", sync.getSectorKey(), durQueued.toMinutes(), durRun.toMinutes());
-    counter.putIfAbsent(sync.sectorKey.getDatasetKey(), new AtomicInteger(0));
-    counter.get(sync.sectorKey.getDatasetKey()).incrementAndGet();
+    counter.computeIfAbsent(sync.sectorKey.getDatasetKey(), k -> new AtomicInteger(0)).incrementAndGet();
     timer.update(durRun.getSeconds(), TimeUnit.SECONDS);
+    queueTimer.update(durQueued.getSeconds(), TimeUnit.SECONDS);
   }
   
   /**
    * We use old school callbacks here as you cannot easily cancel CompletableFutures.
    */
   private void errorCallBack(SectorRunnable sync, Exception err) {
-    syncs.remove(sync.getSectorKey());
     LOG.error("Sector Sync {} failed: {}", sync.getSectorKey(), err.getCause().getMessage(), err.getCause());
-    failed.putIfAbsent(sync.sectorKey.getDatasetKey(), new AtomicInteger(0));
-    failed.get(sync.sectorKey.getDatasetKey()).incrementAndGet();
+    failed.computeIfAbsent(sync.sectorKey.getDatasetKey(), k -> new AtomicInteger(0)).incrementAndGet();
   }
 
   public synchronized void cancel(DSID<Integer> sectorKey, int user) {
     if (syncs.containsKey(sectorKey)) {
       LOG.info("Sync of sector {} cancelled by user {}", sectorKey, user);
       var sync = syncs.remove(sectorKey);
-      sync.future.cancel(true);
+      var queue = pending.get(sectorKey.getDatasetKey());
+      if (queue != null && queue.remove(sync)) {
+        // never started
+        if (queue.isEmpty()) {
+          pending.remove(sectorKey.getDatasetKey());
+        }
+        finishCancelledProject(sync);
+      } else if (sync.future != null) {
+        sync.future.cancel(true);
+        if (!sync.pickedUp) {
+          // cancelled before it was picked up by a thread, so it will never release itself
+          release(sync);
+          finishCancelledProject(sync);
+          dispatch();
+        }
+      }
     }
   }
 
@@ -3,42 +3,64 @@ package life.catalogue.assembly;
 import life.catalogue.api.model.SectorImport;
 import life.catalogue.api.vocab.ImportState;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-
 public class SyncState {
-  private static final Logger LOG = LoggerFactory.getLogger(SyncState.class);
-  
+
+  /**
+   * The longest running sync. Use runningAll to see all concurrently running syncs.
+   */
   public final SectorImport running;
+  public final List<SectorImport> runningAll = new ArrayList<>();
   public final List<SectorImport> queued = new ArrayList<>();
+  public final List<Timing> timings = new ArrayList<>();
   public final int failed;
   public final int completed;
-  
+
+  /**
+   * Time a sector spent waiting in the queue and running so far, in seconds.
+   * The running time is null for syncs that have not been started yet.
+   */
+  public static class Timing {
+    public final int datasetKey;
+    public final int sectorKey;
+    public final long queued;
+    public final Long running;
+
+    Timing(SyncManager.SectorFuture sync, LocalDateTime now) {
+      this.datasetKey = sync.sectorKey.getDatasetKey();
+      this.sectorKey = sync.sectorKey.getId();
+      LocalDateTime started = sync.getStarted();
+      this.queued = Duration.between(sync.getCreated(), started == null ? now : started).toSeconds();
+      this.running = started == null ? null : Duration.between(started, now).toSeconds();
+    }
+  }
+
   SyncState(Collection<SyncManager.SectorFuture> syncs, int syncsFailed, int syncsCompleted) {
-    SectorImport run = null;
+    final LocalDateTime now = LocalDateTime.now();
     for (SyncManager.SectorFuture sync : syncs) {
       if (sync.state.getState() == ImportState.WAITING) {
         queued.add(sync.state);
       } else if(sync.state.getState().isRunning()) {
-        if (run != null) {
-          LOG.error("Multiple running sector tasks. Ignore {} over {}", run, sync.state);
-        }
-        run = sync.state;
+        runningAll.add(sync.state);
       } else {
         // should not be the case
         throw new IllegalStateException("Non running or waiting sync with state "+sync.state.getState()+" found in queue for sector " + sync.sectorKey);
       }
+      timings.add(new Timing(sync, now));
     }
-    this.running = run;
+    runningAll.sort(Comparator.comparing(SectorImport::getStarted, Comparator.nullsLast(Comparator.naturalOrder())));
+    this.running = runningAll.isEmpty() ? null : runningAll.get(0);
     this.failed  = syncsFailed;
     this.completed= syncsCompleted;
   }
-  
+
   public boolean isIdle() {
-    return running == null && queued.isEmpty();
+    return runningAll.isEmpty() && queued.isEmpty();
   }
 }
@@ -5,6 +5,7 @@ import life.catalogue.api.vocab.*;
 import life.catalogue.cache.CacheLoader;
 import life.catalogue.cache.UsageCache;
 import life.catalogue.common.collection.CollectionUtils;
+import life.catalogue.common.lang.InterruptedRuntimeException;
 import life.catalogue.dao.CopyUtil;
 import life.catalogue.db.mapper.NameUsageMapper;
 import life.catalogue.db.mapper.TypeMaterialMapper;
@@ -35,6 +36,8 @@ import static life.catalogue.common.text.StringUtils.removeWhitespace;
 public class TreeMergeHandler extends TreeBaseHandler {
   private static final Logger LOG = LoggerFactory.getLogger(TreeMergeHandler.class);
   public static final char ID_PREFIX = '~';
+  // number of usages read ahead if no merge config is given
+  static final int DEFAULT_LOOKAHEAD = 1000;
   private final MatchedParentStack parents;
   private final UsageMatcherGlobal matcher;
   private final UsageCache uCache;
@@ -46,6 +49,8 @@ public class TreeMergeHandler extends TreeBaseHandler {
   private int updated = 0; // updates
   private final @Nullable TreeMergeHandlerConfig cfg;
   private final DSID<Integer> vKey;
+  private final int lookahead;
+  private final List<NameUsageBase> chunk = new ArrayList<>();
 
   TreeMergeHandler(int targetDatasetKey, int sourceDatasetKey, Map<String, EditorialDecision> decisions, SqlSessionFactory factory, NameIndex nameIndex, UsageMatcherGlobal matcher,
                    User user, Sector sector, SectorImport state, @Nullable TreeMergeHandlerConfig cfg,
@@ -55,6 +60,7 @@ public class TreeMergeHandler extends TreeBaseHandler {
     super(targetDatasetKey, decisions, factory, nameIndex, user, sector, state, nameIdGen, typeMaterialIdGen, usageIdGen);
     this.cfg = cfg;
     this.vKey = DSID.root(sourceDatasetKey);
+    this.lookahead = cfg == null ? DEFAULT_LOOKAHEAD : cfg.xCfg.mergeLookahead;
     this.matcher = matcher;
     uCache = matcher.getUCache();
 
@@ -129,8 +135,41 @@ public class TreeMergeHandler extends TreeBaseHandler {
     return decisionCounter;
   }
 
+  /**
+   * Reads ahead a chunk of usages and processes them all at once after prefetching their match candidates.
+   * Remaining usages are processed in copyRelations, so the handler must always be finished by calling it.
+   */
   @Override
   public void acceptThrows(NameUsageBase nu) throws InterruptedException {
+    if (lookahead <= 1) {
+      process(nu);
+    } else {
+      chunk.add(nu);
+      if (chunk.size() >= lookahead) {
+        processChunk();
+      }
+    }
+  }
+
+  private void processChunk() throws InterruptedException {
+    Set<DSID<Integer>> prefetched = Collections.emptySet();
+    try {
+      // the batch session flushes pending inserts before querying, so we see all usages created so far
+      prefetched = matcher.prefetch(targetDatasetKey, chunk, batchSession);
+    } catch (RuntimeException e) {
+      LOG.warn("Failed to prefetch match candidates for {} usages of sector {}", chunk.size(), sector, e);
+    }
+    try {
+      for (var nu : chunk) {
+        process(nu);
+      }
+    } finally {
+      chunk.clear();
+      matcher.releasePrefetched(prefetched);
+    }
+  }
+
+  private void process(NameUsageBase nu) throws InterruptedException {
     try {
       acceptThrowsNoCatch(nu);
     } catch (InterruptedException e) {
@@ -450,6 +489,13 @@ public class TreeMergeHandler extends TreeBaseHandler {
    */
   @Override
   public void copyRelations() {
+    if (!chunk.isEmpty()) {
+      try {
+        processChunk();
+      } catch (InterruptedException e) {
+        throw new InterruptedRuntimeException(e);
+      }
+    }
     // TODO: copy name & taxon relations
     // implicit relations last, so we can check if we have duplicates
     super.copyRelations();
@@ -457,6 +503,10 @@ public class TreeMergeHandler extends TreeBaseHandler {
 
   @Override
   public void close() {
+    if (!chunk.isEmpty()) {
+      LOG.warn("Sector {}: Discard {} unprocessed usages", sector, chunk.size());
+      chunk.clear();
+    }
     matcher.removeLoader(targetDatasetKey);
     session.commit();
     session.close();
@@ -24,18 +24,25 @@ public class HomotypicConsolidationJob extends DatasetBlockingJob {
   private static final Logger LOG = LoggerFactory.getLogger(HomotypicConsolidationJob.class);
   private final HomotypicConsolidator hc;
 
-  private HomotypicConsolidationJob(int datasetKey, int userKey, HomotypicConsolidator hc) {
+  private HomotypicConsolidationJob(int datasetKey, int userKey, HomotypicConsolidator hc, int threads) {
     super(datasetKey, userKey, JobPriority.MEDIUM);
     this.hc = hc;
+    this.hc.setThreads(threads);
     this.logToFile = true;
   }
 
-  public HomotypicConsolidationJob(SqlSessionFactory factory, int datasetKey, int userKey) {
-    this(datasetKey, userKey, HomotypicConsolidator.entireDataset(factory, datasetKey));
+  /**
+   * @param threads number of families consolidated concurrently
+   */
+  public HomotypicConsolidationJob(SqlSessionFactory factory, int datasetKey, int userKey, int threads) {
+    this(datasetKey, userKey, HomotypicConsolidator.entireDataset(factory, datasetKey), threads);
   }
 
-  public HomotypicConsolidationJob(SqlSessionFactory factory, int datasetKey, int userKey, String taxonID) {
-    this(datasetKey, userKey, buildHC(factory, datasetKey, taxonID));
+  /**
+   * @param threads number of families consolidated concurrently
+   */
+  public HomotypicConsolidationJob(SqlSessionFactory factory, int datasetKey, int userKey, String taxonID, int threads) {
+    this(datasetKey, userKey, buildHC(factory, datasetKey, taxonID), threads);
   }
 
   private static HomotypicConsolidator buildHC(SqlSessionFactory factory, int datasetKey, String taxonID) {
@@ -64,6 +71,26 @@ public class HomotypicConsolidationJob extends DatasetBlockingJob {
     return HomotypicConsolidator.forTaxa(factory, datasetKey, families);
   }
 
+  public int getTaxa() {
+    return hc.getTaxa();
+  }
+
+  public int getTaxaDone() {
+    return hc.getTaxaDone();
+  }
+
+  public long getUsages() {
+    return hc.getUsages();
+  }
+
+  public int getSynonyms() {
+    return hc.getSynonyms();
+  }
+
+  public double getUsagesPerSecond() {
+    return hc.getUsagesPerSecond();
+  }
+
   @Override
   protected void runWithLock() throws Exception {
     hc.consolidate();
@@ -7,8 +7,12 @@ import life.catalogue.api.vocab.TaxonomicStatus;
 import life.catalogue.api.vocab.Users;
 import life.catalogue.common.collection.CollectionUtils;
 import life.catalogue.common.collection.CountMap;
+import life.catalogue.common.lang.Exceptions;
+import life.catalogue.common.lang.InterruptedRuntimeException;
 import life.catalogue.common.tax.AuthorshipNormalizer;
 import life.catalogue.common.tax.SciNameNormalizer;
+import life.catalogue.concurrent.ExecutorUtils;
+import life.catalogue.concurrent.NamedThreadFactory;
 import life.catalogue.dao.TaxonDao;
 import life.catalogue.db.PgUtils;
 import life.catalogue.db.mapper.*;
@@ -21,12 +25,19 @@ import org.gbif.nameparser.api.Rank;
 
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import javax.annotation.Nullable;
 
 import org.apache.ibatis.exceptions.PersistenceException;
+import org.apache.ibatis.session.ExecutorType;
 import org.apache.ibatis.session.SqlSession;
 import org.apache.ibatis.session.SqlSessionFactory;
 import org.slf4j.Logger;
@@ -43,17 +54,21 @@ public class HomotypicConsolidator {
   private static final List<TaxonomicStatus> STATUS_ORDER = List.of(TaxonomicStatus.ACCEPTED, TaxonomicStatus.PROVISIONALLY_ACCEPTED, TaxonomicStatus.SYNONYM, TaxonomicStatus.AMBIGUOUS_SYNONYM);
   private static final Comparator<LinneanNameUsage> PREFERRED_STATUS_ORDER = Comparator.comparing(u -> STATUS_ORDER.indexOf(u.getStatus()));
   private static final Comparator<LinneanNameUsage> PREFERRED_STATUS_RANK_ORDER = PREFERRED_STATUS_ORDER.thenComparing(LinneanNameUsage::getRank);
+  // number of changes after which a taxon consolidation commits its batch session
+  private static final int BATCH_SIZE = 1000;
 
   private final SqlSessionFactory factory;
   private final int datasetKey;
-  private final DSID<String> dsid;
   private final List<SimpleName> taxa;
   private Map<String, Set<String>> basionymExclusions = new HashMap<>();
   private final AuthorComparator authorComparator;
   private final BasionymSorter basSorter;
   private final Function<LinneanNameUsage, Integer> priorityFunc;
-  private int synCounter;
-  private Map<String, LinneanNameUsage> usages; // lookup by id for each taxon group being consolidated
+  private int threads = 1;
+  private long started;
+  private final AtomicInteger taxaDone = new AtomicInteger();
+  private final AtomicLong usageCounter = new AtomicLong();
+  private final AtomicInteger synonymCounter = new AtomicInteger();
 
   /**
    * @return a consolidator that will group an entire dataset family by family
@@ -91,7 +106,6 @@ public class HomotypicConsolidator {
   private HomotypicConsolidator(SqlSessionFactory factory, int datasetKey, List<SimpleName> taxa, Function<LinneanNameUsage, Integer> priorityFunc) {
     this.factory = factory;
     this.datasetKey = datasetKey;
-    this.dsid = DSID.root(datasetKey);
     this.priorityFunc = priorityFunc;
     this.taxa = taxa;
     authorComparator = new AuthorComparator(AuthorshipNormalizer.INSTANCE);
@@ -102,32 +116,165 @@ public class HomotypicConsolidator {
     this.basionymExclusions = basionymExclusions;
   }
 
-  public void consolidate() {
-    LOG.info("Discover homotypic relations in {} accepted taxa of dataset {}", taxa.size(), datasetKey);
-    for (var tax : taxa) {
-      consolidate(tax);
+  /**
+   * @param threads number of taxa to consolidate concurrently. Each taxon is consolidated in its own session.
+   */
+  public void setThreads(int threads) {
+    this.threads = threads;
+  }
+
+  public int getTaxa() {
+    return taxa.size();
+  }
+
+  /**
+   * @return number of taxa already consolidated
+   */
+  public int getTaxaDone() {
+    return taxaDone.get();
+  }
+
+  /**
+   * @return number of species and infraspecific usages compared so far
+   */
+  public long getUsages() {
+    return usageCounter.get();
+  }
+
+  /**
+   * @return number of usages converted into synonyms or moved to a new accepted name so far
+   */
+  public int getSynonyms() {
+    return synonymCounter.get();
+  }
+
+  /**
+   * @return the average number of usages compared per second since consolidation started
+   */
+  public double getUsagesPerSecond() {
+    if (started == 0) {
+      return 0;
     }
+    long millis = Math.max(1, System.currentTimeMillis() - started);
+    return usageCounter.get() * 1000d / millis;
   }
 
   /**
-   * Goes through all usages of a given parent taxon and tries to discover basionyms by comparing the specific or infraspecific epithet and the authorships.
-   * As we often see missing brackets from author names we must code defensively and allow several original names in the data for a single epithet.
-   *
-   * Each homotypic group is then consolidated so that only one accepted name remains.
+   * Consolidates all taxa, concurrently if more than one thread is configured.
+   * Taxa are expected to be disjoint, e.g. all families, so no two threads ever modify the same usages.
    */
+  public void consolidate() {
+    LOG.info("Discover homotypic relations in {} accepted taxa of dataset {} using {} threads", taxa.size(), datasetKey, threads);
+    started = System.currentTimeMillis();
+    try {
+      if (threads <= 1 || taxa.size() <= 1) {
+        for (var tax : taxa) {
+          Exceptions.interruptIfCancelled();
+          consolidate(tax);
+        }
+      } else {
+        consolidateConcurrently();
+      }
+    } catch (InterruptedException e) {
+      throw new InterruptedRuntimeException("Homotypic consolidation of dataset " + datasetKey + " was interrupted");
+    }
+    LOG.info("Compared {} usages of {} taxa in dataset {} at {} usages/s and converted {} into synonyms",
+      usageCounter.get(), taxaDone.get(), datasetKey, Math.round(getUsagesPerSecond()), synonymCounter.get());
+  }
+
+  private void consolidateConcurrently() throws InterruptedException {
+    ExecutorService exec = Executors.newFixedThreadPool(threads, new NamedThreadFactory("homotypic-consolidator", Thread.NORM_PRIORITY, true));
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (var tax : taxa) {
+        futures.add(exec.submit(() -> consolidate(tax)));
+      }
+      for (var f : futures) {
+        f.get();
+      }
+
+    } catch (InterruptedException e) {
+      exec.shutdownNow();
+      throw e;
+
+    } catch (ExecutionException e) {
+      exec.shutdownNow();
+      LOG.error("Failed to consolidate homotypic names in dataset {}", datasetKey, e.getCause());
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw new RuntimeException(e.getCause());
+
+    } finally {
+      ExecutorUtils.shutdown(exec);
+    }
+  }
+
   private void consolidate(SimpleName tax) {
-    synCounter = 0;
-    int newBasionyms = 0;
-    int newBasionymRelations = 0;
-    int newHomotypicRelations = 0;
-    int newSpellingRelations = 0;
-    LOG.info("Detect homotypic relations within {}", tax);
-    final Map<String, List<LinneanNameUsage>> epithets = Maps.newHashMap();
-    final Set<String> ignore = basionymExclusions.get(tax.getName());
-    // key all names by their terminal epithet
-    try (SqlSession session = factory.openSession(true)) {
-      NameUsageMapper num = session.getMapper(NameUsageMapper.class);
+    try (TaxonConsolidation tc = new TaxonConsolidation(tax)) {
+      tc.consolidate();
+    }
+    int done = taxaDone.incrementAndGet();
+    if (done % 100 == 0) {
+      LOG.info("Consolidated {} of {} taxa in dataset {} at {} usages/s", done, taxa.size(), datasetKey, Math.round(getUsagesPerSecond()));
+    }
+  }
+
+  /**
+   * Consolidates all names of a single taxon using its own batch session.
+   * Changes are committed in batches at the end of homotypic groups and when the taxon is done.
+   * Reads go through the same session, so they always see the changes done before.
+   */
+  private class TaxonConsolidation implements AutoCloseable {
+    private final SimpleName tax;
+    private final SqlSession session;
+    private final NameUsageMapper num;
+    private final NameRelationMapper nrm;
+    private final VerbatimSourceMapper vsm;
+    private final TaxonMapper tm;
+    private int synCounter;
+    private int changes;
+    private Map<String, LinneanNameUsage> usages; // lookup by id for the taxon being consolidated
+
+    TaxonConsolidation(SimpleName tax) {
+      this.tax = tax;
+      session = factory.openSession(ExecutorType.BATCH, false);
+      num = session.getMapper(NameUsageMapper.class);
+      nrm = session.getMapper(NameRelationMapper.class);
+      vsm = session.getMapper(VerbatimSourceMapper.class);
+      tm = session.getMapper(TaxonMapper.class);
+    }
+
+    private void changed() {
+      changes++;
+    }
+
+    /**
+     * Commits pending changes once enough have accumulated.
+     * Must not be called while a cursor is open, as a commit closes it.
+     */
+    private void commitIfNeeded() {
+      if (changes >= BATCH_SIZE) {
+        session.commit();
+        changes = 0;
+      }
+    }
 
+    /**
+     * Goes through all usages of a given parent taxon and tries to discover basionyms by comparing the specific or infraspecific epithet and the authorships.
+     * As we often see missing brackets from author names we must code defensively and allow several original names in the data for a single epithet.
+     *
+     * Each homotypic group is then consolidated so that only one accepted name remains.
+     */
+    void consolidate() {
+      int newBasionyms = 0;
+      int newBasionymRelations = 0;
+      int newHomotypicRelations = 0;
+      int newSpellingRelations = 0;
+      LOG.info("Detect homotypic relations within {}", tax);
+      final Map<String, List<LinneanNameUsage>> epithets = Maps.newHashMap();
+      final Set<String> ignore = basionymExclusions.get(tax.getName());
+      // key all names by their terminal epithet
       TreeTraversalParameter traversal = TreeTraversalParameter.dataset(datasetKey, tax.getId());
       traversal.setSynonyms(true);
       PgUtils.consume(()->num.processTreeLinneanUsage(traversal, false, false), nu -> {
@@ -148,23 +295,21 @@ public class HomotypicConsolidator {
         }
       });
       LOG.debug("{} distinct epithets found in {}", epithets.size(), tax);
-    }
 
-    // keep identity map of all usages
-    usages = new HashMap<>();
-    for (var lnus : epithets.values()) {
-      for (var lnu : lnus) {
-        usages.put(lnu.getId(), lnu);
+      // keep identity map of all usages
+      usages = new HashMap<>();
+      for (var lnus : epithets.values()) {
+        for (var lnu : lnus) {
+          usages.put(lnu.getId(), lnu);
+        }
       }
-    }
+      usageCounter.addAndGet(usages.size());
 
-    // now compare authorships for each epithet group
-    for (var epithetGroup : epithets.entrySet()) {
-      var groups = basSorter.groupBasionyms(epithetGroup.getValue(), a -> a, this::flagMultipleBasionyms);
-      // go through groups and persistent basionym relations where needed
-      for (var group : groups) {
-        try (SqlSession session = factory.openSession(false)) {
-          NameRelationMapper nrm = session.getMapper(NameRelationMapper.class);
+      // now compare authorships for each epithet group
+      for (var epithetGroup : epithets.entrySet()) {
+        var groups = basSorter.groupBasionyms(epithetGroup.getValue(), a -> a, this::flagMultipleBasionyms);
+        // go through groups and persistent basionym relations where needed
+        for (var group : groups) {
           // we only need to process groups that contain recombinations or duplicates
           if (group.hasRecombinations() || group.hasBasionymDuplicates()) {
             // if we have a basionym creating relations is straight forward
@@ -172,12 +317,12 @@ public class HomotypicConsolidator {
             if (group.hasBasionym()) {
               basionym = group.getBasionym();
               for (var u : group.getRecombinations()) {
-                if (createRelationIfNotExisting(u, basionym, NomRelType.BASIONYM, nrm)) {
+                if (createRelationIfNotExisting(u, basionym, NomRelType.BASIONYM)) {
                   newBasionymRelations++;
                 }
               }
               for (var u : group.getBasionymDuplicates()) {
-                if (createRelationIfNotExisting(basionym, u, NomRelType.SPELLING_CORRECTION, nrm)) {
+                if (createRelationIfNotExisting(basionym, u, NomRelType.SPELLING_CORRECTION)) {
                   newSpellingRelations++;
                 }
               }
@@ -186,109 +331,101 @@ public class HomotypicConsolidator {
               var all = group.getAll();
               var hom = all.remove(0);
               for (var u : all) {
-                if (createRelationIfNotExisting(u, hom, NomRelType.HOMOTYPIC, nrm)) {
+                if (createRelationIfNotExisting(u, hom, NomRelType.HOMOTYPIC)) {
                   newHomotypicRelations++;
                 }
               }
             }
           }
-          // finally make sure we only have one accepted name!
-          session.commit();
+          // now make sure we only have a single accepted name
+          consolidate(group);
+          commitIfNeeded();
         }
-        // now make sure we only have a single accepted name
-        consolidate(tax, group);
       }
+      session.commit();
+      synonymCounter.addAndGet(synCounter);
+      LOG.info("Discovered {} new basionym, {} homotypic and {} spelling relations. Created {} basionym placeholders and converted {} taxa into synonyms in {}", newBasionymRelations, newHomotypicRelations, newSpellingRelations, newBasionyms, synCounter, tax);
+      usages = null;
     }
-    LOG.info("Discovered {} new basionym, {} homotypic and {} spelling relations. Created {} basionym placeholders and converted {} taxa into synonyms in {}", newBasionymRelations, newHomotypicRelations, newSpellingRelations, newBasionyms, synCounter, tax);
-    usages = null;
-  }
 
-  /**
-   *
-   * @param group first=originals, second=recombinations
-   */
-  private void flagMultipleBasionyms(Pair<List<LinneanNameUsage>, List<LinneanNameUsage>> group) {
-    try (SqlSession session = factory.openSession(false)) {
-      VerbatimSourceMapper vsm = session.getMapper(VerbatimSourceMapper.class);
+    /**
+     *
+     * @param group first=originals, second=recombinations
+     */
+    private void flagMultipleBasionyms(Pair<List<LinneanNameUsage>, List<LinneanNameUsage>> group) {
       for (var u : group.first()) {
-        vsm.addIssue(dsid.id(u.getId()), Issue.MULTIPLE_BASIONYMS);
+        vsm.addIssue(DSID.of(datasetKey, u.getId()), Issue.MULTIPLE_BASIONYMS);
+        changed();
         if (u.getStatus().isTaxon()) {
-          vsm.addIssue(dsid.id(u.getId()), Issue.HOMOTYPIC_CONSOLIDATION_UNRESOLVED);
+          vsm.addIssue(DSID.of(datasetKey, u.getId()), Issue.HOMOTYPIC_CONSOLIDATION_UNRESOLVED);
+          changed();
         }
       }
       for (var u : group.second()) {
         if (u.getStatus().isTaxon()) {
-          vsm.addIssue(dsid.id(u.getId()), Issue.HOMOTYPIC_CONSOLIDATION_UNRESOLVED);
+          vsm.addIssue(DSID.of(datasetKey, u.getId()), Issue.HOMOTYPIC_CONSOLIDATION_UNRESOLVED);
+          changed();
         }
       }
-      session.commit();
     }
-  }
 
-  private boolean createRelationIfNotExisting(LinneanNameUsage from, LinneanNameUsage to, NomRelType relType, NameRelationMapper mapper) {
-    if (!mapper.exists(datasetKey, from.getNameId(), to.getNameId(), relType)) {
-      var nr = new NameRelation();
-      nr.setDatasetKey(datasetKey);
-      nr.setType(relType);
-      nr.setNameId(from.getNameId());
-      nr.setRelatedNameId(to.getNameId());
-      nr.setCreatedBy(Users.HOMOTYPIC_GROUPER);
-      nr.setModifiedBy(Users.HOMOTYPIC_GROUPER);
-      mapper.create(nr);
-      return true;
+    private boolean createRelationIfNotExisting(LinneanNameUsage from, LinneanNameUsage to, NomRelType relType) {
+      if (!nrm.exists(datasetKey, from.getNameId(), to.getNameId(), relType)) {
+        var nr = new NameRelation();
+        nr.setDatasetKey(datasetKey);
+        nr.setType(relType);
+        nr.setNameId(from.getNameId());
+        nr.setRelatedNameId(to.getNameId());
+        nr.setCreatedBy(Users.HOMOTYPIC_GROUPER);
+        nr.setModifiedBy(Users.HOMOTYPIC_GROUPER);
+        nrm.create(nr);
+        changed();
+        return true;
+      }
+      return false;
     }
-    return false;
-  }
 
-  /**
-   * Make sure we only have at most one accepted name for each homotypical basionym group!
-   * An entire group can consist of synonyms without a problem and can also refer to different accepted names, e.g. with pro parte synonyms.
-   * If a previously accepted name needs to be turned into a synonym it will be made an ambiguous synonym
-   * if there are multiple accepted names existing for all synonyms, otherwise a regular synonym.
-   * <p>
-   * As we merge names from different taxonomies it is possible there are multiple accepted names (maybe via a synonym relation) in such a group.
-   * We always stick to the first combination with the highest priority and make all others
-   * a) synonyms of this if it is accepted
-   * b) synonyms of the primary's accepted name if it was a synonym itself.
-   * <p>
-   * If there are several usages with the same priority select one according to these rules:
-   *  1) prefer accepted over synonym, e.g. s.str vs s.l.
-   *  2) if multiple synonyms (senso lato) with different accepted names exist, pick the synonym with the homotypic accepted name that has the same epithet.
-   * <p>
-   * In case we have duplicates of the basionym treat them just as recombinations that need to be consolidated and synonymised to the primary accepted name.
-   *
-   * @param tax taxon context of all groups
-   * @param group homotypic group to consolidate
-   */
-  private void consolidate(SimpleName tax, BasionymGroup<LinneanNameUsage> group) {
-    if (group.size() > 1) {
-      LOG.info("Consolidate homotypic group {} with {} recombinations and basionym={} with {} duplicates in {}", group.getEpithet(), group.getRecombinations().size(), group.getBasionym(), group.getBasionymDuplicates().size(), tax);
-      final LinneanNameUsage primary = findPrimaryUsage(group);
-      if (primary==null) {
-        // we did not find a usage to trust. skip, but mark accepted names with issues
-        try (SqlSession session = factory.openSession(false)) {
-          VerbatimSourceMapper vsm = session.getMapper(VerbatimSourceMapper.class);
+    /**
+     * Make sure we only have at most one accepted name for each homotypical basionym group!
+     * An entire group can consist of synonyms without a problem and can also refer to different accepted names, e.g. with pro parte synonyms.
+     * If a previously accepted name needs to be turned into a synonym it will be made an ambiguous synonym
+     * if there are multiple accepted names existing for all synonyms, otherwise a regular synonym.
+     * <p>
+     * As we merge names from different taxonomies it is possible there are multiple accepted names (maybe via a synonym relation) in such a group.
+     * We always stick to the first combination with the highest priority and make all others
+     * a) synonyms of this if it is accepted
+     * b) synonyms of the primary's accepted name if it was a synonym itself.
+     * <p>
+     * If there are several usages with the same priority select one according to these rules:
+     *  1) prefer accepted over synonym, e.g. s.str vs s.l.
+     *  2) if multiple synonyms (senso lato) with different accepted names exist, pick the synonym with the homotypic accepted name that has the same epithet.
+     * <p>
+     * In case we have duplicates of the basionym treat them just as recombinations that need to be consolidated and synonymised to the primary accepted name.
+     *
+     * @param group homotypic group to consolidate
+     */
+    private void consolidate(BasionymGroup<LinneanNameUsage> group) {
+      if (group.size() > 1) {
+        LOG.info("Consolidate homotypic group {} with {} recombinations and basionym={} with {} duplicates in {}", group.getEpithet(), group.getRecombinations().size(), group.getBasionym(), group.getBasionymDuplicates().size(), tax);
+        final LinneanNameUsage primary = findPrimaryUsage(group, this::load);
+        if (primary==null) {
+          // we did not find a usage to trust. skip, but mark accepted names with issues
           for (var u : group.getAll()) {
             if (u.getStatus().isTaxon()) {
-              vsm.addIssue(dsid.id(u.getId()), Issue.HOMOTYPIC_CONSOLIDATION_UNRESOLVED);
+              vsm.addIssue(DSID.of(datasetKey, u.getId()), Issue.HOMOTYPIC_CONSOLIDATION_UNRESOLVED);
+              changed();
             }
           }
-          session.commit();
+          return;
         }
-        return;
-      }
-
-      // get the accepted usage in case of synonyms - caution, this can now be an autonym that is happy to live with its accepted species
-      final var primaryAcc = primary.getStatus().isSynonym() ? load(primary.getParentId()) : primary;
-      final Integer primaryPrio = priorityFunc.apply(primaryAcc);
-      try (SqlSession session = factory.openSession(false)) {
-        TaxonMapper tm = session.getMapper(TaxonMapper.class);
-        var num = session.getMapper(NameUsageMapper.class);
 
+        // get the accepted usage in case of synonyms - caution, this can now be an autonym that is happy to live with its accepted species
+        final var primaryAcc = primary.getStatus().isSynonym() ? load(primary.getParentId()) : primary;
+        final Integer primaryPrio = priorityFunc.apply(primaryAcc);
         if (LOG.isDebugEnabled()) {
           LOG.debug("Consolidating homotypic group with {} primary usage {}: {}", primary.getStatus(), primary.getLabel(), names(group.getAll()));
         }
-        Set<String> parents = Set.copyOf(tm.classificationIds(dsid.id(primaryAcc.getId())));
+        Set<String> parents = Set.copyOf(tm.classificationIds(DSID.of(datasetKey, primaryAcc.getId())));
         for (LinneanNameUsage u : group.getAll()) {
           if (u.equals(primary)) continue;
           if (parents.contains(u.getId())) { // this should catch autonym cases with an accepted species above
@@ -297,15 +434,15 @@ public class HomotypicConsolidator {
           } else {
             final Integer prio = priorityFunc.apply(u);
             if (primaryPrio == null || prio == null || prio > primaryPrio) {
-              convertToSynonym(u, primaryAcc, Issue.HOMOTYPIC_CONSOLIDATION, session);
+              convertToSynonym(u, primaryAcc, Issue.HOMOTYPIC_CONSOLIDATION);
               // delete synonym with identical name? We have moved all children and changed the usage to a synonym, so there are no related records any longer
               if (u.getLabel().equalsIgnoreCase(primaryAcc.getLabel())) {
-                delete(u, session);
+                delete(u);
               } else {
                 // does the accepted already have the exact same synonym?
-                var syns = num.listSimpleSynonyms(dsid.id(primaryAcc.getId()));
+                var syns = num.listSimpleSynonyms(DSID.of(datasetKey, primaryAcc.getId()));
                 if (syns.stream().anyMatch(s -> !u.getId().equals(s.getId()) && u.getLabel().equalsIgnoreCase(s.getLabel()))) {
-                  delete(u, session);
+                  delete(u);
                 }
               }
             } else {
@@ -314,102 +451,110 @@ public class HomotypicConsolidator {
             }
           }
         }
-        session.commit();
       }
     }
-  }
 
-  private void delete(LinneanNameUsage u, SqlSession session) {
-    VerbatimSourceMapper vsm = session.getMapper(VerbatimSourceMapper.class);
-    NameUsageMapper num = session.getMapper(NameUsageMapper.class);
-    vsm.delete(dsid.id(u.getId()));
-    num.delete(dsid);
-  }
+    private void delete(LinneanNameUsage u) {
+      final var key = DSID.of(datasetKey, u.getId());
+      vsm.delete(key);
+      num.delete(key);
+      changed();
+    }
 
-  /**
-   * Converts the given taxon to a synonym of the given accepted usage.
-   * All included descendants, both synonyms and accepted children, are also changed to become synonyms of the accepted.
-   *
-   * The method also updates the already loaded group instances to reflect the status & parent changes.
-   * @param u taxon to convert to synonym
-   * @param accepted newly accepted parent of the new synonym
-   * @param issue optional issue to flag
-   */
-  public void convertToSynonym(LinneanNameUsage u, LinneanNameUsage accepted, @Nullable Issue issue, SqlSession session) {
-    VerbatimSourceMapper vsm = session.getMapper(VerbatimSourceMapper.class);
-    NameUsageMapper num = session.getMapper(NameUsageMapper.class);
+    /**
+     * Converts the given taxon to a synonym of the given accepted usage.
+     * All included descendants, both synonyms and accepted children, are also changed to become synonyms of the accepted.
+     *
+     * The method also updates the already loaded group instances to reflect the status & parent changes.
+     * @param u taxon to convert to synonym
+     * @param accepted newly accepted parent of the new synonym
+     * @param issue optional issue to flag
+     */
+    private void convertToSynonym(LinneanNameUsage u, LinneanNameUsage accepted, @Nullable Issue issue) {
+      if (!accepted.getStatus().isTaxon()) {
+        LOG.warn("Cannot convert usage {} into a synonym of the {} {}", u.getLabel(), accepted.getStatus(), accepted.getLabel());
+        return;
+      }
+      if (u.getId().equals(accepted.getId())) {
+        LOG.warn("Trying to convert {} into a synonym of itself is suspicious. Abort", u);
+        return;
+      } else if (u.getParentId().equals(accepted.getId()) && u.getStatus().isSynonym()) {
+        LOG.info("Trying to convert {} into a synonym of it's accepted name. Nothing to be done.", u);
+        return;
+      }
 
-    if (!accepted.getStatus().isTaxon()) {
-      LOG.warn("Cannot convert usage {} into a synonym of the {} {}", u.getLabel(), accepted.getStatus(), accepted.getLabel());
-      return;
-    }
-    if (u.getId().equals(accepted.getId())) {
-      LOG.warn("Trying to convert {} into a synonym of itself is suspicious. Abort", u);
-      return;
-    } else if (u.getParentId().equals(accepted.getId()) && u.getStatus().isSynonym()) {
-      LOG.info("Trying to convert {} into a synonym of it's accepted name. Nothing to be done.", u);
-      return;
-    }
+      SimpleName previousParent = num.getSimple(DSID.of(datasetKey, u.getParentId()));
+      if(u.getStatus().isSynonym()) {
+        LOG.info("Move {} from {} to {}", u, previousParent, accepted);
+      } else if (u.getRank().isGenusOrSuprageneric()) {
+        // pretty high ranks, dont do that!
+        LOG.warn("Trying to convert {} into a synonym of {}, but rank {} is too high. Abort", u, accepted, u.getRank());
+        return;
 
-    SimpleName previousParent = loadSN(u.getParentId());
-    if(u.getStatus().isSynonym()) {
-      LOG.info("Move {} from {} to {}", u, previousParent, accepted);
-    } else if (u.getRank().isGenusOrSuprageneric()) {
-      // pretty high ranks, dont do that!
-      LOG.warn("Trying to convert {} into a synonym of {}, but rank {} is too high. Abort", u, accepted, u.getRank());
-      return;
+      } else {
+        LOG.info("Convert {} into a synonym of {}", u, accepted);
+      }
+      if (previousParent != null) {
+        LOG.debug("Originally was treated as {} {} {}", u.getStatus(), u.getStatus().isSynonym() ? "of" : "taxon within", previousParent.getLabel());
+      }
 
-    } else {
-      LOG.info("Convert {} into a synonym of {}", u, accepted);
-    }
-    if (previousParent != null) {
-      LOG.debug("Originally was treated as {} {} {}", u.getStatus(), u.getStatus().isSynonym() ? "of" : "taxon within", previousParent.getLabel());
+      // convert to synonym, removing old parent relation
+      if (issue != null) {
+        vsm.addIssue(DSID.of(datasetKey, u.getId()), issue);
+        changed();
+      }
+
+      // move all descendants!
+      TreeTraversalParameter treeParams = TreeTraversalParameter.dataset(datasetKey, u.getId());
+      treeParams.setSynonyms(true);
+      try (var cursor = num.processTreeSimple(treeParams)) {
+        for (var sn : cursor) {
+          if (sn.getId().equals(u.getId())) continue; // exclude root
+          if (sn.getParent().equals(accepted.getId())) continue; // the name was placed correctly already - how can that be?
+          if (sn.getId().equals(accepted.getId())) {
+            // avoid moving the main accepted usage - how can we even end up here?
+            LOG.warn("Trying to move the main accepted name {} to become a child of itself. Avoid!", accepted);
+            continue;
+          }
+          LOG.info("Also move descendant {} from {} to {}", sn, sn.getParent(), accepted);
+          updateParent(sn.getId(), accepted.getId());
+        }
+        // persist usage instance changes
+        updateParentAndStatus(u.getId(), accepted.getId(), TaxonomicStatus.SYNONYM);
+      } catch (IOException | PersistenceException e) {
+        LOG.error("Failed to traverse descendants of "+u.getLabel(), e);
+      }
     }
 
-    // convert to synonym, removing old parent relation
-    if (issue != null) {
-      vsm.addIssue(dsid.id(u.getId()), issue);
+    private void updateParent(String id, String parentId) {
+      num.updateParentId(DSID.of(datasetKey, id), parentId, Users.HOMOTYPIC_GROUPER);
+      changed();
+      // track change in our memory instances too
+      if (usages.containsKey(id)) {
+        var u = usages.get(id);
+        u.setParentId(parentId);
+      }
     }
 
-    // move all descendants!
-    TreeTraversalParameter treeParams = TreeTraversalParameter.dataset(datasetKey, u.getId());
-    treeParams.setSynonyms(true);
-    try (var cursor = num.processTreeSimple(treeParams)) {
-      for (var sn : cursor) {
-        if (sn.getId().equals(u.getId())) continue; // exclude root
-        if (sn.getParent().equals(accepted.getId())) continue; // the name was placed correctly already - how can that be?
-        if (sn.getId().equals(accepted.getId())) {
-          // avoid moving the main accepted usage - how can we even end up here?
-          LOG.warn("Trying to move the main accepted name {} to become a child of itself. Avoid!", accepted);
-          continue;
-        }
-        LOG.info("Also move descendant {} from {} to {}", sn, sn.getParent(), accepted);
-        updateParent(sn.getId(), accepted.getId(), num);
+    private void updateParentAndStatus(String id, String parentId, TaxonomicStatus status) {
+      num.updateParentAndStatus(DSID.of(datasetKey, id), parentId, status, Users.HOMOTYPIC_GROUPER);
+      changed();
+      synCounter++;
+      // track change in our memory instances too
+      if (usages.containsKey(id)) {
+        var u = usages.get(id);
+        u.setStatus(status);
+        u.setParentId(parentId);
       }
-      // persist usage instance changes
-      updateParentAndStatus(u.getId(), accepted.getId(), TaxonomicStatus.SYNONYM, num);
-    } catch (IOException | PersistenceException e) {
-      LOG.error("Failed to traverse descendants of "+u.getLabel(), e);
     }
-  }
 
-  private void updateParent(String id, String parentId, NameUsageMapper num) {
-    num.updateParentId(dsid.id(id), parentId, Users.HOMOTYPIC_GROUPER);
-    // track change in our memory instances too
-    if (usages.containsKey(id)) {
-      var u = usages.get(id);
-      u.setParentId(parentId);
+    private LinneanNameUsage load(String id) {
+      return new LinneanNameUsage(num.get(DSID.of(datasetKey, id)));
     }
-  }
 
-  private void updateParentAndStatus(String id, String parentId, TaxonomicStatus status, NameUsageMapper num) {
-    num.updateParentAndStatus(dsid.id(id), parentId, status, Users.HOMOTYPIC_GROUPER);
-    synCounter++;
-    // track change in our memory instances too
-    if (usages.containsKey(id)) {
-      var u = usages.get(id);
-      u.setStatus(status);
-      u.setParentId(parentId);
+    @Override
+    public void close() {
+      session.close();
     }
   }
 
@@ -426,6 +571,13 @@ public class HomotypicConsolidator {
    */
   @VisibleForTesting
   protected LinneanNameUsage findPrimaryUsage(BasionymGroup<LinneanNameUsage> group) {
+    return findPrimaryUsage(group, this::load);
+  }
+
+  /**
+   * @param loader function to load usages by their id which are not part of the group
+   */
+  private LinneanNameUsage findPrimaryUsage(BasionymGroup<LinneanNameUsage> group, Function<String, LinneanNameUsage> loader) {
     if (group == null || group.isEmpty()) {
       return null;
     }
@@ -472,7 +624,7 @@ public class HomotypicConsolidator {
             accepted.add(nu);
           } else {
             // load from db - might be the accepted name of a synonym
-            accepted.add(load(id));
+            accepted.add(loader.apply(id));
           }
         }
 
@@ -532,10 +684,4 @@ public class HomotypicConsolidator {
       throw new RuntimeException(e);
     }
   }
-
-  private SimpleName loadSN(String id) {
-    try (SqlSession session = factory.openSession()) {
-      return session.getMapper(NameUsageMapper.class).getSimple(DSID.of(datasetKey, id));
-    }
-  }
 }
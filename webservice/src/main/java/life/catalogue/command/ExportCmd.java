@@ -118,7 +118,7 @@ public class ExportCmd extends AbstractMybatisCmd {
     exec = new JobExecutor(cfg.job, metrics, mail.getEmailNotification(), udao);
     final ImageService imageService = new ImageServiceFS(cfg.img, bus);
     final DatasetExportDao exportDao = new DatasetExportDao(cfg.job, factory, bus, validator);
-    manager = new ExportManager(cfg, factory, exec, imageService, exportDao, new DatasetImportDao(factory, cfg.metricsRepo));
+    manager = new ExportManager(cfg, factory, exec, imageService, exportDao, new DatasetImportDao(factory, cfg.metricsRepo), null);
     DoiService doiService = new DataCiteService(cfg.doi, jerseyClient);
     DatasetConverter converter = new DatasetConverter(cfg.portalURI, cfg.clbURI, udao::get);
     copy = new PublicReleaseListener(cfg, factory, exportDao, doiService, converter);
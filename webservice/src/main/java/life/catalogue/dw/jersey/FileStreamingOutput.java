@@ -3,28 +3,120 @@ package life.catalogue.dw.jersey;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 
+import javax.annotation.Nullable;
 import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Response;
 import javax.ws.rs.core.StreamingOutput;
 
-import org.apache.commons.io.IOUtils;
-
+/**
+ * Streams an entire file or a single byte range of it.
+ * Bytes are handed over with FileChannel.transferTo, which lets the OS copy them without passing
+ * them through the java heap where the servlet container supports it.
+ */
 public class FileStreamingOutput implements StreamingOutput {
+  private static final String BYTES = "bytes";
 
-  private File file;
+  private final File file;
+  private final long offset;
+  private final long length;
 
   public FileStreamingOutput(File file) {
+    this(file, 0, file.length());
+  }
+
+  public FileStreamingOutput(File file, long offset, long length) {
     this.file = file;
+    this.offset = offset;
+    this.length = length;
+  }
+
+  /**
+   * Builds a response for an existing file which honors a single HTTP byte range.
+   * Without a range header or with a malformed or multipart one the entire file is returned,
+   * ranges outside of the file result in 416 Range Not Satisfiable.
+   *
+   * @param range the value of the HTTP Range request header
+   */
+  public static Response.ResponseBuilder response(File file, @Nullable String range) {
+    final long size = file.length();
+    long[] r = parseRange(range, size);
+    if (r == null) {
+      return Response.ok(new FileStreamingOutput(file))
+        .header(MoreHttpHeaders.ACCEPT_RANGES, BYTES)
+        .header(HttpHeaders.CONTENT_LENGTH, size);
+    } else if (r.length == 0) {
+      return Response.status(Response.Status.REQUESTED_RANGE_NOT_SATISFIABLE)
+        .header(MoreHttpHeaders.CONTENT_RANGE, BYTES + " */" + size);
+    }
+    return Response.status(Response.Status.PARTIAL_CONTENT)
+      .entity(new FileStreamingOutput(file, r[0], r[1] - r[0] + 1))
+      .header(MoreHttpHeaders.ACCEPT_RANGES, BYTES)
+      .header(MoreHttpHeaders.CONTENT_RANGE, BYTES + " " + r[0] + "-" + r[1] + "/" + size)
+      .header(HttpHeaders.CONTENT_LENGTH, r[1] - r[0] + 1);
+  }
+
+  /**
+   * Parses a single byte range like "bytes=100-199", "bytes=100-" or "bytes=-100".
+   * @return first and last byte position, an empty array for unsatisfiable ranges or null to return the entire file
+   */
+  static long[] parseRange(@Nullable String range, long size) {
+    if (range == null || !range.startsWith(BYTES + "=") || range.contains(",")) {
+      return null;
+    }
+    String spec = range.substring(BYTES.length() + 1).trim();
+    int dash = spec.indexOf('-');
+    if (dash < 0) {
+      return null;
+    }
+    try {
+      long first;
+      long last;
+      if (dash == 0) {
+        // suffix range with the last n bytes
+        long n = Long.parseLong(spec.substring(1));
+        if (n <= 0 || size == 0) {
+          return new long[0];
+        }
+        first = Math.max(0, size - n);
+        last = size - 1;
+      } else {
+        first = Long.parseLong(spec.substring(0, dash));
+        last = dash == spec.length() - 1 ? size - 1 : Math.min(size - 1, Long.parseLong(spec.substring(dash + 1)));
+        if (first >= size || last < first) {
+          return new long[0];
+        }
+      }
+      return new long[]{first, last};
+
+    } catch (NumberFormatException e) {
+      return null;
+    }
   }
 
   @Override
   public void write(OutputStream out) throws WebApplicationException {
-    try (FileInputStream in = new FileInputStream(file)){
-      IOUtils.copy(in, out);
+    try (FileInputStream in = new FileInputStream(file);
+         FileChannel fc = in.getChannel()
+    ){
+      WritableByteChannel target = Channels.newChannel(out);
+      long pos = offset;
+      final long end = offset + length;
+      while (pos < end) {
+        long n = fc.transferTo(pos, end - pos, target);
+        if (n <= 0) {
+          break;
+        }
+        pos += n;
+      }
       out.flush();
     } catch (Exception e) {
       throw new WebApplicationException(e);
     }
   }
 
-}
\ No newline at end of file
+}
@@ -5,6 +5,9 @@ public class MoreHttpHeaders {
   public final static String REFERER = "Referer";
   public final static String FILENAME = "X-File-Name";
   public final static String CONTENT_DISPOSITION = "Content-Disposition";
+  public final static String RANGE = "Range";
+  public final static String ACCEPT_RANGES = "Accept-Ranges";
+  public final static String CONTENT_RANGE = "Content-Range";
 
   private MoreHttpHeaders() {
   }
@@ -14,6 +14,6 @@ public class VaryAcceptResponseFilter implements ContainerResponseFilter {
   
   @Override
   public void filter(ContainerRequestContext request, ContainerResponseContext resp) throws IOException {
-    resp.getHeaders().putSingle(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+    resp.getHeaders().add(HttpHeaders.VARY, HttpHeaders.ACCEPT);
   }
 }
@@ -1,6 +1,7 @@
 package life.catalogue.dw.jersey.writers;
 
 import life.catalogue.api.jackson.ApiModule;
+import life.catalogue.common.ws.MoreMediaTypes;
 
 import java.io.IOException;
 import java.io.OutputStream;
@@ -22,8 +23,9 @@ import org.slf4j.LoggerFactory;
 /**
  * Writer that generates an JSON array based on any object stream
  * and streams the results to the output using the main jackson API mapper.
+ * For newline delimited JSON each object is written as a single line without an enclosing array.
  */
-@Produces(MediaType.APPLICATION_JSON)
+@Produces({MediaType.APPLICATION_JSON, MoreMediaTypes.APP_NDJSON})
 @Provider
 public class StreamBodyJsonWriter implements MessageBodyWriter<Stream<?>> {
   private static final Logger LOG = LoggerFactory.getLogger(StreamBodyJsonWriter.class);
@@ -35,10 +37,38 @@ public class StreamBodyJsonWriter implements MessageBodyWriter<Stream<?>> {
   
   @Override
   public void writeTo(Stream<?> stream, Class<?> type, Type type1, Annotation[] antns, MediaType mt, MultivaluedMap<String, Object> mm, OutputStream out) throws IOException, WebApplicationException {
-    try (JsonArrayConsumer consumer = new JsonArrayConsumer(out)){
-      stream.forEach(consumer);
-    } finally {
-      stream.close();
+    if (MoreMediaTypes.APP_NDJSON_TYPE.isCompatible(mt)) {
+      try {
+        stream.forEach(new NdJsonConsumer(out));
+      } finally {
+        stream.close();
+      }
+    } else {
+      try (JsonArrayConsumer consumer = new JsonArrayConsumer(out)){
+        stream.forEach(consumer);
+      } finally {
+        stream.close();
+      }
+    }
+  }
+
+  public static class NdJsonConsumer implements Consumer<Object> {
+    private final OutputStream out;
+
+    NdJsonConsumer(OutputStream out) {
+      this.out = out;
+    }
+
+    @Override
+    public void accept(Object o) {
+      try {
+        // the API mapper does not pretty print, so each object stays on a single line
+        ApiModule.MAPPER.writeValue(out, o);
+        out.write('\n');
+      } catch (IOException e) {
+        LOG.error("Failed to consume object {}", o, e);
+        throw new RuntimeException(e);
+      }
     }
   }
 
@@ -7,11 +7,20 @@ import life.catalogue.api.util.ObjectUtils;
 import life.catalogue.api.vocab.DataFormat;
 import life.catalogue.api.vocab.DatasetOrigin;
 import life.catalogue.api.vocab.EntityType;
+import life.catalogue.api.vocab.JobStatus;
+import life.catalogue.common.collection.StringIdSet;
 import life.catalogue.common.func.ThrowingBiConsumer;
-import life.catalogue.common.func.ThrowingConsumer;
+import life.catalogue.common.io.CompressionUtil;
+import life.catalogue.common.io.DeflatedZipEntry;
+import life.catalogue.common.io.TabWriter;
 import life.catalogue.common.io.TermWriter;
+import life.catalogue.common.io.UTF8IoUtils;
+import life.catalogue.common.lang.Exceptions;
+import life.catalogue.concurrent.ExecutorUtils;
+import life.catalogue.concurrent.NamedThreadFactory;
 import life.catalogue.db.DatasetProcessable;
 import life.catalogue.db.NameProcessable;
+import life.catalogue.db.PartialDatasetProcessable;
 import life.catalogue.db.PgUtils;
 import life.catalogue.db.TaxonProcessable;
 import life.catalogue.db.mapper.*;
@@ -19,64 +28,116 @@ import life.catalogue.img.ImageService;
 
 import org.gbif.dwc.terms.Term;
 
+import java.io.Closeable;
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
+import javax.annotation.Nullable;
 import javax.ws.rs.core.UriBuilder;
 
+import org.apache.commons.io.FileUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.ibatis.cursor.Cursor;
 import org.apache.ibatis.session.SqlSession;
 import org.apache.ibatis.session.SqlSessionFactory;
-import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.github.benmanes.caffeine.cache.Caffeine;
 import com.github.benmanes.caffeine.cache.LoadingCache;
 
-import it.unimi.dsi.fastutil.ints.Int2IntMap;
-import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
-
 public abstract class ArchiveExport extends DatasetExportJob {
   private static final Logger LOG = LoggerFactory.getLogger(ArchiveExport.class);
   private static final String LOGO_FILENAME = "logo.png";
+  // all exported entities in the order of their data files
+  private static final List<EntityType> ENTITIES = List.of(
+    EntityType.NAME_USAGE, EntityType.NAME_RELATION, EntityType.TYPE_MATERIAL,
+    EntityType.VERNACULAR, EntityType.DISTRIBUTION, EntityType.MEDIA, EntityType.TAXON_PROPERTY, EntityType.ESTIMATE,
+    EntityType.SPECIES_INTERACTION, EntityType.TAXON_CONCEPT_RELATION, EntityType.REFERENCE
+  );
 
   protected boolean fullDataset;
-  protected final Set<String> nameIDs = new HashSet<>();
-  protected final Set<String> taxonIDs = new HashSet<>();
-  protected final Set<String> refIDs = new HashSet<>();
+  // ids of filtered exports, references are tracked by concurrently written data files
+  protected final StringIdSet nameIDs = new StringIdSet();
+  protected final StringIdSet taxonIDs = new StringIdSet();
+  protected final StringIdSet refIDs = new StringIdSet();
   protected final LoadingCache<String, String> refCache;
-  protected final Int2IntMap sector2datasetKeys = new Int2IntOpenHashMap();
+  protected final Map<Integer, Integer> sector2datasetKeys = new ConcurrentHashMap<>();
   private final UriBuilder logoUriBuilder;
-  protected SectorMapper sectorMapper;
   protected NameRelationMapper nameRelMapper;
+  // session used by the name usage core and name relations, which are never written concurrently
   protected SqlSession session;
-  protected TermWriter writer;
-  protected final DSID<String> entityKey = DSID.of(datasetKey, "");
-  private final SXSSFWorkbook wb;
+  // each data file is written by a single thread with its own writer
+  private final ThreadLocal<TermWriter> writers = new ThreadLocal<>();
+  // compressed data files to be copied into the final archive
+  private final List<DeflatedZipEntry> entries = Collections.synchronizedList(new ArrayList<>());
+  private final File deflatedDir;
+  private final XlsxWorkbook wb;
+  // exports of other formats writing their data files from the same cursors, only for full datasets
+  private final List<ArchiveExport> followers = new ArrayList<>();
+  // tree consumers sharing the core usages which are then read depth first, only for full datasets
+  private final List<Consumer<SimpleName>> trees = new ArrayList<>();
+  // data files split by sector, only for full exports of projects
+  private ExportFragments fragments;
 
   ArchiveExport(DataFormat requiredFormat, int userKey, ExportRequest req, SqlSessionFactory factory, WsServerConfig cfg, ImageService imageService) {
     super(req, userKey, requiredFormat, true, factory, cfg, imageService);
     logoUriBuilder = cfg.apiURI == null ? null : UriBuilder.fromUri(cfg.apiURI).path("/dataset/{key}/logo?size=ORIGINAL");
+    // compressed data files live outside the tmp dir which is zipped as a whole
+    deflatedDir = new File(tmpDir.getParentFile(), tmpDir.getName() + "-deflated");
     refCache = Caffeine.newBuilder()
                        .maximumSize(10000)
                        .build(this::lookupReference);
 
     if (req.isExcel()) {
-      // we use SXSSF (Streaming Usermodel API) for low memory footprint
-      // https://poi.apache.org/components/spreadsheet/how-to.html#sxssf
-      wb = new SXSSFWorkbook(100); // keep 100 rows in memory, exceeding rows will be flushed to disk
+      // each sheet is streamed into its own compressed part, so sheets can be written concurrently
+      wb = new XlsxWorkbook(new File(deflatedDir, "xlsx"));
     } else {
       wb = null;
     }
   }
 
   private String lookupReference(String id) {
-    Reference r = session.getMapper(ReferenceMapper.class).get(DSID.of(datasetKey, id));
-    return r == null ? null : r.getCitation();
+    try (SqlSession session = factory.openSession()) {
+      Reference r = session.getMapper(ReferenceMapper.class).get(DSID.of(datasetKey, id));
+      return r == null ? null : r.getCitation();
+    }
+  }
+
+  /**
+   * Lets another export of the same full dataset write its data files from the records read by this export.
+   * The follower is never executed itself, see MultiFormatExport.
+   */
+  void share(ArchiveExport follower) {
+    if (req.hasFilter() || follower.req.hasFilter() || req.isExcel() || follower.req.isExcel()) {
+      throw new IllegalArgumentException("Only full, non Excel exports can share data files");
+    }
+    follower.fullDataset = true;
+    followers.add(follower);
+  }
+
+  /**
+   * Passes all core name usages of a full dataset export to the given consumer in depth first order.
+   */
+  void shareTree(Consumer<SimpleName> tree) {
+    if (req.hasFilter()) {
+      throw new IllegalArgumentException("Only full exports can share the name usage tree");
+    }
+    trees.add(tree);
+  }
+
+  /**
+   * @return the writer of the data file currently written by this thread
+   */
+  protected TermWriter writer() {
+    return writers.get();
   }
 
   protected String citationByID(String refID) {
@@ -88,30 +149,192 @@ public abstract class ArchiveExport extends DatasetExportJob {
 
   protected Integer sector2datasetKey(Integer sectorKey){
     if (sectorKey != null) {
-      int sk = sectorKey;
-      if (!sector2datasetKeys.containsKey(sk)) {
-        Sector s = sectorMapper.get(DSID.of(datasetKey, sectorKey));
-        // we apparently have references that still link to removed sectors - don't fail
-        sector2datasetKeys.put(sk, s==null ? -1 : s.getSubjectDatasetKey());
-      }
-      int dkey = sector2datasetKeys.get(sk);
+      int dkey = sector2datasetKeys.computeIfAbsent(sectorKey, sk -> {
+        try (SqlSession session = factory.openSession()) {
+          Sector s = session.getMapper(SectorMapper.class).get(DSID.of(datasetKey, sk));
+          // we apparently have references that still link to removed sectors - don't fail
+          return s==null ? -1 : s.getSubjectDatasetKey();
+        }
+      });
       return dkey<0 ? null : dkey;
     }
     return null;
   }
 
+  /**
+   * Writes a single data file.
+   */
+  @FunctionalInterface
+  private interface DataFile {
+    void write() throws IOException;
+  }
+
+  /**
+   * Wraps a data file so it can be written by any thread, closing the threads writer when done.
+   */
+  private Runnable task(DataFile file) {
+    return () -> {
+      try {
+        file.write();
+        closeWriter();
+        for (ArchiveExport f : followers) {
+          f.closeWriter();
+        }
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    };
+  }
+
+  /**
+   * Each data file is written by its own cursor and thread.
+   * Filtered exports track the ids of the included usages, names and references along the way,
+   * so all extensions wait for the name usage core and references are written last.
+   * Name relations always need the usage ids of the core.
+   *
+   * Excel sheets are streamed concurrently just like data files and assembled into a single workbook when bundling.
+   */
   @Override
   protected void export() throws Exception {
     // do we have a full dataset export request?
     fullDataset = !req.hasFilter();
+    final int threads = cfg.job.exportThreads;
     try (SqlSession session = factory.openSession(false)) {
       this.session = session;
+      if (fullDataset && cfg.job.exportFragments && dataset.getOrigin() == DatasetOrigin.PROJECT
+          && !req.isExcel() && followers.isEmpty() && trees.isEmpty()) {
+        initFragments(session);
+      }
       init(session);
-      exportCore();
-      exportNameRels();
-      exportTaxonRels();
-      exportReferences();
-      closeWriter();
+      if (wb != null) {
+        // sheets are created concurrently, but are shown in the order of the data files
+        wb.setSheetOrder(ENTITIES.stream()
+          .map(this::define)
+          .filter(Objects::nonNull)
+          .map(terms -> terms[0].simpleName())
+          .collect(Collectors.toList()));
+      }
+      for (ArchiveExport f : followers) {
+        f.session = session;
+        f.init(session);
+      }
+      if (threads <= 1) {
+        for (DataFile f : dataFiles()) {
+          Exceptions.interruptIfCancelled();
+          try {
+            task(f).run();
+          } catch (UncheckedIOException e) {
+            throw e.getCause();
+          }
+        }
+      } else {
+        exportConcurrently(threads);
+      }
+    }
+    if (fragments != null) {
+      // include the sources and usage counts of all reused sectors
+      counter.add(fragments.reusedCounts());
+    }
+    if (!fullDataset) {
+      LOG.info("Tracked {} name, {} taxon and {} reference ids for export {} using {} of heap",
+        nameIDs.size(), taxonIDs.size(), refIDs.size(), getKey(), FileUtils.byteCountToDisplaySize(getTrackedIdsMemory()));
+    }
+  }
+
+  /**
+   * @return approximate heap bytes used to track the ids of a filtered export
+   */
+  public long getTrackedIdsMemory() {
+    return nameIDs.memory() + taxonIDs.memory() + refIDs.memory();
+  }
+
+  /**
+   * Writes all data files into fragments per sector, reusing the fragments of sectors
+   * that have neither been synced nor edited since the last export of the project in the same format.
+   */
+  private void initFragments(SqlSession session) throws IOException {
+    final SectorMapper sm = session.getMapper(SectorMapper.class);
+    final Map<Integer, String> fingerprints = new HashMap<>();
+    for (String fp : sm.listDataFingerprints(datasetKey)) {
+      int colon = fp.indexOf(':');
+      fingerprints.put(Integer.valueOf(fp.substring(0, colon)), fp.substring(colon + 1));
+    }
+    final Map<Integer, String> versions = new HashMap<>();
+    final Map<Integer, Integer> subjects = new HashMap<>();
+    for (Sector s : sm.listByDataset(datasetKey, null)) {
+      versions.put(s.getId(), s.getSyncAttempt() == null ? null : s.getSyncAttempt() + ":" + fingerprints.getOrDefault(s.getId(), ""));
+      subjects.put(s.getId(), s.getSubjectDatasetKey());
+    }
+    String name = req.getFormat().name().toLowerCase() + (req.isExtended() ? "-extended" : "");
+    String layout = ENTITIES.stream()
+      .map(this::define)
+      .filter(Objects::nonNull)
+      .map(terms -> Arrays.stream(terms).map(Term::prefixedName).collect(Collectors.joining(",")))
+      .collect(Collectors.joining("\n"));
+    fragments = new ExportFragments(cfg.job.exportFragmentsDir(datasetKey, name), layout, deflatedDir, versions);
+    // reused sectors are never read, but still are sources of the export
+    for (Integer sk : fragments.reused()) {
+      sector2datasetKeys.put(sk, subjects.get(sk));
+    }
+  }
+
+  /**
+   * Selects the fragment the following records of the current thread are written to.
+   */
+  private void select(@Nullable Integer sectorKey) {
+    if (fragments != null) {
+      fragments.select(sectorKey);
+    }
+  }
+
+  /**
+   * Reads all records of a full dataset, leaving out the sectors with reused fragments.
+   */
+  private <T, M extends DatasetProcessable<T> & PartialDatasetProcessable<T>> Cursor<T> processDataset(M mapper) {
+    return fragments == null ? mapper.processDataset(datasetKey) : mapper.processDatasetWithoutSectors(datasetKey, fragments.reused());
+  }
+
+  private List<DataFile> dataFiles() {
+    List<DataFile> files = new ArrayList<>();
+    files.add(this::exportCore);
+    files.add(this::exportNameRels);
+    files.addAll(taxonRels());
+    files.add(this::exportReferences);
+    return files;
+  }
+
+  private void exportConcurrently(int threads) throws Exception {
+    LOG.info("Export data files of dataset {} using {} threads", datasetKey, threads);
+    ExecutorService exec = Executors.newFixedThreadPool(threads, new NamedThreadFactory("archive-export", Thread.NORM_PRIORITY, true));
+    try {
+      final List<CompletableFuture<Void>> files = new ArrayList<>();
+      final CompletableFuture<Void> core = CompletableFuture.runAsync(task(this::exportCore), exec);
+      final CompletableFuture<Void> afterCore = fullDataset ? CompletableFuture.completedFuture(null) : core;
+      files.add(core);
+      files.add(core.thenRunAsync(task(this::exportNameRels), exec));
+      for (DataFile f : taxonRels()) {
+        files.add(afterCore.thenRunAsync(task(f), exec));
+      }
+      final CompletableFuture<Void> all = CompletableFuture.allOf(files.toArray(CompletableFuture[]::new));
+      final CompletableFuture<Void> refs = (fullDataset ? CompletableFuture.<Void>completedFuture(null) : all)
+        .thenRunAsync(task(this::exportReferences), exec);
+      CompletableFuture.allOf(all, refs).get();
+
+    } catch (InterruptedException e) {
+      exec.shutdownNow();
+      throw e;
+
+    } catch (ExecutionException e) {
+      exec.shutdownNow();
+      Throwable cause = e.getCause() instanceof CompletionException ? e.getCause().getCause() : e.getCause();
+      LOG.error("Failed to export data files of dataset {}", datasetKey, cause);
+      if (cause instanceof Exception) {
+        throw (Exception) cause;
+      }
+      throw e;
+
+    } finally {
+      ExecutorUtils.shutdown(exec);
     }
   }
 
@@ -165,52 +388,86 @@ public abstract class ArchiveExport extends DatasetExportJob {
 
   @Override
   protected void bundle() throws IOException {
-    // write workbook to single file and cleanup temp POI files
+    // assemble the compressed sheets into a single workbook file and remove the sheet parts
     if (wb != null) {
-      LOG.info("Writing final Excel file");
-      FileOutputStream out = new FileOutputStream(new File(tmpDir, "data.xlsx"));
-      wb.write(out);
-      out.close();
-      // dispose of temporary files backing this workbook on disk
-      LOG.info("Dispose temporary Excel files");
-      wb.dispose();
+      wb.write(new File(tmpDir, "data.xlsx"));
+      wb.delete();
+    }
+    if (fragments != null) {
+      entries.addAll(fragments.stitch());
+      fragments.commit();
+    }
+    if (entries.isEmpty()) {
+      super.bundle();
+    } else {
+      // stream the already compressed data files straight into the archive
+      List<DeflatedZipEntry> sorted = new ArrayList<>(entries);
+      sorted.sort(Comparator.comparing(DeflatedZipEntry::getName));
+      LOG.info("Bundling archive at {} with {} compressed data files", archive.getAbsolutePath(), sorted.size());
+      FileUtils.forceMkdir(archive.getParentFile());
+      CompressionUtil.zipDir(tmpDir, sorted, archive);
+    }
+  }
+
+  @Override
+  void finish(JobStatus status, Exception error, LocalDateTime finished) {
+    try {
+      super.finish(status, error, finished);
+    } finally {
+      if (fragments != null && status != JobStatus.FINISHED) {
+        fragments.abort();
+      }
+      FileUtils.deleteQuietly(deflatedDir);
     }
-    super.bundle();
   }
 
   protected void init(SqlSession session) throws Exception {
-    sectorMapper = session.getMapper(SectorMapper.class);
     nameRelMapper = session.getMapper(NameRelationMapper.class);
   }
 
   private void exportCore() throws IOException {
-    if (!newDataFile(define(EntityType.NAME_USAGE))) {
+    final List<ArchiveExport> exports = newDataFiles(EntityType.NAME_USAGE);
+    if (exports.size() != followers.size() + 1) {
       throw new IllegalStateException("Core name usage data must be exported");
     }
     try (SqlSession session = factory.openSession()) {
       NameUsageMapper num = session.getMapper(NameUsageMapper.class);
       final Cursor<NameUsageBase> cursor;
-      if (fullDataset) {
+      if (fragments != null) {
+        cursor = num.processDatasetWithoutSectors(datasetKey, fragments.reused());
+      } else if (fullDataset && trees.isEmpty()) {
         cursor = num.processDataset(datasetKey, null, null);
+      } else if (fullDataset) {
+        // shared with tree printers which need a depth first traversal
+        cursor = num.processTree(TreeTraversalParameter.dataset(datasetKey), true, true);
       } else {
         var ttp = TreeTraversalParameter.dataset(datasetKey, req.getTaxonID(), null, req.getMinRank(), req.isSynonyms());
         cursor = num.processTree(ttp);
       }
-      PgUtils.consume(() -> cursor, this::consumeUsage);
+      PgUtils.consume(() -> cursor, u -> {
+        if (!trees.isEmpty()) {
+          final SimpleName sn = new SimpleName(u);
+          trees.forEach(t -> t.accept(sn));
+        }
+        for (ArchiveExport e : exports) {
+          e.consumeUsage(u);
+        }
+      });
 
       // add bare names?
       if (req.isBareNames()) {
         PgUtils.consume(
           () -> num.processDatasetBareNames(datasetKey, null, null),
-          this::consumeUsage
+          u -> {
+            for (ArchiveExport e : exports) {
+              e.consumeUsage(u);
+            }
+          }
         );
       }
 
     } catch (RuntimeException e) {
       catchTruncation(e);
-    } finally {
-      taxonIDs.remove(null); // can happen
-      nameIDs.remove(null); // can happen
     }
   }
 
@@ -218,7 +475,10 @@ public abstract class ArchiveExport extends DatasetExportJob {
     if (e.getCause() instanceof ExcelTermWriter.MaxRowsException) {
       // we truncate the output and keep a warning, but allow to proceed
       LOG.warn(e.getCause().getMessage());
-      getExport().addTruncated(writer.getRowType());
+      // sheets are written concurrently
+      synchronized (getExport()) {
+        getExport().addTruncated(writer().getRowType());
+      }
     } else {
       // anything else is unexpected
       throw e;
@@ -237,9 +497,9 @@ public abstract class ArchiveExport extends DatasetExportJob {
           return;
         }
       }
-      refIDs.add(u.getName().getPublishedInId());
-      refIDs.addAll(u.getReferenceIds());
-      refIDs.add(u.getAccordingToId());
+      trackRefId(u.getName().getPublishedInId());
+      u.getReferenceIds().forEach(this::trackRefId);
+      trackRefId(u.getAccordingToId());
       nameIDs.add(u.getName().getId());
       if (u.isTaxon()) {
         taxonIDs.add(u.getId());
@@ -247,10 +507,14 @@ public abstract class ArchiveExport extends DatasetExportJob {
     }
     // metrics
     counter.inc(u);
+    if (fragments != null) {
+      fragments.select(u.getSectorKey());
+      fragments.counter().inc(u);
+    }
 
     try {
       write(u);
-      writer.next();
+      writer().next();
     } catch (final IOException e) {
       throw new RuntimeException(e);
     }
@@ -259,84 +523,116 @@ public abstract class ArchiveExport extends DatasetExportJob {
   private void consumeUsage(BareName u){
     if (!fullDataset) {
       nameIDs.add(u.getName().getId());
-      refIDs.add(u.getName().getPublishedInId());
+      trackRefId(u.getName().getPublishedInId());
     }
     // metrics
     counter.inc(u);
 
     try {
       write(u);
-      writer.next();
+      writer().next();
     } catch (final IOException e) {
       throw new RuntimeException(e);
     }
   }
 
   private void exportNameRels() throws IOException {
-    exportNameRelation(EntityType.NAME_RELATION, NameRelationMapper.class, this::write);
-    exportNameRelation(EntityType.TYPE_MATERIAL, TypeMaterialMapper.class, this::write);
+    exportNameRelation(EntityType.NAME_RELATION, NameRelationMapper.class, ArchiveExport::write);
+    exportNameRelation(EntityType.TYPE_MATERIAL, TypeMaterialMapper.class, ArchiveExport::write);
   }
 
-  private void exportTaxonRels() throws IOException {
-    exportTaxonExtension(EntityType.VERNACULAR, VernacularNameMapper.class, this::write);
-    exportTaxonExtension(EntityType.DISTRIBUTION, DistributionMapper.class, this::write);
-    exportTaxonExtension(EntityType.MEDIA, MediaMapper.class, this::write);
-    exportTaxonExtension(EntityType.TAXON_PROPERTY, TaxonPropertyMapper.class, this::write);
-    exportEstimates();
-    exportTaxonRelation(EntityType.SPECIES_INTERACTION, SpeciesInteractionMapper.class, this::write);
-    exportTaxonRelation(EntityType.TAXON_CONCEPT_RELATION, TaxonConceptRelationMapper.class, this::write);
-  }
-
-  protected void exportReferences() throws IOException {
-    if (newDataFile(define(EntityType.REFERENCE))) {
+  /**
+   * @return all taxon related data files which are independent of each other
+   */
+  private List<DataFile> taxonRels() {
+    return List.of(
+      () -> exportTaxonExtension(EntityType.VERNACULAR, VernacularNameMapper.class, ArchiveExport::write),
+      () -> exportTaxonExtension(EntityType.DISTRIBUTION, DistributionMapper.class, ArchiveExport::write),
+      () -> exportTaxonExtension(EntityType.MEDIA, MediaMapper.class, ArchiveExport::write),
+      () -> exportTaxonExtension(EntityType.TAXON_PROPERTY, TaxonPropertyMapper.class, ArchiveExport::write),
+      this::exportEstimates,
+      () -> exportTaxonRelation(EntityType.SPECIES_INTERACTION, SpeciesInteractionMapper.class, ArchiveExport::write),
+      () -> exportTaxonRelation(EntityType.TAXON_CONCEPT_RELATION, TaxonConceptRelationMapper.class, ArchiveExport::write)
+    );
+  }
+
+  private void exportReferences() throws IOException {
+    final List<ArchiveExport> exports = newDataFiles(EntityType.REFERENCE);
+    if (!exports.isEmpty()) {
       try (SqlSession session = factory.openSession()) {
         ReferenceMapper rm = session.getMapper(ReferenceMapper.class);
         if (fullDataset) {
-          PgUtils.consume(()->rm.processDataset(datasetKey), r -> {
+          PgUtils.consume(()->processDataset(rm), r -> {
             try {
-              write(r);
-              writer.next();
+              select(r.getSectorKey());
+              for (ArchiveExport e : exports) {
+                e.write(r);
+                e.writer().next();
+              }
             } catch (final IOException e) {
               throw new RuntimeException(e);
             }
           });
         } else {
-          refIDs.remove(null); // can happen
+          final DSID<String> key = DSID.root(datasetKey);
           for (String id : refIDs) {
-            var ref = rm.get(entityKey.id(id));
+            var ref = rm.get(key.id(id));
             if (ref != null) {
               write(ref);
-              writer.next();
+              writer().next();
             } else {
               LOG.warn("Reference ID {} used but does not exist in dataset {}", id, datasetKey);
             }
           }
         }
       }
+      for (ArchiveExport e : exports) {
+        e.referencesWritten();
+      }
     }
   }
 
-  private <T extends ExtensionEntity> void exportTaxonExtension(EntityType entity, Class < ? extends TaxonExtensionMapper<T>> mapperClass, ThrowingBiConsumer < String, T, IOException > consumer) throws IOException {
-    if (newDataFile(define(entity))) {
+  /**
+   * Called once all references have been written by the thread writing the reference data file.
+   */
+  void referencesWritten() throws IOException {
+    // nothing by default
+  }
+
+  /**
+   * Writes a single taxon extension record to the current data file of an export.
+   */
+  @FunctionalInterface
+  private interface ExtensionWriter<T> {
+    void write(ArchiveExport export, String taxonID, T obj) throws IOException;
+  }
+
+  private <T extends ExtensionEntity> void exportTaxonExtension(EntityType entity, Class < ? extends TaxonExtensionMapper<T>> mapperClass, ExtensionWriter<T> consumer) throws IOException {
+    final List<ArchiveExport> exports = newDataFiles(entity);
+    if (!exports.isEmpty()) {
       try (SqlSession session = factory.openSession()) {
         TaxonExtensionMapper<T> exm = session.getMapper(mapperClass);
         if (fullDataset) {
-          PgUtils.consume(()->exm.processDataset(datasetKey), x -> {
+          PgUtils.consume(()->processDataset(exm), x -> {
             try {
               trackRefId(x.getObj());
-              consumer.accept(x.getTaxonID(), x.getObj());
-              this.writer.next();
+              select(x.getObj().getSectorKey());
+              for (ArchiveExport e : exports) {
+                consumer.write(e, x.getTaxonID(), x.getObj());
+                e.writer().next();
+              }
             } catch (final IOException e) {
               throw new RuntimeException(e);
             }
           });
 
         } else {
+          final DSID<String> key = DSID.root(datasetKey);
           for (String id : taxonIDs) {
-            for (T x : exm.listByTaxon(entityKey.id(id))) {
+            for (T x : exm.listByTaxon(key.id(id))) {
               trackRefId(x);
-              consumer.accept(id, x);
-              this.writer.next();
+              consumer.write(this, id, x);
+              writer().next();
             }
           }
         }
@@ -346,31 +642,36 @@ public abstract class ArchiveExport extends DatasetExportJob {
     }
   }
 
-  private <T extends DatasetScopedEntity & Referenced, M extends NameProcessable<T> & DatasetProcessable<T>> void exportNameRelation(EntityType type, Class<M> mapperClass, ThrowingConsumer<T, IOException> consumer) throws IOException {
+  private <T extends DatasetScopedEntity & Referenced & SectorScoped, M extends NameProcessable<T> & DatasetProcessable<T> & PartialDatasetProcessable<T>> void exportNameRelation(EntityType type, Class<M> mapperClass, ThrowingBiConsumer<ArchiveExport, T, IOException> consumer) throws IOException {
     new NameRelExporter<T, M>().export(type, mapperClass, consumer);
   }
 
-  private class NameRelExporter<T extends DatasetScopedEntity & Referenced, M extends NameProcessable<T> & DatasetProcessable<T>> {
-    void export(EntityType entity, Class<M> mapperClass, ThrowingConsumer<T, IOException> consumer) throws IOException {
-      if (newDataFile(define(entity))) {
+  private class NameRelExporter<T extends DatasetScopedEntity & Referenced & SectorScoped, M extends NameProcessable<T> & DatasetProcessable<T> & PartialDatasetProcessable<T>> {
+    void export(EntityType entity, Class<M> mapperClass, ThrowingBiConsumer<ArchiveExport, T, IOException> consumer) throws IOException {
+      final List<ArchiveExport> exports = newDataFiles(entity);
+      if (!exports.isEmpty()) {
         try (SqlSession session = factory.openSession()) {
           M mapper = session.getMapper(mapperClass);
           if (fullDataset) {
-            PgUtils.consume(()->mapper.processDataset(datasetKey), x -> {
+            PgUtils.consume(()->processDataset(mapper), x -> {
               try {
                 trackRefId(x);
-                consumer.accept(x);
-                writer.next();
+                select(x.getSectorKey());
+                for (ArchiveExport e : exports) {
+                  consumer.acceptThrows(e, x);
+                  e.writer().next();
+                }
               } catch (final IOException e) {
                 throw new RuntimeException(e);
               }
             });
           } else {
+            final DSID<String> key = DSID.root(datasetKey);
             for (String id : nameIDs) {
-              for (T x : mapper.listByName(entityKey.id(id))) {
+              for (T x : mapper.listByName(key.id(id))) {
                 trackRefId(x);
-                consumer.accept(x);
-                writer.next();
+                consumer.acceptThrows(this, x);
+                writer().next();
               }
             }
           }
@@ -381,31 +682,36 @@ public abstract class ArchiveExport extends DatasetExportJob {
     }
   }
 
-  private <T extends DatasetScopedEntity<Integer> & Referenced, M extends TaxonProcessable<T> & DatasetProcessable<T>> void exportTaxonRelation(EntityType type, Class<M> mapperClass, ThrowingConsumer<T, IOException> consumer) throws IOException {
+  private <T extends DatasetScopedEntity<Integer> & Referenced & SectorScoped, M extends TaxonProcessable<T> & DatasetProcessable<T> & PartialDatasetProcessable<T>> void exportTaxonRelation(EntityType type, Class<M> mapperClass, ThrowingBiConsumer<ArchiveExport, T, IOException> consumer) throws IOException {
     new TaxonRelExporter<T, M>().export(type, mapperClass, consumer);
   }
 
-  private class TaxonRelExporter<T extends DatasetScopedEntity<Integer> & Referenced, M extends TaxonProcessable<T> & DatasetProcessable<T>> {
-    void export(EntityType entity, Class<M> mapperClass, ThrowingConsumer<T, IOException> consumer) throws IOException {
-      if (newDataFile(define(entity))) {
+  private class TaxonRelExporter<T extends DatasetScopedEntity<Integer> & Referenced & SectorScoped, M extends TaxonProcessable<T> & DatasetProcessable<T> & PartialDatasetProcessable<T>> {
+    void export(EntityType entity, Class<M> mapperClass, ThrowingBiConsumer<ArchiveExport, T, IOException> consumer) throws IOException {
+      final List<ArchiveExport> exports = newDataFiles(entity);
+      if (!exports.isEmpty()) {
         try (SqlSession session = factory.openSession()) {
           M mapper = session.getMapper(mapperClass);
           if (fullDataset) {
-            PgUtils.consume(()->mapper.processDataset(datasetKey), x -> {
+            PgUtils.consume(()->processDataset(mapper), x -> {
               try {
                 trackRefId(x);
-                consumer.accept(x);
-                writer.next();
+                select(x.getSectorKey());
+                for (ArchiveExport e : exports) {
+                  consumer.acceptThrows(e, x);
+                  e.writer().next();
+                }
               } catch (final IOException e) {
                 throw new RuntimeException(e);
               }
             });
           } else {
+            final DSID<String> key = DSID.root(datasetKey);
             for (String id : taxonIDs) {
-              for (T x : mapper.listByTaxon(entityKey.id(id))) {
+              for (T x : mapper.listByTaxon(key.id(id))) {
                 trackRefId(x);
-                consumer.accept(x);
-                writer.next();
+                consumer.acceptThrows(this, x);
+                writer().next();
               }
             }
           }
@@ -417,15 +723,20 @@ public abstract class ArchiveExport extends DatasetExportJob {
   }
 
   private void exportEstimates() throws IOException {
-    if (newDataFile(define(EntityType.ESTIMATE))) {
+    final List<ArchiveExport> exports = newDataFiles(EntityType.ESTIMATE);
+    if (!exports.isEmpty()) {
       try (SqlSession session = factory.openSession()) {
         EstimateMapper mapper = session.getMapper(EstimateMapper.class);
         if (fullDataset) {
+          // estimates have no sector and always belong to the project
+          select(null);
           PgUtils.consume(()->mapper.processDataset(datasetKey), x -> {
             try {
               trackRefId(x);
-              write(x);
-              writer.next();
+              for (ArchiveExport e : exports) {
+                e.write(x);
+                e.writer().next();
+              }
             } catch (final IOException e) {
               throw new RuntimeException(e);
             }
@@ -439,7 +750,7 @@ public abstract class ArchiveExport extends DatasetExportJob {
             for (SpeciesEstimate x : mapper.search(req, page)) {
               trackRefId(x);
               write(x);
-              writer.next();
+              writer().next();
             }
           }
         }
@@ -450,10 +761,28 @@ public abstract class ArchiveExport extends DatasetExportJob {
   }
 
   private void closeWriter() throws IOException {
+    TermWriter writer = writers.get();
     if (writer != null) {
       writer.close();
-      writer = null;
+      writers.remove();
+    }
+  }
+
+  /**
+   * Starts a new data file for the given entity in this export and all its followers.
+   * @return all exports which include the entity, this export first if it does
+   */
+  private List<ArchiveExport> newDataFiles(EntityType entity) throws IOException {
+    List<ArchiveExport> exports = new ArrayList<>(followers.size() + 1);
+    if (newDataFile(define(entity))) {
+      exports.add(this);
     }
+    for (ArchiveExport f : followers) {
+      if (f.newDataFile(f.define(entity))) {
+        exports.add(f);
+      }
+    }
+    return exports;
   }
 
   private boolean newDataFile(Term[] terms) throws IOException {
@@ -463,15 +792,70 @@ public abstract class ArchiveExport extends DatasetExportJob {
       var cols = List.of(Arrays.copyOfRange(terms, 1, terms.length));
       LOG.info("Export {} from dataset {}", rowType.simpleName(), datasetKey);
       if (req.isExcel()) {
-        writer = new ExcelTermWriter(wb, rowType, cols);
+        writers.set(new ExcelTermWriter(wb, rowType, cols));
       } else {
-        writer = new TermWriter.TSV(tmpDir, rowType, cols);
+        writers.set(termWriter(rowType, cols));
       }
       return true;
     }
     return false;
   }
 
+  /**
+   * Creates a new tab delimited writer which compresses the data file right away.
+   * The compressed file is copied as it is into the final archive.
+   */
+  protected TermWriter termWriter(Term rowType, List<? extends Term> cols) throws IOException {
+    final String filename = TermWriter.TSV.filename(rowType);
+    if (fragments != null) {
+      return new TermWriter(fragments.tsv(filename), rowType, cols);
+    }
+    DeflatedZipEntry entry = new DeflatedZipEntry(filename, new File(deflatedDir, filename + ".deflated"));
+    entries.add(entry);
+    return new TermWriter(TabWriter.fromStream(entry), rowType, cols);
+  }
+
+  /**
+   * Writes the items of a json array, one per record.
+   */
+  interface ItemWriter extends Closeable {
+    void write(String item) throws IOException;
+  }
+
+  /**
+   * Creates a new json file for the archive holding an array with one item per record.
+   * The file is only created when the first item is written.
+   * It must be written by a single thread and closed once all items have been written.
+   */
+  ItemWriter jsonArrayWriter(String filename) {
+    if (fragments != null) {
+      return fragments.jsonArray(filename);
+    }
+    return new ItemWriter() {
+      private Writer w;
+
+      @Override
+      public void write(String item) throws IOException {
+        if (w == null) {
+          LOG.info("Export {} from dataset {}", filename, datasetKey);
+          w = UTF8IoUtils.writerFromFile(new File(tmpDir, filename));
+          w.write("[\n");
+        } else {
+          w.write(",\n");
+        }
+        w.write(item);
+      }
+
+      @Override
+      public void close() throws IOException {
+        if (w != null) {
+          w.write("\n]\n");
+          w.close();
+        }
+      }
+    };
+  }
+
   /**
    * Defines the terms to be used for a data file of a given entity.
    * If NULL is returned the entity is to be ignored in the archive.
@@ -519,7 +903,11 @@ public abstract class ArchiveExport extends DatasetExportJob {
 
   private void trackRefId(Referenced referenced) {
     if (!fullDataset) {
-      refIDs.add(referenced.getReferenceId());
+      trackRefId(referenced.getReferenceId());
     }
   }
+
+  private void trackRefId(String id) {
+    refIDs.add(id);
+  }
 }
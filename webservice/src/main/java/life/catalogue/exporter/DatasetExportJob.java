@@ -125,36 +125,59 @@ abstract class DatasetExportJob extends DatasetBlockingJob {
 
   @Override
   public final void runWithLock() throws Exception {
-    FileUtils.forceMkdir(tmpDir);
     try {
-      export.setStarted(LocalDateTime.now());
-      updateExport(JobStatus.RUNNING);
+      begin();
       // actual export work
       export();
-      exportMetadata();
-      bundle();
-      LOG.info("Export {} of dataset {} completed", getKey(), datasetKey);
+      complete();
     } finally {
-      LOG.info("Remove temporary export directory {}", tmpDir.getAbsolutePath());
-      try {
-        FileUtils.deleteDirectory(tmpDir);
-      } catch (IOException e) {
-        LOG.warn("Failed to delete temporary export directory {}", tmpDir.getAbsolutePath(), e);
-      }
+      cleanup();
     }
   }
 
   /**
-   * Tracks the successfully executed request in the database.
+   * Prepares the temporary export directory and marks the export as running.
    */
+  void begin() throws IOException {
+    FileUtils.forceMkdir(tmpDir);
+    export.setStarted(LocalDateTime.now());
+    updateExport(JobStatus.RUNNING);
+  }
+
+  /**
+   * Adds the metadata to the exported data and bundles the final archive.
+   */
+  void complete() throws IOException {
+    exportMetadata();
+    bundle();
+    LOG.info("Export {} of dataset {} completed", getKey(), datasetKey);
+  }
+
+  void cleanup() {
+    LOG.info("Remove temporary export directory {}", tmpDir.getAbsolutePath());
+    try {
+      FileUtils.deleteDirectory(tmpDir);
+    } catch (IOException e) {
+      LOG.warn("Failed to delete temporary export directory {}", tmpDir.getAbsolutePath(), e);
+    }
+  }
+
   @Override
   protected void onFinishLocked() throws Exception {
+    finish(getStatus(), getError(), getFinished());
+  }
+
+  /**
+   * Tracks the executed request in the database.
+   * Exports run as part of a MultiFormatExport are not executed themselves and get the state of the shared job.
+   */
+  void finish(JobStatus status, Exception error, LocalDateTime finished) {
     // first update the export instance
-    if (getError() != null) {
-      String msg = Exceptions.getFirstMessage(getError());
+    if (error != null) {
+      String msg = Exceptions.getFirstMessage(error);
       export.setError(msg);
     }
-    export.setFinished(getFinished());
+    export.setFinished(finished);
     export.setSynonymCount(counter.getSynCounter().get());
     export.setTaxonCount(counter.getTaxCounter().get());
     export.setTaxaByRankCount(counter.getRankCounterMap());
@@ -163,7 +186,7 @@ abstract class DatasetExportJob extends DatasetBlockingJob {
     } catch (IOException e) {
       LOG.error("Failed to read generated archive file stats for {}", archive, e);
     }
-    updateExport(getStatus());
+    updateExport(status);
   }
 
   protected void bundle() throws IOException {
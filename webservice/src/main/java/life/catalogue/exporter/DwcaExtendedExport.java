@@ -52,7 +52,7 @@ public class DwcaExtendedExport extends ArchiveExport {
       if (writer2 != null) {
         writer2.close();
       }
-      writer2 = new TermWriter.TSV(tmpDir, terms[0], List.of(Arrays.copyOfRange(terms, 1, terms.length)));
+      writer2 = termWriter(terms[0], List.of(Arrays.copyOfRange(terms, 1, terms.length)));
     } catch (IOException e) {
       throw new RuntimeException(e);
     }
@@ -127,14 +127,15 @@ public class DwcaExtendedExport extends ArchiveExport {
   }
 
   void write(NameUsageBase u) {
-    writer.set(DwcTerm.taxonID, u.getId());
-    writer.set(DwcTerm.datasetID, sector2datasetKey(u.getSectorKey()));
+    String label = u.getLabel();
+    writer().set(DwcTerm.taxonID, u.getId());
+    writer().set(DwcTerm.datasetID, sector2datasetKey(u.getSectorKey()));
 
     if (u.isSynonym()) {
-      writer.set(DwcTerm.acceptedNameUsageID, u.getParentId());
+      writer().set(DwcTerm.acceptedNameUsageID, u.getParentId());
 
     } else {
-      writer.set(DwcTerm.parentNameUsageID, u.getParentId());
+      writer().set(DwcTerm.parentNameUsageID, u.getParentId());
       Taxon t = (Taxon) u;
       if (t.isExtinct() != null || (t.getEnvironments() != null && !t.getEnvironments().isEmpty())) {
         writer2.set(DwcTerm.taxonID, u.getId());
@@ -149,76 +150,78 @@ public class DwcaExtendedExport extends ArchiveExport {
         } catch (IOException e) {
           throw new RuntimeException(e);
         }
-        t.setExtinct(null); // this removes the dagger symbol from label in write(NameUsage) !!!
+        // the species profile holds the extinct flag, so leave out the dagger symbol from the label
+        // the usage is shared with other exports of the same traversal and must not be modified
+        label = NameUsageBase.labelBuilder(t.getName(), null, t.getStatus(), t.getNamePhrase(), t.getAccordingTo(), false).toString();
       }
     }
-    write((NameUsage)u);
+    write(u, label);
 
-    writer.set(DcTerm.references, u.getLink());
-    writer.set(DwcTerm.nameAccordingTo, citationByID(u.getAccordingToId()));
+    writer().set(DcTerm.references, u.getLink());
+    writer().set(DwcTerm.nameAccordingTo, citationByID(u.getAccordingToId()));
   }
 
   void write(BareName u) {
-    write((NameUsage)u);
+    write(u, u.getLabel());
     // GBIF validator requires the existence of taxonID for all records - we need to create an artificial, but unique key
-    writer.set(DwcTerm.taxonID, "BareName-" + bareNameID.getAndIncrement());
-    writer.set(DwcTerm.taxonomicStatus, "unresolved"); // maps to doubtful in GBIF
+    writer().set(DwcTerm.taxonID, "BareName-" + bareNameID.getAndIncrement());
+    writer().set(DwcTerm.taxonomicStatus, "unresolved"); // maps to doubtful in GBIF
   }
 
-  void write(NameUsage u) {
+  void write(NameUsage u, String label) {
     Name n = u.getName();
-    writer.set(DwcTerm.scientificNameID, n.getId());
-    writer.set(DwcTerm.scientificName, u.getLabel());
-    writer.set(DwcTerm.scientificNameAuthorship, n.getAuthorship());
-    writer.set(DwcTerm.taxonRank, n.getRank());
-    writer.set(ColdpTerm.notho, n.getNotho());
-    writer.set(DwcTerm.taxonomicStatus, u.getStatus());
-    writer.set(DwcTerm.namePublishedIn, citationByID(n.getPublishedInId()));
+    writer().set(DwcTerm.scientificNameID, n.getId());
+    writer().set(DwcTerm.scientificName, label);
+    writer().set(DwcTerm.scientificNameAuthorship, n.getAuthorship());
+    writer().set(DwcTerm.taxonRank, n.getRank());
+    writer().set(ColdpTerm.notho, n.getNotho());
+    writer().set(DwcTerm.taxonomicStatus, u.getStatus());
+    writer().set(DwcTerm.namePublishedIn, citationByID(n.getPublishedInId()));
     if (n.getGenus() != null) {
-      writer.set(DwcTerm.genericName, n.getGenus());
-      writer.set(DwcTerm.infragenericEpithet, n.getInfragenericEpithet());
-      writer.set(DwcTerm.specificEpithet, n.getSpecificEpithet());
-      writer.set(DwcTerm.infraspecificEpithet, n.getInfraspecificEpithet());
-      writer.set(DwcTerm.cultivarEpithet, n.getCultivarEpithet());
+      writer().set(DwcTerm.genericName, n.getGenus());
+      writer().set(DwcTerm.infragenericEpithet, n.getInfragenericEpithet());
+      writer().set(DwcTerm.specificEpithet, n.getSpecificEpithet());
+      writer().set(DwcTerm.infraspecificEpithet, n.getInfraspecificEpithet());
+      writer().set(DwcTerm.cultivarEpithet, n.getCultivarEpithet());
     } else if (n.getUninomial() != null && n.getRank() == Rank.GENUS) {
-      writer.set(DwcTerm.genericName, n.getUninomial());
+      writer().set(DwcTerm.genericName, n.getUninomial());
     }
-    writer.set(DwcTerm.nomenclaturalCode, n.getCode(), NomCode::getAcronym);
-    writer.set(DwcTerm.nomenclaturalStatus, n.getNomStatus(), NomStatus::getBotanicalLabel);
+    writer().set(DwcTerm.nomenclaturalCode, n.getCode(), NomCode::getAcronym);
+    writer().set(DwcTerm.nomenclaturalStatus, n.getNomStatus(), NomStatus::getBotanicalLabel);
 
     for (NameRelation rel : nameRelMapper.listByType(n, NomRelType.BASIONYM)) {
-      writer.set(DwcTerm.originalNameUsageID, rel.getRelatedNameId());
+      writer().set(DwcTerm.originalNameUsageID, rel.getRelatedNameId());
     }
-    writer.set(DwcTerm.taxonRemarks, u.getRemarks());
+    writer().set(DwcTerm.taxonRemarks, u.getRemarks());
   }
 
   void write(String taxonID, VernacularName vn) {
-    writer.set(DwcTerm.taxonID, taxonID);
-    writer.set(DcTerm.language, vn.getLanguage());
-    writer.set(DwcTerm.vernacularName, vn.getName());
+    writer().set(DwcTerm.taxonID, taxonID);
+    writer().set(DcTerm.language, vn.getLanguage());
+    writer().set(DwcTerm.vernacularName, vn.getName());
   }
 
   void write(String taxonID, Distribution d) {
-    writer.set(DwcTerm.taxonID, taxonID);
-    writer.set(DwcTerm.occurrenceStatus, d.getStatus());
-    writer.set(DwcTerm.locality, d.getArea().getName());
+    writer().set(DwcTerm.taxonID, taxonID);
+    writer().set(DwcTerm.occurrenceStatus, d.getStatus());
+    writer().set(DwcTerm.locality, d.getArea().getName());
     if (d.getArea().getGazetteer() == Gazetteer.ISO) {
-        writer.set(DwcTerm.countryCode, d.getArea().getId());
+        writer().set(DwcTerm.countryCode, d.getArea().getId());
     } else if (d.getArea().getGlobalId() != null) {
-        writer.set(DwcTerm.locationID, d.getArea().getGlobalId());
+        writer().set(DwcTerm.locationID, d.getArea().getGlobalId());
     }
     if (d.getReferenceId() != null) {
-      writer.set(DcTerm.source, refCache.get(d.getReferenceId()));
+      writer().set(DcTerm.source, refCache.get(d.getReferenceId()));
     }
   }
 
   @Override
   void write(String taxonID, TaxonProperty tp) {
-    writer.set(ColdpTerm.taxonID, taxonID);
-    writer.set(DwcTerm.measurementID, tp.getId());
-    writer.set(DwcTerm.measurementType, tp.getProperty());
-    writer.set(DwcTerm.measurementValue, tp.getValue());
-    writer.set(DwcTerm.measurementRemarks, tp.getRemarks());
+    writer().set(ColdpTerm.taxonID, taxonID);
+    writer().set(DwcTerm.measurementID, tp.getId());
+    writer().set(DwcTerm.measurementType, tp.getProperty());
+    writer().set(DwcTerm.measurementValue, tp.getValue());
+    writer().set(DwcTerm.measurementRemarks, tp.getRemarks());
 }
 
   @Override
@@ -8,10 +8,6 @@ import org.gbif.dwc.terms.Term;
 import java.io.IOException;
 import java.util.List;
 
-import org.apache.poi.ss.usermodel.Cell;
-import org.apache.poi.ss.usermodel.Row;
-import org.apache.poi.ss.usermodel.Sheet;
-import org.apache.poi.ss.usermodel.Workbook;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -20,8 +16,8 @@ public class ExcelTermWriter extends TermWriter {
   public static final int MAX_VALUE_CHARS = 32767; // IAE: The maximum length of cell contents (text) is 32767 characters
   private static final Logger LOG = LoggerFactory.getLogger(ExcelTermWriter.class);
 
-  public ExcelTermWriter(Workbook wb, Term rowType, List<Term> cols) throws IOException {
-    super(new ExcelRowWriter(wb, rowType), rowType, cols);
+  public ExcelTermWriter(XlsxWorkbook wb, Term rowType, List<Term> cols) throws IOException {
+    super(new ExcelRowWriter(wb.createSheet(rowType.simpleName()), rowType), rowType, cols);
   }
 
   public static class MaxRowsException extends IOException {
@@ -34,38 +30,32 @@ public class ExcelTermWriter extends TermWriter {
   }
 
   static class ExcelRowWriter implements RowWriter {
-    private final Workbook wb;
-    private final Sheet sh;
+    private final XlsxWorkbook.Sheet sh;
     private final Term rowType;
-    private int rownum = 0;
 
-    ExcelRowWriter(Workbook wb, Term rowType) {
-      this.wb = wb;
-      sh = wb.createSheet(rowType.simpleName());
+    ExcelRowWriter(XlsxWorkbook.Sheet sh, Term rowType) {
+      this.sh = sh;
       this.rowType = rowType;
     }
 
     @Override
     public void write(String[] row) throws IOException {
-      if (rownum >= MAX_ROWS) {
+      if (sh.getRows() >= MAX_ROWS) {
         throw new MaxRowsException(rowType);
       }
-      Row r = sh.createRow(rownum++);
-      int col = 0;
-      for (String val : row) {
-        Cell cell = r.createCell(col++);
-        if (val != null && val.length() > MAX_VALUE_CHARS) {
-          LOG.warn("Value in row {} exceeds maximum cell content allowed in Excel", rownum);
-          val = val.substring(0, MAX_VALUE_CHARS-2);
+      for (int i = 0; i < row.length; i++) {
+        if (row[i] != null && row[i].length() > MAX_VALUE_CHARS) {
+          LOG.warn("Value in row {} exceeds maximum cell content allowed in Excel", sh.getRows() + 1);
+          row[i] = row[i].substring(0, MAX_VALUE_CHARS-2);
         }
-        cell.setCellValue(val);
       }
+      sh.write(row);
     }
 
     @Override
     public void close() throws IOException {
-      // sheets dont need to be closed.
-      // we close the workbook at the very end when bundling the archive
+      // finishes the sheet, the workbook is assembled at the very end when bundling the archive
+      sh.close();
     }
   }
 }
@@ -0,0 +1,205 @@
+package life.catalogue.exporter;
+
+import life.catalogue.api.model.DatasetExport;
+import life.catalogue.api.model.ExportRequest;
+import life.catalogue.api.model.Page;
+import life.catalogue.api.search.ExportSearchRequest;
+import life.catalogue.api.vocab.DataFormat;
+import life.catalogue.api.vocab.JobStatus;
+import life.catalogue.api.vocab.Users;
+import life.catalogue.concurrent.JobConfig;
+import life.catalogue.dao.DatasetExportDao;
+import life.catalogue.dao.DatasetInfoCache;
+
+import java.io.File;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntUnaryOperator;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+
+/**
+ * Manages the exports prepared for new releases when the project setting RELEASE_PREPARE_DOWNLOADS is enabled,
+ * so the first user asking for a download does not have to wait for it.
+ * Prepared exports are regular exports created by the releaser user.
+ * Their total disk usage is limited by the configured budget, removing the least recently downloaded exports first.
+ *
+ * The cache also keeps track of hits and misses of downloads asking for an existing export file.
+ */
+public class ExportCache {
+  private static final Logger LOG = LoggerFactory.getLogger(ExportCache.class);
+  private static final int PAGE_SIZE = 1000;
+  private static final long MB = 1024 * 1024;
+  private final JobConfig cfg;
+  private final DatasetExportDao dao;
+  private final ExportManager manager;
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  // last download of an export file in millis, exports not downloaded since startup use the file modification date
+  private final Map<UUID, Long> accessed = new ConcurrentHashMap<>();
+
+  static class CachedFile {
+    final UUID key;
+    final int datasetKey;
+    final DataFormat format;
+    final boolean extended;
+    final LocalDateTime created;
+    final long size;
+    final long accessed;
+
+    CachedFile(DatasetExport exp, long size, long accessed) {
+      this.key = exp.getKey();
+      this.datasetKey = exp.getRequest().getDatasetKey();
+      this.format = exp.getRequest().getFormat();
+      this.extended = exp.getRequest().isExtended();
+      this.created = exp.getCreated() == null ? LocalDateTime.MIN : exp.getCreated();
+      this.size = size;
+      this.accessed = accessed;
+    }
+  }
+
+  public ExportCache(JobConfig cfg, DatasetExportDao dao, ExportManager manager) {
+    this.cfg = cfg;
+    this.dao = dao;
+    this.manager = manager;
+  }
+
+  /**
+   * Submits the given exports of a freshly published release as the releaser user
+   * so they are managed by the cache.
+   * Before submitting, old prepared exports are removed so the budget also covers the new exports.
+   * The size of new exports is estimated from the latest prepared export with the same format of the same project.
+   */
+  public synchronized List<UUID> prepare(List<ExportRequest> reqs) {
+    if (reqs.isEmpty()) return Collections.emptyList();
+    if (cfg.exportCacheMB > 0) {
+      var files = listPrepared();
+      long reserved = 0;
+      for (ExportRequest req : reqs) {
+        reserved += estimateSize(req, files, DatasetInfoCache.CACHE::keyOrProjectKey);
+      }
+      LOG.info("Reserve {}MB for {} exports of release {}", reserved / MB, reqs.size(), reqs.get(0).getDatasetKey());
+      evict(files, reserved);
+    }
+    return manager.submit(reqs, Users.RELEASER);
+  }
+
+  /**
+   * Looks up an existing export file for a download request.
+   * @return the finished export or null if its archive does not exist yet
+   */
+  public DatasetExport get(ExportRequest req) {
+    DatasetExport exp = dao.current(req);
+    if (exp != null && exp.getStatus() == JobStatus.FINISHED && cfg.downloadFile(exp.getKey()).exists()) {
+      hits.increment();
+      accessed.put(exp.getKey(), System.currentTimeMillis());
+      return exp;
+    }
+    misses.increment();
+    return null;
+  }
+
+  /**
+   * Removes the least recently downloaded prepared exports until they fit into the disk budget again.
+   */
+  public synchronized void evict() {
+    if (cfg.exportCacheMB <= 0) return;
+    evict(listPrepared(), 0);
+  }
+
+  private void evict(List<CachedFile> files, long reserved) {
+    for (UUID key : selectEvictions(files, cfg.exportCacheMB * MB - reserved)) {
+      LOG.info("Remove prepared export {} exceeding the disk budget of {}MB", key, cfg.exportCacheMB);
+      dao.delete(key, Users.RELEASER);
+      accessed.remove(key);
+    }
+  }
+
+  /**
+   * @return all existing, finished export files created by the releaser
+   */
+  private List<CachedFile> listPrepared() {
+    List<CachedFile> files = new ArrayList<>();
+    var filter = new ExportSearchRequest();
+    filter.setCreatedBy(Users.RELEASER);
+    filter.setSingleStatus(JobStatus.FINISHED);
+    Page page = new Page(0, PAGE_SIZE);
+    List<DatasetExport> exports;
+    do {
+      exports = dao.list(filter, page).getResult();
+      for (DatasetExport exp : exports) {
+        File f = cfg.downloadFile(exp.getKey());
+        if (f.exists()) {
+          files.add(new CachedFile(exp, f.length(), accessed.getOrDefault(exp.getKey(), f.lastModified())));
+        }
+      }
+      page.next();
+    } while (exports.size() == PAGE_SIZE);
+    return files;
+  }
+
+  /**
+   * @return the size of the latest prepared export of the same project with the same format or zero if there is none
+   */
+  static long estimateSize(ExportRequest req, List<CachedFile> files, IntUnaryOperator projectKeys) {
+    int projectKey = projectKeys.applyAsInt(req.getDatasetKey());
+    CachedFile latest = null;
+    for (CachedFile f : files) {
+      if (f.format == req.getFormat() && f.extended == req.isExtended()
+          && projectKeys.applyAsInt(f.datasetKey) == projectKey
+          && (latest == null || f.created.isAfter(latest.created))
+      ) {
+        latest = f;
+      }
+    }
+    return latest == null ? 0 : latest.size;
+  }
+
+  /**
+   * @return keys of the least recently accessed files which need to be removed to stay within the budget
+   */
+  static List<UUID> selectEvictions(List<CachedFile> files, long budget) {
+    long total = files.stream().mapToLong(f -> f.size).sum();
+    List<CachedFile> lru = new ArrayList<>(files);
+    lru.sort(Comparator.comparingLong(f -> f.accessed));
+    List<UUID> keys = new ArrayList<>();
+    Iterator<CachedFile> iter = lru.iterator();
+    while (total > budget && iter.hasNext()) {
+      CachedFile f = iter.next();
+      keys.add(f.key);
+      total -= f.size;
+    }
+    return keys;
+  }
+
+  public long getHits() {
+    return hits.sum();
+  }
+
+  public long getMisses() {
+    return misses.sum();
+  }
+
+  public double getHitRatio() {
+    long h = hits.sum();
+    long total = h + misses.sum();
+    return total == 0 ? 0 : (double) h / total;
+  }
+
+  public void register(MetricRegistry registry) {
+    registry.register(MetricRegistry.name(ExportCache.class, "hits"), (Gauge<Long>) this::getHits);
+    registry.register(MetricRegistry.name(ExportCache.class, "misses"), (Gauge<Long>) this::getMisses);
+    registry.register(MetricRegistry.name(ExportCache.class, "hitRatio"), (Gauge<Double>) this::getHitRatio);
+  }
+
+  @Override
+  public String toString() {
+    return "export cache: hits=" + getHits() + ", misses=" + getMisses();
+  }
+}
@@ -0,0 +1,371 @@
+package life.catalogue.exporter;
+
+import life.catalogue.common.io.DeflatedZipEntry;
+import life.catalogue.common.io.RowWriter;
+import life.catalogue.common.io.TabWriter;
+import life.catalogue.common.io.UTF8IoUtils;
+import life.catalogue.concurrent.UsageCounter;
+
+import org.gbif.nameparser.api.Rank;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import javax.annotation.Nullable;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps the data files of full archive exports of a managed project split into fragments per sector,
+ * so following exports only need to read the records of sectors which have been synced or edited since
+ * and the records without any sector, e.g. the ones created by editors in the project.
+ * Fragments of unchanged sectors are reused as they are and stitched together with the freshly rendered ones
+ * into the final data files.
+ *
+ * Each fragment is a directory with a gzipped file per data file and the version and name usage counts
+ * of the sector it was rendered from. The version combines the sync attempt with a fingerprint of the sector data.
+ * Records without a sector or with a sector that does not exist anymore are rendered by every export.
+ * All fragments of a previous export are discarded if the layout of the data files has changed since.
+ */
+class ExportFragments {
+  private static final Logger LOG = LoggerFactory.getLogger(ExportFragments.class);
+  private static final String PROJECT = "project";
+  private static final String LAYOUT_FILE = "layout.txt";
+  private static final String STATE_FILE = "fragment.properties";
+  private static final String NEW_SUFFIX = ".new";
+  private static final String VERSION = "version";
+  private static final String TAXA = "taxa";
+  private static final String SYNONYMS = "synonyms";
+  private static final String BARE_NAMES = "bareNames";
+  private static final String RANK_PREFIX = "rank.";
+  private final File dir;
+  private final String layout;
+  private final File deflatedDir;
+  // versions of all synced sectors in the project
+  private final Map<Integer, String> versions;
+  // sectors with an up to date fragment from a previous export
+  private final Set<Integer> reused = new HashSet<>();
+  private final UsageCounter reusedCounts = new UsageCounter();
+  // usage counts of the freshly rendered fragments
+  private final Map<String, UsageCounter> counters = new ConcurrentHashMap<>();
+  private final Set<String> rendered = ConcurrentHashMap.newKeySet();
+  private final List<FragmentedFile> files = Collections.synchronizedList(new ArrayList<>());
+  private final ThreadLocal<String> selected = ThreadLocal.withInitial(() -> PROJECT);
+
+  /**
+   * @param dir directory to keep the fragments in
+   * @param layout description of all data files and their columns, invalidating all fragments when changed
+   * @param deflatedDir directory to write the stitched, compressed data files to
+   * @param versions versions by sector key of all sectors of the project, null for sectors never synced
+   */
+  ExportFragments(File dir, String layout, File deflatedDir, Map<Integer, String> versions) throws IOException {
+    this.dir = dir;
+    this.layout = layout;
+    this.deflatedDir = deflatedDir;
+    this.versions = versions;
+    load();
+  }
+
+  private void load() throws IOException {
+    // remove leftovers of failed exports
+    File[] existing = dir.listFiles();
+    if (existing != null) {
+      for (File f : existing) {
+        if (f.getName().endsWith(NEW_SUFFIX)) {
+          FileUtils.deleteDirectory(f);
+        }
+      }
+    }
+    File lf = new File(dir, LAYOUT_FILE);
+    if (!lf.exists() || !layout.equals(UTF8IoUtils.readString(lf))) {
+      if (dir.exists()) {
+        LOG.info("Export layout changed, discard all fragments in {}", dir);
+        FileUtils.deleteDirectory(dir);
+      }
+      return;
+    }
+    for (Map.Entry<Integer, String> x : versions.entrySet()) {
+      File sf = new File(new File(dir, x.getKey().toString()), STATE_FILE);
+      if (x.getValue() != null && sf.exists()) {
+        Properties state = new Properties();
+        try (Reader r = UTF8IoUtils.readerFromFile(sf)) {
+          state.load(r);
+        }
+        if (x.getValue().equals(state.getProperty(VERSION))) {
+          reused.add(x.getKey());
+          reusedCounts.add(counts(state));
+        }
+      }
+    }
+    LOG.info("Reuse fragments of {} out of {} sectors from {}", reused.size(), versions.size(), dir);
+  }
+
+  /**
+   * @return keys of all sectors with an up to date fragment which do not need to be rendered again
+   */
+  Set<Integer> reused() {
+    return reused;
+  }
+
+  /**
+   * @return the name usage counts of all reused fragments together
+   */
+  UsageCounter reusedCounts() {
+    return reusedCounts;
+  }
+
+  /**
+   * Selects the fragment the current thread writes the following records to.
+   * @param sectorKey sector of the next record, null for the project itself
+   */
+  void select(@Nullable Integer sectorKey) {
+    selected.set(sectorKey == null ? PROJECT : sectorKey.toString());
+  }
+
+  /**
+   * @return the name usage counter of the fragment currently selected by this thread
+   */
+  UsageCounter counter() {
+    return counters.computeIfAbsent(selected.get(), k -> new UsageCounter());
+  }
+
+  /**
+   * Creates a new tab delimited data file which is written into fragments.
+   * The first row is the header which is only written once into the stitched data file.
+   */
+  RowWriter tsv(String filename) {
+    return add(new TsvFile(filename));
+  }
+
+  /**
+   * Creates a new json data file holding an array with one item per record, written into fragments.
+   * The data file is left out if none of the fragments has any item.
+   */
+  ArchiveExport.ItemWriter jsonArray(String filename) {
+    FragmentedFile f = add(new FragmentedFile(filename, ",\n", "\n]\n"));
+    f.prefix = "[\n";
+    f.optional = true;
+    return f;
+  }
+
+  private <T extends FragmentedFile> T add(T file) {
+    files.add(file);
+    return file;
+  }
+
+  private File fragmentDir(String fragment) {
+    return new File(dir, fragment + NEW_SUFFIX);
+  }
+
+  /**
+   * A single data file written into separate fragments by a single thread.
+   * Records are expected to come ordered by their sector, so only the fragment currently written to is kept open.
+   * A fragment selected again later is appended to as a new gzip member.
+   */
+  private class FragmentedFile implements ArchiveExport.ItemWriter {
+    final String filename;
+    final String separator;
+    final String suffix;
+    String prefix = "";
+    boolean optional;
+    private final Set<String> started = new HashSet<>();
+    private String fragment;
+    private Writer writer;
+
+    FragmentedFile(String filename, String separator, String suffix) {
+      this.filename = filename;
+      this.separator = separator;
+      this.suffix = suffix;
+    }
+
+    @Override
+    public void write(String item) throws IOException {
+      final String next = selected.get();
+      if (!next.equals(fragment)) {
+        close();
+        File f = new File(fragmentDir(next), filename + ".gz");
+        if (started.add(next)) {
+          writer = UTF8IoUtils.writerFromGzipFile(f);
+          rendered.add(next);
+        } else {
+          // fragments of unordered records are continued with another gzip member
+          LOG.debug("Continue fragment {} of {}", next, filename);
+          writer = UTF8IoUtils.writerFromStream(new GZIPOutputStream(new FileOutputStream(f, true)));
+          writer.write(separator);
+        }
+        fragment = next;
+      } else {
+        writer.write(separator);
+      }
+      writer.write(item);
+    }
+
+    @Override
+    public void close() throws IOException {
+      if (writer != null) {
+        writer.close();
+        writer = null;
+        fragment = null;
+      }
+    }
+  }
+
+  private class TsvFile extends FragmentedFile implements RowWriter {
+    private final StringWriter buffer = new StringWriter();
+    private final TabWriter tab = new TabWriter(buffer);
+    private boolean header = true;
+
+    TsvFile(String filename) {
+      super(filename, "", "");
+    }
+
+    @Override
+    public void write(String[] row) throws IOException {
+      tab.write(row);
+      if (buffer.getBuffer().length() > 0) {
+        if (header) {
+          prefix = buffer.toString();
+          header = false;
+        } else {
+          write(buffer.toString());
+        }
+        buffer.getBuffer().setLength(0);
+      }
+    }
+  }
+
+  /**
+   * @return all fragments in the order they are stitched, the project first followed by all sectors
+   */
+  private List<String> fragments() {
+    SortedSet<Integer> keys = new TreeSet<>(reused);
+    for (String f : rendered) {
+      if (!f.equals(PROJECT)) {
+        keys.add(Integer.valueOf(f));
+      }
+    }
+    List<String> fragments = new ArrayList<>(keys.size() + 1);
+    fragments.add(PROJECT);
+    keys.forEach(k -> fragments.add(k.toString()));
+    return fragments;
+  }
+
+  private File file(String fragment, String filename) {
+    boolean isReused = !fragment.equals(PROJECT) && reused.contains(Integer.valueOf(fragment));
+    return new File(isReused ? new File(dir, fragment) : fragmentDir(fragment), filename + ".gz");
+  }
+
+  /**
+   * Assembles all data files from the freshly rendered and the reused fragments.
+   * All data files must have been closed before.
+   * @return the compressed data files to be copied into the archive
+   */
+  List<DeflatedZipEntry> stitch() throws IOException {
+    final List<String> fragments = fragments();
+    final List<DeflatedZipEntry> entries = new ArrayList<>();
+    for (FragmentedFile f : files) {
+      if (f.optional && fragments.stream().noneMatch(fragment -> file(fragment, f.filename).exists())) {
+        continue;
+      }
+      LOG.info("Stitch {} from {} fragments", f.filename, fragments.size());
+      DeflatedZipEntry entry = new DeflatedZipEntry(f.filename, new File(deflatedDir, f.filename + ".deflated"));
+      try (entry) {
+        entry.write(f.prefix.getBytes(StandardCharsets.UTF_8));
+        boolean first = true;
+        for (String fragment : fragments) {
+          File ff = file(fragment, f.filename);
+          if (ff.exists()) {
+            if (!first) {
+              entry.write(f.separator.getBytes(StandardCharsets.UTF_8));
+            }
+            try (InputStream in = new GZIPInputStream(new FileInputStream(ff))) {
+              IOUtils.copy(in, entry);
+            }
+            first = false;
+          }
+        }
+        entry.write(f.suffix.getBytes(StandardCharsets.UTF_8));
+      }
+      entries.add(entry);
+    }
+    return entries;
+  }
+
+  /**
+   * Keeps the freshly rendered fragments of all synced sectors for the next export
+   * and removes the fragments of the project and of sectors which were deleted.
+   */
+  void commit() throws IOException {
+    int kept = reused.size();
+    for (Map.Entry<Integer, String> x : versions.entrySet()) {
+      final String fragment = x.getKey().toString();
+      if (x.getValue() != null && !reused.contains(x.getKey())) {
+        File fdir = fragmentDir(fragment);
+        Properties state = new Properties();
+        state.setProperty(VERSION, x.getValue());
+        UsageCounter cnt = counters.getOrDefault(fragment, new UsageCounter());
+        state.setProperty(TAXA, String.valueOf(cnt.getTaxCounter().get()));
+        state.setProperty(SYNONYMS, String.valueOf(cnt.getSynCounter().get()));
+        state.setProperty(BARE_NAMES, String.valueOf(cnt.getBareCounter().get()));
+        cnt.getRankCounterMap().forEach((r, c) -> state.setProperty(RANK_PREFIX + r.name(), c.toString()));
+        try (Writer w = UTF8IoUtils.writerFromFile(new File(fdir, STATE_FILE))) {
+          state.store(w, null);
+        }
+        File target = new File(dir, fragment);
+        FileUtils.deleteDirectory(target);
+        Files.move(fdir.toPath(), target.toPath());
+        kept++;
+      }
+    }
+    // remove everything else, i.e. the project, deleted sectors and unsynced ones
+    File[] existing = dir.listFiles();
+    if (existing != null) {
+      for (File f : existing) {
+        if (f.isDirectory() && !isKept(f.getName())) {
+          FileUtils.deleteDirectory(f);
+        }
+      }
+    }
+    FileUtils.writeStringToFile(new File(dir, LAYOUT_FILE), layout, StandardCharsets.UTF_8);
+    LOG.info("Kept fragments of {} sectors in {}", kept, dir);
+  }
+
+  private boolean isKept(String name) {
+    try {
+      Integer key = Integer.valueOf(name);
+      return versions.get(key) != null;
+    } catch (NumberFormatException e) {
+      return false;
+    }
+  }
+
+  /**
+   * Removes all freshly rendered fragments, keeping the ones of the previous export.
+   */
+  void abort() {
+    for (String fragment : rendered) {
+      FileUtils.deleteQuietly(fragmentDir(fragment));
+    }
+  }
+
+  private static UsageCounter counts(Properties state) {
+    UsageCounter cnt = new UsageCounter();
+    cnt.getTaxCounter().set(Integer.parseInt(state.getProperty(TAXA, "0")));
+    cnt.getSynCounter().set(Integer.parseInt(state.getProperty(SYNONYMS, "0")));
+    cnt.getBareCounter().set(Integer.parseInt(state.getProperty(BARE_NAMES, "0")));
+    for (String key : state.stringPropertyNames()) {
+      if (key.startsWith(RANK_PREFIX)) {
+        cnt.putRankCount(Rank.valueOf(key.substring(RANK_PREFIX.length())), Integer.parseInt(state.getProperty(key)));
+      }
+    }
+    return cnt;
+  }
+}
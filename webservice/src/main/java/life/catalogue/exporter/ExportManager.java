@@ -11,11 +11,18 @@ import life.catalogue.concurrent.DatasetBlockingJob;
 import life.catalogue.concurrent.JobExecutor;
 import life.catalogue.dao.DatasetExportDao;
 import life.catalogue.dao.DatasetImportDao;
+import life.catalogue.dao.TaxonCountStore;
 import life.catalogue.db.mapper.NameUsageMapper;
 import life.catalogue.img.ImageService;
 
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
 
+import javax.annotation.Nullable;
+
+import org.apache.commons.io.FileUtils;
 import org.apache.ibatis.session.SqlSession;
 import org.apache.ibatis.session.SqlSessionFactory;
 import org.slf4j.Logger;
@@ -33,15 +40,36 @@ public class ExportManager {
   private final JobExecutor executor;
   private final DatasetExportDao dao;
   private final DatasetImportDao diDao;
+  private final TaxonCountStore taxonCounts;
+  private final ExportCache cache;
 
+  /**
+   * @param taxonCounts optional materialized taxon counts used to reject Excel exports of large subtrees early
+   */
   public ExportManager(WsServerConfig cfg, SqlSessionFactory factory, JobExecutor executor, ImageService imageService,
-                       DatasetExportDao exportDao, DatasetImportDao diDao) {
+                       DatasetExportDao exportDao, DatasetImportDao diDao, @Nullable TaxonCountStore taxonCounts) {
     this.cfg = cfg;
     this.factory = factory;
     this.executor = executor;
     this.imageService = imageService;
     dao = exportDao;
     this.diDao = diDao;
+    this.taxonCounts = taxonCounts;
+    cache = new ExportCache(cfg.job, exportDao, this);
+  }
+
+  public ExportCache getCache() {
+    return cache;
+  }
+
+  /**
+   * Prepares downloads for a new release, submitting the exports through the export cache
+   * which keeps prepared files within the configured disk budget.
+   *
+   * @return keys of all exports in the order of the requests
+   */
+  public List<UUID> prepare(List<ExportRequest> reqs) throws IllegalArgumentException {
+    return cache.prepare(reqs);
   }
 
   /**
@@ -61,6 +89,12 @@ public class ExportManager {
         if (qej.getReq().equals(req)) {
           return qej.getKey();
         }
+      } else if (qj instanceof MultiFormatExport) {
+        for (var qej : ((MultiFormatExport) qj).getExports()) {
+          if (qej.getReq().equals(req)) {
+            return qej.getKey();
+          }
+        }
       }
     }
     return null;
@@ -76,6 +110,44 @@ public class ExportManager {
       }
     }
     validate(req);
+    return submit(build(req, userKey));
+  }
+
+  /**
+   * Submits exports for several requests at once.
+   * Exports of full datasets which can share a single traversal of the data are run together by one MultiFormatExport job,
+   * all others are submitted individually.
+   *
+   * @return keys of all exports in the order of the requests
+   */
+  public List<UUID> submit(List<ExportRequest> reqs, int userKey) throws IllegalArgumentException {
+    List<UUID> keys = new ArrayList<>();
+    List<DatasetExportJob> shared = new ArrayList<>();
+    for (ExportRequest req : reqs) {
+      UUID prev = exists(req);
+      if (prev != null && !req.isForce()) {
+        keys.add(prev);
+        continue;
+      }
+      validate(req);
+      DatasetExportJob job = build(req, userKey);
+      keys.add(job.getKey());
+      if (MultiFormatExport.canShare(job)) {
+        shared.add(job);
+      } else {
+        submit(job);
+      }
+    }
+    if (shared.size() > 1 && shared.stream().anyMatch(j -> j instanceof ArchiveExport)) {
+      LOG.info("Share a single traversal for {} exports of dataset {}", shared.size(), shared.get(0).getDatasetKey());
+      submit(new MultiFormatExport(shared));
+    } else {
+      shared.forEach(this::submit);
+    }
+    return keys;
+  }
+
+  private DatasetExportJob build(ExportRequest req, int userKey) throws IllegalArgumentException {
     DatasetExportJob job;
     switch (req.getFormat()) {
       case COLDP:
@@ -102,7 +174,7 @@ public class ExportManager {
       default:
         throw new IllegalArgumentException("Export format "+req.getFormat() + " is not supported yet");
     }
-    return submit(job);
+    return job;
   }
 
   @VisibleForTesting
@@ -148,6 +220,14 @@ public class ExportManager {
         throwIfTooLarge(ColdpTerm.SpeciesInteraction, imp.getSpeciesInteractionsCount());
         throwIfTooLarge(ColdpTerm.Media, imp.getMediaCount());
       }
+
+    } else if (req.isExcel() && req.getTaxonID() != null && taxonCounts != null) {
+      // check the materialized counts of the subtree, accepted taxa alone must fit into a single sheet.
+      // This is a lower bound only: synonyms and bare names are not counted
+      // and projects without materialized counts (-1) are not checked at all,
+      // so larger exports can still fail with a MaxRowsException while writing
+      int taxa = taxonCounts.countAll(DSID.of(req.getDatasetKey(), req.getTaxonID()), req.getMinRank());
+      throwIfTooLarge(ColdpTerm.NameUsage, taxa);
     }
 
     // set extended to false (the default) for formats that make no difference
@@ -172,6 +252,11 @@ public class ExportManager {
           executor.cancel(job.getKey(), event.user);
         }
       }
+      File fragments = cfg.job.exportFragmentsDir(event.key);
+      if (fragments.exists()) {
+        LOG.info("Remove export fragments of deleted dataset {}", event.key);
+        FileUtils.deleteQuietly(fragments);
+      }
     }
   }
 }
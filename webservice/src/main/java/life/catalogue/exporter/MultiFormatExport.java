@@ -0,0 +1,117 @@
+package life.catalogue.exporter;
+
+import life.catalogue.common.io.UTF8IoUtils;
+import life.catalogue.concurrent.DatasetBlockingJob;
+import life.catalogue.concurrent.JobPriority;
+import life.catalogue.printer.AbstractPrinter;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import org.apache.commons.io.IOUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Exports a full dataset into several formats at once, reading all data from postgres only once.
+ * The first archive export leads and passes every record read by its cursors on to the data files of all other archive exports.
+ * Printer exports like the text tree are fed with the core name usages, which are then read in depth first order.
+ *
+ * Each export is tracked in the database just as if it was executed on its own.
+ * The keys of all exports are members of this job, so status lookups and cancellation by an export key
+ * resolve to this job. Cancelling any of them therefore cancels all formats.
+ */
+class MultiFormatExport extends DatasetBlockingJob {
+  private static final Logger LOG = LoggerFactory.getLogger(MultiFormatExport.class);
+  private final List<DatasetExportJob> exports;
+  private final ArchiveExport lead;
+  private final List<PrinterExport<?>> printers = new ArrayList<>();
+
+  MultiFormatExport(List<DatasetExportJob> exports) {
+    super(exports.get(0).getDatasetKey(), exports.get(0).getUserKey(), JobPriority.LOW);
+    this.exports = List.copyOf(exports);
+    ArchiveExport lead = null;
+    for (DatasetExportJob job : exports) {
+      Preconditions.checkArgument(job.getDatasetKey() == datasetKey, "All exports must be for dataset %s", datasetKey);
+      Preconditions.checkArgument(canShare(job), "Export %s cannot share a traversal", job.getKey());
+      if (job instanceof PrinterExport) {
+        printers.add((PrinterExport<?>) job);
+      } else if (lead == null) {
+        lead = (ArchiveExport) job;
+      } else {
+        lead.share((ArchiveExport) job);
+      }
+    }
+    this.lead = Preconditions.checkNotNull(lead, "An archive export is required");
+    this.dataset = lead.getDataset();
+  }
+
+  /**
+   * @return true if the export can be part of a multi format export, i.e. it is a non Excel archive or printer export of a full dataset
+   */
+  static boolean canShare(DatasetExportJob job) {
+    return !job.getReq().hasFilter() && !job.getReq().isExcel()
+      && (job instanceof ArchiveExport || job instanceof PrinterExport);
+  }
+
+  public List<DatasetExportJob> getExports() {
+    return exports;
+  }
+
+  @Override
+  public Set<UUID> getMemberKeys() {
+    return exports.stream().map(DatasetExportJob::getKey).collect(Collectors.toSet());
+  }
+
+  @Override
+  protected void runWithLock() throws Exception {
+    final List<Writer> writers = new ArrayList<>();
+    try {
+      for (DatasetExportJob job : exports) {
+        job.begin();
+      }
+      final List<AbstractPrinter> ps = new ArrayList<>();
+      for (PrinterExport<?> pe : printers) {
+        Writer w = UTF8IoUtils.writerFromFile(pe.file());
+        writers.add(w);
+        AbstractPrinter p = pe.printer(w);
+        ps.add(p);
+        lead.shareTree(p);
+      }
+      LOG.info("Export dataset {} into {} formats with a single traversal", datasetKey, exports.size());
+      lead.export();
+      for (int i = 0; i < printers.size(); i++) {
+        printed(printers.get(i), ps.get(i));
+        writers.get(i).close();
+      }
+      for (DatasetExportJob job : exports) {
+        job.complete();
+      }
+
+    } finally {
+      writers.forEach(IOUtils::closeQuietly);
+      for (DatasetExportJob job : exports) {
+        job.cleanup();
+      }
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <T extends AbstractPrinter> void printed(PrinterExport<T> pe, AbstractPrinter p) throws IOException {
+    pe.printed((T) p, p.finish());
+  }
+
+  @Override
+  protected void onFinishLocked() throws Exception {
+    for (DatasetExportJob job : exports) {
+      job.finish(getStatus(), getError(), getFinished());
+    }
+  }
+}
@@ -31,16 +31,31 @@ public abstract class PrinterExport<T extends AbstractPrinter> extends DatasetEx
 
   @Override
   protected void export() throws Exception {
-    File f = new File(tmpDir, filename());
-    try (Writer writer = UTF8IoUtils.writerFromFile(f)) {
-      T printer = PrinterFactory.dataset(printerClass, req.toTreeTraversalParameter(), null, req.getExtinct(), null, null, factory, writer);
-      modifyPrinter(printer);
-      int cnt = printer.print();
-      LOG.info("Written {} taxa to {} for dataset {}", cnt, printerName, req.getDatasetKey());
-      counter.set(printer.getCounter());
+    try (Writer writer = UTF8IoUtils.writerFromFile(file())) {
+      T printer = printer(writer);
+      printer.setParallel(cfg.job.printerSplitRank, cfg.job.exportThreads);
+      printed(printer, printer.print());
     }
   }
 
+  File file() {
+    return new File(tmpDir, filename());
+  }
+
+  /**
+   * Creates a new printer for the request writing to the given writer.
+   */
+  T printer(Writer writer) {
+    T printer = PrinterFactory.dataset(printerClass, req.toTreeTraversalParameter(), null, req.getExtinct(), null, null, factory, writer);
+    modifyPrinter(printer);
+    return printer;
+  }
+
+  void printed(T printer, int cnt) {
+    LOG.info("Written {} taxa to {} for dataset {}", cnt, printerName, req.getDatasetKey());
+    counter.set(printer.getCounter());
+  }
+
   abstract protected String filename();
 
   void modifyPrinter(T printer) {
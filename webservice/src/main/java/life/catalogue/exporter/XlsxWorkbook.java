@@ -0,0 +1,241 @@
+package life.catalogue.exporter;
+
+import life.catalogue.common.io.DeflatedZipEntry;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import org.apache.commons.io.FileUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A minimal, streaming writer for Excel xlsx workbooks with plain text cells only.
+ *
+ * Every sheet is written as SpreadsheetML with inline strings straight into its own compressed zip entry,
+ * so sheets can be written concurrently by different threads without keeping any rows in memory.
+ * The final workbook is assembled by copying the compressed sheets as they are into a new zip archive
+ * together with the few small parts describing the workbook.
+ */
+public class XlsxWorkbook {
+  private static final Logger LOG = LoggerFactory.getLogger(XlsxWorkbook.class);
+  private static final String XML_HEADER = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n";
+  private static final String NS_MAIN = "http://schemas.openxmlformats.org/spreadsheetml/2006/main";
+  private static final String NS_REL = "http://schemas.openxmlformats.org/officeDocument/2006/relationships";
+  private static final String NS_PKG_REL = "http://schemas.openxmlformats.org/package/2006/relationships";
+  private final File dir;
+  private final List<Sheet> sheets = new ArrayList<>();
+  private List<String> sheetOrder = List.of();
+
+  /**
+   * @param dir directory to keep the compressed sheets in until the workbook is written
+   */
+  public XlsxWorkbook(File dir) {
+    this.dir = dir;
+  }
+
+  /**
+   * Sets the order of sheets in the final workbook by their names, usually starting with the core data.
+   * As sheets can be created concurrently, their creation order is not a reliable order.
+   */
+  public synchronized void setSheetOrder(List<String> names) {
+    sheetOrder = List.copyOf(names);
+  }
+
+  /**
+   * Creates a new sheet which must be closed before the workbook is written.
+   * Sheets are ordered as given by setSheetOrder in the final workbook,
+   * sheets not listed there follow at the end in their creation order.
+   */
+  public synchronized Sheet createSheet(String name) throws IOException {
+    int idx = sheets.size() + 1;
+    String filename = "sheet" + idx + ".xml";
+    Sheet sheet = new Sheet(idx, name, new DeflatedZipEntry("xl/worksheets/" + filename, new File(dir, filename + ".deflated")));
+    sheets.add(sheet);
+    return sheet;
+  }
+
+  /**
+   * A single sheet written row by row with each value in its own cell.
+   */
+  public static class Sheet implements Closeable {
+    private final int idx;
+    private final String name;
+    private final DeflatedZipEntry entry;
+    private final Writer writer;
+    private final List<String> colNames = new ArrayList<>();
+    private int rows = 0;
+    private boolean closed;
+
+    private Sheet(int idx, String name, DeflatedZipEntry entry) throws IOException {
+      this.idx = idx;
+      this.name = name;
+      this.entry = entry;
+      writer = new BufferedWriter(new OutputStreamWriter(entry, StandardCharsets.UTF_8));
+      writer.write(XML_HEADER);
+      writer.write("<worksheet xmlns=\"" + NS_MAIN + "\"><sheetData>\n");
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    /**
+     * @return number of rows written so far
+     */
+    public int getRows() {
+      return rows;
+    }
+
+    /**
+     * Writes a new row, leaving cells of null values empty.
+     */
+    public void write(String[] row) throws IOException {
+      final String r = String.valueOf(++rows);
+      writer.write("<row r=\"");
+      writer.write(r);
+      writer.write("\">");
+      for (int col = 0; col < row.length; col++) {
+        if (row[col] != null) {
+          writer.write("<c r=\"");
+          writer.write(colName(col));
+          writer.write(r);
+          writer.write("\" t=\"inlineStr\"><is><t");
+          if (!row[col].isEmpty() && (Character.isWhitespace(row[col].charAt(0)) || Character.isWhitespace(row[col].charAt(row[col].length()-1)))) {
+            writer.write(" xml:space=\"preserve\"");
+          }
+          writer.write('>');
+          escape(row[col], writer);
+          writer.write("</t></is></c>");
+        }
+      }
+      writer.write("</row>\n");
+    }
+
+    /**
+     * @return the column letters for a zero based column index, e.g. A, Z, AA
+     */
+    private String colName(int col) {
+      while (colNames.size() <= col) {
+        int x = colNames.size() + 1;
+        StringBuilder sb = new StringBuilder();
+        while (x > 0) {
+          int rem = (x - 1) % 26;
+          sb.insert(0, (char) ('A' + rem));
+          x = (x - 1) / 26;
+        }
+        colNames.add(sb.toString());
+      }
+      return colNames.get(col);
+    }
+
+    /**
+     * Finishes the sheet. Closing a sheet more than once has no effect.
+     */
+    @Override
+    public void close() throws IOException {
+      if (!closed) {
+        closed = true;
+        writer.write("</sheetData></worksheet>\n");
+        writer.close();
+      }
+    }
+  }
+
+  /**
+   * Escapes xml markup characters and removes all characters which are not allowed in xml.
+   */
+  static void escape(String x, Writer w) throws IOException {
+    for (int i = 0; i < x.length(); i++) {
+      char c = x.charAt(i);
+      switch (c) {
+        case '<':
+          w.write("&lt;");
+          break;
+        case '>':
+          w.write("&gt;");
+          break;
+        case '&':
+          w.write("&amp;");
+          break;
+        case '"':
+          w.write("&quot;");
+          break;
+        default:
+          if (c >= 0x20 || c == '\t' || c == '\n' || c == '\r') {
+            if (c < 0xFFFE) {
+              w.write(c);
+            }
+          }
+      }
+    }
+  }
+
+  /**
+   * Assembles the final xlsx file from all sheets, which must have been closed before.
+   */
+  public synchronized void write(File xlsx) throws IOException {
+    List<Sheet> sorted = new ArrayList<>(sheets);
+    // stable sort keeps the creation order of unlisted sheets
+    sorted.sort(Comparator.comparingInt(sh -> {
+      int idx = sheetOrder.indexOf(sh.getName());
+      return idx < 0 ? Integer.MAX_VALUE : idx;
+    }));
+    LOG.info("Writing Excel workbook {} with {} sheets", xlsx, sorted.size());
+
+    StringBuilder types = new StringBuilder(XML_HEADER);
+    types.append("<Types xmlns=\"http://schemas.openxmlformats.org/package/2006/content-types\">")
+      .append("<Default Extension=\"rels\" ContentType=\"application/vnd.openxmlformats-package.relationships+xml\"/>")
+      .append("<Default Extension=\"xml\" ContentType=\"application/xml\"/>")
+      .append("<Override PartName=\"/xl/workbook.xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.sheet.main+xml\"/>");
+    StringBuilder wb = new StringBuilder(XML_HEADER);
+    wb.append("<workbook xmlns=\"" + NS_MAIN + "\" xmlns:r=\"" + NS_REL + "\"><sheets>");
+    StringBuilder wbRels = new StringBuilder(XML_HEADER);
+    wbRels.append("<Relationships xmlns=\"" + NS_PKG_REL + "\">");
+    int sheetId = 1;
+    for (Sheet s : sorted) {
+      types.append("<Override PartName=\"/").append(s.entry.getName())
+        .append("\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.worksheet+xml\"/>");
+      wb.append("<sheet name=\"").append(s.name).append("\" sheetId=\"").append(sheetId++)
+        .append("\" r:id=\"rId").append(s.idx).append("\"/>");
+      wbRels.append("<Relationship Id=\"rId").append(s.idx)
+        .append("\" Type=\"" + NS_REL + "/worksheet\" Target=\"")
+        .append(s.entry.getName().substring(3)).append("\"/>");
+    }
+    types.append("</Types>");
+    wb.append("</sheets></workbook>");
+    wbRels.append("</Relationships>");
+    String rels = XML_HEADER + "<Relationships xmlns=\"" + NS_PKG_REL + "\">"
+      + "<Relationship Id=\"rId1\" Type=\"" + NS_REL + "/officeDocument\" Target=\"xl/workbook.xml\"/>"
+      + "</Relationships>";
+
+    try (ZipArchiveOutputStream zip = new ZipArchiveOutputStream(new BufferedOutputStream(new FileOutputStream(xlsx)))) {
+      add(zip, "[Content_Types].xml", types);
+      add(zip, "_rels/.rels", rels);
+      add(zip, "xl/workbook.xml", wb);
+      add(zip, "xl/_rels/workbook.xml.rels", wbRels);
+      for (Sheet s : sorted) {
+        s.entry.copyTo(zip);
+      }
+      zip.finish();
+    }
+  }
+
+  private static void add(ZipArchiveOutputStream zip, String name, CharSequence content) throws IOException {
+    zip.putArchiveEntry(new ZipArchiveEntry(name));
+    zip.write(content.toString().getBytes(StandardCharsets.UTF_8));
+    zip.closeArchiveEntry();
+  }
+
+  /**
+   * Removes all temporary sheet files.
+   */
+  public void delete() {
+    FileUtils.deleteQuietly(dir);
+  }
+}
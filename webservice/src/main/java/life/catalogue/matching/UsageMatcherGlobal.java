@@ -20,6 +20,8 @@ import life.catalogue.parser.NameParser;
 import org.gbif.nameparser.api.Rank;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.stream.Collectors;
 
 import javax.annotation.Nullable;
@@ -33,6 +35,7 @@ import org.slf4j.LoggerFactory;
 import com.github.benmanes.caffeine.cache.Caffeine;
 import com.github.benmanes.caffeine.cache.LoadingCache;
 import com.google.common.base.Preconditions;
+import com.google.common.collect.Iterables;
 
 /**
  * Matches usages against a given dataset. Matching is primarily based on names index matches,
@@ -42,14 +45,18 @@ import com.google.common.base.Preconditions;
  */
 public class UsageMatcherGlobal {
   private final static Logger LOG = LoggerFactory.getLogger(UsageMatcherGlobal.class);
+  // max number of keys in a single prefetch query
+  private static final int PREFETCH_BATCH_SIZE = 1000;
   private final NameIndex nameIndex;
   private final AuthorComparator authComp;
   private final UsageCache uCache;
   private final CacheLoader defaultLoader;
-  private final Map<Integer, CacheLoader> loaders = new HashMap<>();
+  // loaders registered by dataset key and the id of the registering thread
+  private final Map<DSID<Long>, CacheLoader> loaders = new ConcurrentHashMap<>();
   private final SqlSessionFactory factory;
   private final TaxGroupAnalyzer groupAnalyzer;
   // key = datasetKey + canonical nidx
+  // concurrent merges read and add to the same candidate lists, so all cached lists are copy on write
   private final LoadingCache<DSID<Integer>, List<SimpleNameCached>> usages = Caffeine.newBuilder()
                                                                                      .maximumSize(100_000)
                                                                                      .build(this::loadUsagesByNidx);
@@ -62,7 +69,7 @@ public class UsageMatcherGlobal {
     try (SqlSession session = factory.openSession(true)) {
       var result = session.getMapper(NameUsageMapper.class).listByCanonNIDX(nidx.getDatasetKey(), nidx.getId());
       // avoid empty lists which get cached
-      return result == null || result.isEmpty() ? null : result;
+      return result == null || result.isEmpty() ? null : new CopyOnWriteArrayList<>(result);
     }
   }
 
@@ -102,18 +109,27 @@ public class UsageMatcherGlobal {
   }
 
   /**
-   * Registers a usage loader for the specific dataset to be used instead of the default one which opens a new database session each time
+   * Registers a usage loader for the specific dataset to be used instead of the default one which opens a new database session each time.
+   * The loader is only used for matches done by the calling thread,
+   * so concurrent merges into the same dataset can each use their own, not thread safe session.
    * @param datasetKey
    * @param loader
    */
   public void registerLoader(int datasetKey, CacheLoader loader) {
     LOG.info("Registering new usage loader for dataset {}: {}", datasetKey, loader.getClass());
-    loaders.put(datasetKey, loader);
+    loaders.put(loaderKey(datasetKey), loader);
   }
 
+  /**
+   * Removes the usage loader the calling thread has registered for the dataset.
+   */
   public void removeLoader(int datasetKey) {
     LOG.info("Remove usage loader for dataset {}", datasetKey);
-    loaders.remove(datasetKey);
+    loaders.remove(loaderKey(datasetKey));
+  }
+
+  private static DSID<Long> loaderKey(int datasetKey) {
+    return DSID.of(datasetKey, Thread.currentThread().getId());
   }
 
   /**
@@ -192,6 +208,93 @@ public class UsageMatcherGlobal {
     return null;
   }
 
+  /**
+   * Prefetches match candidates and their classifications for many usages at once,
+   * using a few set based queries instead of one query per usage and parent.
+   * Only usages with an existing names index match are considered, all others are matched one by one as before.
+   *
+   * Canonical names index ids without any existing usage are cached as empty lists,
+   * so they do not get queried again when being matched.
+   * These keys are returned and should be released with {@link #releasePrefetched(Collection)} once the usages have been matched.
+   *
+   * @param datasetKey the target dataset to prefetch candidates from
+   * @param nus usages to be matched soon
+   * @param session the session to query with. Use the session writing to the target to see records not yet committed
+   * @return keys of the cached empty candidate lists
+   */
+  public Set<DSID<Integer>> prefetch(int datasetKey, Collection<? extends NameUsageBase> nus, SqlSession session) {
+    Set<Integer> canonIds = new HashSet<>();
+    for (var nu : nus) {
+      var n = nu.getName();
+      if (n.getNamesIndexId() != null && n.getNamesIndexType() != null && n.getNamesIndexType() != MatchType.NONE) {
+        var xn = nameIndex.get(n.getNamesIndexId());
+        if (xn != null && xn.getCanonicalId() != null
+            && usages.getIfPresent(new CanonNidxMatch(datasetKey, xn.getCanonicalId(), MatchType.EXACT)) == null) {
+          canonIds.add(xn.getCanonicalId());
+        }
+      }
+    }
+    if (canonIds.isEmpty()) {
+      return Collections.emptySet();
+    }
+
+    final var num = session.getMapper(NameUsageMapper.class);
+    Map<Integer, List<SimpleNameCached>> candidates = new HashMap<>();
+    for (var batch : Iterables.partition(canonIds, PREFETCH_BATCH_SIZE)) {
+      for (var sn : num.listByCanonNIDXs(datasetKey, batch)) {
+        candidates.computeIfAbsent(sn.getCanonicalId(), k -> new ArrayList<>()).add(sn);
+      }
+    }
+    Set<DSID<Integer>> empty = new HashSet<>();
+    for (Integer id : canonIds) {
+      var key = new CanonNidxMatch(datasetKey, id, MatchType.EXACT);
+      var list = candidates.get(id);
+      if (list == null) {
+        empty.add(key);
+      }
+      usages.put(key, list == null ? new CopyOnWriteArrayList<>() : new CopyOnWriteArrayList<>(list));
+    }
+
+    // load the classifications of all candidates level by level
+    Set<String> visited = new HashSet<>();
+    Set<String> parentIds = new HashSet<>();
+    for (var list : candidates.values()) {
+      for (var sn : list) {
+        addUncachedParent(datasetKey, sn, parentIds, visited);
+      }
+    }
+    int parentCounter = 0;
+    while (!parentIds.isEmpty()) {
+      Set<String> next = new HashSet<>();
+      for (var batch : Iterables.partition(parentIds, PREFETCH_BATCH_SIZE)) {
+        for (var p : num.listSimplePub(datasetKey, batch)) {
+          uCache.put(datasetKey, p);
+          parentCounter++;
+          addUncachedParent(datasetKey, p, next, visited);
+        }
+      }
+      parentIds = next;
+    }
+    LOG.debug("Prefetched candidates for {} canonical names index ids and {} parents in dataset {}", canonIds.size(), parentCounter, datasetKey);
+    return empty;
+  }
+
+  private void addUncachedParent(int datasetKey, SimpleNameCached sn, Set<String> parentIds, Set<String> visited) {
+    if (sn.getParent() != null && visited.add(sn.getParent()) && !uCache.contains(DSID.of(datasetKey, sn.getParent()))) {
+      parentIds.add(sn.getParent());
+    }
+  }
+
+  /**
+   * Removes prefetched candidate lists from the cache which are still empty.
+   * @param keys as returned by prefetch
+   */
+  public void releasePrefetched(Collection<DSID<Integer>> keys) {
+    for (var key : keys) {
+      usages.asMap().computeIfPresent(key, (k, list) -> list.isEmpty() ? null : list);
+    }
+  }
+
   public void invalidate(int targetDatasetKey, Integer canonicalId) {
     usages.invalidate(new CanonNidxMatch(targetDatasetKey, canonicalId, MatchType.EXACT));
   }
@@ -309,7 +412,7 @@ public class UsageMatcherGlobal {
     }
 
     // from here on we need the classification of all candidates
-    var loader = loaders.getOrDefault(datasetKey, defaultLoader);
+    var loader = loaders.getOrDefault(loaderKey(datasetKey), defaultLoader);
     final var existingWithCl = existing.stream()
                                  .map(ex -> uCache.withClassification(datasetKey, ex, loader))
                                  .collect(Collectors.toList());
@@ -576,9 +679,8 @@ public class UsageMatcherGlobal {
     if (canonNidx.hasNidx()) {
       var before = usages.get(canonNidx);
       if (before == null) {
-        // nothing existing, even after loading the cache from the db. Create a new list
-        before = new ArrayList<>();
-        usages.put(canonNidx, before);
+        // nothing existing, even after loading the cache from the db. Create a new list unless another thread just did
+        before = usages.asMap().computeIfAbsent(canonNidx, k -> new CopyOnWriteArrayList<>());
       }
       var sn = new SimpleNameCached(nu, canonNidx.getId());
       before.add(sn);
@@ -4,9 +4,11 @@ import life.catalogue.api.model.*;
 import life.catalogue.api.vocab.DatasetOrigin;
 import life.catalogue.api.vocab.ImportState;
 import life.catalogue.api.vocab.Setting;
+import life.catalogue.common.date.DateUtils;
 import life.catalogue.common.lang.Exceptions;
 import life.catalogue.common.util.LoggingUtils;
 import life.catalogue.concurrent.DatasetBlockingJob;
+import life.catalogue.concurrent.DatasetLock;
 import life.catalogue.concurrent.JobPriority;
 import life.catalogue.dao.DaoUtils;
 import life.catalogue.dao.DatasetDao;
@@ -16,8 +18,12 @@ import life.catalogue.db.CopyDataset;
 import life.catalogue.db.mapper.*;
 import life.catalogue.es.NameUsageIndexService;
 
+import java.io.File;
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
 
+import javax.annotation.Nullable;
 import javax.validation.Validator;
 
 import org.apache.commons.lang3.time.DurationFormatUtils;
@@ -51,9 +57,37 @@ public abstract class AbstractProjectCopy extends DatasetBlockingJob {
   protected boolean mapIds;
   protected DatasetSettings settings;
   private final boolean deleteOnError;
+  // number of tables copied concurrently
+  protected int copyThreads = 1;
+  // the executed copy plan with row counts and durations, null before data was copied
+  protected CopyPlan copiedTables;
+  // persisted progress to resume from, null if checkpointing is disabled
+  protected final ReleaseCheckpoint checkpoint;
+  // failed dataset of a discarded checkpoint to be removed by the job
+  private Integer discardedDatasetKey;
+  private boolean finished = false;
+  // all tables copied from the project, see copyPlan()
+  private static final List<String> COPIED_TABLES = List.of(
+    "sector", "decision", "estimate", "sector_publisher",
+    "verbatim", "reference", "name", "name_match", "name_rel", "type_material",
+    "name_usage", "verbatim_source", "vernacular_name", "distribution", "treatment", "media"
+  );
 
   public AbstractProjectCopy(String actionName, SqlSessionFactory factory, DatasetImportDao diDao, DatasetDao dDao, NameUsageIndexService indexService, Validator validator,
                              int userKey, int datasetKey, boolean mapIds, boolean deleteOnError) {
+    this(actionName, factory, diDao, dDao, indexService, validator, userKey, datasetKey, mapIds, deleteOnError, null, datasetKey, false);
+  }
+
+  /**
+   * @param checkpointDir directory to persist the jobs progress in. Null disables checkpoints.
+   * @param sourceKey the dataset the copy is based on, the project itself or a release of it
+   * @param resume if true and an earlier failed job of the same kind left a checkpoint for the same source,
+   *               its release dataset and attempt are reused and completed phases are skipped.
+   *               Any other checkpoint left behind is discarded together with its failed dataset if deleteOnError is set.
+   *               The project data is compared and the failed dataset removed only once the job runs, see initCheckpoint().
+   */
+  public AbstractProjectCopy(String actionName, SqlSessionFactory factory, DatasetImportDao diDao, DatasetDao dDao, NameUsageIndexService indexService, Validator validator,
+                             int userKey, int datasetKey, boolean mapIds, boolean deleteOnError, @Nullable File checkpointDir, int sourceKey, boolean resume) {
     super(datasetKey, userKey, JobPriority.HIGH);
     DaoUtils.requireManaged(datasetKey, "Only managed datasets can be duplicated.");
     this.logToFile = true;
@@ -68,15 +102,111 @@ public abstract class AbstractProjectCopy extends DatasetBlockingJob {
     this.user = userKey;
     this.mapIds = mapIds;
     this.datasetKey = datasetKey;
-    metrics = diDao.createWaiting(datasetKey, this, userKey);
-    metrics.setJob(getClass().getSimpleName());
-    attempt = metrics.getAttempt();
-    newDataset = dDao.copy(datasetKey, userKey, this::modifyDataset);
+    ReleaseCheckpoint cp = checkpointDir == null ? null : ReleaseCheckpoint.load(checkpointDir, datasetKey, getClass());
+    boolean checkpoints = checkpointDir != null;
+    DatasetImport resumed = null;
+    Dataset resumedDataset = null;
+    if (cp != null && DatasetLock.isLocked(datasetKey).isPresent()) {
+      // the checkpoint might belong to the job currently running, leave it untouched
+      LOG.warn("Project {} is locked by another job. Continue without checkpoints", datasetKey);
+      checkpoints = false;
+      cp = null;
+
+    } else if (cp != null) {
+      resumed = diDao.getAttempt(datasetKey, cp.attempt);
+      String reason = cp.discardReason(resumed, resume, sourceKey);
+      if (reason == null) {
+        resumedDataset = dDao.get(cp.datasetKey);
+        if (resumedDataset == null || resumedDataset.hasDeletedDate()) {
+          reason = "its dataset was deleted";
+        }
+      }
+      if (reason != null) {
+        LOG.info("Discard checkpoint {} as {}", cp, reason);
+        cp.delete();
+        if (deleteOnError && resumed != null && resumed.getState() == ImportState.FAILED) {
+          discardedDatasetKey = cp.datasetKey;
+        }
+        cp = null;
+      }
+    }
+    if (cp != null) {
+      LOG.info("Resume {}", cp);
+      metrics = resumed;
+      metrics.setJob(getClass().getSimpleName());
+      metrics.setState(ImportState.WAITING);
+      metrics.setError(null);
+      attempt = metrics.getAttempt();
+      newDataset = resumedDataset;
+    } else {
+      if (resume) {
+        LOG.info("No resumable {} found for project {}, start a new one", getClass().getSimpleName(), datasetKey);
+      }
+      metrics = diDao.createWaiting(datasetKey, this, userKey);
+      metrics.setJob(getClass().getSimpleName());
+      attempt = metrics.getAttempt();
+      newDataset = dDao.copy(datasetKey, userKey, this::modifyDataset);
+      if (checkpoints) {
+        cp = ReleaseCheckpoint.create(checkpointDir, datasetKey, sourceKey, newDataset.getKey(), attempt, null, getClass());
+      }
+    }
+    checkpoint = cp;
     newDatasetKey = newDataset.getKey();
     newDatasetOrigin = newDataset.getOrigin();
     LoggingUtils.setDatasetMDC(datasetKey, attempt, getClass());
   }
 
+  /**
+   * @return a fingerprint of the project data that changes with every insert, update or deletion in any of the copied tables
+   */
+  static String fingerprint(SqlSessionFactory factory, int projectKey) {
+    try (SqlSession session = factory.openSession(true)) {
+      var dpm = session.getMapper(DatasetPartitionMapper.class);
+      return COPIED_TABLES.stream()
+        .map(t -> dpm.tableFingerprint(t, projectKey))
+        .collect(Collectors.joining("|"));
+    }
+  }
+
+  /**
+   * Removes the failed dataset of a discarded checkpoint and compares the project data with the one a resumed checkpoint was created for.
+   * If the project was modified since, all data of the resumed dataset is removed and the job starts from scratch reusing dataset and attempt.
+   * Both can take a while for large projects and are therefore done by the job and not when it is created.
+   */
+  private void initCheckpoint() throws InterruptedException {
+    if (discardedDatasetKey != null) {
+      var failed = dDao.get(discardedDatasetKey);
+      if (failed != null && !failed.hasDeletedDate()) {
+        LOG.info("Remove failed {} dataset {} of project {} kept for resuming", actionName, discardedDatasetKey, datasetKey);
+        dDao.delete(discardedDatasetKey, user);
+      }
+    }
+    if (checkpoint != null) {
+      checkIfCancelled();
+      final String fingerprint = fingerprint(factory, datasetKey);
+      if (checkpoint.isResumed() && checkpoint.isModified(fingerprint)) {
+        LOG.info("Project {} was modified since {}. Remove all data from dataset {} and start from scratch", datasetKey, checkpoint, newDatasetKey);
+        deleteCopiedData();
+        checkpoint.reset(fingerprint);
+      } else if (!checkpoint.isResumed()) {
+        checkpoint.reset(fingerprint);
+      }
+    }
+  }
+
+  /**
+   * Removes all data copied or created by an earlier job from the new dataset.
+   */
+  private void deleteCopiedData() {
+    try (SqlSession session = factory.openSession(true)) {
+      dDao.deleteData(newDatasetKey, session);
+      session.getMapper(SectorImportMapper.class).deleteByDataset(newDatasetKey);
+      session.getMapper(DecisionMapper.class).deleteByDataset(newDatasetKey);
+      session.getMapper(SectorMapper.class).deleteByDataset(newDatasetKey);
+      session.getMapper(PublisherMapper.class).deleteByDataset(newDatasetKey);
+    }
+  }
+
   protected void modifyDataset(Dataset d, DatasetSettings ds) {
     d.setAlias(null); // must be unique
     d.setGbifKey(null); // must be unique
@@ -111,6 +241,7 @@ public abstract class AbstractProjectCopy extends DatasetBlockingJob {
   public void runWithLock() throws Exception {
     checkIfCancelled();
     LOG.info("{} project {} to new dataset {}", actionName, datasetKey, getNewDatasetKey());
+    initCheckpoint();
     // prepare new tables
     updateState(ImportState.PROCESSING);
 
@@ -119,8 +250,8 @@ public abstract class AbstractProjectCopy extends DatasetBlockingJob {
       session.getMapper(DatasetPartitionMapper.class).createSequences(newDatasetKey);;
     }
 
-    // is an id mapping table needed?
-    if (mapIds) {
+    // is an id mapping table needed? Keep the existing one when resuming after the ids were mapped
+    if (mapIds && !isDone(ReleaseCheckpoint.Phase.ID_MAPPING)) {
       checkIfCancelled();
       LOG.info("Create clean id mapping tables for project {}", datasetKey);
       try (SqlSession session = factory.openSession(true)) {
@@ -143,7 +274,10 @@ public abstract class AbstractProjectCopy extends DatasetBlockingJob {
 
     // copy data
     checkIfCancelled();
-    copyData();
+    if (!isDone(ReleaseCheckpoint.Phase.COPY)) {
+      copyData();
+      done(ReleaseCheckpoint.Phase.COPY);
+    }
 
     // subclass specifics
     checkIfCancelled();
@@ -172,16 +306,38 @@ public abstract class AbstractProjectCopy extends DatasetBlockingJob {
     }
 
     metrics.setState(ImportState.FINISHED);
+    finished = true;
+    if (checkpoint != null) {
+      checkpoint.delete();
+    }
     LOG.info("Successfully finished {} project {} into dataset {}", actionName,  datasetKey, newDatasetKey);
   }
 
+  /**
+   * @return true if the phase was completed by an earlier job that is now resumed
+   */
+  boolean isDone(ReleaseCheckpoint.Phase phase) {
+    return checkpoint != null && checkpoint.isDone(phase);
+  }
+
+  /**
+   * Marks a phase as completed so a resumed job can skip it.
+   */
+  void done(ReleaseCheckpoint.Phase phase) {
+    if (checkpoint != null) {
+      checkpoint.done(phase);
+    }
+  }
+
   @Override
   protected void onError(Exception e) {
     metrics.setState(ImportState.FAILED);
     metrics.setError(Exceptions.getFirstMessage(e));
     LOG.error("Error {} project {} into dataset {}", actionName, datasetKey, newDatasetKey, e);
     // cleanup failed remains?
-    if (deleteOnError) {
+    if (checkpoint != null) {
+      LOG.info("Keep failed {} dataset {} aka {}-{} to be resumed from {}", actionName, newDatasetKey, datasetKey, metrics.attempt(), checkpoint);
+    } else if (deleteOnError) {
       LOG.info("Remove failed {} dataset {} aka {}-{}", actionName, newDatasetKey, datasetKey, metrics.attempt(), e);
       dDao.delete(newDatasetKey, user);
     }
@@ -194,6 +350,16 @@ public abstract class AbstractProjectCopy extends DatasetBlockingJob {
     // cleanup failed remains
     LOG.info("Remove failed {} dataset {} aka {}-{}", actionName, newDatasetKey, datasetKey, metrics.attempt());
     dDao.delete(newDatasetKey, user);
+    if (checkpoint != null) {
+      checkpoint.delete();
+    }
+  }
+
+  /**
+   * @return true if the job failed with a checkpoint kept to be resumed later
+   */
+  boolean isResumable() {
+    return checkpoint != null && !finished && metrics.getState() == ImportState.FAILED;
   }
 
   @Override
@@ -201,7 +367,10 @@ public abstract class AbstractProjectCopy extends DatasetBlockingJob {
     metrics.setFinished(LocalDateTime.now());
     LOG.info("{} took {}", getClass().getSimpleName(), DurationFormatUtils.formatDuration(metrics.getDuration(), "HH:mm:ss"));
     diDao.update(metrics);
-    if (mapIds) {
+    if (mapIds && isResumable() && !checkpoint.isDone(ReleaseCheckpoint.Phase.COPY)) {
+      LOG.info("Keep id mapping tables for project {} to resume copying data", datasetKey);
+
+    } else if (mapIds) {
       LOG.info("Remove id mapping tables for project {}", datasetKey);
       try (SqlSession session = factory.openSession(true)) {
         DatasetPartitionMapper dmp = session.getMapper(DatasetPartitionMapper.class);
@@ -226,32 +395,62 @@ public abstract class AbstractProjectCopy extends DatasetBlockingJob {
     diDao.update(metrics);
   }
 
-  private void copyData() throws InterruptedException {
-    LOG.info("Copy data into dataset {}", newDatasetKey);
-    updateState(ImportState.INSERTING);
-    try (SqlSession session = factory.openSession(true)) {
-      copyTable(Sector.class, SectorMapper.class, session);
-      copyTable(EditorialDecision.class, DecisionMapper.class, session);
-      copyTable(SpeciesEstimate.class, EstimateMapper.class, session);
-      copyTable(Publisher.class, PublisherMapper.class, session);
+  /**
+   * @return the plan of all tables to be copied with their foreign key dependencies, in the order of a serial copy
+   */
+  static CopyPlan copyPlan() {
+    return new CopyPlan()
+      .add(Sector.class, SectorMapper.class)
+      .add(EditorialDecision.class, DecisionMapper.class)
+      .add(SpeciesEstimate.class, EstimateMapper.class)
+      .add(Publisher.class, PublisherMapper.class)
 
-      copyTable(VerbatimRecord.class, VerbatimRecordMapper.class, session);
+      .add(VerbatimRecord.class, VerbatimRecordMapper.class)
 
-      copyTable(Reference.class, ReferenceMapper.class, session);
+      .add(Reference.class, ReferenceMapper.class, VerbatimRecord.class, Sector.class)
 
-      copyTable(Name.class, NameMapper.class, session);
-      copyTable(NameMatch.class, NameMatchMapper.class, session);
-      copyTable(NameRelation.class, NameRelationMapper.class, session);
-      copyTable(TypeMaterial.class, TypeMaterialMapper.class, session);
+      .add(Name.class, NameMapper.class, VerbatimRecord.class, Sector.class, Reference.class)
+      .add(NameMatch.class, NameMatchMapper.class, Sector.class, Name.class)
+      .add(NameRelation.class, NameRelationMapper.class, VerbatimRecord.class, Sector.class, Reference.class, Name.class)
+      .add(TypeMaterial.class, TypeMaterialMapper.class, VerbatimRecord.class, Sector.class, Reference.class, Name.class)
 
-      copyTable(NameUsage.class, NameUsageMapper.class, session);
-      copyTable(VerbatimSource.class, VerbatimSourceMapper.class, session);
+      .add(NameUsage.class, NameUsageMapper.class, VerbatimRecord.class, Sector.class, Reference.class, Name.class)
+      .add(VerbatimSource.class, VerbatimSourceMapper.class, NameUsage.class)
 
-      copyTable(VernacularName.class, VernacularNameMapper.class, session);
-      copyTable(Distribution.class, DistributionMapper.class, session);
-      copyTable(Treatment.class, TreatmentMapper.class, session);
-      copyTable(Media.class, MediaMapper.class, session);
+      .add(VernacularName.class, VernacularNameMapper.class, VerbatimRecord.class, Sector.class, Reference.class, NameUsage.class)
+      .add(Distribution.class, DistributionMapper.class, VerbatimRecord.class, Sector.class, Reference.class, NameUsage.class)
+      .add(Treatment.class, TreatmentMapper.class, VerbatimRecord.class, Sector.class, NameUsage.class)
+      .add(Media.class, MediaMapper.class, VerbatimRecord.class, Sector.class, Reference.class, NameUsage.class);
+  }
+
+  /**
+   * Copies all tables, each in its own session.
+   * Tables without foreign key dependencies between them are copied concurrently if more than one copy thread is configured.
+   */
+  private void copyData() throws InterruptedException {
+    LOG.info("Copy data into dataset {} using {} threads", newDatasetKey, copyThreads);
+    updateState(ImportState.INSERTING);
+    final LocalDateTime start = LocalDateTime.now();
+    copiedTables = copyPlan();
+    copiedTables.execute(copyThreads, (entity, mapperClass) -> {
+      // each table is copied with a single statement, so tables are either copied completely or not at all
+      if (checkpoint != null && checkpoint.isCopied(entity.getSimpleName())) {
+        LOG.info("Skip {}s already copied into dataset {}", entity.getSimpleName(), newDatasetKey);
+        return 0;
+      }
+      int count;
+      try (SqlSession session = factory.openSession(true)) {
+        count = copyTable(entity, mapperClass, session);
+      }
+      if (checkpoint != null) {
+        checkpoint.copied(entity.getSimpleName());
+      }
+      return count;
+    });
+    for (CopyPlan.Table t : copiedTables.tables()) {
+      LOG.info("Copied {} {}s in {}ms", t.getCount(), t.entity.getSimpleName(), t.getDuration().toMillis());
     }
+    DateUtils.logDuration(LOG, "Copying data", start);
   }
 
   void updateState(ImportState state) throws InterruptedException {
@@ -272,9 +471,13 @@ public abstract class AbstractProjectCopy extends DatasetBlockingJob {
     indexService.indexDataset(newDatasetKey);
   }
 
-  <M extends CopyDataset> void copyTable(Class entity, Class<M> mapperClass, SqlSession session){
+  /**
+   * @return number of copied records
+   */
+  <M extends CopyDataset> int copyTable(Class entity, Class<M> mapperClass, SqlSession session){
     int count = session.getMapper(mapperClass).copyDataset(datasetKey, newDatasetKey, mapIds);
     LOG.info("Copied {} {}s from {} to {}", count, entity.getSimpleName(), datasetKey, newDatasetKey);
+    return count;
   }
 
 }
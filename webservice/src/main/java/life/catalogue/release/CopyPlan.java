@@ -0,0 +1,129 @@
+package life.catalogue.release;
+
+import life.catalogue.common.lang.Exceptions;
+import life.catalogue.concurrent.ExecutorUtils;
+import life.catalogue.concurrent.NamedThreadFactory;
+import life.catalogue.db.CopyDataset;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Plans the copy of all dataset tables, respecting foreign key constraints between them.
+ * A table is only copied once all tables it depends on have been copied,
+ * all other tables are copied concurrently using a given number of threads.
+ * The row count and duration of each copied table is recorded.
+ */
+class CopyPlan {
+  private static final Logger LOG = LoggerFactory.getLogger(CopyPlan.class);
+  private final Map<Class<?>, Table> tables = new LinkedHashMap<>();
+
+  /**
+   * Copies a single table, usually in a new session.
+   */
+  @FunctionalInterface
+  interface TableCopier {
+    /**
+     * @return number of copied records
+     */
+    int copy(Class<?> entity, Class<? extends CopyDataset> mapperClass);
+  }
+
+  static class Table {
+    final Class<?> entity;
+    final Class<? extends CopyDataset> mapperClass;
+    final List<Table> dependencies;
+    private int count;
+    private Duration duration;
+
+    Table(Class<?> entity, Class<? extends CopyDataset> mapperClass, List<Table> dependencies) {
+      this.entity = entity;
+      this.mapperClass = mapperClass;
+      this.dependencies = dependencies;
+    }
+
+    public int getCount() {
+      return count;
+    }
+
+    /**
+     * @return time it took to copy the table or null if it was not copied
+     */
+    public Duration getDuration() {
+      return duration;
+    }
+
+    private void copy(TableCopier copier) {
+      final long start = System.currentTimeMillis();
+      count = copier.copy(entity, mapperClass);
+      duration = Duration.ofMillis(System.currentTimeMillis() - start);
+    }
+  }
+
+  /**
+   * Adds a table to be copied after the given, already added tables.
+   * Tables must therefore be added in a valid order, which is also the order of a serial copy.
+   */
+  CopyPlan add(Class<?> entity, Class<? extends CopyDataset> mapperClass, Class<?>... dependsOn) {
+    List<Table> deps = new ArrayList<>();
+    for (Class<?> d : dependsOn) {
+      if (!tables.containsKey(d)) {
+        throw new IllegalArgumentException(entity.getSimpleName() + " depends on " + d.getSimpleName() + " which was not added before");
+      }
+      deps.add(tables.get(d));
+    }
+    tables.put(entity, new Table(entity, mapperClass, deps));
+    return this;
+  }
+
+  Collection<Table> tables() {
+    return tables.values();
+  }
+
+  /**
+   * Copies all tables.
+   * @param threads number of tables to copy concurrently. A single thread copies all tables in the order they were added.
+   */
+  void execute(int threads, TableCopier copier) throws InterruptedException {
+    if (threads <= 1) {
+      for (Table t : tables.values()) {
+        Exceptions.interruptIfCancelled();
+        t.copy(copier);
+      }
+      return;
+    }
+
+    ExecutorService exec = Executors.newFixedThreadPool(threads, new NamedThreadFactory("table-copy", Thread.NORM_PRIORITY, true));
+    try {
+      final Map<Table, CompletableFuture<Void>> futures = new HashMap<>();
+      for (Table t : tables.values()) {
+        CompletableFuture<?>[] deps = t.dependencies.stream()
+          .map(futures::get)
+          .toArray(CompletableFuture[]::new);
+        futures.put(t, CompletableFuture.allOf(deps).thenRunAsync(() -> t.copy(copier), exec));
+      }
+      CompletableFuture.allOf(futures.values().toArray(CompletableFuture[]::new)).get();
+
+    } catch (InterruptedException e) {
+      exec.shutdownNow();
+      throw e;
+
+    } catch (ExecutionException e) {
+      LOG.error("Failed to copy tables", e.getCause());
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw new RuntimeException(e.getCause());
+
+    } finally {
+      ExecutorUtils.shutdown(exec);
+    }
+  }
+}
@@ -74,7 +74,7 @@ public class IdProvider {
   private final Integer lastReleaseKey;
   private final SqlSessionFactory factory;
   private final ReleaseConfig cfg;
-  private final ReleasedIds ids = new ReleasedIds();
+  private ReleasedIds ids = new ReleasedIds();
   private final Int2IntBiMap dataset2attempt = new Int2IntBiMap();
   private final List<Integer> ignoredReleases;
   private final List<Integer> additionalReleases;
@@ -86,6 +86,7 @@ public class IdProvider {
   private Int2IntMap deleted = new Int2IntOpenHashMap(); // maps to release attempt for reporting!
   private Int2IntMap resurrected = new Int2IntOpenHashMap(); // maps to release attempt for reporting!
   private final SortedMap<String, List<InstableName>> unstable = new TreeMap<>();
+  private final MappingStats mappingStats = new MappingStats();
   protected IdMapMapper idm;
   protected NameUsageMapper num;
   protected NameMatchMapper nmm;
@@ -220,6 +221,10 @@ public class IdProvider {
           entry.getValue().forEach(n -> writeInstableName(writer, n));
         }
       }
+      try (Writer writer = UTF8IoUtils.writerFromFile(new File(dir, "id-mapping.txt"))) {
+        writer.write(mappingStats.toString());
+        writer.write('\n');
+      }
     } catch (IOException e) {
       LOG.error("Failed to write ID reports for project "+projectKey, e);
     }
@@ -383,10 +388,46 @@ public class IdProvider {
     }
   }
 
+  /**
+   * Timings and sizes of the id mapping phase.
+   */
+  static class MappingStats {
+    long duration;
+    int groups;
+    int maxNames;
+    int maxCandidates;
+    long names;
+    long candidates;
+    long pairs;
+    long scoringNanos;
+
+    void add(int names, int candidates, int pairs, long nanos) {
+      groups++;
+      this.names += names;
+      this.candidates += candidates;
+      this.pairs += pairs;
+      scoringNanos += nanos;
+      if ((long) names * candidates > (long) maxNames * maxCandidates) {
+        maxNames = names;
+        maxCandidates = candidates;
+      }
+    }
+
+    @Override
+    public String toString() {
+      return String.format("ID mapping took %sms. Scored %s groups of %s names against %s released ids in %sms, keeping %s matching pairs. Largest group: %s names x %s ids",
+        duration, groups, names, candidates, scoringNanos / 1000000, pairs, maxNames, maxCandidates);
+    }
+  }
+
   /**
    * Loads all ever issued identifiers for this project, preferring the latest version of any id.
    * It starts by loading the entire last public release and then adds on all archived names that have been used in earlier releases,
    * even if their dataset has been deleted by now.
+   *
+   * Finished releases do not change anymore, so the ids of the last and additional releases are persisted in an index file if configured
+   * and read from there as long as the last public release stays the same.
+   * The archive is updated when releases become public and is therefore always loaded from the database.
    */
   @VisibleForTesting
   protected void loadPreviousReleaseIds(){
@@ -398,20 +439,23 @@ public class IdProvider {
     try (SqlSession session = factory.openSession(true)) {
       final LoadStats stats = new LoadStats();
 
-      // load entire last release
-      PgUtils.consume(
-        () -> session.getMapper(NameUsageMapper.class).processNxIds(lastReleaseKey),
-        sn -> addReleaseId(lastReleaseKey, sn, stats)
-      );
-      LOG.info("Read {} from last release {}. Total ids={}", stats, lastReleaseKey, ids.size());
-
-      // load additional releases if configured
-      for (int dk : additionalReleases) {
+      if (!readIndex()) {
+        // load entire last release
         PgUtils.consume(
-          () -> session.getMapper(NameUsageMapper.class).processNxIds(dk),
-          sn -> addReleaseId(dk, sn, stats)
+          () -> session.getMapper(NameUsageMapper.class).processNxIds(lastReleaseKey),
+          sn -> addReleaseId(lastReleaseKey, sn, stats)
         );
-        LOG.info("Read {} from past release {}. Total ids={}", stats, lastReleaseKey, ids.size());
+        LOG.info("Read {} from last release {}. Total ids={}", stats, lastReleaseKey, ids.size());
+
+        // load additional releases if configured
+        for (int dk : additionalReleases) {
+          PgUtils.consume(
+            () -> session.getMapper(NameUsageMapper.class).processNxIds(dk),
+            sn -> addReleaseId(dk, sn, stats)
+          );
+          LOG.info("Read {} from past release {}. Total ids={}", stats, lastReleaseKey, ids.size());
+        }
+        writeIndex();
       }
 
       // always also include the archived names if they have not been processed before yet
@@ -426,6 +470,62 @@ public class IdProvider {
     }
   }
 
+  /**
+   * A fingerprint of the configuration that influences which ids are loaded.
+   */
+  private int indexFingerprint() {
+    return Objects.hash(ignoredReleases, additionalReleases);
+  }
+
+  private ReleasedIdsIndex.Header indexHeader() {
+    return new ReleasedIdsIndex.Header(projectKey, lastReleaseKey, dataset2attempt.getValue(lastReleaseKey), indexFingerprint());
+  }
+
+  /**
+   * Tries to read the ids of the last public and all additional releases from the persisted index.
+   * @return true if the index existed and was read successfully
+   */
+  private boolean readIndex() {
+    if (cfg.idIndexDir == null) {
+      return false;
+    }
+    File f = ReleasedIdsIndex.file(cfg.idIndexDir, projectKey, lastReleaseKey);
+    if (!f.exists()) {
+      LOG.info("No released ids index existing for last release {}", lastReleaseKey);
+      return false;
+    }
+    ReleasedIds indexed = new ReleasedIds();
+    try {
+      int count = ReleasedIdsIndex.read(f, indexHeader(), indexed);
+      if (count >= 0) {
+        ids = indexed;
+        LOG.info("Read {} previous ids from released ids index {}", count, f);
+        return true;
+      }
+    } catch (IOException | RuntimeException e) {
+      LOG.warn("Failed to read released ids index {}. Load ids from the database instead", f, e);
+    }
+    return false;
+  }
+
+  /**
+   * Persists the ids just loaded from the last public and all additional releases,
+   * so following releases can read them from the index as long as the last public release stays the same.
+   * All these releases are finished and contain every id issued by them, including ids issued while merging.
+   */
+  private void writeIndex() {
+    if (cfg.idIndexDir == null) {
+      return;
+    }
+    File f = ReleasedIdsIndex.file(cfg.idIndexDir, projectKey, lastReleaseKey);
+    try {
+      ReleasedIdsIndex.write(f, indexHeader(), ids.values());
+    } catch (IOException | RuntimeException e) {
+      LOG.error("Failed to write released ids index {}", f, e);
+      f.delete();
+    }
+  }
+
   @VisibleForTesting
   protected void addReleaseId(int releaseDatasetKey, SimpleNameWithNidx sn, LoadStats stats){
     stats.counter.incrementAndGet();
@@ -461,6 +561,7 @@ public class IdProvider {
   @VisibleForTesting
   protected void mapIds(Iterable<SimpleNameWithNidx> names){
     LOG.info("Map name usage IDs");
+    final long start = System.currentTimeMillis();
     final int lastRelIds = ids.maxAttemptIdCount();
     AtomicInteger counter = new AtomicInteger();
     try (SqlSession writeSession = factory.openSession(false);
@@ -492,6 +593,8 @@ public class IdProvider {
     // ids remaining from the current attempt will be deleted
     deleted = ids.maxAttemptIds();
     reused = lastRelIds - deleted.size();
+    mappingStats.duration = System.currentTimeMillis() - start;
+    LOG.info(mappingStats.toString());
     LOG.info("Done mapping name usage IDs. {} ids from the last release will be deleted, {} have been reused.", deleted.size(), reused);
   }
 
@@ -559,19 +662,13 @@ public class IdProvider {
       // how many released ids do exist for this names index id?
       ReleasedId[] rids = ids.byNxId(nidx);
       if (rids != null) {
-        IntSet ids = new IntOpenHashSet();
+        final long start = System.nanoTime();
         ScoreMatrix scores = new ScoreMatrix(names, rids, IdProvider::matchScore);
-        List<ScoreMatrix.ReleaseMatch> best = scores.highest();
-        while (!best.isEmpty()) {
-          // best is sorted, issue as they come but avoid already released ids
-          for (ScoreMatrix.ReleaseMatch m : best) {
-            if (!ids.contains(m.rid.id)) {
-              release(m, scores);
-              ids.add(m.rid.id);
-            }
-          }
-          best = scores.highest();
+        // assigned matches are distinct in names and ids
+        for (ScoreMatrix.ReleaseMatch m : scores.assign()) {
+          release(m);
         }
+        mappingStats.add(names.size(), rids.length, scores.size(), System.nanoTime() - start);
       }
       // persist mappings, issuing new ids for missing ones
       for (SimpleNameWithNidx sn : names) {
@@ -585,7 +682,7 @@ public class IdProvider {
     }
   }
 
-  private void release(ScoreMatrix.ReleaseMatch rm, ScoreMatrix scores){
+  private void release(ScoreMatrix.ReleaseMatch rm){
     if (!ids.containsId(rm.rid.id)) {
       throw new IllegalArgumentException("Cannot release " + rm.rid.id + " which does not exist (anymore)");
     }
@@ -594,7 +691,30 @@ public class IdProvider {
     if (rm.rid.attempt < ids.getMaxAttempt()) {
       resurrected.put(rm.rid.id, rm.rid.attempt);
     }
-    scores.remove(rm);
+  }
+
+  /**
+   * Marks ids as already in use, e.g. when a resumed release issued them before.
+   * Reserved ids are never released again and new ids are issued after the largest of them.
+   * Temporary identifiers which are no stable ids are ignored.
+   * @return number of reserved ids
+   */
+  protected int reserve(Iterable<String> usageIDs) {
+    int count = 0;
+    for (String id : usageIDs) {
+      int key;
+      try {
+        key = IdConverter.LATIN29.decode(id);
+      } catch (IllegalArgumentException e) {
+        continue;
+      }
+      if (ids.containsId(key)) {
+        ids.remove(key);
+      }
+      keySequence.accumulateAndGet(key, Math::max);
+      count++;
+    }
+    return count;
   }
 
   private void issueNewId(SimpleNameWithNidx n) {
@@ -0,0 +1,100 @@
+package life.catalogue.release;
+
+import life.catalogue.api.vocab.TaxGroup;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+import javax.annotation.Nullable;
+
+/**
+ * Conflict graph of merge sectors given in priority order.
+ * Two sectors conflict if they might touch the same part of the release tree,
+ * i.e. their taxonomic groups are unknown or not disparate, or one sector target lies within the lineage of the other.
+ * Sectors also conflict if their source names share a genus, as both could issue ids for the same names index entry
+ * or its implicit genus and the order of the issued ids must not depend on thread timing.
+ * A sector must only be merged after all higher priority sectors it conflicts with have been merged
+ * to yield the same result as a strictly serial merge.
+ */
+class MergeConflicts {
+  private final List<int[]> dependencies = new ArrayList<>();
+
+  /**
+   * The part of the release tree a sector merge might modify.
+   */
+  static class Scope {
+    // taxonomic group of the sector subject, null if unknown
+    final TaxGroup group;
+    // id of the sector target in the release, null if there is no target
+    final String target;
+    // ids of the sector target and all its ancestors, null if there is no target
+    final Set<String> lineage;
+    // lower case genus names of all source names, see NameUsageMapper.processTreeGenera
+    final Set<String> genera;
+
+    Scope(@Nullable TaxGroup group, @Nullable String target, @Nullable Set<String> lineage) {
+      this(group, target, lineage, Set.of());
+    }
+
+    Scope(@Nullable TaxGroup group, @Nullable String target, @Nullable Set<String> lineage, Set<String> genera) {
+      this.group = group;
+      this.target = target;
+      this.lineage = target == null ? null : lineage;
+      this.genera = genera;
+    }
+
+    boolean conflicts(Scope other) {
+      if (group == null || other.group == null || !group.isDisparateTo(other.group)) {
+        return true;
+      }
+      if (target == null || other.target == null) {
+        // merging into the root might touch anything
+        return true;
+      }
+      return lineage.contains(other.target) || other.lineage.contains(target);
+    }
+  }
+
+  /**
+   * @param scopes sector scopes in priority order
+   */
+  MergeConflicts(List<Scope> scopes) {
+    // last sector seen for each genus. Depending on it is enough as sectors sharing a genus are chained in priority order
+    final Map<String, Integer> lastByGenus = new HashMap<>();
+    for (int j = 0; j < scopes.size(); j++) {
+      final Scope scope = scopes.get(j);
+      SortedSet<Integer> deps = new TreeSet<>();
+      for (int i = 0; i < j; i++) {
+        if (scope.conflicts(scopes.get(i))) {
+          deps.add(i);
+        }
+      }
+      for (String genus : scope.genera) {
+        Integer prev = lastByGenus.put(genus, j);
+        if (prev != null) {
+          deps.add(prev);
+        }
+      }
+      dependencies.add(deps.stream().mapToInt(Integer::intValue).toArray());
+    }
+  }
+
+  /**
+   * @return indices of the higher priority sectors that must be merged before the given sector
+   */
+  int[] dependencies(int idx) {
+    return dependencies.get(idx);
+  }
+
+  /**
+   * @return number of sectors that do not depend on any other sector and can be merged right away
+   */
+  int independent() {
+    return (int) dependencies.stream().filter(d -> d.length == 0).count();
+  }
+}
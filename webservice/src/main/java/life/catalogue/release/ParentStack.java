@@ -158,6 +158,20 @@ public class ParentStack<T extends NameUsageCore> {
     }
   }
 
+  /**
+   * Removes all remaining usages from the stack, notifying the stack user about accepted names as in push.
+   * To be called at the end of a traversal.
+   */
+  public void flush() {
+    while (!parents.isEmpty()) {
+      var p = parents.removeLast();
+      if (removeFunc != null && p.usage.getStatus().isTaxon()) {
+        removeFunc.accept(p);
+      }
+    }
+    doubtfulUsageID = null;
+  }
+
   private void clear() {
     parents.clear();
     doubtfulUsageID = null;
@@ -65,7 +65,18 @@ public class ProjectCopyFactory {
    * @throws IllegalArgumentException if the dataset is not a release
    */
   public XRelease buildExtendedRelease(final int releaseKey, final int userKey) {
-    return new XRelease(factory, syncFactory, matcher, indexService, imageService, dDao, diDao, siDao, rDao, nDao, sDao, releaseKey, userKey, cfg, client, exportManager, doiService, doiUpdater, validator);
+    return buildExtendedRelease(releaseKey, userKey, false);
+  }
+
+  /**
+   * Extended release into a new dataset
+   * @param releaseKey the dataset key of the base release this extended release should be based on.
+   * @param resume true to resume an earlier failed extended release of the same base release if the project was not modified since
+   *
+   * @throws IllegalArgumentException if the dataset is not a release
+   */
+  public XRelease buildExtendedRelease(final int releaseKey, final int userKey, boolean resume) {
+    return new XRelease(factory, syncFactory, matcher, indexService, imageService, dDao, diDao, siDao, rDao, nDao, sDao, releaseKey, userKey, cfg, client, exportManager, doiService, doiUpdater, validator, resume);
   }
 
   /**
@@ -75,7 +86,18 @@ public class ProjectCopyFactory {
    * @throws IllegalArgumentException if the dataset is not managed
    */
   public ProjectRelease buildRelease(final int projectKey, final int userKey) {
-    return new ProjectRelease(factory, indexService, imageService, diDao, dDao, rDao, nDao, sDao, projectKey, userKey, cfg, client, exportManager, doiService, doiUpdater, validator);
+    return buildRelease(projectKey, userKey, false);
+  }
+
+  /**
+   * Release the catalogue into a new dataset
+   * @param projectKey the draft catalogue to be released, e.g. 3 for the CoL draft
+   * @param resume true to resume an earlier failed release of the project if it was not modified since
+   *
+   * @throws IllegalArgumentException if the dataset is not managed
+   */
+  public ProjectRelease buildRelease(final int projectKey, final int userKey, boolean resume) {
+    return new ProjectRelease(factory, indexService, imageService, diDao, dDao, rDao, nDao, sDao, projectKey, userKey, cfg, client, exportManager, doiService, doiUpdater, validator, resume);
   }
 
   @Deprecated
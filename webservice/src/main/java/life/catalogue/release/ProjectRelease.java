@@ -9,6 +9,7 @@ import life.catalogue.api.vocab.Setting;
 import life.catalogue.cache.VarnishUtils;
 import life.catalogue.common.date.DateUtils;
 import life.catalogue.common.date.FuzzyDate;
+import life.catalogue.common.io.TabWriter;
 import life.catalogue.common.text.CitationUtils;
 import life.catalogue.common.util.LoggingUtils;
 import life.catalogue.dao.*;
@@ -26,10 +27,15 @@ import java.io.File;
 import java.io.IOException;
 import java.net.URI;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
 import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
 
+import javax.annotation.Nullable;
 import javax.validation.Validator;
 import javax.ws.rs.core.UriBuilder;
 
@@ -42,7 +48,8 @@ import org.slf4j.LoggerFactory;
 
 public class ProjectRelease extends AbstractProjectCopy {
   private static final Logger LOG = LoggerFactory.getLogger(ProjectRelease.class);
-  public static Set<DataFormat> EXPORT_FORMATS = Set.of(DataFormat.TEXT_TREE, DataFormat.COLDP, DataFormat.DWCA);
+  // iterated in enum order so the exports of a release are always submitted the same way
+  public static Set<DataFormat> EXPORT_FORMATS = Collections.unmodifiableSet(EnumSet.of(DataFormat.TEXT_TREE, DataFormat.COLDP, DataFormat.DWCA));
   private static final String DEFAULT_ALIAS_TEMPLATE = "{aliasOrTitle}-{date}";
   private static final String DEFAULT_VERSION_TEMPLATE = "{date}";
 
@@ -62,21 +69,27 @@ public class ProjectRelease extends AbstractProjectCopy {
   ProjectRelease(SqlSessionFactory factory, NameUsageIndexService indexService, ImageService imageService,
                  DatasetImportDao diDao, DatasetDao dDao, ReferenceDao rDao, NameDao nDao, SectorDao sDao,
                  int datasetKey, int userKey, WsServerConfig cfg, CloseableHttpClient client, ExportManager exportManager,
-                 DoiService doiService, DoiUpdater doiUpdater, Validator validator) {
-    this("releasing", factory, indexService, imageService, diDao, dDao, rDao, nDao, sDao, datasetKey, userKey, cfg, client, exportManager, doiService, doiUpdater, validator);
+                 DoiService doiService, DoiUpdater doiUpdater, Validator validator, boolean resume) {
+    this("releasing", factory, indexService, imageService, diDao, dDao, rDao, nDao, sDao, datasetKey, datasetKey, userKey, cfg, client, exportManager, doiService, doiUpdater, validator, cfg.release.checkpointDir, resume);
   }
 
+  /**
+   * @param sourceKey the dataset the release is based on, the project itself or a release of it
+   * @param checkpointDir directory to persist the release progress in, null to disable checkpoints
+   * @param resume true to resume an earlier failed release of the same project
+   */
   ProjectRelease(String action, SqlSessionFactory factory, NameUsageIndexService indexService, ImageService imageService,
                  DatasetImportDao diDao, DatasetDao dDao, ReferenceDao rDao, NameDao nDao, SectorDao sDao,
-                 int datasetKey, int userKey, WsServerConfig cfg, CloseableHttpClient client, ExportManager exportManager,
-                 DoiService doiService, DoiUpdater doiUpdater, Validator validator) {
-    super(action, factory, diDao, dDao, indexService, validator, userKey, datasetKey, true, cfg.release.deleteOnError);
+                 int datasetKey, int sourceKey, int userKey, WsServerConfig cfg, CloseableHttpClient client, ExportManager exportManager,
+                 DoiService doiService, DoiUpdater doiUpdater, Validator validator, @Nullable File checkpointDir, boolean resume) {
+    super(action, factory, diDao, dDao, indexService, validator, userKey, datasetKey, true, cfg.release.deleteOnError, checkpointDir, sourceKey, resume);
     this.imageService = imageService;
     this.doiService = doiService;
     this.rDao = rDao;
     this.nDao = nDao;
     this.sDao = sDao;
     this.cfg = cfg;
+    this.copyThreads = cfg.release.copyThreads;
     String latestRelease = String.format("L%sR", getClass().equals(XRelease.class) ? "X" : "");
     this.datasetApiBuilder = cfg.apiURI == null ? null : UriBuilder.fromUri(cfg.apiURI).path("dataset/{key}"+latestRelease);
     this.portalURI = cfg.apiURI == null ? null : UriBuilder.fromUri(cfg.apiURI).path("portal").build();
@@ -135,12 +148,17 @@ public class ProjectRelease extends AbstractProjectCopy {
     DateUtils.logDuration(LOG, "Preparing release", start);
 
     // map ids
-    start = LocalDateTime.now();
-    updateState(ImportState.MATCHING);
-    IdProvider idp = new IdProvider(datasetKey, attempt, newDatasetKey, cfg.release, factory);
-    idp.mapIds();
-    idp.report();
-    DateUtils.logDuration(LOG, "ID provider", start);
+    if (isDone(ReleaseCheckpoint.Phase.ID_MAPPING)) {
+      LOG.info("Reuse ids mapped by the resumed release {}", newDatasetKey);
+    } else {
+      start = LocalDateTime.now();
+      updateState(ImportState.MATCHING);
+      IdProvider idp = new IdProvider(datasetKey, attempt, newDatasetKey, cfg.release, factory);
+      idp.mapIds();
+      idp.report();
+      done(ReleaseCheckpoint.Phase.ID_MAPPING);
+      DateUtils.logDuration(LOG, "ID provider", start);
+    }
   }
 
   @Override
@@ -211,6 +229,11 @@ public class ProjectRelease extends AbstractProjectCopy {
   @Override
   void finalWork() throws Exception {
     checkIfCancelled();
+    if (isDone(ReleaseCheckpoint.Phase.FINAL)) {
+      LOG.info("Sources of release {} have already been archived", newDatasetKey);
+      return;
+    }
+    writeCopyReport();
     // remove orphan sectors and decisions not used in the data, e.g. merge sectors from the XCOL
     try (SqlSession session = factory.openSession(true)) {
       int del = session.getMapper(SectorMapper.class).deleteOrphans(newDatasetKey);
@@ -224,6 +247,11 @@ public class ProjectRelease extends AbstractProjectCopy {
 
       DatasetSourceMapper psm = session.getMapper(DatasetSourceMapper.class);
       var cm = session.getMapper(CitationMapper.class);
+      if (checkpoint != null && checkpoint.isResumed()) {
+        // remove sources partially archived by the failed job
+        cm.deleteByRelease(newDatasetKey);
+        psm.deleteByRelease(newDatasetKey);
+      }
       final AtomicInteger counter = new AtomicInteger(0);
       final var issueSourceDOIs = settings.isEnabled(Setting.RELEASE_ISSUE_SOURCE_DOIS);
       // create fixed source dataset records for this release.
@@ -282,23 +310,47 @@ public class ProjectRelease extends AbstractProjectCopy {
     // kick off exports
     if (settings.isEnabled(Setting.RELEASE_PREPARE_DOWNLOADS)) {
       LOG.info("Prepare exports for release {}", newDatasetKey);
+      List<ExportRequest> reqs = new ArrayList<>();
       for (DataFormat df : EXPORT_FORMATS) {
         ExportRequest req = new ExportRequest();
         req.setDatasetKey(newDatasetKey);
         req.setFormat(df);
         req.setExcel(false);
         req.setExtended(true);
-        exportManager.submit(req, user);
+        reqs.add(req);
+      }
+      // all formats are written from a single traversal of the release
+      exportManager.prepare(reqs);
+    }
+    done(ReleaseCheckpoint.Phase.FINAL);
+  }
+
+  /**
+   * Writes the row count and copy duration of each table to the release report directory.
+   */
+  private void writeCopyReport() {
+    if (copiedTables == null) return;
+    File f = new File(cfg.release.reportDir(datasetKey, attempt), "copy-tables.tsv");
+    f.getParentFile().mkdirs();
+    try (TabWriter tsv = TabWriter.fromFile(f)) {
+      for (CopyPlan.Table t : copiedTables.tables()) {
+        tsv.write(new String[]{
+          t.entity.getSimpleName(),
+          String.valueOf(t.getCount()),
+          t.getDuration() == null ? null : String.valueOf(t.getDuration().toMillis() / 1000.0)
+        });
       }
+    } catch (IOException e) {
+      LOG.error("Failed to write table copy report {}", f, e);
     }
   }
 
   @Override
   protected void onError(Exception e) {
     super.onError(e);
-    // remove reports
+    // remove reports unless the release is resumed later in the same attempt
     File dir = cfg.release.reportDir(datasetKey, attempt);
-    if (dir.exists()) {
+    if (dir.exists() && !isResumable()) {
       LOG.debug("Remove release report {}-{} for failed dataset {}", datasetKey, metrics.attempt(), newDatasetKey);
       FileUtils.deleteQuietly(dir);
     }
@@ -306,7 +358,8 @@ public class ProjectRelease extends AbstractProjectCopy {
 
   public static class IdPreviewRelease extends ProjectRelease {
     public IdPreviewRelease(SqlSessionFactory factory, NameUsageIndexService indexService, ImageService imageService, DatasetImportDao diDao, DatasetDao dDao, ReferenceDao rDao, NameDao nDao, SectorDao sDao, int datasetKey, int userKey, WsServerConfig cfg, CloseableHttpClient client, ExportManager exportManager, DoiService doiService, DoiUpdater doiUpdater, Validator validator) {
-      super(factory, indexService, imageService, diDao, dDao, rDao, nDao, sDao, datasetKey, userKey, cfg, client, exportManager, doiService, doiUpdater, validator);
+      // previews always fail on purpose and are never resumed
+      super("releasing", factory, indexService, imageService, diDao, dDao, rDao, nDao, sDao, datasetKey, datasetKey, userKey, cfg, client, exportManager, doiService, doiUpdater, validator, null, false);
     }
 
     @Override
@@ -0,0 +1,200 @@
+package life.catalogue.release;
+
+import life.catalogue.api.model.DatasetImport;
+import life.catalogue.api.vocab.ImportState;
+import life.catalogue.common.util.YamlUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+
+import javax.annotation.Nullable;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+/**
+ * Persisted progress of a release job which allows a restarted job to resume a failed release
+ * from its last completed phase instead of copying, mapping and merging everything again.
+ * A checkpoint keeps the release dataset and import attempt it was created for,
+ * together with completed phases, copied tables and merged sectors.
+ *
+ * Checkpoints are stored as small yaml files, one per project and job type.
+ * They are removed when a job finished successfully or was cancelled, as there is nothing to resume then.
+ * A failed job is only resumed when explicitly requested.
+ * If the project was modified since, the resumed job removes all data of the failed one and starts from scratch.
+ */
+public class ReleaseCheckpoint {
+  private static final Logger LOG = LoggerFactory.getLogger(ReleaseCheckpoint.class);
+
+  public enum Phase {
+    ID_MAPPING,
+    COPY,
+    MERGE,
+    HOMOTYPIC_GROUPING,
+    VALIDATION,
+    FINAL
+  }
+
+  public int projectKey;
+  // the dataset key the release was based on, i.e. the project or the base release of an extended release
+  public int sourceKey;
+  // the dataset key of the release being built
+  public int datasetKey;
+  public int attempt;
+  public String job;
+  // fingerprint of the project data when the job started
+  public String fingerprint;
+  public Set<Phase> phases = new HashSet<>();
+  public Set<String> tables = new HashSet<>();
+  public Set<Integer> sectors = new HashSet<>();
+
+  @JsonIgnore
+  private File file;
+  // true if the checkpoint was loaded from a previous job
+  @JsonIgnore
+  private boolean resumed;
+
+  static File file(File dir, int projectKey, Class<?> job) {
+    return new File(dir, projectKey + "-" + job.getSimpleName() + ".yaml");
+  }
+
+  /**
+   * @return the existing checkpoint for the project and job or null if none exists or it cannot be read
+   */
+  static ReleaseCheckpoint load(File dir, int projectKey, Class<?> job) {
+    File f = file(dir, projectKey, job);
+    if (f.exists()) {
+      try {
+        ReleaseCheckpoint cp = YamlUtils.read(ReleaseCheckpoint.class, f);
+        cp.file = f;
+        cp.resumed = true;
+        return cp;
+      } catch (IOException | RuntimeException e) {
+        LOG.warn("Failed to read release checkpoint {}", f, e);
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Decides whether a checkpoint left by an earlier job can be resumed by a new job.
+   * @param attempt the import attempt of the earlier job, null if it does not exist anymore
+   * @param resume true if the new job was explicitly requested to resume a failed one
+   * The project data is compared separately by the job, see isModified.
+   * @param sourceKey the dataset the new job is based on
+   * @return the reason why the checkpoint cannot be resumed or null if it can
+   */
+  String discardReason(@Nullable DatasetImport attempt, boolean resume, int sourceKey) {
+    if (!resume) {
+      return "resuming was not requested";
+    } else if (attempt == null || attempt.getState() == ImportState.FINISHED || attempt.getState() == ImportState.CANCELED) {
+      return "its job did not fail";
+    } else if (this.sourceKey != sourceKey) {
+      return "it was based on source " + this.sourceKey + " instead of " + sourceKey;
+    }
+    return null;
+  }
+
+  /**
+   * @param fingerprint of the current project data
+   * @return true if the project data differs from the one the checkpoint was created for
+   */
+  boolean isModified(String fingerprint) {
+    return !Objects.equals(this.fingerprint, fingerprint);
+  }
+
+  /**
+   * Removes all progress and starts again for the given project data, keeping the release dataset and attempt.
+   */
+  synchronized void reset(String fingerprint) {
+    this.fingerprint = fingerprint;
+    phases.clear();
+    tables.clear();
+    sectors.clear();
+    save();
+  }
+
+  /**
+   * Creates and persists a new checkpoint without any progress, replacing any existing one.
+   */
+  static ReleaseCheckpoint create(File dir, int projectKey, int sourceKey, int datasetKey, int attempt, String fingerprint, Class<?> job) {
+    ReleaseCheckpoint cp = new ReleaseCheckpoint();
+    cp.projectKey = projectKey;
+    cp.sourceKey = sourceKey;
+    cp.datasetKey = datasetKey;
+    cp.attempt = attempt;
+    cp.fingerprint = fingerprint;
+    cp.job = job.getSimpleName();
+    cp.file = file(dir, projectKey, job);
+    cp.save();
+    return cp;
+  }
+
+  /**
+   * @return true if the checkpoint was left behind by an earlier job which is now being resumed
+   */
+  boolean isResumed() {
+    return resumed;
+  }
+
+  synchronized boolean isDone(Phase phase) {
+    return phases.contains(phase);
+  }
+
+  synchronized void done(Phase phase) {
+    phases.add(phase);
+    save();
+  }
+
+  synchronized boolean isCopied(String table) {
+    return tables.contains(table);
+  }
+
+  synchronized void copied(String table) {
+    tables.add(table);
+    save();
+  }
+
+  synchronized boolean isMerged(int sectorKey) {
+    return sectors.contains(sectorKey);
+  }
+
+  synchronized void merged(int sectorKey) {
+    sectors.add(sectorKey);
+    save();
+  }
+
+  /**
+   * Writes the checkpoint to a temporary file first and replaces the existing one atomically,
+   * so a crash while writing never leaves a broken checkpoint behind.
+   */
+  synchronized void save() {
+    try {
+      file.getParentFile().mkdirs();
+      File tmp = new File(file.getParentFile(), file.getName() + ".tmp");
+      YamlUtils.write(this, tmp);
+      Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException e) {
+      // a missing checkpoint only prevents resuming, the release itself can go on
+      LOG.error("Failed to persist release checkpoint {}", file, e);
+    }
+  }
+
+  void delete() {
+    if (file.exists() && !file.delete()) {
+      LOG.warn("Failed to remove release checkpoint {}", file);
+    }
+  }
+
+  @Override
+  public String toString() {
+    return job + " of project " + projectKey + " into " + datasetKey + "#" + attempt + " with phases " + phases;
+  }
+}
@@ -46,15 +46,19 @@ public class ReleasedIds {
     }
 
     public ReleasedId(int id, int attempt, SimpleNameWithNidx sn) {
+      this(id, sn.getNamesIndexId(), attempt, sn.getNamesIndexMatchType(), sn.getRank(), sn.getAuthorship(), sn.getPhrase(), sn.getStatus(), sn.getParent());
+    }
+
+    public ReleasedId(int id, int nxId, int attempt, MatchType matchType, Rank rank, String authorship, String phrase, TaxonomicStatus status, String parent) {
       this.id = id;
-      this.nxId = sn.getNamesIndexId();
+      this.nxId = nxId;
       this.attempt = attempt;
-      this.matchType = sn.getNamesIndexMatchType();
-      this.rank = sn.getRank();
-      this.authorship = sn.getAuthorship();
-      this.phrase = sn.getPhrase();
-      this.status = sn.getStatus();
-      this.parent = sn.getParent();
+      this.matchType = matchType;
+      this.rank = rank;
+      this.authorship = authorship;
+      this.phrase = phrase;
+      this.status = status;
+      this.parent = parent;
     }
 
     public String id() {
@@ -142,6 +146,13 @@ public class ReleasedIds {
 
   }
 
+  /**
+   * @return all released ids in no particular order
+   */
+  public Iterable<ReleasedId> values() {
+    return byId.values();
+  }
+
   public ReleasedId[] byNxId(int nxId) {
     return byNxId.getOrDefault(nxId, null);
   }
@@ -0,0 +1,242 @@
+package life.catalogue.release;
+
+import life.catalogue.api.vocab.MatchType;
+import life.catalogue.api.vocab.TaxonomicStatus;
+
+import org.gbif.nameparser.api.Rank;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Objects;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A versioned binary file keeping the ids of the latest public release of a project together with its additional releases.
+ * It is written when these finished releases are first loaded from postgres
+ * and read via memory mapping by following releases as long as the latest public release stays the same.
+ *
+ * The file starts with a header identifying the format version, project, release and a fingerprint of the id configuration.
+ * Records follow in blocks of limited size, each prefixed by its byte length and record count.
+ * A block with zero length terminates the file.
+ */
+class ReleasedIdsIndex {
+  private static final Logger LOG = LoggerFactory.getLogger(ReleasedIdsIndex.class);
+  private static final int MAGIC = 0x434C4249; // CLBI
+  static final int VERSION = 1;
+  private static final int HEADER_SIZE = 6 * Integer.BYTES;
+  private static final int BLOCK_SIZE = 32 * 1024 * 1024;
+  // number of index files kept per project
+  static final int KEEP = 3;
+
+  static class Header {
+    final int projectKey;
+    final int releaseKey;
+    final int attempt;
+    final int fingerprint;
+
+    Header(int projectKey, int releaseKey, int attempt, int fingerprint) {
+      this.projectKey = projectKey;
+      this.releaseKey = releaseKey;
+      this.attempt = attempt;
+      this.fingerprint = fingerprint;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (!(o instanceof Header)) return false;
+      Header header = (Header) o;
+      return projectKey == header.projectKey && releaseKey == header.releaseKey && attempt == header.attempt && fingerprint == header.fingerprint;
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(projectKey, releaseKey, attempt, fingerprint);
+    }
+
+    @Override
+    public String toString() {
+      return "project " + projectKey + ", release " + releaseKey + ", attempt " + attempt;
+    }
+  }
+
+  static File file(File dir, int projectKey, int releaseKey) {
+    return new File(new File(dir, String.valueOf(projectKey)), releaseKey + ".ids");
+  }
+
+  /**
+   * Writes all given released ids to a new index file, replacing an existing one atomically.
+   * The given parts must not share any id.
+   * Older index files of the project are removed, keeping only the most recent ones.
+   * @return number of written ids
+   */
+  @SafeVarargs
+  static int write(File f, Header header, Iterable<ReleasedIds.ReleasedId>... ids) throws IOException {
+    f.getParentFile().mkdirs();
+    File tmp = new File(f.getParentFile(), f.getName() + ".tmp");
+    int total = 0;
+    try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)))) {
+      out.writeInt(MAGIC);
+      out.writeInt(VERSION);
+      out.writeInt(header.projectKey);
+      out.writeInt(header.releaseKey);
+      out.writeInt(header.attempt);
+      out.writeInt(header.fingerprint);
+
+      ByteArrayOutputStream block = new ByteArrayOutputStream(BLOCK_SIZE);
+      DataOutputStream bout = new DataOutputStream(block);
+      int count = 0;
+      for (Iterable<ReleasedIds.ReleasedId> part : ids) {
+        for (ReleasedIds.ReleasedId r : part) {
+          writeRecord(bout, r);
+          count++;
+          if (block.size() >= BLOCK_SIZE) {
+            writeBlock(out, block, count);
+            total += count;
+            count = 0;
+          }
+        }
+      }
+      if (count > 0) {
+        writeBlock(out, block, count);
+        total += count;
+      }
+      // terminal block
+      out.writeInt(0);
+      out.writeInt(0);
+    }
+    Files.move(tmp.toPath(), f.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    LOG.info("Written {} released ids for {} to {}", total, header, f);
+    cleanup(f.getParentFile());
+    return total;
+  }
+
+  private static void writeBlock(DataOutputStream out, ByteArrayOutputStream block, int count) throws IOException {
+    out.writeInt(block.size());
+    out.writeInt(count);
+    block.writeTo(out);
+    block.reset();
+  }
+
+  private static void writeRecord(DataOutputStream out, ReleasedIds.ReleasedId r) throws IOException {
+    out.writeInt(r.id);
+    out.writeInt(r.nxId);
+    out.writeInt(r.attempt);
+    // enums are stored by name to stay valid when enum constants get added
+    writeString(out, r.matchType == null ? null : r.matchType.name());
+    writeString(out, r.rank == null ? null : r.rank.name());
+    writeString(out, r.status == null ? null : r.status.name());
+    writeString(out, r.authorship);
+    writeString(out, r.phrase);
+    writeString(out, r.parent);
+  }
+
+  private static void writeString(DataOutputStream out, String x) throws IOException {
+    if (x == null) {
+      out.writeInt(-1);
+    } else {
+      byte[] bytes = x.getBytes(StandardCharsets.UTF_8);
+      out.writeInt(bytes.length);
+      out.write(bytes);
+    }
+  }
+
+  /**
+   * Reads an index file into the given, usually empty released ids.
+   * @return the number of ids read or -1 if the file was written for a different header or in a different format version
+   * @throws IOException if the file cannot be read or is truncated
+   */
+  static int read(File f, Header expected, ReleasedIds ids) throws IOException {
+    try (FileChannel ch = FileChannel.open(f.toPath(), StandardOpenOption.READ)) {
+      final long size = ch.size();
+      if (size < HEADER_SIZE + 2 * Integer.BYTES) {
+        throw new EOFException("Released ids index " + f + " is truncated");
+      }
+      ByteBuffer head = ch.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+      if (head.getInt() != MAGIC || head.getInt() != VERSION) {
+        LOG.info("Released ids index {} uses an unknown format", f);
+        return -1;
+      }
+      Header header = new Header(head.getInt(), head.getInt(), head.getInt(), head.getInt());
+      if (!header.equals(expected)) {
+        LOG.info("Released ids index {} was written for {} with fingerprint {}, but {} with fingerprint {} is needed", f, header, header.fingerprint, expected, expected.fingerprint);
+        return -1;
+      }
+      long pos = HEADER_SIZE;
+      int total = 0;
+      while (true) {
+        if (pos + 2 * Integer.BYTES > size) {
+          throw new EOFException("Released ids index " + f + " is truncated");
+        }
+        ByteBuffer bh = ch.map(FileChannel.MapMode.READ_ONLY, pos, 2 * Integer.BYTES);
+        int len = bh.getInt();
+        int count = bh.getInt();
+        pos += 2 * Integer.BYTES;
+        if (len == 0) {
+          break;
+        }
+        if (pos + len > size) {
+          throw new EOFException("Released ids index " + f + " is truncated");
+        }
+        MappedByteBuffer block = ch.map(FileChannel.MapMode.READ_ONLY, pos, len);
+        for (int i = 0; i < count; i++) {
+          ids.add(readRecord(block));
+        }
+        pos += len;
+        total += count;
+      }
+      return total;
+    }
+  }
+
+  private static ReleasedIds.ReleasedId readRecord(ByteBuffer buf) {
+    int id = buf.getInt();
+    int nxId = buf.getInt();
+    int attempt = buf.getInt();
+    String matchType = readString(buf);
+    String rank = readString(buf);
+    String status = readString(buf);
+    return new ReleasedIds.ReleasedId(id, nxId, attempt,
+      matchType == null ? null : MatchType.valueOf(matchType),
+      rank == null ? null : Rank.valueOf(rank),
+      readString(buf),
+      readString(buf),
+      status == null ? null : TaxonomicStatus.valueOf(status),
+      readString(buf)
+    );
+  }
+
+  private static String readString(ByteBuffer buf) {
+    int len = buf.getInt();
+    if (len < 0) {
+      return null;
+    }
+    byte[] bytes = new byte[len];
+    buf.get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Removes all but the most recently written index files of a project.
+   */
+  private static void cleanup(File dir) {
+    File[] files = dir.listFiles((d, name) -> name.endsWith(".ids"));
+    if (files != null && files.length > KEEP) {
+      Arrays.sort(files, Comparator.comparingLong(File::lastModified).reversed());
+      for (int i = KEEP; i < files.length; i++) {
+        LOG.info("Remove old released ids index {}", files[i]);
+        files[i].delete();
+      }
+    }
+  }
+}
@@ -3,53 +3,111 @@ package life.catalogue.release;
 import life.catalogue.api.model.SimpleNameWithNidx;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
-import java.util.function.BiFunction;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
-import org.apache.commons.lang3.StringUtils;
 import org.jetbrains.annotations.NotNull;
 
 import it.unimi.dsi.fastutil.ints.*;
 
+/**
+ * Match scores of names against previously released ids sharing the same names index id.
+ * Only pairs with a positive score are kept, so memory never grows with the number of all potential pairs
+ * and large homonym groups with few actual matches stay cheap.
+ * Ids are assigned greedily, always releasing the best remaining pair of a name and id that are both still unassigned.
+ */
 public class ScoreMatrix {
-  private static final int DELETED_N = -1;
-  private static final int DELETED_R = -2;
-  private final int lenN;
-  private final int lenR;
-  // first dimension=names idx, second=candidates idx
-  private final int[][] scores;
-  private final IntList distinctScores;
+  // number of potential pairs above which scores are calculated in parallel
+  static final long PARALLEL_THRESHOLD = 100_000;
   private final List<SimpleNameWithNidx> names;
   private final ReleasedIds.ReleasedId[] releasedIds;
+  // parallel lists of all pairs with a positive score
+  private final IntArrayList pairN = new IntArrayList();
+  private final IntArrayList pairR = new IntArrayList();
+  private final IntArrayList pairScore = new IntArrayList();
+  // position of each name / released id in their natural order used to break ties
+  private final int[] nameOrder;
+  private final int[] ridOrder;
 
   /**
-   * Produces a match score matrix of all names against all candidates.
+   * Primitive scoring function.
+   */
+  @FunctionalInterface
+  public interface Scorer {
+    /**
+     * @return a score with 0=nomatch, the higher the better the match
+     */
+    int score(SimpleNameWithNidx name, ReleasedIds.ReleasedId rid);
+  }
+
+  /**
+   * Produces the match scores of all names against all candidates.
+   * Large groups are scored in parallel, so the scorer must be thread safe.
    * @param scorer function to generate a score with 0=nomatch, the higher the better the match
    */
-  public ScoreMatrix(List<SimpleNameWithNidx> names, ReleasedIds.ReleasedId[] releasedIds,
-                     BiFunction<SimpleNameWithNidx, ReleasedIds.ReleasedId,Integer> scorer) {
+  public ScoreMatrix(List<SimpleNameWithNidx> names, ReleasedIds.ReleasedId[] releasedIds, Scorer scorer) {
     this.names = names;
     this.releasedIds = releasedIds;
-    lenN = names.size();
-    lenR = releasedIds.length;
-    scores = new int[lenN][lenR];
-    int ni=0;
-    IntSet distinctScores = new IntOpenHashSet();
-    for (SimpleNameWithNidx n : names){
-      int ri=0;
-      for (ReleasedIds.ReleasedId r : releasedIds){
-        int score = Math.max(scorer.apply(n, r), 0);
-        scores[ni][ri++] = score;
-        distinctScores.add(score);
+    final int lenN = names.size();
+    final int lenR = releasedIds.length;
+    IntStream rows = IntStream.range(0, lenN);
+    if ((long) lenN * lenR > PARALLEL_THRESHOLD) {
+      rows = rows.parallel();
+    }
+    // each thread scores its rows into a reused buffer and only keeps the positive pairs of a row
+    final ThreadLocal<int[]> buffer = ThreadLocal.withInitial(() -> new int[lenR]);
+    List<int[]> scored = rows.mapToObj(ni -> {
+        final int[] row = buffer.get();
+        SimpleNameWithNidx n = names.get(ni);
+        int positive = 0;
+        for (int ri = 0; ri < lenR; ri++) {
+          row[ri] = scorer.score(n, releasedIds[ri]);
+          if (row[ri] > 0) {
+            positive++;
+          }
+        }
+        // released id index and score of all positive pairs
+        int[] pairs = new int[positive * 2];
+        int idx = 0;
+        for (int ri = 0; ri < lenR; ri++) {
+          if (row[ri] > 0) {
+            pairs[idx++] = ri;
+            pairs[idx++] = row[ri];
+          }
+        }
+        return pairs;
+      })
+      .collect(Collectors.toList());
+    // concatenate rows in row order
+    for (int ni = 0; ni < lenN; ni++) {
+      int[] pairs = scored.get(ni);
+      for (int i = 0; i < pairs.length; i += 2) {
+        pairN.add(ni);
+        pairR.add(pairs[i]);
+        pairScore.add(pairs[i + 1]);
       }
-      ni++;
     }
-    // zero is no match, dont return
-    distinctScores.remove(0);
-    this.distinctScores = new IntArrayList(distinctScores);
-    this.distinctScores.sort(IntComparators.OPPOSITE_COMPARATOR);
+
+    nameOrder = order(lenN, (a, b) -> names.get(a).compareTo(names.get(b)));
+    ridOrder = order(lenR, (a, b) -> {
+      int cmp = Integer.compare(releasedIds[a].id, releasedIds[b].id);
+      return cmp != 0 ? cmp : Integer.compare(releasedIds[a].attempt, releasedIds[b].attempt);
+    });
+  }
+
+  /**
+   * @return the position of each index in the given order, using the index itself to break ties
+   */
+  private static int[] order(int len, IntComparator comparator) {
+    int[] sorted = IntStream.range(0, len).toArray();
+    IntArrays.mergeSort(sorted, comparator);
+    int[] pos = new int[len];
+    for (int i = 0; i < len; i++) {
+      pos[sorted[i]] = i;
+    }
+    return pos;
   }
 
   public static class ReleaseMatch implements Comparable<ReleaseMatch>{
@@ -58,15 +116,11 @@ public class ScoreMatrix {
         .thenComparing(m -> m.rid.attempt, Integer::compare)
         .thenComparing(m -> m.name, Comparator.naturalOrder());
 
-    private final int namesIdx;
-    private final int relIdx;
     final int score;
     final SimpleNameWithNidx name;
     final ReleasedIds.ReleasedId rid;
 
-    public ReleaseMatch(int namesIdx, int relIdx, int score, SimpleNameWithNidx name, ReleasedIds.ReleasedId rid) {
-      this.namesIdx = namesIdx;
-      this.relIdx = relIdx;
+    public ReleaseMatch(int score, SimpleNameWithNidx name, ReleasedIds.ReleasedId rid) {
       this.score = score;
       this.name = name;
       this.rid = rid;
@@ -78,61 +132,48 @@ public class ScoreMatrix {
     }
   }
 
-  private List<ReleaseMatch> match(int highscore) {
-    final List<ReleaseMatch> next = new ArrayList<>();
-    for (int ni=0; ni<lenN; ni++) {
-      // we only mark the first row or column as deleted - so just check those
-      if (scores[ni][0] != -1 && scores[ni][0] != -3) {
-        for (int ri=0; ri<lenR; ri++) {
-          if (scores[0][ri] != -2 && scores[0][ri] != -3 && scores[ni][ri] == highscore) {
-            next.add(new ReleaseMatch(ni, ri, highscore, names.get(ni), releasedIds[ri]));
-          }
-        }
-      }
-    }
-    return next;
+  /**
+   * @return number of pairs with a positive score
+   */
+  public int size() {
+    return pairScore.size();
   }
 
   /**
-   * return the batch of matches with the highest, equal score.
-   * In case there have been multiple previous ids, sort lowest ID first to keep stability.
+   * Assigns released ids to names greedily, highest scores first.
+   * Pairs with equal scores are assigned in the natural order of ReleaseMatch, i.e. the lowest ID first to keep stability.
    * As IDs are issued incrementally the smallest ID is always the oldest too.
+   *
+   * @return the matches in the order they were assigned, each name and released id is used at most once
    */
-  public List<ReleaseMatch> highest() {
-    List<ReleaseMatch> next = new ArrayList<>();
-    while (next.isEmpty() && !distinctScores.isEmpty()) {
-      next = match(distinctScores.removeInt(0));
+  public List<ReleaseMatch> assign() {
+    final List<ReleaseMatch> matches = new ArrayList<>();
+    if (pairScore.isEmpty()) {
+      return matches;
     }
-    // natural sort order defines the relevance
-    Collections.sort(next);
-    return next;
-  }
-
-  public void remove(ReleaseMatch rm){
-    // we mark only the first rows or columns
-    // the first row & column, 0/0, represents both so we must be able to distinguish between row or column markup
-    // for this we add up both
-    if (rm.namesIdx==0) {
-      scores[rm.namesIdx][0] = Math.min(scores[rm.namesIdx][0], 0) + DELETED_N;
-    } else {
-      scores[rm.namesIdx][0] = DELETED_N;
-    }
-
-    if (rm.relIdx == 0) {
-      scores[0][rm.relIdx] = Math.min(scores[0][rm.relIdx], 0) + DELETED_R;
-    } else {
-      scores[0][rm.relIdx] = DELETED_R;
-    }
-  }
-
-  public void printMatrix(){
-    System.out.println(StringUtils.repeat("---", lenR));
-    for (int ni=0; ni<lenN; ni++) {
-      StringBuilder sb = new StringBuilder();
-      for (int ri=0; ri<lenR; ri++) {
-        sb.append(String.format("% 3d", scores[ni][ri]));
+    IntHeapPriorityQueue heap = new IntHeapPriorityQueue(IntStream.range(0, pairScore.size()).toArray(), (a, b) -> {
+      int cmp = Integer.compare(pairScore.getInt(b), pairScore.getInt(a));
+      if (cmp == 0) {
+        cmp = Integer.compare(ridOrder[pairR.getInt(a)], ridOrder[pairR.getInt(b)]);
+        if (cmp == 0) {
+          cmp = Integer.compare(nameOrder[pairN.getInt(a)], nameOrder[pairN.getInt(b)]);
+        }
+      }
+      return cmp;
+    });
+    final boolean[] usedN = new boolean[names.size()];
+    final boolean[] usedR = new boolean[releasedIds.length];
+    final int max = Math.min(names.size(), releasedIds.length);
+    while (!heap.isEmpty() && matches.size() < max) {
+      int p = heap.dequeueInt();
+      int ni = pairN.getInt(p);
+      int ri = pairR.getInt(p);
+      if (!usedN[ni] && !usedR[ri]) {
+        usedN[ni] = true;
+        usedR[ri] = true;
+        matches.add(new ReleaseMatch(pairScore.getInt(p), names.get(ni), releasedIds[ri]));
       }
-      System.out.println(sb);
     }
+    return matches;
   }
 }
@@ -16,6 +16,7 @@ import java.util.Objects;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 
+import org.apache.ibatis.session.ExecutorType;
 import org.apache.ibatis.session.SqlSession;
 import org.apache.ibatis.session.SqlSessionFactory;
 
@@ -44,6 +45,8 @@ import org.slf4j.LoggerFactory;
  *
  *  5) flag species that have been described before the genus was published
  *
+ * A consumer can also be used for a subtree only, which allows to validate disjoint subtrees concurrently with one consumer each.
+ * All changes are written through a single batch session per consumer which is committed on close.
  */
 public class TreeCleanerAndValidator implements Consumer<LinneanNameUsage>, AutoCloseable {
   static final Logger LOG = LoggerFactory.getLogger(TreeCleanerAndValidator.class);
@@ -51,11 +54,17 @@ public class TreeCleanerAndValidator implements Consumer<LinneanNameUsage>, Auto
   final SqlSessionFactory factory;
   final int datasetKey;
   final ParentStack<LinneanNameUsage> parents;
+  private static final int BATCH_SIZE = 1000;
+  private final SqlSession session;
+  private final VerbatimSourceMapper vsm;
+  private final NameUsageMapper num;
+  private int changes = 0;
 
   private LinneanNameUsage genus;
   private Integer genusYear;
   private final AtomicInteger counter = new AtomicInteger(0);
   private final AtomicInteger flagged = new AtomicInteger(0);
+  private final AtomicInteger removed = new AtomicInteger(0);
   private int maxDepth = 0;
 
   public TreeCleanerAndValidator(SqlSessionFactory factory, int datasetKey, boolean removeEmptyGenera) {
@@ -66,6 +75,23 @@ public class TreeCleanerAndValidator implements Consumer<LinneanNameUsage>, Auto
     } else {
       parents = new ParentStack<>(null);
     }
+    session = factory.openSession(ExecutorType.BATCH, false);
+    vsm = session.getMapper(VerbatimSourceMapper.class);
+    num = session.getMapper(NameUsageMapper.class);
+  }
+
+  /**
+   * Adds the parent of a subtree to be validated to the classification without validating or counting it.
+   * Needs to be called before the first usage is accepted.
+   */
+  public void seed(LinneanNameUsage parent) {
+    parents.push(parent);
+  }
+
+  private void commitIfNeeded() {
+    if (++changes % BATCH_SIZE == 0) {
+      session.commit();
+    }
   }
 
   /**
@@ -83,18 +109,16 @@ public class TreeCleanerAndValidator implements Consumer<LinneanNameUsage>, Auto
     if (taxon.usage.getRank().isGenusGroup() && taxon.children == 0 && fromXSource(taxon.usage)) {
       LOG.info("Remove empty {}", taxon.usage);
       final var key = DSID.of(datasetKey, taxon.usage.getId());
-      try (SqlSession session = factory.openSession(true)) {
-        var vm = session.getMapper(VerbatimSourceMapper.class);
-        var um = session.getMapper(NameUsageMapper.class);
-        // first remove all synonyms
-        for (var c : um.childrenIds(key)) {
-          vm.delete(key.id(c));
-          um.delete(key);
-        }
-        vm.delete(key.id(taxon.usage.getId()));
-        um.delete(key);
-        // names, references and related are removed as orphans at the end of the release
+      // first remove all synonyms
+      for (var c : num.childrenIds(key)) {
+        vsm.delete(key.id(c));
+        num.delete(key);
       }
+      vsm.delete(key.id(taxon.usage.getId()));
+      num.delete(key);
+      removed.incrementAndGet();
+      commitIfNeeded();
+      // names, references and related are removed as orphans at the end of the release
     }
   }
 
@@ -173,11 +197,9 @@ public class TreeCleanerAndValidator implements Consumer<LinneanNameUsage>, Auto
     }
     // persist if we have flagged issues
     if (issues.hasIssues()) {
-      try (SqlSession session = factory.openSession(true)) {
-        var vsm = session.getMapper(VerbatimSourceMapper.class);
-        vsm.addIssues(dsid(sn), issues.getIssues());
-        flagged.incrementAndGet();
-      }
+      vsm.addIssues(dsid(sn), issues.getIssues());
+      flagged.incrementAndGet();
+      commitIfNeeded();
     }
   }
 
@@ -193,12 +215,27 @@ public class TreeCleanerAndValidator implements Consumer<LinneanNameUsage>, Auto
     return flagged.get();
   }
 
+  /**
+   * @return number of removed empty genera
+   */
+  public int getRemoved() {
+    return removed.get();
+  }
+
   public int getMaxDepth() {
     return maxDepth;
   }
 
+  /**
+   * Ends the classification of the remaining usages on the stack and commits all pending changes.
+   */
   @Override
   public void close() throws IOException {
-    // nothing so far
+    try {
+      parents.flush();
+      session.commit();
+    } finally {
+      session.close();
+    }
   }
 }
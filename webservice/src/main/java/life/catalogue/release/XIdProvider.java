@@ -25,8 +25,11 @@ public class XIdProvider extends IdProvider implements UsageIdGen, AutoCloseable
     nomatchWriter = buildNomatchWriter();
   }
 
+  /**
+   * Synchronized as sectors can be merged concurrently sharing a single provider.
+   */
   @Override
-  public String issue(SimpleNameWithNidx usage) {
+  public synchronized String issue(SimpleNameWithNidx usage) {
     try {
       issueIDs(usage.getNamesIndexId(), List.of(usage), nomatchWriter, false);
       return encode(usage.getCanonicalId());
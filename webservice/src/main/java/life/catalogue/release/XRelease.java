@@ -10,13 +10,16 @@ import life.catalogue.assembly.TreeMergeHandlerConfig;
 import life.catalogue.basgroup.HomotypicConsolidator;
 import life.catalogue.basgroup.SectorPriority;
 import life.catalogue.common.date.DateUtils;
+import life.catalogue.common.io.TabWriter;
 import life.catalogue.common.io.InputStreamUtils;
 import life.catalogue.common.text.CitationUtils;
 import life.catalogue.common.util.YamlUtils;
 import life.catalogue.concurrent.ExecutorUtils;
+import life.catalogue.concurrent.NamedThreadFactory;
 import life.catalogue.dao.*;
 import life.catalogue.db.CopyDataset;
 import life.catalogue.db.PgUtils;
+import life.catalogue.db.SectorProcessable;
 import life.catalogue.db.mapper.*;
 import life.catalogue.doi.DoiUpdater;
 import life.catalogue.doi.service.DoiService;
@@ -25,20 +28,36 @@ import life.catalogue.exporter.ExportManager;
 import life.catalogue.img.ImageService;
 import life.catalogue.matching.NameIndex;
 import life.catalogue.matching.RematchMissing;
+import life.catalogue.matching.TaxGroupAnalyzer;
 import life.catalogue.matching.UsageMatcherGlobal;
 
 import org.gbif.nameparser.api.NameType;
 import org.gbif.nameparser.api.Rank;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
+import javax.annotation.Nullable;
 import javax.validation.Validator;
 
 import org.apache.http.impl.client.CloseableHttpClient;
@@ -60,12 +79,17 @@ public class XRelease extends ProjectRelease {
   private final NameIndex ni;
   private XReleaseConfig xCfg;
   private TreeMergeHandlerConfig mergeCfg;
+  private final AtomicInteger mergeCounter = new AtomicInteger(0);
+  private final AtomicInteger failedSyncs = new AtomicInteger(0);
+  private final Map<Integer, Duration> mergeDurations = new ConcurrentHashMap<>();
+  private final Map<Integer, ImportState> mergeStates = new ConcurrentHashMap<>();
+  private final Map<Integer, TaxGroup> mergeGroups = new ConcurrentHashMap<>();
 
   XRelease(SqlSessionFactory factory, SyncFactory syncFactory, UsageMatcherGlobal matcher, NameUsageIndexService indexService, ImageService imageService,
            DatasetDao dDao, DatasetImportDao diDao, SectorImportDao siDao, ReferenceDao rDao, NameDao nDao, SectorDao sDao,
            int releaseKey, int userKey, WsServerConfig cfg, CloseableHttpClient client, ExportManager exportManager,
-           DoiService doiService, DoiUpdater doiUpdater, Validator validator) {
-    super("releasing extended", factory, indexService, imageService, diDao, dDao, rDao, nDao, sDao, DatasetInfoCache.CACHE.info(releaseKey, DatasetOrigin.RELEASE).sourceKey, userKey, cfg, client, exportManager, doiService, doiUpdater, validator);
+           DoiService doiService, DoiUpdater doiUpdater, Validator validator, boolean resume) {
+    super("releasing extended", factory, indexService, imageService, diDao, dDao, rDao, nDao, sDao, DatasetInfoCache.CACHE.info(releaseKey, DatasetOrigin.RELEASE).sourceKey, releaseKey, userKey, cfg, client, exportManager, doiService, doiUpdater, validator, cfg.release.checkpointDir, resume);
     this.siDao = siDao;
     this.syncFactory = syncFactory;
     this.matcher = matcher;
@@ -107,6 +131,10 @@ public class XRelease extends ProjectRelease {
 
   @Override
   void prepWork() throws Exception {
+    if (xCfg == null) {
+      // a resumed release reuses its dataset which therefore was not modified with the config loaded
+      xCfg = loadConfig(settings.getURI(Setting.XRELEASE_CONFIG));
+    }
     // fail early if components are not ready
     syncFactory.assertComponentsOnline();
     // ... or licenses of existing sectors are not compatible
@@ -215,14 +243,19 @@ public class XRelease extends ProjectRelease {
 
     updateState(ImportState.PROCESSING);
     // detect and group basionyms
-    if (xCfg.groupBasionyms) {
+    if (isDone(ReleaseCheckpoint.Phase.HOMOTYPIC_GROUPING)) {
+      LOG.info("Homotypic grouping already done in resumed release {}", newDatasetKey);
+
+    } else if (xCfg.groupBasionyms) {
       final LocalDateTime start = LocalDateTime.now();
       final var prios = new SectorPriority(getDatasetKey(), factory);
       var hc = HomotypicConsolidator.entireDataset(factory, newDatasetKey, prios::priority);
       if (xCfg.basionymExclusions != null) {
         hc.setBasionymExclusions(xCfg.basionymExclusions);
       }
+      hc.setThreads(xCfg.groupBasionymThreads);
       hc.consolidate();
+      done(ReleaseCheckpoint.Phase.HOMOTYPIC_GROUPING);
       DateUtils.logDuration(LOG, hc.getClass(), start);
 
     } else {
@@ -230,9 +263,12 @@ public class XRelease extends ProjectRelease {
     }
 
     // flagging of suspicous usages
-    validateAndCleanTree();
-    cleanImplicitTaxa();
-    resolveDuplicateAcceptedNames();
+    if (!isDone(ReleaseCheckpoint.Phase.VALIDATION)) {
+      validateAndCleanTree();
+      cleanImplicitTaxa();
+      resolveDuplicateAcceptedNames();
+      done(ReleaseCheckpoint.Phase.VALIDATION);
+    }
 
     // remove orphan names and references
     removeOrphans(newDatasetKey);
@@ -318,10 +354,10 @@ public class XRelease extends ProjectRelease {
    * We copy the tables of the base release here, not the project
    */
   @Override
-  <M extends CopyDataset> void copyTable(Class entity, Class<M> mapperClass, SqlSession session) {
+  <M extends CopyDataset> int copyTable(Class entity, Class<M> mapperClass, SqlSession session) {
     // we copy some entities from the project, not the base release though
     if (entity.equals(Publisher.class)) {
-      super.copyTable(entity, mapperClass, session);
+      return super.copyTable(entity, mapperClass, session);
 
     } else {
       // copy all data from the base release
@@ -346,6 +382,7 @@ public class XRelease extends ProjectRelease {
       } else if (entity.equals(EditorialDecision.class)) {
         //TODO: copy merge decisions only...
       }
+      return count;
     }
   }
 
@@ -373,58 +410,240 @@ public class XRelease extends ProjectRelease {
     final LocalDateTime start = LocalDateTime.now();
     // prepare merge handler config instance
     mergeCfg = new TreeMergeHandlerConfig(factory, xCfg, newDatasetKey, user);
-    final int size = sectors.size();
-    int counter = 0;
-    int failedSyncs = 0;
+    if (isDone(ReleaseCheckpoint.Phase.MERGE)) {
+      LOG.info("All sectors already merged in resumed release {}", newDatasetKey);
+      return;
+    }
     // create id generators for extended records
     final Supplier<String> nameIdGen = new XIdGen();
     final Supplier<String> typeMaterialIdGen = new XIdGen();
     try(XIdProvider usageIdGen = new XIdProvider(datasetKey, attempt, newDatasetKey, cfg.release, ni, factory)) {
+      if (checkpoint != null && checkpoint.isResumed()) {
+        reserveMergedIds(usageIdGen);
+      }
       updateState(ImportState.INSERTING);
+      if (xCfg.mergeThreads > 1 && sectors.size() > 1) {
+        mergeConcurrently(nameIdGen, typeMaterialIdGen, usageIdGen);
+      } else {
+        for (Sector s : sectors) {
+          checkIfCancelled();
+          mergeSector(s, nameIdGen, typeMaterialIdGen, usageIdGen);
+        }
+      }
+    }
+
+    LOG.info("All {} sectors merged, {} failed", mergeCounter.get(), failedSyncs.get());
+    done(ReleaseCheckpoint.Phase.MERGE);
+    DateUtils.logDuration(LOG, getClass(), start);
+    writeMergeReport();
+  }
+
+  /**
+   * Makes sure ids issued to usages of sectors merged before the release was resumed are not issued again.
+   */
+  private void reserveMergedIds(XIdProvider usageIdGen) {
+    final List<String> ids = new ArrayList<>();
+    try (SqlSession session = factory.openSession(true)) {
+      var num = session.getMapper(NameUsageMapper.class);
       for (Sector s : sectors) {
-        LOG.info("Merge {}. #{} out of {}", s, counter++, size);
-        // the sector might not have been copied to the xrelease yet - we only copied all sectors from the base release, not the project.
-        // create only if missing
-        try (SqlSession session = factory.openSession(true)) {
-          SectorMapper sm = session.getMapper(SectorMapper.class);
-          Sector sRel = sm.get(DSID.of(newDatasetKey, s.getId()));
-          if (sRel == null) {
-            sRel = new Sector(s);
-            sRel.setDatasetKey(newDatasetKey);
-            sm.createWithID(sRel);
-          }
+        if (checkpoint.isMerged(s.getId())) {
+          PgUtils.consume(() -> num.processSector(DSID.of(newDatasetKey, s.getId())), u -> ids.add(u.getId()));
         }
-        checkIfCancelled();
-        SectorSync ss;
-        try {
-          ss = syncFactory.release(s, newDatasetKey, mergeCfg, nameIdGen, typeMaterialIdGen, usageIdGen, fullUser);
-          ss.run();
-          if (ss.getState().getState() != ImportState.FINISHED){
-            failedSyncs++;
-            LOG.error("Failed to sync {} with error: {}", s, ss.getState().getError());
-          } else {
-            // copy attempts to local instances as it finished successfully
-            s.setSyncAttempt(ss.getState().getAttempt());
-            // and also update our release copy!
-            try (SqlSession session = factory.openSession(true)) {
-              SectorMapper sm = session.getMapper(SectorMapper.class);
-              sm.updateReleaseAttempts(DSID.of(datasetKey, s.getId()), newDatasetKey);
-            }
+      }
+    }
+    int count = usageIdGen.reserve(ids);
+    LOG.info("Reserved {} ids of {} usages from {} sectors merged before release {} was resumed", count, ids.size(), checkpoint.sectors.size(), newDatasetKey);
+  }
+
+  /**
+   * Removes all data of a sector which might have been merged partially before the release was resumed.
+   */
+  private void deletePartialMerge(Sector s) {
+    final DSID<Integer> key = DSID.of(newDatasetKey, s.getId());
+    try (SqlSession session = factory.openSession(true)) {
+      for (Class<? extends SectorProcessable<?>> m : SectorProcessable.MAPPERS) {
+        int count = session.getMapper(m).deleteBySector(key);
+        if (count > 0) {
+          LOG.info("Deleted {} {}s from partially merged sector {}", count, m.getSimpleName().replaceAll("Mapper", ""), key);
+        }
+      }
+    }
+  }
+
+  /**
+   * Merges sectors concurrently, but only starts a sector once all higher priority sectors it conflicts with have been merged.
+   * Sectors of disparate taxonomic groups with unrelated targets cannot influence each other,
+   * so the result is the same as merging them in strict priority order.
+   */
+  private void mergeConcurrently(Supplier<String> nameIdGen, Supplier<String> typeMaterialIdGen, XIdProvider usageIdGen) throws Exception {
+    final var conflicts = new MergeConflicts(mergeScopes());
+    LOG.info("Merge {} sectors with {} threads. {} sectors have no conflicts with higher priority sectors", sectors.size(), xCfg.mergeThreads, conflicts.independent());
+    final AtomicBoolean cancelled = new AtomicBoolean(false);
+    ExecutorService exec = Executors.newFixedThreadPool(xCfg.mergeThreads, new NamedThreadFactory("xrelease-merge-" + newDatasetKey, Thread.NORM_PRIORITY, true));
+    try {
+      final CompletableFuture<?>[] futures = new CompletableFuture[sectors.size()];
+      for (int j = 0; j < sectors.size(); j++) {
+        final Sector s = sectors.get(j);
+        final CompletableFuture<?>[] deps = IntStream.of(conflicts.dependencies(j))
+          .mapToObj(i -> futures[i])
+          .toArray(CompletableFuture[]::new);
+        futures[j] = CompletableFuture.allOf(deps).thenRunAsync(() -> {
+          if (!cancelled.get()) {
+            mergeSector(s, nameIdGen, typeMaterialIdGen, usageIdGen);
           }
-        } catch (NotFoundException e) {
-          failedSyncs++;
-          LOG.error("Sector {} was deleted. No sync possible", s);
-          // remove from release
-          try (SqlSession session = factory.openSession(true)) {
-            SectorMapper sm = session.getMapper(SectorMapper.class);
-            sm.delete(DSID.of(newDatasetKey, s.getId()));
+        }, exec);
+      }
+      CompletableFuture.allOf(futures).get();
+
+    } catch (InterruptedException e) {
+      cancelled.set(true);
+      exec.shutdownNow();
+      throw e;
+
+    } catch (ExecutionException e) {
+      cancelled.set(true);
+      if (e.getCause() instanceof Exception) {
+        throw (Exception) e.getCause();
+      }
+      throw e;
+
+    } finally {
+      ExecutorUtils.shutdown(exec);
+    }
+  }
+
+  /**
+   * Determines the taxonomic group of each sector subject, the lineage of its target in the release
+   * and the genera of all its source names.
+   */
+  private List<MergeConflicts.Scope> mergeScopes() {
+    final TaxGroupAnalyzer analyzer = new TaxGroupAnalyzer();
+    List<MergeConflicts.Scope> scopes = new ArrayList<>(sectors.size());
+    try (SqlSession session = factory.openSession(true)) {
+      var tm = session.getMapper(TaxonMapper.class);
+      var num = session.getMapper(NameUsageMapper.class);
+      for (Sector s : sectors) {
+        TaxGroup group = null;
+        if (s.getSubject() != null) {
+          List<SimpleName> classification = null;
+          if (s.getSubject().getId() != null) {
+            classification = tm.classificationSimple(DSID.of(s.getSubjectDatasetKey(), s.getSubject().getId()));
           }
+          group = analyzer.analyze(s.getSubject(), classification == null ? List.of() : classification);
+        }
+        String target = null;
+        Set<String> lineage = null;
+        if (s.getTarget() != null && s.getTarget().getId() != null) {
+          target = s.getTarget().getId();
+          lineage = new HashSet<>(tm.classificationIds(DSID.of(newDatasetKey, target)));
+        }
+        if (group != null) {
+          mergeGroups.put(s.getId(), group);
         }
+        Set<String> genera = new HashSet<>();
+        String subjectID = s.getSubject() == null ? null : s.getSubject().getId();
+        num.processTreeGenera(TreeTraversalParameter.dataset(s.getSubjectDatasetKey(), subjectID)).forEach(genera::add);
+        scopes.add(new MergeConflicts.Scope(group, target, lineage, genera));
       }
     }
+    return scopes;
+  }
 
-    LOG.info("All {} sectors merged, {} failed", counter, failedSyncs);
-    DateUtils.logDuration(LOG, getClass(), start);
+  private void mergeSector(Sector s, Supplier<String> nameIdGen, Supplier<String> typeMaterialIdGen, XIdProvider usageIdGen) {
+    if (checkpoint != null && checkpoint.isMerged(s.getId())) {
+      LOG.info("Skip {} already merged before the release was resumed", s);
+      try (SqlSession session = factory.openSession(true)) {
+        Sector sRel = session.getMapper(SectorMapper.class).get(DSID.of(newDatasetKey, s.getId()));
+        if (sRel != null) {
+          s.setSyncAttempt(sRel.getSyncAttempt());
+        }
+      }
+      return;
+    }
+    LOG.info("Merge {}. #{} out of {}", s, mergeCounter.getAndIncrement(), sectors.size());
+    final LocalDateTime start = LocalDateTime.now();
+    if (checkpoint != null && checkpoint.isResumed()) {
+      deletePartialMerge(s);
+    }
+    // the sector might not have been copied to the xrelease yet - we only copied all sectors from the base release, not the project.
+    // create only if missing
+    try (SqlSession session = factory.openSession(true)) {
+      SectorMapper sm = session.getMapper(SectorMapper.class);
+      Sector sRel = sm.get(DSID.of(newDatasetKey, s.getId()));
+      if (sRel == null) {
+        sRel = new Sector(s);
+        sRel.setDatasetKey(newDatasetKey);
+        sm.createWithID(sRel);
+      }
+    }
+    ImportState state = ImportState.FAILED;
+    try {
+      SectorSync ss = syncFactory.release(s, newDatasetKey, mergeCfg, nameIdGen, typeMaterialIdGen, usageIdGen, fullUser);
+      ss.run();
+      state = ss.getState().getState();
+      if (state != ImportState.FINISHED){
+        failedSyncs.incrementAndGet();
+        LOG.error("Failed to sync {} with error: {}", s, ss.getState().getError());
+      } else {
+        // copy attempts to local instances as it finished successfully
+        s.setSyncAttempt(ss.getState().getAttempt());
+        // and also update our release copy!
+        try (SqlSession session = factory.openSession(true)) {
+          SectorMapper sm = session.getMapper(SectorMapper.class);
+          sm.updateReleaseAttempts(DSID.of(datasetKey, s.getId()), newDatasetKey);
+        }
+      }
+      // only completely merged sectors are skipped when resumed.
+      // Failed and cancelled ones are merged again after their partial data was removed, see deletePartialMerge
+      if (state == ImportState.FINISHED) {
+        merged(s);
+      }
+    } catch (NotFoundException e) {
+      failedSyncs.incrementAndGet();
+      LOG.error("Sector {} was deleted. No sync possible", s);
+      // remove from release
+      try (SqlSession session = factory.openSession(true)) {
+        SectorMapper sm = session.getMapper(SectorMapper.class);
+        sm.delete(DSID.of(newDatasetKey, s.getId()));
+      }
+      merged(s);
+    } finally {
+      mergeStates.put(s.getId(), state);
+      mergeDurations.put(s.getId(), Duration.between(start, LocalDateTime.now()));
+    }
+  }
+
+  private void merged(Sector s) {
+    if (checkpoint != null) {
+      checkpoint.merged(s.getId());
+    }
+  }
+
+  /**
+   * Writes the merge duration of each sector in priority order to the release report directory.
+   */
+  private void writeMergeReport() {
+    File dir = cfg.release.reportDir(datasetKey, attempt);
+    dir.mkdirs();
+    File f = new File(dir, "merge-durations.tsv");
+    try (TabWriter tsv = TabWriter.fromFile(f)) {
+      for (Sector s : sectors) {
+        Duration d = mergeDurations.get(s.getId());
+        if (d != null) {
+          TaxGroup group = mergeGroups.get(s.getId());
+          tsv.write(new String[]{
+            s.getId().toString(),
+            String.valueOf(s.getSubjectDatasetKey()),
+            s.getSubject() == null ? null : s.getSubject().getLabel(),
+            group == null ? null : group.name(),
+            String.valueOf(mergeStates.get(s.getId())),
+            String.valueOf(d.toMillis() / 1000.0)
+          });
+        }
+      }
+    } catch (IOException e) {
+      LOG.error("Failed to write sector merge report {}", f, e);
+    }
   }
 
   /**
@@ -443,26 +662,120 @@ public class XRelease extends ProjectRelease {
 
   /**
    * Iterates over the entire tree of accepted names, validates taxa and resolves data.
+   * With several threads configured the children of all suprageneric root taxa are validated as disjoint subtrees concurrently,
+   * while the remaining tree is validated in the current thread.
    */
-  private void validateAndCleanTree() {
-    LOG.info("Clean and validate entire xrelease {}", newDatasetKey);
+  private void validateAndCleanTree() throws Exception {
+    LOG.info("Clean and validate entire xrelease {} using {} threads", newDatasetKey, xCfg.validationThreads);
     final LocalDateTime start = LocalDateTime.now();
+    final List<TreeCleanerAndValidator> results = new ArrayList<>();
+    ExecutorService exec = null;
+    try {
+      final List<Subtree> subtrees = xCfg.validationThreads > 1 ? subtrees() : List.of();
+      if (subtrees.isEmpty()) {
+        results.add(validateTree(null, null, null));
+
+      } else {
+        LOG.info("Validate {} subtrees of xrelease {} concurrently", subtrees.size(), newDatasetKey);
+        exec = Executors.newFixedThreadPool(xCfg.validationThreads, new NamedThreadFactory("tree-validation", Thread.NORM_PRIORITY, true));
+        List<Future<TreeCleanerAndValidator>> futures = new ArrayList<>();
+        for (Subtree st : subtrees) {
+          futures.add(exec.submit(() -> validateTree(st.parent, st.rootID, null)));
+        }
+        // the remaining tree without the subtrees
+        results.add(validateTree(null, null, subtrees.stream().map(st -> st.rootID).collect(Collectors.toSet())));
+        for (var f : futures) {
+          results.add(f.get());
+        }
+      }
+      metrics.setMaxClassificationDepth(results.stream().mapToInt(TreeCleanerAndValidator::getMaxDepth).max().orElse(0));
+      LOG.info("{} usages out of {} flagged with issues and {} empty genera removed during validation",
+        results.stream().mapToInt(TreeCleanerAndValidator::getFlagged).sum(),
+        results.stream().mapToInt(TreeCleanerAndValidator::getCounter).sum(),
+        results.stream().mapToInt(TreeCleanerAndValidator::getRemoved).sum()
+      );
+
+    } catch (InterruptedException e) {
+      if (exec != null) {
+        exec.shutdownNow();
+      }
+      throw e;
+
+    } catch (ExecutionException e) {
+      LOG.error("Name validation & cleaning of a subtree failed", e.getCause());
+      if (exec != null) {
+        exec.shutdownNow();
+      }
+      if (e.getCause() instanceof Exception) {
+        throw (Exception) e.getCause();
+      }
+      throw e;
+
+    } finally {
+      if (exec != null) {
+        ExecutorUtils.shutdown(exec);
+      }
+    }
+    DateUtils.logDuration(LOG, TreeCleanerAndValidator.class, start);
+  }
+
+  /**
+   * An accepted subtree to be validated on its own.
+   */
+  private static class Subtree {
+    final LinneanNameUsage parent;
+    final String rootID;
+
+    Subtree(LinneanNameUsage parent, String rootID) {
+      this.parent = parent;
+      this.rootID = rootID;
+    }
+  }
+
+  /**
+   * @return all accepted children of suprageneric root taxa.
+   * Genera or lower ranked roots are not split as empty genera can only be detected with all their children.
+   */
+  private List<Subtree> subtrees() {
+    List<Subtree> subtrees = new ArrayList<>();
+    try (SqlSession session = factory.openSession(true)) {
+      var tm = session.getMapper(TaxonMapper.class);
+      var num = session.getMapper(NameUsageMapper.class);
+      final DSID<String> key = DSID.root(newDatasetKey);
+      for (String rootID : tm.listRootIds(newDatasetKey)) {
+        var root = num.get(key.id(rootID));
+        if (root != null && root.getRank() != null && root.getRank().isSuprageneric()) {
+          var parent = new LinneanNameUsage(root);
+          for (var child : num.children(key.id(rootID), null)) {
+            if (child.getStatus() != null && child.getStatus().isTaxon()) {
+              subtrees.add(new Subtree(parent, child.getId()));
+            }
+          }
+        }
+      }
+    }
+    return subtrees;
+  }
+
+  /**
+   * Validates a tree with its own consumer and session.
+   * @param parent of the subtree root to seed the classification with
+   * @param rootID subtree to validate or null for the entire tree
+   * @param exclusion subtrees to exclude
+   * @return the closed consumer with its counts
+   */
+  private TreeCleanerAndValidator validateTree(@Nullable LinneanNameUsage parent, @Nullable String rootID, @Nullable Set<String> exclusion) throws IOException {
     try (SqlSession session = factory.openSession(true);
          var consumer = new TreeCleanerAndValidator(factory, newDatasetKey, xCfg.removeEmptyGenera)
     ) {
+      if (parent != null) {
+        consumer.seed(parent);
+      }
       var num = session.getMapper(NameUsageMapper.class);
-      TreeTraversalParameter params = new TreeTraversalParameter();
-      params.setDatasetKey(newDatasetKey);
-      params.setSynonyms(false);
-
+      TreeTraversalParameter params = TreeTraversalParameter.dataset(newDatasetKey, rootID, exclusion, null, false);
       PgUtils.consume(() -> num.processTreeLinneanUsage(params, true, false), consumer);
-      metrics.setMaxClassificationDepth(consumer.getMaxDepth());
-      LOG.info("{} usages out of {} flagged with issues during validation", consumer.getFlagged(), consumer.getCounter());
-
-    } catch (Exception e) {
-      LOG.error("Name validation & cleaning failed", e);
+      return consumer;
     }
-    DateUtils.logDuration(LOG, TreeCleanerAndValidator.class, start);
   }
 
   private void resolveDuplicateAcceptedNames() {
@@ -8,6 +8,7 @@ import java.util.*;
 
 import javax.annotation.Nullable;
 import javax.validation.Valid;
+import javax.validation.constraints.Min;
 import javax.validation.constraints.NotNull;
 
 public class XReleaseConfig {
@@ -58,6 +59,37 @@ public class XReleaseConfig {
   @Valid
   public boolean groupBasionyms = true;
 
+  /**
+   * Number of threads used to detect and consolidate homotypic names.
+   * Families are independent of each other and are consolidated concurrently, each in its own session.
+   */
+  @Min(1)
+  public int groupBasionymThreads = 4;
+
+  /**
+   * Number of threads used to merge sectors.
+   * Sectors of disparate taxonomic groups with unrelated targets are merged concurrently,
+   * all others wait for the higher priority sectors they conflict with.
+   * The default of 1 merges all sectors strictly one after the other.
+   */
+  @Min(1)
+  public int mergeThreads = 1;
+
+  /**
+   * Number of source usages a merge sync reads ahead before processing them.
+   * Match candidates and their classifications are prefetched for the entire chunk with a few set based queries.
+   * Values of 1 or less process each usage on its own as it is read.
+   */
+  @Min(0)
+  public int mergeLookahead = 1000;
+
+  /**
+   * Number of threads used to validate and clean the merged tree.
+   * The accepted children of all suprageneric root taxa, usually phyla, are validated as independent subtrees.
+   */
+  @Min(1)
+  public int validationThreads = 4;
+
   /**
    * An optional set of issues that if found on the usage or name will trigger the exclusion of the usage in the merge syncs.
    */
@@ -4,11 +4,9 @@ import life.catalogue.api.model.DSID;
 import life.catalogue.api.model.DSIDValue;
 import life.catalogue.printer.BaseDiffService;
 
-import java.io.IOException;
-import java.io.Reader;
-
 import javax.ws.rs.*;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.StreamingOutput;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -29,8 +27,8 @@ public abstract class AbstractDiffResource<K> {
 
   @GET
   @Produces(MediaType.TEXT_PLAIN)
-  public Reader diffNames(@BeanParam DSIDValue<Integer> key,
-                          @QueryParam("attempts") String attempts) throws IOException {
+  public StreamingOutput diffNames(@BeanParam DSIDValue<Integer> key,
+                                   @QueryParam("attempts") String attempts) {
     return diff.diff(keyFromPath(key), attempts);
   }
 
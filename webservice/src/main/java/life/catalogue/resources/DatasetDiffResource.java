@@ -7,11 +7,11 @@ import life.catalogue.printer.DatasetDiffService;
 import org.gbif.nameparser.api.Rank;
 
 import java.io.IOException;
-import java.io.Reader;
 import java.util.List;
 
 import javax.ws.rs.*;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.StreamingOutput;
 
 import io.dropwizard.auth.Auth;
 
@@ -33,16 +33,16 @@ public class DatasetDiffResource extends AbstractDiffResource<Integer> {
   @GET
   @Path("{key2}")
   @Produces(MediaType.TEXT_PLAIN)
-  public Reader diffNames(@PathParam("key") Integer key,
-                          @PathParam("key2") Integer key2,
-                          @QueryParam("root") List<String> root,
-                          @QueryParam("root2") List<String> root2,
-                          @QueryParam("minRank") Rank lowestRank,
-                          @QueryParam("authorship") @DefaultValue("true") boolean inclAuthorship,
-                          @QueryParam("synonyms") boolean inclSynonyms,
-                          @QueryParam("showParent") boolean showParent,
-                          @QueryParam("parentRank") Rank parentRank,
-                          @Auth User user) throws IOException {
+  public StreamingOutput diffNames(@PathParam("key") Integer key,
+                                   @PathParam("key2") Integer key2,
+                                   @QueryParam("root") List<String> root,
+                                   @QueryParam("root2") List<String> root2,
+                                   @QueryParam("minRank") Rank lowestRank,
+                                   @QueryParam("authorship") @DefaultValue("true") boolean inclAuthorship,
+                                   @QueryParam("synonyms") boolean inclSynonyms,
+                                   @QueryParam("showParent") boolean showParent,
+                                   @QueryParam("parentRank") Rank parentRank,
+                                   @Auth User user) throws IOException {
     return service.datasetNamesDiff(user.getKey(), key, root, key2, root2, lowestRank, inclAuthorship, inclSynonyms, showParent, parentRank);
   }
 
@@ -10,10 +10,15 @@ import life.catalogue.api.util.ObjectUtils;
 import life.catalogue.api.vocab.DataFormat;
 import life.catalogue.common.io.UTF8IoUtils;
 import life.catalogue.common.ws.MoreMediaTypes;
+import life.catalogue.dao.AggregatedTaxonCounter;
+import life.catalogue.dao.TaxonCountStore;
+import life.catalogue.dao.TaxonCounter;
 import life.catalogue.db.mapper.NameUsageMapper;
+import life.catalogue.dw.jersey.FileStreamingOutput;
+import life.catalogue.dw.jersey.MoreHttpHeaders;
 import life.catalogue.dw.jersey.Redirect;
 import life.catalogue.dw.jersey.filter.VaryAccept;
-import life.catalogue.es.NameUsageSearchService;
+import life.catalogue.exporter.ExportCache;
 import life.catalogue.exporter.ExportManager;
 import life.catalogue.printer.*;
 
@@ -29,10 +34,15 @@ import java.util.Set;
 import java.util.UUID;
 import java.util.function.Consumer;
 import java.util.stream.Stream;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+import javax.annotation.Nullable;
 
 import javax.validation.Valid;
 import javax.ws.rs.*;
 import javax.ws.rs.core.Context;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.StreamingOutput;
@@ -56,18 +66,21 @@ import io.dropwizard.auth.Auth;
 @Path("/dataset/{key}/export")
 @Produces(MediaType.APPLICATION_JSON)
 public class DatasetExportResource {
+  private static final String GZIP = "gzip";
+  private static final int GZIP_BUFFER = 64 * 1024;
   private final SqlSessionFactory factory;
-  private final NameUsageSearchService searchService;
+  private final TaxonCountStore taxonCounts;
   private final ExportManager exportManager;
+  private final ExportCache exportCache;
   private final WsServerConfig cfg;
 
-  @SuppressWarnings("unused")
   private static final Logger LOG = LoggerFactory.getLogger(DatasetExportResource.class);
 
-  public DatasetExportResource(SqlSessionFactory factory, NameUsageSearchService searchService, ExportManager exportManager, WsServerConfig cfg) {
+  public DatasetExportResource(SqlSessionFactory factory, TaxonCountStore taxonCounts, ExportManager exportManager, ExportCache exportCache, WsServerConfig cfg) {
     this.factory = factory;
-    this.searchService = searchService;
+    this.taxonCounts = taxonCounts;
     this.exportManager = exportManager;
+    this.exportCache = exportCache;
     this.cfg = cfg;
   }
 
@@ -80,7 +93,9 @@ public class DatasetExportResource {
   }
 
   /**
-   * If no format is given the original source is returned.
+   * Downloads an existing export archive in the given format.
+   * Finished archives are streamed directly with support for byte ranges if configured,
+   * otherwise the client is redirected to the download server.
    */
   @GET
   @VaryAccept
@@ -91,7 +106,8 @@ public class DatasetExportResource {
   })
   public Response download(@PathParam("key") int key,
                            @QueryParam("format") DataFormat format,
-                           @QueryParam("extended") boolean extended) {
+                           @QueryParam("extended") boolean extended,
+                           @HeaderParam(MoreHttpHeaders.RANGE) String range) {
     if (format == null) {
       throw new IllegalArgumentException("Format parameter is required");
     }
@@ -99,6 +115,17 @@ public class DatasetExportResource {
     // an already existing export in the given format
     ExportRequest req = new ExportRequest(key, format);
     req.setExtended(extended);
+    var exp = exportCache.get(req);
+    if (exp != null) {
+      if (cfg.job.serveDownloads) {
+        return FileStreamingOutput.response(cfg.job.downloadFile(exp.getKey()), range)
+          .type(MoreMediaTypes.APP_ZIP)
+          .header(MoreHttpHeaders.CONTENT_DISPOSITION, ResourceUtils.fileAttachment("dataset-" + key + "-" + format.getFilename() + ".zip"))
+          .build();
+      }
+      return Redirect.temporary(cfg.job.downloadURI(exp.getKey()));
+    }
+    // a running export
     UUID exportKey = exportManager.exists(req);
     if (exportKey != null) {
       return Redirect.temporary(cfg.job.downloadURI(exportKey));
@@ -140,16 +167,55 @@ public class DatasetExportResource {
     }
   }
 
-  <T extends AbstractPrinter> Response printerExport(Class<T> printerClass, int key, ExportQueryParams params, Consumer<T> modifier) {
+  /**
+   * @return true if the client accepts gzip encoded responses
+   */
+  static boolean acceptsGzip(@Nullable String acceptEncoding) {
+    if (acceptEncoding != null) {
+      for (String enc : acceptEncoding.split(",")) {
+        String[] parts = enc.trim().split(";");
+        if (parts[0].trim().equalsIgnoreCase(GZIP)) {
+          return parts.length == 1 || !parts[1].replace(" ", "").matches("q=0(\\.0*)?");
+        }
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Streams the printed usages as they are read from postgres in chunks to the client,
+   * compressed on the fly with gzip if the client accepts it.
+   */
+  <T extends AbstractPrinter> Response printerExport(Class<T> printerClass, int key, ExportQueryParams params, @Nullable String acceptEncoding, Consumer<T> modifier) {
     params.init();
+    final boolean gzip = acceptsGzip(acceptEncoding);
     StreamingOutput stream = os -> {
-      Writer writer = UTF8IoUtils.writerFromStream(os);
-      T printer = PrinterFactory.dataset(printerClass, params.toTreeTraversalParameter(key), params.ranks, params.extinct, params.countBy, searchService, factory, writer);
+      final long start = System.currentTimeMillis();
+      // favour throughput over the compression ratio
+      final GZIPOutputStream gzos = gzip ? new GZIPOutputStream(os, GZIP_BUFFER) {{ def.setLevel(Deflater.BEST_SPEED); }} : null;
+      Writer writer = UTF8IoUtils.writerFromStream(gzip ? gzos : os);
+      // use materialized counts or aggregate them upfront with a single traversal instead of a search for every printed taxon
+      TaxonCounter counter = null;
+      if (params.countBy != null) {
+        counter = taxonCounts.exists(key) ? taxonCounts : AggregatedTaxonCounter.build(factory, key, params.taxonID, params.countBy, taxonCounts);
+      }
+      T printer = PrinterFactory.dataset(printerClass, params.toTreeTraversalParameter(key), params.ranks, params.extinct, params.countBy, counter, factory, writer);
+      // printed sequentially with a single connection, parallel printing is limited to export jobs bounded by the job executor
       modifier.accept(printer);
-      printer.print();
+      int rows = printer.print();
       writer.flush();
+      if (gzos != null) {
+        gzos.finish();
+      }
+      long millis = Math.max(1, System.currentTimeMillis() - start);
+      LOG.info("Streamed {} usages of dataset {} with {} in {}ms, {} rows/s{}", rows, key, printerClass.getSimpleName(), millis, rows * 1000L / millis, gzip ? " gzipped" : "");
     };
-    return Response.ok(stream).build();
+    var resp = Response.ok(stream);
+    if (gzip) {
+      // the server wont compress it again
+      resp.header(HttpHeaders.CONTENT_ENCODING, GZIP);
+    }
+    return resp.header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING).build();
   }
 
   @GET
@@ -157,8 +223,9 @@ public class DatasetExportResource {
   @Produces(MediaType.TEXT_PLAIN)
   public Response textTree(@PathParam("key") int key,
                            @BeanParam ExportQueryParams params,
-                           @QueryParam("showID") boolean showID) {
-    return printerExport(TextTreePrinter.class, key, params, printer -> {
+                           @QueryParam("showID") boolean showID,
+                           @HeaderParam(HttpHeaders.ACCEPT_ENCODING) String acceptEncoding) {
+    return printerExport(TextTreePrinter.class, key, params, acceptEncoding, printer -> {
       if (showID) printer.showIDs();
     });
   }
@@ -168,9 +235,10 @@ public class DatasetExportResource {
   @Produces(MediaType.APPLICATION_JSON)
   public Response simpleName(@PathParam("key") int key,
                              @QueryParam("flat") boolean flat,
-                             @BeanParam ExportQueryParams params) {
+                             @BeanParam ExportQueryParams params,
+                             @HeaderParam(HttpHeaders.ACCEPT_ENCODING) String acceptEncoding) {
     Class<? extends AbstractPrinter> printerClass = flat ? JsonFlatPrinter.class : JsonTreePrinter.class;
-    return printerExport(printerClass, key, params, p->{});
+    return printerExport(printerClass, key, params, acceptEncoding, p->{});
   }
 
   @GET
@@ -178,8 +246,9 @@ public class DatasetExportResource {
   @Produces(MoreMediaTypes.TEXT_TSV)
   public Response exportTsv(@PathParam("key") int key,
                                     @BeanParam ExportQueryParams params,
+                                    @HeaderParam(HttpHeaders.ACCEPT_ENCODING) String acceptEncoding,
                                     @Context SqlSession session) {
-    return printerExport(ColdpPrinter.TSV.class, key, params, p->{});
+    return printerExport(ColdpPrinter.TSV.class, key, params, acceptEncoding, p->{});
   }
 
   @GET
@@ -187,8 +256,9 @@ public class DatasetExportResource {
   @Produces({MoreMediaTypes.TEXT_CSV})
   public Response exportCsv(@PathParam("key") int key,
                                     @BeanParam ExportQueryParams params,
+                                    @HeaderParam(HttpHeaders.ACCEPT_ENCODING) String acceptEncoding,
                                     @Context SqlSession session) {
-    return printerExport(ColdpPrinter.CSV.class, key, params, p->{});
+    return printerExport(ColdpPrinter.CSV.class, key, params, acceptEncoding, p->{});
   }
 
 }
@@ -8,6 +8,7 @@ import life.catalogue.assembly.SyncManager;
 import life.catalogue.assembly.SyncState;
 import life.catalogue.basgroup.HomotypicConsolidationJob;
 import life.catalogue.common.ws.MoreMediaTypes;
+import life.catalogue.concurrent.JobConfig;
 import life.catalogue.concurrent.JobExecutor;
 import life.catalogue.dao.DatasetDao;
 import life.catalogue.dao.DatasetImportDao;
@@ -50,11 +51,12 @@ public class DatasetResource extends AbstractGlobalResource<Dataset> {
   private final DatasetSourceDao sourceDao;
   private final SyncManager assembly;
   private final JobExecutor exec;
+  private final JobConfig jobCfg;
   private final ProjectCopyFactory jobFactory;
 
   private final AuthorlistGenerator authGen;
 
-  public DatasetResource(SqlSessionFactory factory, DatasetDao dao, DatasetSourceDao sourceDao, SyncManager assembly, ProjectCopyFactory jobFactory, JobExecutor exec) {
+  public DatasetResource(SqlSessionFactory factory, DatasetDao dao, DatasetSourceDao sourceDao, SyncManager assembly, ProjectCopyFactory jobFactory, JobExecutor exec, JobConfig jobCfg) {
     super(Dataset.class, dao, factory);
     this.dao = dao;
     this.sourceDao = sourceDao;
@@ -62,6 +64,7 @@ public class DatasetResource extends AbstractGlobalResource<Dataset> {
     this.assembly = assembly;
     this.jobFactory = jobFactory;
     this.exec = exec;
+    this.jobCfg = jobCfg;
   }
 
   /**
@@ -229,9 +232,9 @@ public class DatasetResource extends AbstractGlobalResource<Dataset> {
   public void homotypicGrouping(@PathParam("key") int key, @QueryParam("taxonID") String taxonID, @Auth User user) {
     HomotypicConsolidationJob job;
     if (StringUtils.isBlank(taxonID)) {
-      job = new HomotypicConsolidationJob(factory, key, user.getKey());
+      job = new HomotypicConsolidationJob(factory, key, user.getKey(), jobCfg.homotypicThreads);
     } else {
-      job = new HomotypicConsolidationJob(factory, key, user.getKey(), taxonID);
+      job = new HomotypicConsolidationJob(factory, key, user.getKey(), taxonID, jobCfg.homotypicThreads);
     }
     exec.submit(job);
   }
@@ -239,8 +242,8 @@ public class DatasetResource extends AbstractGlobalResource<Dataset> {
   @POST
   @Path("/{key}/release")
   @RolesAllowed({Roles.ADMIN, Roles.EDITOR})
-  public void release(@PathParam("key") int key, @Auth User user) {
-    var job = jobFactory.buildRelease(key, user.getKey());
+  public void release(@PathParam("key") int key, @QueryParam("resume") boolean resume, @Auth User user) {
+    var job = jobFactory.buildRelease(key, user.getKey(), resume);
     exec.submit(job);
   }
 
@@ -258,7 +261,7 @@ public class DatasetResource extends AbstractGlobalResource<Dataset> {
   @Path("/{key}/xrelease")
   @ProjectOnly
   @RolesAllowed({Roles.ADMIN, Roles.EDITOR})
-  public void xRelease(@PathParam("key") int key, @Auth User user) {
+  public void xRelease(@PathParam("key") int key, @QueryParam("resume") boolean resume, @Auth User user) {
     Integer releaseKey;
     try (SqlSession session = factory.openSession(true)) {
       releaseKey = session.getMapper(DatasetMapper.class).latestRelease(key, true, DatasetOrigin.RELEASE);
@@ -266,7 +269,7 @@ public class DatasetResource extends AbstractGlobalResource<Dataset> {
     if (releaseKey == null) {
       throw new IllegalArgumentException("Project " + key + " was never released in public");
     }
-    var job = jobFactory.buildExtendedRelease(releaseKey, user.getKey());
+    var job = jobFactory.buildExtendedRelease(releaseKey, user.getKey(), resume);
     exec.submit(job);
   }
 
@@ -3,10 +3,14 @@ package life.catalogue.resources;
 import life.catalogue.api.model.NameUsageBase;
 import life.catalogue.api.model.Page;
 import life.catalogue.api.model.ResultPage;
+import life.catalogue.api.model.SimpleName;
+import life.catalogue.api.model.Synonym;
 import life.catalogue.api.search.NameUsageRequest;
 import life.catalogue.api.search.NameUsageSearchParameter;
 import life.catalogue.api.search.NameUsageSearchRequest;
 import life.catalogue.api.search.NameUsageSearchResponse;
+import life.catalogue.api.search.NameUsageWrapper;
+import life.catalogue.common.ws.MoreMediaTypes;
 import life.catalogue.db.mapper.NameUsageMapper;
 import life.catalogue.es.InvalidQueryException;
 import life.catalogue.es.NameUsageSearchService;
@@ -16,6 +20,8 @@ import org.gbif.nameparser.api.Rank;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import javax.validation.Valid;
 import javax.validation.constraints.Min;
@@ -66,10 +72,16 @@ public class NameUsageSearchResource {
     );
   }
 
+  /**
+   * Searches name usages. If a cursor parameter is given cursor based paging is used instead of offset paging
+   * which allows to page through all results without any depth limit. Use cursor=* to open a new cursor
+   * and the next cursor given in the response to request the subsequent page.
+   */
   @GET
   @Path("search")
   public NameUsageSearchResponse search(@BeanParam NameUsageSearchRequest query,
                                         @Valid @BeanParam Page page,
+                                        @QueryParam(NameUsageRequest.CURSOR_PARAM) String cursor,
                                         @Context ContainerRequestContext ctx,
                                         @Context UriInfo uri) throws InvalidQueryException {
     if (uri != null) {
@@ -78,15 +90,76 @@ public class NameUsageSearchResource {
     if (query.hasFilter(NameUsageSearchParameter.CATALOGUE_KEY)) {
       ResourceUtils.dontCache(ctx);
     }
+    if (cursor != null) {
+      // cursors are bound to a short lived point in time
+      ResourceUtils.dontCache(ctx);
+      Page p = page == null ? new Page() : page;
+      return searchService.searchAfter(query, p.getLimit(), cursor);
+    }
     return searchService.search(query, page);
   }
 
+  /**
+   * Streams all usages matching the search request as newline delimited JSON
+   * without any paging limits. Facets are ignored.
+   */
+  @GET
+  @Path("search/export")
+  @Produces(MoreMediaTypes.APP_NDJSON)
+  public Stream<NameUsageWrapper> export(@BeanParam NameUsageSearchRequest query,
+                                         @Context UriInfo uri) throws InvalidQueryException {
+    return searchService.stream(exportRequest(query, uri));
+  }
+
+  /**
+   * Streams all usages matching the search request as a simple tab separated file.
+   */
+  @GET
+  @Path("search/export")
+  @Produces(MoreMediaTypes.TEXT_TSV)
+  public Stream<Object[]> exportTsv(@BeanParam NameUsageSearchRequest query,
+                                    @Context UriInfo uri) throws InvalidQueryException {
+    return Stream.concat(
+      Stream.<Object[]>of(EXPORT_HEADER),
+      searchService.stream(exportRequest(query, uri)).map(NameUsageSearchResource::toRow)
+    );
+  }
+
+  private static final Object[] EXPORT_HEADER = new Object[]{
+    "ID", "datasetKey", "status", "rank", "scientificName", "authorship", "acceptedID", "classification"
+  };
+
+  private static Object[] toRow(NameUsageWrapper nuw) {
+    var u = nuw.getUsage();
+    var n = u.getName();
+    String acceptedID = null;
+    if (u instanceof Synonym && ((Synonym) u).getAccepted() != null) {
+      acceptedID = ((Synonym) u).getAccepted().getId();
+    }
+    String classification = nuw.getClassification() == null ? null : nuw.getClassification().stream()
+      .map(SimpleName::getName)
+      .collect(Collectors.joining(","));
+    return new Object[]{
+      u.getId(), n.getDatasetKey(), u.getStatus(), n.getRank(), n.getScientificName(), n.getAuthorship(), acceptedID, classification
+    };
+  }
+
+  private static NameUsageSearchRequest exportRequest(NameUsageSearchRequest query, UriInfo uri) {
+    if (uri != null) {
+      query.addFilters(uri.getQueryParameters());
+    }
+    if (!query.hasFilters() && !query.hasQ()) {
+      throw new IllegalArgumentException("Exports require at least one filter or a search term");
+    }
+    return query;
+  }
+
   @POST
   @Path("search")
   public NameUsageSearchResponse searchPOST(@Valid SearchRequestBody req,
                                             @Context ContainerRequestContext ctx,
                                             @Context UriInfo uri) throws InvalidQueryException {
-    return search(req.request, req.page, ctx, uri);
+    return search(req.request, req.page, null, ctx, uri);
   }
 
   public static class SearchRequestBody {
@@ -32,6 +32,7 @@ import org.junit.Test;
 import org.junit.rules.RuleChain;
 import org.junit.rules.TestRule;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 public class HomotypicConsolidator2IT {
@@ -76,6 +77,42 @@ public class HomotypicConsolidator2IT {
     }
   }
 
+  /**
+   * Consolidating the entire dataset family by family on several threads must produce the same tree as a single thread.
+   */
+  @Test
+  public void consolidateConcurrently() throws IOException {
+    var hc = HomotypicConsolidator.entireDataset(SqlSessionFactoryRule.getSqlSessionFactory(), dataRule.testData.key, u->null);
+    hc.setThreads(4);
+    hc.consolidate();
+    assertTree("hg1.txt", null);
+    assertEquals(hc.getTaxa(), hc.getTaxaDone());
+    assertTrue(hc.getUsages() > 0);
+  }
+
+  /**
+   * Independent families consolidated concurrently each in their own session
+   * must end up with the same trees as when consolidated one by one.
+   */
+  @Test
+  public void concurrentFamilies() throws IOException {
+    var hc = HomotypicConsolidator.forTaxa(SqlSessionFactoryRule.getSqlSessionFactory(), dataRule.testData.key,
+      List.of(
+        SimpleName.sn("pott", Rank.FAMILY, "Pottiaceae", "Hampe"),
+        SimpleName.sn("mfo", Rank.FAMILY, "Procyonidae", ""),
+        SimpleName.sn("dfc", Rank.FAMILY, "Chironomidae", "")
+      ),
+      u -> Integer.parseInt(u.getId())
+    );
+    hc.setThreads(3);
+    hc.consolidate();
+    assertEquals(3, hc.getTaxaDone());
+    assertTrue(hc.getUsages() > 0);
+    assertTree("hg-pott.txt", "pott");
+    assertTree("hg-mfo.txt", "mfo");
+    assertTree("hg-dfc.txt", "dfc");
+  }
+
   @Test
   public void subspeciesSynonyms() throws IOException {
     var hc = HomotypicConsolidator.forTaxa(SqlSessionFactoryRule.getSqlSessionFactory(), dataRule.testData.key,
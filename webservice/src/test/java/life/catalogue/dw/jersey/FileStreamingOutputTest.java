@@ -0,0 +1,50 @@
+package life.catalogue.dw.jersey;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class FileStreamingOutputTest {
+
+  @Test
+  public void parseRange() {
+    assertNull(FileStreamingOutput.parseRange(null, 100));
+    assertNull(FileStreamingOutput.parseRange("items=1-10", 100));
+    assertNull(FileStreamingOutput.parseRange("bytes=1-10,20-30", 100));
+    assertNull(FileStreamingOutput.parseRange("bytes=x-10", 100));
+    assertNull(FileStreamingOutput.parseRange("bytes=-", 100));
+
+    assertArrayEquals(new long[]{0, 9}, FileStreamingOutput.parseRange("bytes=0-9", 100));
+    assertArrayEquals(new long[]{10, 99}, FileStreamingOutput.parseRange("bytes=10-", 100));
+    assertArrayEquals(new long[]{10, 99}, FileStreamingOutput.parseRange("bytes=10-1000", 100));
+    assertArrayEquals(new long[]{90, 99}, FileStreamingOutput.parseRange("bytes=-10", 100));
+    assertArrayEquals(new long[]{0, 99}, FileStreamingOutput.parseRange("bytes=-1000", 100));
+
+    assertEquals(0, FileStreamingOutput.parseRange("bytes=100-", 100).length);
+    assertEquals(0, FileStreamingOutput.parseRange("bytes=20-10", 100).length);
+    assertEquals(0, FileStreamingOutput.parseRange("bytes=-0", 100).length);
+  }
+
+  @Test
+  public void write() throws Exception {
+    File f = File.createTempFile("stream", ".txt");
+    try {
+      Files.writeString(f.toPath(), "0123456789");
+
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      new FileStreamingOutput(f).write(out);
+      assertEquals("0123456789", out.toString(StandardCharsets.UTF_8));
+
+      out = new ByteArrayOutputStream();
+      new FileStreamingOutput(f, 3, 4).write(out);
+      assertEquals("3456", out.toString(StandardCharsets.UTF_8));
+    } finally {
+      f.delete();
+    }
+  }
+}
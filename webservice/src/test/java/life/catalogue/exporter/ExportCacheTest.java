@@ -0,0 +1,72 @@
+package life.catalogue.exporter;
+
+import life.catalogue.api.model.DatasetExport;
+import life.catalogue.api.model.ExportRequest;
+import life.catalogue.api.vocab.DataFormat;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.IntUnaryOperator;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ExportCacheTest {
+
+  @Test
+  public void selectEvictions() {
+    UUID k1 = UUID.randomUUID();
+    UUID k2 = UUID.randomUUID();
+    UUID k3 = UUID.randomUUID();
+    List<ExportCache.CachedFile> files = List.of(
+      file(k1, 100, 30),
+      file(k2, 50, 10),
+      file(k3, 70, 20)
+    );
+    assertTrue(ExportCache.selectEvictions(files, 220).isEmpty());
+    assertEquals(List.of(k2), ExportCache.selectEvictions(files, 200));
+    assertEquals(List.of(k2, k3), ExportCache.selectEvictions(files, 150));
+    assertEquals(List.of(k2, k3, k1), ExportCache.selectEvictions(files, 0));
+  }
+
+  @Test
+  public void estimateSize() {
+    // datasets 11 & 12 are releases of project 10, 21 one of project 20
+    IntUnaryOperator projectKeys = key -> key / 10 * 10;
+    List<ExportCache.CachedFile> files = List.of(
+      file(11, DataFormat.COLDP, true, 1, 100),
+      file(12, DataFormat.COLDP, true, 2, 120),
+      file(12, DataFormat.DWCA, true, 2, 80),
+      file(21, DataFormat.COLDP, true, 3, 500)
+    );
+    assertEquals(120, ExportCache.estimateSize(req(13, DataFormat.COLDP, true), files, projectKeys));
+    assertEquals(80, ExportCache.estimateSize(req(13, DataFormat.DWCA, true), files, projectKeys));
+    assertEquals(0, ExportCache.estimateSize(req(13, DataFormat.COLDP, false), files, projectKeys));
+    assertEquals(0, ExportCache.estimateSize(req(13, DataFormat.TEXT_TREE, true), files, projectKeys));
+    assertEquals(500, ExportCache.estimateSize(req(22, DataFormat.COLDP, true), files, projectKeys));
+    assertEquals(0, ExportCache.estimateSize(req(31, DataFormat.COLDP, true), files, projectKeys));
+  }
+
+  private static ExportCache.CachedFile file(UUID key, long size, long accessed) {
+    DatasetExport exp = new DatasetExport();
+    exp.setKey(key);
+    exp.setRequest(req(1, DataFormat.COLDP, true));
+    return new ExportCache.CachedFile(exp, size, accessed);
+  }
+
+  private static ExportRequest req(int datasetKey, DataFormat format, boolean extended) {
+    ExportRequest req = new ExportRequest(datasetKey, format);
+    req.setExtended(extended);
+    return req;
+  }
+
+  private static ExportCache.CachedFile file(int datasetKey, DataFormat format, boolean extended, int day, long size) {
+    DatasetExport exp = new DatasetExport();
+    exp.setKey(UUID.randomUUID());
+    exp.setRequest(req(datasetKey, format, extended));
+    exp.setCreated(LocalDateTime.of(2024, 1, day, 12, 0));
+    return new ExportCache.CachedFile(exp, size, day);
+  }
+}
@@ -0,0 +1,150 @@
+package life.catalogue.exporter;
+
+import life.catalogue.common.io.DeflatedZipEntry;
+import life.catalogue.common.io.RowWriter;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ExportFragmentsTest {
+  File dir;
+  File deflated;
+
+  @Before
+  public void init() throws Exception {
+    dir = Files.createTempDirectory("fragments").toFile();
+    deflated = Files.createTempDirectory("deflated").toFile();
+  }
+
+  @After
+  public void cleanup() {
+    FileUtils.deleteQuietly(dir);
+    FileUtils.deleteQuietly(deflated);
+  }
+
+  @Test
+  public void reuse() throws Exception {
+    Map<Integer, String> versions = new HashMap<>();
+    versions.put(1, "1");
+    versions.put(2, "1");
+    versions.put(3, null);
+
+    var frags = new ExportFragments(dir, "layout", deflated, versions);
+    assertTrue(frags.reused().isEmpty());
+    var entries = export(frags, "a", null, 1, 2, 3);
+    assertEquals("ID\tname\nproject\ta\n1\ta\n2\ta\n3\ta\n", read(entries.get(0)));
+    assertEquals("[\n{\"1\":\"a\"},\n{\"2\":\"a\"},\n{\"3\":\"a\"}\n]\n", read(entries.get(1)));
+
+    // sector 2 was synced or edited again
+    versions.put(2, "2");
+    frags = new ExportFragments(dir, "layout", deflated, versions);
+    assertEquals(Set.of(1), frags.reused());
+    assertEquals(1, frags.reusedCounts().getTaxCounter().get());
+    entries = export(frags, "b", null, 2, 3);
+    assertEquals("ID\tname\nproject\tb\n1\ta\n2\tb\n3\tb\n", read(entries.get(0)));
+    assertEquals("[\n{\"1\":\"a\"},\n{\"2\":\"b\"},\n{\"3\":\"b\"}\n]\n", read(entries.get(1)));
+
+    // sector 1 was deleted
+    versions.remove(1);
+    frags = new ExportFragments(dir, "layout", deflated, versions);
+    assertEquals(Set.of(2), frags.reused());
+    entries = export(frags, "c", null, 3);
+    assertEquals("ID\tname\nproject\tc\n2\tb\n3\tc\n", read(entries.get(0)));
+    assertFalse(new File(dir, "1").exists());
+    assertFalse(new File(dir, "3").exists());
+
+    // changed layout
+    frags = new ExportFragments(dir, "layout2", deflated, versions);
+    assertTrue(frags.reused().isEmpty());
+  }
+
+  @Test
+  public void unordered() throws Exception {
+    Map<Integer, String> versions = new HashMap<>();
+    versions.put(1, "1");
+    versions.put(2, "1");
+    var frags = new ExportFragments(dir, "layout", deflated, versions);
+    // fragments selected again are continued
+    var entries = export(frags, "a", 1, null, 2, 1, null);
+    assertEquals("ID\tname\nproject\ta\nproject\ta\n1\ta\n1\ta\n2\ta\n", read(entries.get(0)));
+    assertEquals("[\n{\"1\":\"a\"},\n{\"1\":\"a\"},\n{\"2\":\"a\"}\n]\n", read(entries.get(1)));
+
+    frags = new ExportFragments(dir, "layout", deflated, versions);
+    assertEquals(Set.of(1, 2), frags.reused());
+    assertEquals(3, frags.reusedCounts().getTaxCounter().get());
+  }
+
+  @Test
+  public void abort() throws Exception {
+    Map<Integer, String> versions = new HashMap<>();
+    versions.put(1, "1");
+    var frags = new ExportFragments(dir, "layout", deflated, versions);
+    export(frags, "a", null, 1);
+
+    versions.put(1, "2");
+    frags = new ExportFragments(dir, "layout", deflated, versions);
+    assertTrue(frags.reused().isEmpty());
+    RowWriter w = frags.tsv("data.tsv");
+    w.write(new String[]{"ID", "name"});
+    frags.select(1);
+    w.write(new String[]{"1", "b"});
+    w.close();
+    frags.abort();
+
+    // the previous fragment is still in place
+    versions.put(1, "1");
+    frags = new ExportFragments(dir, "layout", deflated, versions);
+    assertEquals(Set.of(1), frags.reused());
+  }
+
+  private static List<DeflatedZipEntry> export(ExportFragments frags, String value, Integer... sectorKeys) throws Exception {
+    RowWriter tsv = frags.tsv("data.tsv");
+    tsv.write(new String[]{"ID", "name"});
+    for (Integer sk : sectorKeys) {
+      frags.select(sk);
+      frags.counter().getTaxCounter().incrementAndGet();
+      tsv.write(new String[]{sk == null ? "project" : sk.toString(), value});
+    }
+    tsv.close();
+
+    var json = frags.jsonArray("data.json");
+    for (Integer sk : sectorKeys) {
+      if (sk != null) {
+        frags.select(sk);
+        json.write("{\"" + sk + "\":\"" + value + "\"}");
+      }
+    }
+    json.close();
+    // never written
+    frags.jsonArray("empty.json").close();
+
+    var entries = frags.stitch();
+    frags.commit();
+    assertEquals(2, entries.size());
+    return entries;
+  }
+
+  private String read(DeflatedZipEntry entry) throws Exception {
+    File f = new File(deflated, entry.getName() + ".deflated");
+    try (InputStream in = new InflaterInputStream(new FileInputStream(f), new Inflater(true))) {
+      return IOUtils.toString(in, StandardCharsets.UTF_8);
+    }
+  }
+}
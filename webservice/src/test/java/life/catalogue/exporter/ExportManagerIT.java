@@ -64,7 +64,7 @@ public class ExportManagerIT {
     cfg.job.downloadURI = URI.create("http://gbif.org/");
     cfg.job.downloadDir = new File("/tmp/col");
     cfg.job.threads = 3;
-    ExportManager manager = new ExportManager(cfg, SqlSessionFactoryRule.getSqlSessionFactory(), executor, ImageService.passThru(), exDao, mock(DatasetImportDao.class));
+    ExportManager manager = new ExportManager(cfg, SqlSessionFactoryRule.getSqlSessionFactory(), executor, ImageService.passThru(), exDao, mock(DatasetImportDao.class), null);
 
     PrintBlockJob job = new PrintBlockJob(TestDataRule.APPLE.key);
     PrintBlockJob job2 = new PrintBlockJob(TestDataRule.APPLE.key);
@@ -103,7 +103,7 @@ public class ExportManagerIT {
     cfg.job.downloadDir = new File("/tmp/col");
     cfg.job.threads = 3;
 
-    ExportManager manager = new ExportManager(cfg, SqlSessionFactoryRule.getSqlSessionFactory(), executor, ImageService.passThru(), exDao, mock(DatasetImportDao.class));
+    ExportManager manager = new ExportManager(cfg, SqlSessionFactoryRule.getSqlSessionFactory(), executor, ImageService.passThru(), exDao, mock(DatasetImportDao.class), null);
 
     // first schedule a block job that runs forever
     for (DataFormat df : ProjectRelease.EXPORT_FORMATS) {
@@ -0,0 +1,102 @@
+package life.catalogue.exporter;
+
+import life.catalogue.api.model.ExportRequest;
+import life.catalogue.api.vocab.DataFormat;
+import life.catalogue.api.vocab.JobStatus;
+import life.catalogue.api.vocab.Users;
+import life.catalogue.coldp.ColdpTerm;
+import life.catalogue.common.io.CompressionUtil;
+import life.catalogue.common.io.TermWriter;
+import life.catalogue.db.SqlSessionFactoryRule;
+import life.catalogue.db.TestDataRule;
+import life.catalogue.img.ImageService;
+
+import org.gbif.dwc.terms.Term;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class MultiFormatExportTest extends ExportTest {
+
+  private ExportRequest req(DataFormat format) {
+    var req = new ExportRequest(TestDataRule.APPLE.key, format);
+    req.setExtended(true);
+    return req;
+  }
+
+  @Test
+  public void export() throws Exception {
+    var factory = SqlSessionFactoryRule.getSqlSessionFactory();
+    var coldp = new ColdpExtendedExport(req(DataFormat.COLDP), Users.TESTER, factory, cfg, ImageService.passThru());
+    var dwca = new DwcaExtendedExport(req(DataFormat.DWCA), Users.TESTER, factory, cfg, ImageService.passThru());
+    var tree = new TextTreeExport(req(DataFormat.TEXT_TREE), Users.TESTER, factory, cfg, ImageService.passThru());
+    var multi = new MultiFormatExport(List.of(tree, coldp, dwca));
+    multi.run();
+    assertEquals(JobStatus.FINISHED, multi.getStatus());
+
+    // compare with exports run on their own
+    var tree2 = new TextTreeExport(req(DataFormat.TEXT_TREE), Users.TESTER, factory, cfg, ImageService.passThru());
+    tree2.run();
+    var dwca2 = new DwcaExtendedExport(req(DataFormat.DWCA), Users.TESTER, factory, cfg, ImageService.passThru());
+    dwca2.run();
+
+    for (DatasetExportJob job : List.of(coldp, dwca, tree)) {
+      assertTrue(job.getArchive().exists());
+      assertNotNull(job.getExport().getFinished());
+      assertNull(job.getExport().getError());
+    }
+    assertEquals(tree2.getExport().getTaxonCount(), tree.getExport().getTaxonCount());
+    assertEquals(tree2.getExport().getSynonymCount(), tree.getExport().getSynonymCount());
+    assertEquals(dwca2.getExport().getTaxonCount(), dwca.getExport().getTaxonCount());
+    assertEquals(dwca2.getExport().getSynonymCount(), dwca.getExport().getSynonymCount());
+    assertEquals(dwca2.getExport().getTaxonCount(), coldp.getExport().getTaxonCount());
+    assertEquals(txtree(tree2), txtree(tree));
+  }
+
+  /**
+   * DwC-A exports leave out the extinct dagger from names, which must not affect ColDP exports of the same traversal.
+   */
+  @Test
+  public void dwcaFirst() throws Exception {
+    var factory = SqlSessionFactoryRule.getSqlSessionFactory();
+    var dwca = new DwcaExtendedExport(req(DataFormat.DWCA), Users.TESTER, factory, cfg, ImageService.passThru());
+    var coldp = new ColdpExtendedExport(req(DataFormat.COLDP), Users.TESTER, factory, cfg, ImageService.passThru());
+    var multi = new MultiFormatExport(List.of(dwca, coldp));
+    multi.run();
+    assertEquals(JobStatus.FINISHED, multi.getStatus());
+
+    var coldp2 = new ColdpExtendedExport(req(DataFormat.COLDP), Users.TESTER, factory, cfg, ImageService.passThru());
+    coldp2.run();
+    String usages = archiveFile(coldp, ColdpTerm.NameUsage);
+    assertTrue(usages.contains("true"));
+    assertEquals(archiveFile(coldp2, ColdpTerm.NameUsage), usages);
+  }
+
+  private String archiveFile(DatasetExportJob exp, Term rowType) throws Exception {
+    File dir = new File(cfg.job.downloadDir, "unzip-" + exp.getKey());
+    CompressionUtil.unzipFile(dir, exp.getArchive());
+    return FileUtils.readFileToString(new File(dir, TermWriter.TSV.filename(rowType)), StandardCharsets.UTF_8);
+  }
+
+  private String txtree(TextTreeExport exp) throws Exception {
+    File dir = new File(cfg.job.downloadDir, "unzip-" + exp.getKey());
+    CompressionUtil.unzipFile(dir, exp.getArchive());
+    return FileUtils.readFileToString(new File(dir, exp.filename()), StandardCharsets.UTF_8);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void filtered() {
+    var factory = SqlSessionFactoryRule.getSqlSessionFactory();
+    var req = req(DataFormat.DWCA);
+    req.setSynonyms(false);
+    var coldp = new ColdpExtendedExport(req(DataFormat.COLDP), Users.TESTER, factory, cfg, ImageService.passThru());
+    var dwca = new DwcaExtendedExport(req, Users.TESTER, factory, cfg, ImageService.passThru());
+    new MultiFormatExport(List.of(coldp, dwca));
+  }
+}
@@ -0,0 +1,83 @@
+package life.catalogue.exporter;
+
+import life.catalogue.common.io.TempFile;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class XlsxWorkbookTest {
+
+  @Test
+  public void write() throws Exception {
+    File dir = Files.createTempDirectory("xlsx").toFile();
+    try (TempFile xlsx = new TempFile("data", ".xlsx")) {
+      XlsxWorkbook wb = new XlsxWorkbook(dir);
+      var s1 = wb.createSheet("Name");
+      var s2 = wb.createSheet("Taxon");
+      var s3 = wb.createSheet("Distribution");
+      wb.setSheetOrder(List.of("Taxon", "Distribution", "Name"));
+      // sheets are written concurrently
+      CompletableFuture.allOf(
+        CompletableFuture.runAsync(() -> write(s1, 2000)),
+        CompletableFuture.runAsync(() -> write(s2, 1000)),
+        CompletableFuture.runAsync(() -> write(s3, 10))
+      ).get();
+      wb.write(xlsx.file);
+      wb.delete();
+      assertFalse(dir.exists());
+
+      try (XSSFWorkbook read = new XSSFWorkbook(xlsx.file)) {
+        assertEquals(3, read.getNumberOfSheets());
+        // in the given order, not the creation order
+        assertEquals("Distribution", read.getSheetAt(1).getSheetName());
+        assertEquals(9, read.getSheetAt(1).getLastRowNum());
+        assertEquals("Name", read.getSheetAt(2).getSheetName());
+        assertEquals(1999, read.getSheetAt(2).getLastRowNum());
+        Sheet sh = read.getSheetAt(0);
+        assertEquals("Taxon", sh.getSheetName());
+        assertEquals(999, sh.getLastRowNum());
+        assertEquals("id", sh.getRow(0).getCell(0).getStringCellValue());
+        assertEquals("5", sh.getRow(5).getCell(0).getStringCellValue());
+        assertNull(sh.getRow(5).getCell(1));
+        assertEquals("<Abies> & \"alba\"", sh.getRow(5).getCell(2).getStringCellValue());
+        assertEquals(" Mill.", sh.getRow(5).getCell(27).getStringCellValue());
+      }
+    } finally {
+      FileUtils.deleteQuietly(dir);
+    }
+  }
+
+  private static void write(XlsxWorkbook.Sheet sh, int rows) {
+    try {
+      sh.write(new String[]{"id", "parentID", "name"});
+      for (int i = 1; i < rows; i++) {
+        String[] row = new String[28];
+        row[0] = String.valueOf(i);
+        row[2] = "<Abies> & \"alba\"\u0001";
+        row[27] = " Mill.";
+        sh.write(row);
+      }
+      sh.close();
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  @Test
+  public void escape() throws Exception {
+    StringWriter w = new StringWriter();
+    XlsxWorkbook.escape("a<b>&\"c\"\u0000\td", w);
+    assertEquals("a&lt;b&gt;&amp;&quot;c&quot;\td", w.toString());
+  }
+}
@@ -6,6 +6,7 @@ import life.catalogue.api.util.ObjectUtils;
 import life.catalogue.api.vocab.Datasets;
 import life.catalogue.api.vocab.MatchType;
 import life.catalogue.api.vocab.TaxonomicStatus;
+import life.catalogue.cache.CacheLoader;
 import life.catalogue.cache.UsageCache;
 import life.catalogue.db.NameMatchingRule;
 import life.catalogue.db.PgSetupRule;
@@ -20,8 +21,13 @@ import life.catalogue.parser.NameParser;
 import org.gbif.nameparser.api.NomCode;
 import org.gbif.nameparser.api.Rank;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 import org.apache.ibatis.session.SqlSession;
@@ -32,8 +38,7 @@ import org.junit.rules.RuleChain;
 import org.junit.rules.TestRule;
 
 import static life.catalogue.api.model.SimpleName.sn;
-import static org.junit.Assert.assertEquals;
-import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.*;
 
 public class UsageMatcherGlobalTest {
 
@@ -208,4 +213,138 @@ public class UsageMatcherGlobalTest {
     var result = matcher.match(datasetKey, u, List.of(parents), false, true);
     return result;
   }
-}
\ No newline at end of file
+
+  /**
+   * Concurrent merges of different sectors into the same dataset each register a loader with their own session.
+   * Every thread must only ever load through its own loader and get the same matches as a serial run.
+   */
+  @Test
+  public void concurrentLoaders() throws Exception {
+    // never cache usages so the registered loaders are used all the time
+    matcher = new UsageMatcherGlobal(NameMatchingRule.getIndex(), new PassThruCache(), SqlSessionFactoryRule.getSqlSessionFactory());
+    final List<String> expected = matchOenanthe();
+    final int repeat = 25;
+
+    ExecutorService exec = Executors.newFixedThreadPool(2);
+    try {
+      List<Future<List<String>>> results = new ArrayList<>();
+      List<ThreadLoader> loaders = new ArrayList<>();
+      for (int t = 0; t < 2; t++) {
+        results.add(exec.submit(() -> {
+          try (SqlSession session = SqlSessionFactoryRule.getSqlSessionFactory().openSession(false)) {
+            var loader = new ThreadLoader(session);
+            synchronized (loaders) {
+              loaders.add(loader);
+            }
+            matcher.registerLoader(datasetKey, loader);
+            try {
+              List<String> ids = new ArrayList<>();
+              for (int i = 0; i < repeat; i++) {
+                ids.addAll(matchOenanthe());
+              }
+              return ids;
+            } finally {
+              matcher.removeLoader(datasetKey);
+            }
+          }
+        }));
+      }
+      for (var f : results) {
+        var ids = f.get();
+        for (int i = 0; i < repeat; i++) {
+          assertEquals(expected, ids.subList(i * expected.size(), (i + 1) * expected.size()));
+        }
+      }
+      assertEquals(2, loaders.size());
+      for (var l : loaders) {
+        assertTrue(l.loads.get() > 0);
+        assertEquals(0, l.foreignLoads.get());
+      }
+    } finally {
+      exec.shutdown();
+    }
+  }
+
+  private List<String> matchOenanthe() throws InterruptedException {
+    List<String> ids = new ArrayList<>();
+    ids.add(match(Rank.GENUS, "Oenanthe", "L.", null, null).usage.getId());
+    ids.add(match(Rank.GENUS, "Oenanthe", "V.", null, null).usage.getId());
+    ids.add(match(Rank.GENUS, "Oenanthe", "Linné", null, null).usage.getId());
+    return ids;
+  }
+
+  /**
+   * Loads through a session that must only be used by the thread that created the loader.
+   */
+  static class ThreadLoader implements CacheLoader {
+    final Thread owner = Thread.currentThread();
+    final CacheLoader loader;
+    final AtomicInteger loads = new AtomicInteger();
+    final AtomicInteger foreignLoads = new AtomicInteger();
+
+    ThreadLoader(SqlSession session) {
+      this.loader = new CacheLoader.Mybatis(session, true);
+    }
+
+    @Override
+    public SimpleNameCached load(DSID<String> key) {
+      if (Thread.currentThread() != owner) {
+        foreignLoads.incrementAndGet();
+      }
+      loads.incrementAndGet();
+      return loader.load(key);
+    }
+
+    @Override
+    public void commit() {
+      loader.commit();
+    }
+  }
+
+  static class PassThruCache implements UsageCache {
+    @Override
+    public boolean contains(DSID<String> key) {
+      return false;
+    }
+
+    @Override
+    public SimpleNameCached get(DSID<String> key) {
+      return null;
+    }
+
+    @Override
+    public SimpleNameCached put(int datasetKey, SimpleNameCached usage) {
+      return null;
+    }
+
+    @Override
+    public SimpleNameCached remove(DSID<String> key) {
+      return null;
+    }
+
+    @Override
+    public void clear(int datasetKey) {
+    }
+
+    @Override
+    public void clear() {
+    }
+
+    @Override
+    public void close() {
+    }
+
+    @Override
+    public void start() {
+    }
+
+    @Override
+    public void stop() {
+    }
+
+    @Override
+    public boolean hasStarted() {
+      return true;
+    }
+  }
+}
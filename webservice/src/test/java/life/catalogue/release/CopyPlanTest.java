@@ -0,0 +1,51 @@
+package life.catalogue.release;
+
+import life.catalogue.api.model.*;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class CopyPlanTest {
+
+  @Test(expected = IllegalArgumentException.class)
+  public void missingDependency() {
+    new CopyPlan().add(Name.class, life.catalogue.db.mapper.NameMapper.class, Reference.class);
+  }
+
+  @Test
+  public void execute() throws Exception {
+    for (int threads : new int[]{1, 4}) {
+      var plan = AbstractProjectCopy.copyPlan();
+      final AtomicInteger seq = new AtomicInteger();
+      final Map<Class<?>, Integer> finished = new ConcurrentHashMap<>();
+      final Map<Class<?>, Integer> started = new ConcurrentHashMap<>();
+      plan.execute(threads, (entity, mapper) -> {
+        started.put(entity, seq.incrementAndGet());
+        try {
+          Thread.sleep(5);
+        } catch (InterruptedException e) {
+          throw new RuntimeException(e);
+        }
+        finished.put(entity, seq.incrementAndGet());
+        return entity.getSimpleName().length();
+      });
+
+      assertEquals(plan.tables().size(), finished.size());
+      for (CopyPlan.Table t : plan.tables()) {
+        assertEquals(t.entity.getSimpleName().length(), t.getCount());
+        assertNotNull(t.getDuration());
+        // dependencies must be finished before a table is started
+        for (CopyPlan.Table d : t.dependencies) {
+          assertTrue(finished.get(d.entity) < started.get(t.entity));
+        }
+      }
+      assertTrue(finished.get(NameUsage.class) < started.get(VerbatimSource.class));
+      assertTrue(finished.get(Name.class) < started.get(NameUsage.class));
+    }
+  }
+}
@@ -0,0 +1,62 @@
+package life.catalogue.release;
+
+import life.catalogue.api.vocab.TaxGroup;
+
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class MergeConflictsTest {
+
+  static MergeConflicts.Scope scope(TaxGroup group, String target, String... lineage) {
+    return new MergeConflicts.Scope(group, target, target == null ? null : Set.of(lineage));
+  }
+
+  @Test
+  public void dependencies() {
+    var mc = new MergeConflicts(List.of(
+      scope(TaxGroup.Coleoptera, "col", "col", "ins", "art"),
+      scope(TaxGroup.Angiosperms, "ang", "ang", "pla"),
+      // insects include beetles
+      scope(TaxGroup.Insects, "ins", "ins", "art"),
+      // unknown group
+      scope(null, "fun", "fun"),
+      // no target
+      scope(TaxGroup.Fungi, null),
+      // disparate groups, but target within the lineage of the angiosperm sector
+      scope(TaxGroup.Gymnosperms, "pla", "pla"),
+      // disparate to all others and unrelated target
+      scope(TaxGroup.Viruses, "vir", "vir")
+    ));
+
+    assertArrayEquals(new int[]{}, mc.dependencies(0));
+    assertArrayEquals(new int[]{}, mc.dependencies(1));
+    assertArrayEquals(new int[]{0}, mc.dependencies(2));
+    assertArrayEquals(new int[]{0, 1, 2}, mc.dependencies(3));
+    assertArrayEquals(new int[]{0, 1, 2, 3}, mc.dependencies(4));
+    assertArrayEquals(new int[]{1, 3, 4}, mc.dependencies(5));
+    assertArrayEquals(new int[]{3, 4}, mc.dependencies(6));
+    assertEquals(2, mc.independent());
+  }
+
+  @Test
+  public void sharedGenera() {
+    var mc = new MergeConflicts(List.of(
+      new MergeConflicts.Scope(TaxGroup.Coleoptera, "col", Set.of("col"), Set.of("abies", "carabus")),
+      new MergeConflicts.Scope(TaxGroup.Angiosperms, "ang", Set.of("ang"), Set.of("rosa")),
+      // homonym genus of a disparate group
+      new MergeConflicts.Scope(TaxGroup.Gymnosperms, "gym", Set.of("gym"), Set.of("abies", "pinus")),
+      new MergeConflicts.Scope(TaxGroup.Viruses, "vir", Set.of("vir"), Set.of("abies", "rosa"))
+    ));
+
+    assertArrayEquals(new int[]{}, mc.dependencies(0));
+    assertArrayEquals(new int[]{}, mc.dependencies(1));
+    assertArrayEquals(new int[]{0}, mc.dependencies(2));
+    // only the last sector sharing a genus is needed as the others are chained already
+    assertArrayEquals(new int[]{1, 2}, mc.dependencies(3));
+    assertEquals(2, mc.independent());
+  }
+}
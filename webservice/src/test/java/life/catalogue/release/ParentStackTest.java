@@ -0,0 +1,42 @@
+package life.catalogue.release;
+
+import life.catalogue.api.model.LinneanNameUsage;
+import life.catalogue.api.vocab.TaxonomicStatus;
+
+import org.gbif.nameparser.api.Rank;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class ParentStackTest {
+
+  static LinneanNameUsage usage(String id, String parentID, Rank rank) {
+    var u = new LinneanNameUsage();
+    u.setId(id);
+    u.setParentId(parentID);
+    u.setRank(rank);
+    u.setStatus(TaxonomicStatus.ACCEPTED);
+    return u;
+  }
+
+  @Test
+  public void flush() {
+    List<String> removed = new ArrayList<>();
+    var stack = new ParentStack<LinneanNameUsage>(snc -> removed.add(snc.usage.getId() + ":" + snc.children));
+    // a subtree seeded with its parent
+    stack.push(usage("p", null, Rank.PHYLUM));
+    stack.push(usage("g1", "p", Rank.GENUS));
+    stack.push(usage("s1", "g1", Rank.SPECIES));
+    stack.push(usage("g2", "p", Rank.GENUS));
+    assertEquals(List.of("s1:0", "g1:1"), removed);
+    assertEquals(2, stack.size());
+
+    stack.flush();
+    assertEquals(List.of("s1:0", "g1:1", "g2:0", "p:2"), removed);
+    assertEquals(0, stack.size());
+  }
+}
@@ -0,0 +1,111 @@
+package life.catalogue.release;
+
+import life.catalogue.api.model.DatasetImport;
+import life.catalogue.api.vocab.ImportState;
+
+import java.io.File;
+import java.nio.file.Files;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ReleaseCheckpointTest {
+  File dir;
+
+  @Before
+  public void init() throws Exception {
+    dir = Files.createTempDirectory("release-checkpoints").toFile();
+  }
+
+  @After
+  public void destroy() {
+    FileUtils.deleteQuietly(dir);
+  }
+
+  @Test
+  public void resume() throws Exception {
+    assertNull(ReleaseCheckpoint.load(dir, 3, XRelease.class));
+
+    var cp = ReleaseCheckpoint.create(dir, 3, 100, 1001, 7, "fp", XRelease.class);
+    assertFalse(cp.isResumed());
+    cp.done(ReleaseCheckpoint.Phase.COPY);
+    cp.copied("Name");
+    cp.merged(12);
+    cp.merged(13);
+
+    // other jobs of the same project have their own checkpoint
+    assertNull(ReleaseCheckpoint.load(dir, 3, ProjectRelease.class));
+
+    var cp2 = ReleaseCheckpoint.load(dir, 3, XRelease.class);
+    assertTrue(cp2.isResumed());
+    assertEquals(3, cp2.projectKey);
+    assertEquals(100, cp2.sourceKey);
+    assertEquals(1001, cp2.datasetKey);
+    assertEquals(7, cp2.attempt);
+    assertEquals("fp", cp2.fingerprint);
+    assertTrue(cp2.isDone(ReleaseCheckpoint.Phase.COPY));
+    assertFalse(cp2.isDone(ReleaseCheckpoint.Phase.MERGE));
+    assertTrue(cp2.isCopied("Name"));
+    assertFalse(cp2.isCopied("NameUsage"));
+    assertTrue(cp2.isMerged(12));
+    assertTrue(cp2.isMerged(13));
+    assertFalse(cp2.isMerged(14));
+
+    cp2.delete();
+    assertNull(ReleaseCheckpoint.load(dir, 3, XRelease.class));
+  }
+
+  @Test
+  public void discardReason() throws Exception {
+    var cp = ReleaseCheckpoint.create(dir, 3, 3, 1001, 7, "fp", ProjectRelease.class);
+    var failed = attempt(ImportState.FAILED);
+
+    // only resumed when explicitly requested
+    assertNull(cp.discardReason(failed, true, 3));
+    assertNotNull(cp.discardReason(failed, false, 3));
+    // a crashed job never reached a final state
+    assertNull(cp.discardReason(attempt(ImportState.PROCESSING), true, 3));
+
+    // the job must have failed
+    assertNotNull(cp.discardReason(null, true, 3));
+    assertNotNull(cp.discardReason(attempt(ImportState.FINISHED), true, 3));
+    assertNotNull(cp.discardReason(attempt(ImportState.CANCELED), true, 3));
+
+    // same source
+    assertNotNull(cp.discardReason(failed, true, 4));
+  }
+
+  @Test
+  public void modified() throws Exception {
+    var cp = ReleaseCheckpoint.create(dir, 3, 3, 1001, 7, "fp", ProjectRelease.class);
+    assertFalse(cp.isModified("fp"));
+    assertTrue(cp.isModified("fp2"));
+    assertTrue(cp.isModified(null));
+
+    cp.done(ReleaseCheckpoint.Phase.COPY);
+    cp.copied("Name");
+    cp.merged(12);
+    cp.reset("fp2");
+    assertFalse(cp.isModified("fp2"));
+
+    var cp2 = ReleaseCheckpoint.load(dir, 3, ProjectRelease.class);
+    assertEquals(1001, cp2.datasetKey);
+    assertEquals(7, cp2.attempt);
+    assertFalse(cp2.isModified("fp2"));
+    assertFalse(cp2.isDone(ReleaseCheckpoint.Phase.COPY));
+    assertFalse(cp2.isCopied("Name"));
+    assertFalse(cp2.isMerged(12));
+  }
+
+  static DatasetImport attempt(ImportState state) {
+    DatasetImport di = new DatasetImport();
+    di.setDatasetKey(3);
+    di.setAttempt(7);
+    di.setState(state);
+    return di;
+  }
+}
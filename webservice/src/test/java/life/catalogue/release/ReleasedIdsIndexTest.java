@@ -0,0 +1,99 @@
+package life.catalogue.release;
+
+import life.catalogue.api.vocab.MatchType;
+import life.catalogue.api.vocab.TaxonomicStatus;
+
+import org.gbif.nameparser.api.Rank;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static life.catalogue.release.ReleasedIds.ReleasedId;
+import static org.junit.Assert.*;
+
+public class ReleasedIdsIndexTest {
+  File dir;
+
+  @Before
+  public void init() throws Exception {
+    dir = Files.createTempDirectory("released-ids").toFile();
+  }
+
+  @After
+  public void destroy() {
+    FileUtils.deleteQuietly(dir);
+  }
+
+  @Test
+  public void roundtrip() throws Exception {
+    var header = new ReleasedIdsIndex.Header(3, 100, 7, 13);
+    File f = ReleasedIdsIndex.file(dir, 3, 100);
+    List<ReleasedId> recent = List.of(
+      new ReleasedId(1, 10, 7, MatchType.EXACT, Rank.SPECIES, "Mill.", null, TaxonomicStatus.ACCEPTED, "Abies"),
+      new ReleasedId(2, 10, 7, MatchType.VARIANT, Rank.SPECIES, "L.", "sensu Döring", TaxonomicStatus.MISAPPLIED, "Pinus")
+    );
+    List<ReleasedId> old = List.of(
+      new ReleasedId(5, 11, 4, null, null, null, null, null, null)
+    );
+    assertEquals(3, ReleasedIdsIndex.write(f, header, recent, old));
+
+    ReleasedIds ids = new ReleasedIds();
+    assertEquals(3, ReleasedIdsIndex.read(f, header, ids));
+    assertEquals(3, ids.size());
+    assertEquals(5, ids.maxKey());
+    assertEquals(7, ids.getMaxAttempt());
+    assertEquals(2, ids.byNxId(10).length);
+
+    var r = ids.byId(2);
+    assertEquals(10, r.nxId);
+    assertEquals(7, r.attempt);
+    assertEquals(MatchType.VARIANT, r.matchType);
+    assertEquals(Rank.SPECIES, r.rank);
+    assertEquals("L.", r.authorship);
+    assertEquals("sensu Döring", r.phrase);
+    assertEquals(TaxonomicStatus.MISAPPLIED, r.status);
+    assertEquals("Pinus", r.parent);
+
+    r = ids.byId(5);
+    assertEquals(4, r.attempt);
+    assertNull(r.matchType);
+    assertNull(r.rank);
+    assertNull(r.authorship);
+    assertNull(r.status);
+
+    // different configs or releases are not read
+    assertEquals(-1, ReleasedIdsIndex.read(f, new ReleasedIdsIndex.Header(3, 100, 7, 14), new ReleasedIds()));
+    assertEquals(-1, ReleasedIdsIndex.read(f, new ReleasedIdsIndex.Header(3, 101, 8, 13), new ReleasedIds()));
+  }
+
+  @Test(expected = java.io.EOFException.class)
+  public void truncated() throws Exception {
+    var header = new ReleasedIdsIndex.Header(3, 100, 7, 13);
+    File f = ReleasedIdsIndex.file(dir, 3, 100);
+    ReleasedIdsIndex.write(f, header, List.of(new ReleasedId(1, 10, 7, MatchType.EXACT, Rank.SPECIES, "Mill.", null, TaxonomicStatus.ACCEPTED, "Abies")));
+    try (RandomAccessFile raf = new RandomAccessFile(f, "rw")) {
+      raf.setLength(raf.length() - 4);
+    }
+    ReleasedIdsIndex.read(f, header, new ReleasedIds());
+  }
+
+  @Test
+  public void cleanup() throws Exception {
+    for (int i = 1; i <= ReleasedIdsIndex.KEEP + 2; i++) {
+      File f = ReleasedIdsIndex.file(dir, 3, i);
+      ReleasedIdsIndex.write(f, new ReleasedIdsIndex.Header(3, i, i, 1), List.of());
+      f.setLastModified(i * 100000L);
+    }
+    File[] files = ReleasedIdsIndex.file(dir, 3, 1).getParentFile().listFiles();
+    assertEquals(ReleasedIdsIndex.KEEP, files.length);
+    assertFalse(ReleasedIdsIndex.file(dir, 3, 1).exists());
+    assertTrue(ReleasedIdsIndex.file(dir, 3, ReleasedIdsIndex.KEEP + 2).exists());
+  }
+}
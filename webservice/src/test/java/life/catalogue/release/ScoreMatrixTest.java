@@ -24,7 +24,7 @@ public class ScoreMatrixTest {
     sn.setName("Abies alba");
     sn.setAuthorship(authorship);
     ReleasedIds.ReleasedId rid = new ReleasedIds.ReleasedId(id,attempt,sn);
-    ScoreMatrix.ReleaseMatch m = new ScoreMatrix.ReleaseMatch(1,1,1, sn, rid);
+    ScoreMatrix.ReleaseMatch m = new ScoreMatrix.ReleaseMatch(1, sn, rid);
     return m;
   }
   @Test
@@ -59,19 +59,20 @@ public class ScoreMatrixTest {
     rids[3] = rid(4,1);
     rids[4] = rid(5,1);
     var sm = new ScoreMatrix(names, rids, (sn, rid) -> (Integer.parseInt(sn.getId())-rid.id) / rid.attempt);
-    sm.printMatrix();
+    // only positive scores are counted
+    assertEquals(22, sm.size());
 
+    var matches = sm.assign();
+    assertEquals(4, matches.size());
     int score = 4;
-    var m = sm.highest();
-    while(!m.isEmpty()) {
-      sm.printMatrix();
-      assertFalse(m.isEmpty());
-      assertEquals(score, m.get(0).score);
-      sm.remove(m.get(0));
-      score--;
-      m = sm.highest();
+    for (var m : matches) {
+      assertEquals(score--, m.score);
     }
-    assertEquals(0, score);
+    assertMatch(matches.get(0), 4, "8");
+    // equal scores prefer the lowest id
+    assertMatch(matches.get(1), 1, "7");
+    assertMatch(matches.get(2), 2, "6");
+    assertMatch(matches.get(3), 3, "5");
   }
 
   @Test
@@ -89,28 +90,58 @@ public class ScoreMatrixTest {
       }
       return sc.getAndIncrement();
     });
-    sm.printMatrix();
-
-    var matches = sm.highest();
-    assertEquals(1, matches.size());
-    var m = matches.get(0);
-    assertEquals(11, m.score);
-    assertEquals(1, m.rid.id);
-    assertEquals("2", m.name.getId());
-    sm.remove(m);
-    sm.printMatrix();
-
-    matches = sm.highest();
-    assertEquals(1, matches.size());
-    m = matches.get(0);
-    assertEquals(10, m.score);
-    assertEquals(2, m.rid.id);
-    assertEquals("1", m.name.getId());
-    sm.remove(m);
-    sm.printMatrix();
-
-    matches = sm.highest();
-    assertTrue(matches.isEmpty());
+    assertEquals(2, sm.size());
+
+    var matches = sm.assign();
+    assertEquals(2, matches.size());
+    assertEquals(11, matches.get(0).score);
+    assertMatch(matches.get(0), 1, "2");
+    assertEquals(10, matches.get(1).score);
+    assertMatch(matches.get(1), 2, "1");
+  }
+
+  /**
+   * A single name scoring equally against several ids must only be assigned once.
+   */
+  @Test
+  public void distinctNames() {
+    List<SimpleNameWithNidx> names = List.of(sn(1), sn(2));
+    ReleasedIds.ReleasedId[] rids = new ReleasedIds.ReleasedId[]{rid(7,1), rid(5,1), rid(6,1)};
+    var sm = new ScoreMatrix(names, rids, (sn, rid) -> sn.getId().equals("1") ? 5 : 1);
+
+    var matches = sm.assign();
+    assertEquals(2, matches.size());
+    assertMatch(matches.get(0), 5, "1");
+    assertMatch(matches.get(1), 6, "2");
+  }
+
+  @Test
+  public void largeGroup() {
+    final int size = 1000;
+    List<SimpleNameWithNidx> names = new ArrayList<>();
+    ReleasedIds.ReleasedId[] rids = new ReleasedIds.ReleasedId[size];
+    for (int i = 0; i < size; i++) {
+      names.add(sn(i));
+      rids[i] = rid(size - i, 1);
+    }
+    assertTrue((long) size * size > ScoreMatrix.PARALLEL_THRESHOLD);
+    // every name only matches the id with the same number
+    var sm = new ScoreMatrix(names, rids, (sn, rid) -> Integer.parseInt(sn.getId()) == rid.id ? 1 : 0);
+    // only the matching pairs are kept
+    assertEquals(size - 1, sm.size());
+
+    var matches = sm.assign();
+    assertEquals(size - 1, matches.size());
+    int id = 1;
+    for (var m : matches) {
+      assertMatch(m, id, String.valueOf(id));
+      id++;
+    }
+  }
+
+  static void assertMatch(ScoreMatrix.ReleaseMatch m, int id, String nameId) {
+    assertEquals(id, m.rid.id);
+    assertEquals(nameId, m.name.getId());
   }
 
   static SimpleNameWithNidx sn(int id) {
@@ -46,6 +46,7 @@ import org.slf4j.LoggerFactory;
 
 import com.google.common.eventbus.EventBus;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
@@ -264,6 +265,51 @@ public class XReleaseIT extends SectorSyncTestBase {
     assertTree(xreleaseKey, getClass().getResourceAsStream("/txtree/" + project + "/xrelease.txtree"));
 
     conditionalChecks(project, xrel);
+
+    // a concurrent merge must issue the very same ids as the serial one
+    final int threads = xCfg.mergeThreads;
+    try {
+      xCfg.mergeThreads = 4;
+      assertEquals(usages(xreleaseKey), usages(rerun(releaseKey, "CONCURRENT")));
+    } finally {
+      xCfg.mergeThreads = threads;
+    }
+
+    // all sources are smaller than the default lookahead, so compare with no prefetching and many small chunks
+    final int lookahead = xCfg.mergeLookahead;
+    try {
+      xCfg.mergeLookahead = 1;
+      assertEquals(usages(xreleaseKey), usages(rerun(releaseKey, "UNCHUNKED")));
+      xCfg.mergeLookahead = 3;
+      assertEquals(usages(xreleaseKey), usages(rerun(releaseKey, "CHUNKED")));
+    } finally {
+      xCfg.mergeLookahead = lookahead;
+    }
+  }
+
+  /**
+   * Runs another extended release of the given release with the current config.
+   * @return key of the new xrelease
+   */
+  private int rerun(int releaseKey, String label) {
+    XRelease xrel = projectCopyFactory.buildExtendedRelease(releaseKey, Users.RELEASER);
+    xrel.setCfg(xCfg);
+    System.out.println("\n*** " + label + " XRELEASE " + xrel.getNewDatasetKey() + " ***");
+    new Thread(xrel).run();
+    return xrel.getNewDatasetKey();
+  }
+
+  /**
+   * @return all usages of a dataset as labels including their status and parent keyed on their id
+   */
+  private static Map<String, String> usages(int datasetKey) {
+    Map<String, String> usages = new HashMap<>();
+    try (SqlSession session = SqlSessionFactoryRule.getSqlSessionFactory().openSession(true)) {
+      session.getMapper(NameUsageMapper.class).processDataset(datasetKey, null, null).forEach(u ->
+        usages.put(u.getId(), u.getLabel() + " " + u.getStatus() + " parent=" + u.getParentId())
+      );
+    }
+    return usages;
   }
 
   private void conditionalChecks(String project, XRelease xrel) {